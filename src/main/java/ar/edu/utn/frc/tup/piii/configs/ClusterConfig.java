@@ -0,0 +1,38 @@
+package ar.edu.utn.frc.tup.piii.configs;
+
+import ar.edu.utn.frc.tup.piii.engine.cluster.ClusterBus;
+import ar.edu.utn.frc.tup.piii.engine.cluster.LoopbackClusterBus;
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Mensajería entre nodos. Sin otro {@link ClusterBus} declarado, todo queda dentro de la JVM.
+ * Con {@code teg.cluster.admin-port} el servidor abre además ese puerto interno, el único por el
+ * que se atiende la operación del cluster.
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(ClusterBus.class)
+    public LoopbackClusterBus clusterBus() {
+        return new LoopbackClusterBus();
+    }
+
+    @Bean
+    @ConditionalOnExpression("${teg.cluster.admin-port:0} > 0")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> clusterAdminConnector(
+            @Value("${teg.cluster.admin-port}") int adminPort) {
+        return factory -> {
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(adminPort);
+            factory.addAdditionalTomcatConnectors(connector);
+        };
+    }
+}
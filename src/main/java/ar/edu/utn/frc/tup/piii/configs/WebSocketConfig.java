@@ -0,0 +1,164 @@
+package ar.edu.utn.frc.tup.piii.configs;
+
+import ar.edu.utn.frc.tup.piii.service.impl.PlayerPrincipal;
+import ar.edu.utn.frc.tup.piii.service.impl.PresenceRegistry;
+import ar.edu.utn.frc.tup.piii.service.impl.SessionOutboundQueues;
+import ar.edu.utn.frc.tup.piii.service.impl.SpectatorFeed;
+import ar.edu.utn.frc.tup.piii.service.impl.StompAuthenticator;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP sobre WebSocket. Los clientes se conectan a {@code /ws}, se suscriben a
+ * {@code /topic/games/{gameId}} (parches y notificaciones de la partida) y a
+ * {@code /user/queue/player} (estado completo y mensajes propios), y envían a {@code /app}.
+ * <p>
+ * El CONNECT de un jugador trae su JWT y su {@code player-id}; {@link StompAuthenticator} los
+ * verifica y la sesión queda con ese jugador como {@code Principal}. Las colas son sólo de usuario:
+ * nadie se suscribe a {@code /queue/**} directo ni manda a los destinos del broker.
+ * Cada sesión tiene su cola de salida acotada ({@link SessionOutboundQueues}), y todo lo que manda
+ * el cliente, heartbeats incluidos, la mantiene viva en {@link PresenceRegistry}.
+ * <p>
+ * Los espectadores van por {@code /topic/spectate/{gameId}/{demora}}, con las demoras de
+ * {@link SpectatorFeed}; el canal en vivo de la partida es sólo para sus jugadores autenticados.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+    private static final long HEARTBEAT_MILLIS = 10_000;
+    private static final String GAME_TOPIC = "/topic/games/";
+    private static final String SPECTATE_TOPIC = "/topic/spectate/";
+    private static final String BROADCAST_TOPIC = "/topic/all";
+    private static final String USER_QUEUE = "/user/queue/";
+    private static final String APP_PREFIX = "/app";
+
+    private final SessionOutboundQueues outboundQueues;
+    private final PresenceRegistry presence;
+    private final StompAuthenticator authenticator;
+    private final SpectatorFeed spectatorFeed;
+
+    public WebSocketConfig(SessionOutboundQueues outboundQueues, PresenceRegistry presence,
+                           StompAuthenticator authenticator, SpectatorFeed spectatorFeed) {
+        this.outboundQueues = outboundQueues;
+        this.presence = presence;
+        this.authenticator = authenticator;
+        this.spectatorFeed = spectatorFeed;
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setThreadNamePrefix("ws-heartbeat-");
+        heartbeats.setDaemon(true);
+        heartbeats.initialize();
+        registry.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{HEARTBEAT_MILLIS, HEARTBEAT_MILLIS})
+                .setTaskScheduler(heartbeats);
+        registry.setApplicationDestinationPrefixes(APP_PREFIX);
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(inboundInterceptor());
+    }
+
+    ChannelInterceptor inboundInterceptor() {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (sessionId != null) {
+                    presence.touch(sessionId);
+                }
+                authenticate(message);
+                return isAllowed(message) ? message : null;
+            }
+        };
+    }
+
+    /** Credenciales inválidas en el CONNECT lo rechazan; sin credenciales la sesión es anónima. */
+    private void authenticate(Message<?> message) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return;
+        }
+        PlayerPrincipal player = authenticator.authenticate(
+                accessor.getFirstNativeHeader(StompAuthenticator.AUTHORIZATION_HEADER),
+                accessor.getFirstNativeHeader(StompAuthenticator.PLAYER_HEADER));
+        if (player != null) {
+            accessor.setUser(player);
+        }
+    }
+
+    /**
+     * Los clientes sólo mandan a {@code /app}. Las suscripciones son a destinos concretos de una
+     * lista cerrada: {@code /user/queue/...}, {@code /topic/all}, {@code /topic/spectate/{gameId}/{demora}}
+     * con una demora configurada y {@code /topic/games/{gameId}} para los jugadores de esa partida.
+     * El broker simple resuelve {@code *}, {@code ?} y {@code {...}} como patrones, así que un
+     * destino con esos caracteres se rechaza antes de mirar el prefijo.
+     */
+    private boolean isAllowed(Message<?> message) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (type == SimpMessageType.MESSAGE) {
+            return destination != null && destination.startsWith(APP_PREFIX + "/");
+        }
+        if (type != SimpMessageType.SUBSCRIBE) {
+            return true;
+        }
+        if (destination == null || isPattern(destination)) {
+            return false;
+        }
+        if (destination.startsWith(USER_QUEUE) || destination.equals(BROADCAST_TOPIC)) {
+            return true;
+        }
+        if (destination.startsWith(SPECTATE_TOPIC)) {
+            return isSpectatorChannel(destination.substring(SPECTATE_TOPIC.length()));
+        }
+        return destination.startsWith(GAME_TOPIC)
+                && SimpMessageHeaderAccessor.getUser(message.getHeaders()) instanceof PlayerPrincipal player
+                && destination.equals(GAME_TOPIC + player.gameId());
+    }
+
+    private static boolean isPattern(String destination) {
+        return destination.indexOf('*') >= 0 || destination.indexOf('?') >= 0 || destination.indexOf('{') >= 0;
+    }
+
+    /** {@code {gameId}/{demora}}, con una demora de las que arma {@link SpectatorFeed}. */
+    private boolean isSpectatorChannel(String channel) {
+        int slash = channel.indexOf('/');
+        if (slash <= 0) {
+            return false;
+        }
+        try {
+            Long.parseLong(channel.substring(0, slash));
+            return spectatorFeed.isDelay(Integer.parseInt(channel.substring(slash + 1)));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(outboundQueues::decorate);
+    }
+}
@@ -0,0 +1,53 @@
+package ar.edu.utn.frc.tup.piii.controllers;
+
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.exception.PlayerAccessDeniedException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Operación del cluster; cada pedido actúa sobre el nodo que lo recibe. Sólo se atiende por el
+ * puerto interno {@code teg.cluster.admin-port}: sin él configurado, nadie puede operar el cluster.
+ */
+@RestController
+@RequestMapping("/api/cluster")
+public class ClusterController {
+    private final GameCluster gameCluster;
+    private final int adminPort;
+
+    public ClusterController(GameCluster gameCluster, @Value("${teg.cluster.admin-port:0}") int adminPort){
+        this.gameCluster = gameCluster;
+        this.adminPort = adminPort;
+    }
+
+    @PostMapping("/games/{gameId}/migrate")
+    public ResponseEntity<Void> migrate(@PathVariable Long gameId, @RequestParam String node, HttpServletRequest request){
+        checkAdminPort(request);
+        gameCluster.migrate(gameId, node);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/rebalance")
+    public ResponseEntity<Integer> rebalance(HttpServletRequest request){
+        checkAdminPort(request);
+        return ResponseEntity.ok(gameCluster.rebalance());
+    }
+
+    @PostMapping("/drain")
+    public ResponseEntity<Integer> drain(HttpServletRequest request){
+        checkAdminPort(request);
+        return ResponseEntity.ok(gameCluster.drain());
+    }
+
+    private void checkAdminPort(HttpServletRequest request){
+        if (adminPort <= 0 || request.getLocalPort() != adminPort) {
+            throw new PlayerAccessDeniedException("Cluster operations are only served on the admin port");
+        }
+    }
+}
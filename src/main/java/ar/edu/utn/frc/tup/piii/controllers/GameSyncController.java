@@ -0,0 +1,31 @@
+package ar.edu.utn.frc.tup.piii.controllers;
+
+import ar.edu.utn.frc.tup.piii.exception.PlayerAccessDeniedException;
+import ar.edu.utn.frc.tup.piii.service.impl.PlayerPrincipal;
+import ar.edu.utn.frc.tup.piii.service.interfaces.WebSocketService;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+
+/**
+ * Pedidos STOMP de resincronización: el estado completo llega a {@code /user/queue/player}. Sólo
+ * lo puede pedir la sesión autenticada como ese jugador de esa partida.
+ */
+@Controller
+public class GameSyncController {
+    private final WebSocketService webSocketService;
+
+    public GameSyncController(WebSocketService webSocketService){
+        this.webSocketService = webSocketService;
+    }
+
+    @MessageMapping("/games/{gameId}/players/{playerId}/sync")
+    public void sync(@DestinationVariable Long gameId, @DestinationVariable Long playerId, Principal principal){
+        if (!(principal instanceof PlayerPrincipal player) || !player.is(gameId, playerId)) {
+            throw new PlayerAccessDeniedException("Session is not authenticated as player " + playerId);
+        }
+        webSocketService.sendGameState(gameId, playerId);
+    }
+}
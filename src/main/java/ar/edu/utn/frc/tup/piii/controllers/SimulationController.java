@@ -0,0 +1,26 @@
+package ar.edu.utn.frc.tup.piii.controllers;
+
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationRequestDto;
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationResultDto;
+import ar.edu.utn.frc.tup.piii.service.interfaces.SimulationService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/simulations")
+public class SimulationController {
+    private final SimulationService simulationService;
+
+    public SimulationController(SimulationService simulationService){
+        this.simulationService = simulationService;
+    }
+
+    @PostMapping("/attack")
+    public ResponseEntity<SimulationResultDto> simulateAttack(@Valid @RequestBody SimulationRequestDto dto){
+        return ResponseEntity.ok(simulationService.simulate(dto));
+    }
+}
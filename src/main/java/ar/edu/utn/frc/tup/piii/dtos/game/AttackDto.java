@@ -29,4 +29,6 @@ public class AttackDto {
 
     @Min(value = 1, message = "Must use at least 1 die")
     private Integer defenderDice;
-}
\ No newline at end of file
+
+    private Long expectedVersion; // si viene y no coincide con la versión de la partida, se rechaza
+}
@@ -0,0 +1,29 @@
+package ar.edu.utn.frc.tup.piii.dtos.game;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlitzAttackDto {
+    @NotNull(message = "Attacker country ID is required")
+    private Long attackerCountryId;
+
+    @NotNull(message = "Defender country ID is required")
+    private Long defenderCountryId;
+
+    @NotNull(message = "Player ID is required")
+    private Long playerId;
+
+    @Min(value = 1, message = "At least 1 army must stay in the attacking country")
+    private Integer stopAtArmies; // el ataque se detiene al quedar esta cantidad en el origen
+
+    @Min(value = 1, message = "At least 1 army must move into the conquered country")
+    private Integer movingArmies;
+}
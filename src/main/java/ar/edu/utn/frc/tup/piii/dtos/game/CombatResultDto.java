@@ -25,4 +25,5 @@ public class CombatResultDto {
     private Boolean territoryConquered;
     private Integer attackerRemainingArmies;
     private Integer defenderRemainingArmies;
+    private Integer rounds; // tiradas resueltas; más de una en un ataque relámpago
 }
@@ -21,4 +21,6 @@ public class FortifyDto {
 
     @Min(value = 1, message = "Must move at least 1 army")
     private Integer armies;
+
+    private Long expectedVersion; // si viene y no coincide con la versión de la partida, se rechaza
 }
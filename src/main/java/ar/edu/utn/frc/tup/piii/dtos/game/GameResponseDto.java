@@ -20,6 +20,7 @@ public class GameResponseDto {
     private String gameCode;
     private String createdByUsername;
     private GameStatus status;
+    private Long version;
     private GamePhase currentPhase;
     private Integer currentTurn;
     private Integer currentPlayerIndex;
@@ -21,6 +21,7 @@ import java.util.Map;
 public class GameStateDto {
     private Long gameId;
     private GameStatus status;
+    private Long version;
     private GamePhase currentPhase;
     private Integer currentTurn;
     private String currentPlayerName;
@@ -21,4 +21,6 @@ public class ReinforcementDto {
 
     @Min(value = 1, message = "Total armies must be positive")
     private Integer totalArmies;
+
+    private Long expectedVersion; // si viene y no coincide con la versión de la partida, se rechaza
 }
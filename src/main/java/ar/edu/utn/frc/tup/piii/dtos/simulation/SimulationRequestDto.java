@@ -0,0 +1,47 @@
+package ar.edu.utn.frc.tup.piii.dtos.simulation;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimulationRequestDto {
+    public static final int MAX_ARMIES = 10_000;
+    public static final int MAX_PATH = 64;
+
+    // Con partida: los ejércitos se leen de los territorios actuales
+    private Long gameId;
+    private Long fromCountryId;
+    @Size(max = MAX_PATH, message = "A path cannot have more than " + MAX_PATH + " countries")
+    private List<Long> pathCountryIds; // países a conquistar en orden, cada uno limítrofe del anterior
+
+    // Sin partida: escenario hipotético
+    @Min(value = 2, message = "At least 2 armies are required to attack")
+    @Max(value = MAX_ARMIES, message = "At most " + MAX_ARMIES + " attacking armies can be simulated")
+    private Integer attackerArmies;
+    @Size(max = MAX_PATH, message = "A path cannot have more than " + MAX_PATH + " countries")
+    private List<@Min(value = 1, message = "Every defending country has at least 1 army")
+            @Max(value = MAX_ARMIES, message = "At most " + MAX_ARMIES + " defending armies can be simulated")
+            Integer> defenderArmies; // ejércitos de cada país del camino, en orden
+
+    @Min(value = 1, message = "At least 1 army must stay in the attacking country")
+    private Integer stopAtArmies;
+
+    @Min(value = 1, message = "At least 1 trial is required")
+    private Integer trials;
+
+    @Min(value = 1, message = "CPU budget must be at least 1 ms")
+    @Max(value = 60_000, message = "CPU budget cannot exceed 60 seconds")
+    private Long cpuBudgetMillis;
+
+    private Long seed; // opcional, para reproducir una simulación
+}
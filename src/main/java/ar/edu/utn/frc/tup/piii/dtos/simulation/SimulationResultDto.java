@@ -0,0 +1,24 @@
+package ar.edu.utn.frc.tup.piii.dtos.simulation;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimulationResultDto {
+    private Long trials; // corridas completadas, puede ser menor a las pedidas si se agotó el presupuesto
+    private Double conquestProbability; // probabilidad de conquistar todo el camino
+    private List<Double> stepProbabilities; // probabilidad de conquistar al menos i+1 países del camino
+    private List<Double> survivingArmies; // distribución de ejércitos atacantes que quedan en pie al terminar
+    private Double expectedAttackerLosses;
+    private Double expectedDefenderLosses;
+    private Long cpuTimeMillis;
+    private Boolean budgetExhausted;
+    private Boolean cancelled;
+}
@@ -0,0 +1,35 @@
+package ar.edu.utn.frc.tup.piii.dtos.websocket;
+
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Cambios de una partida desde {@code baseVersion} hasta {@code version}. Un cliente que no está en
+ * {@code baseVersion} perdió un parche y tiene que pedir el estado completo; si {@code full} es true
+ * trae todos los territorios y jugadores y se aplica sobre cualquier versión.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStatePatchDto {
+    private Long gameId;
+    private Long baseVersion;
+    private Long version;
+    private Boolean full;
+    // Solo los campos que cambiaron
+    private GameStatus status;
+    private GamePhase currentPhase;
+    private Integer currentTurn;
+    private Long currentPlayerId;
+    private List<TerritoryPatchDto> territories;
+    private List<PlayerPatchDto> players;
+}
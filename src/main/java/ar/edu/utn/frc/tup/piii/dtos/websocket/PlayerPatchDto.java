@@ -0,0 +1,17 @@
+package ar.edu.utn.frc.tup.piii.dtos.websocket;
+
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlayerPatchDto {
+    private Long playerId;
+    private PlayerStatus status;
+    private Integer armiesToPlace;
+}
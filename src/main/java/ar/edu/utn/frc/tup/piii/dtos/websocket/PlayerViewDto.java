@@ -0,0 +1,22 @@
+package ar.edu.utn.frc.tup.piii.dtos.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Lo que sólo ve el dueño del asiento: su objetivo y su mano. Viaja aparte de los parches públicos. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlayerViewDto {
+    private Long gameId;
+    private Long playerId;
+    private Long version;
+    private Long objectiveId; // null si todavía no tiene
+    private List<Long> cardCountryIds;
+    private Integer wildcards;
+}
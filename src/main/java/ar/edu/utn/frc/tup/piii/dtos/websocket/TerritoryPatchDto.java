@@ -0,0 +1,16 @@
+package ar.edu.utn.frc.tup.piii.dtos.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TerritoryPatchDto {
+    private Long countryId;
+    private Long ownerId; // null si es neutral
+    private Integer armies;
+}
@@ -0,0 +1,31 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Mensajería entre nodos: difusión por tema y pedidos punto a punto a un nodo. Los payloads son bytes
+ * ya serializados y no se modifican después de entregarlos.
+ * <p>
+ * {@link LoopbackClusterBus} resuelve todo dentro de la JVM; un broker externo se enchufa declarando
+ * otro bean de este tipo.
+ */
+public interface ClusterBus {
+
+    /** Entrega el payload a todos los suscriptos al tema, incluido el nodo que publica, en orden. */
+    void publish(String topic, byte[] payload);
+
+    Subscription subscribe(String topic, Consumer<byte[]> listener);
+
+    /** Pedido al nodo; el futuro falla con {@code NodeUnavailableException} si nadie lo atiende. */
+    CompletableFuture<byte[]> request(String node, byte[] payload);
+
+    /** Atiende los pedidos dirigidos a {@code node}. */
+    Subscription serve(String node, Function<byte[], byte[]> handler);
+
+    interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
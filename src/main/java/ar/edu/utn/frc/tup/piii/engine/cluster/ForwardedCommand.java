@@ -0,0 +1,191 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un comando sobre una partida tal como viaja al nodo dueño. Cada comando es su propio record y
+ * viaja con su {@link #type()}, que también es el nombre con el que se mide y se registra.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = ForwardedCommand.Reinforce.class, name = ForwardedCommand.REINFORCE),
+        @JsonSubTypes.Type(value = ForwardedCommand.Fortify.class, name = ForwardedCommand.FORTIFY),
+        @JsonSubTypes.Type(value = ForwardedCommand.Attack.class, name = ForwardedCommand.ATTACK),
+        @JsonSubTypes.Type(value = ForwardedCommand.RollDice.class, name = ForwardedCommand.ROLL_DICE),
+        @JsonSubTypes.Type(value = ForwardedCommand.NextPhase.class, name = ForwardedCommand.NEXT_PHASE),
+        @JsonSubTypes.Type(value = ForwardedCommand.NextTurn.class, name = ForwardedCommand.NEXT_TURN),
+        @JsonSubTypes.Type(value = ForwardedCommand.EndGame.class, name = ForwardedCommand.END_GAME),
+        @JsonSubTypes.Type(value = ForwardedCommand.PauseGame.class, name = ForwardedCommand.PAUSE_GAME),
+        @JsonSubTypes.Type(value = ForwardedCommand.DeleteGame.class, name = ForwardedCommand.DELETE_GAME),
+        @JsonSubTypes.Type(value = ForwardedCommand.RestoreGame.class, name = ForwardedCommand.RESTORE_GAME),
+        @JsonSubTypes.Type(value = ForwardedCommand.TradeCards.class, name = ForwardedCommand.TRADE_CARDS),
+        @JsonSubTypes.Type(value = ForwardedCommand.Conquer.class, name = ForwardedCommand.CONQUER),
+        @JsonSubTypes.Type(value = ForwardedCommand.CheckElimination.class, name = ForwardedCommand.CHECK_ELIMINATION),
+        @JsonSubTypes.Type(value = ForwardedCommand.AssignOwner.class, name = ForwardedCommand.ASSIGN_OWNER),
+        @JsonSubTypes.Type(value = ForwardedCommand.AddArmies.class, name = ForwardedCommand.ADD_ARMIES),
+        @JsonSubTypes.Type(value = ForwardedCommand.SetArmies.class, name = ForwardedCommand.SET_ARMIES),
+        @JsonSubTypes.Type(value = ForwardedCommand.SyncPlayer.class, name = ForwardedCommand.SYNC_PLAYER),
+        @JsonSubTypes.Type(value = ForwardedCommand.SyncGame.class, name = ForwardedCommand.SYNC_GAME)
+})
+public sealed interface ForwardedCommand {
+    String REINFORCE = "reinforce";
+    String FORTIFY = "fortify";
+    String ATTACK = "attack";
+    String ROLL_DICE = "rollDice";
+    String NEXT_PHASE = "nextPhase";
+    String NEXT_TURN = "nextTurn";
+    String END_GAME = "endGame";
+    String PAUSE_GAME = "pauseGame";
+    String DELETE_GAME = "deleteGame";
+    String RESTORE_GAME = "restoreGame";
+    String TRADE_CARDS = "tradeCards";
+    String CONQUER = "conquer";
+    String CHECK_ELIMINATION = "checkElimination";
+    String ASSIGN_OWNER = "assignOwner";
+    String ADD_ARMIES = "addArmies";
+    String SET_ARMIES = "setArmies";
+    String SYNC_PLAYER = "syncPlayer";
+    String SYNC_GAME = "syncGame";
+
+    String type();
+
+    Long gameId();
+
+    record Reinforce(Long gameId, Long playerId, Map<Long, Integer> reinforcements, Long expectedVersion)
+            implements ForwardedCommand {
+        @Override
+        public String type() {
+            return REINFORCE;
+        }
+    }
+
+    record Fortify(Long gameId, Long playerId, Long fromCountryId, Long toCountryId, int armies,
+                   Long expectedVersion) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return FORTIFY;
+        }
+    }
+
+    /** {@code moving} es lo que el atacante pidió pasar si conquista; null mueve lo mínimo. */
+    record Attack(Long gameId, Long playerId, Long fromCountryId, Long toCountryId, Integer attackerDice,
+                  int stopAtArmies, int maxRounds, Integer moving, Long expectedVersion) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return ATTACK;
+        }
+    }
+
+    record RollDice(Long gameId, int attackerDice, int defenderDice) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return ROLL_DICE;
+        }
+    }
+
+    record NextPhase(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return NEXT_PHASE;
+        }
+    }
+
+    record NextTurn(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return NEXT_TURN;
+        }
+    }
+
+    record EndGame(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return END_GAME;
+        }
+    }
+
+    record PauseGame(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return PAUSE_GAME;
+        }
+    }
+
+    record DeleteGame(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return DELETE_GAME;
+        }
+    }
+
+    record RestoreGame(Long gameId, Long snapshotId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return RESTORE_GAME;
+        }
+    }
+
+    /** {@code cardIds} son tarjetas de la mano del jugador. */
+    record TradeCards(Long gameId, Long playerId, List<Long> cardIds) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return TRADE_CARDS;
+        }
+    }
+
+    /** El jugador conquista {@code toCountryId} pasando {@code armies} ejércitos desde {@code fromCountryId}. */
+    record Conquer(Long gameId, Long playerId, Long fromCountryId, Long toCountryId, int armies)
+            implements ForwardedCommand {
+        @Override
+        public String type() {
+            return CONQUER;
+        }
+    }
+
+    record CheckElimination(Long gameId, Long playerId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return CHECK_ELIMINATION;
+        }
+    }
+
+    record AssignOwner(Long gameId, Long playerId, Long countryId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return ASSIGN_OWNER;
+        }
+    }
+
+    /** Suma {@code armies} al país; con un valor negativo, los quita. */
+    record AddArmies(Long gameId, Long countryId, int armies) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return ADD_ARMIES;
+        }
+    }
+
+    record SetArmies(Long gameId, Long countryId, int armies) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return SET_ARMIES;
+        }
+    }
+
+    record SyncPlayer(Long gameId, Long playerId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return SYNC_PLAYER;
+        }
+    }
+
+    record SyncGame(Long gameId) implements ForwardedCommand {
+        @Override
+        public String type() {
+            return SYNC_GAME;
+        }
+    }
+}
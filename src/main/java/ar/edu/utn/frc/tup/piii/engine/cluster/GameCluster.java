@@ -0,0 +1,558 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.game.GameCommandRetry;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameImage;
+import ar.edu.utn.frc.tup.piii.exception.GameMovedException;
+import ar.edu.utn.frc.tup.piii.exception.NodeUnavailableException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Reparte las partidas entre los nodos con un {@link HashRing} sobre el id de partida. Sólo el nodo
+ * dueño tiene la partida en su {@link GameEngine}; los comandos que llegan a otro nodo se reenvían al
+ * dueño por el {@link ClusterBus} y se espera su respuesta, con sus excepciones reconstruidas desde
+ * un {@link RemoteError}.
+ * <p>
+ * Los miembros salen de {@code teg.cluster.nodes} y este nodo es {@code teg.cluster.node-id}; con
+ * los valores por defecto hay un único nodo y nada se reenvía.
+ * <p>
+ * Una partida en curso se puede pasar a otro nodo con {@link #migrate(Long, String)}, en dos fases:
+ * el motor la congela en su buzón y la escribe, el nodo nuevo guarda la imagen del estado como
+ * pendiente sin atender la partida, y recién cuando el viejo anuncia el "pin" en
+ * {@code cluster.ownership} (que le gana al anillo) la instala y la atiende. Si la imagen no llega o
+ * no se sabe si llegó, el viejo le pregunta al nuevo antes de volver atrás: si la tiene pendiente
+ * anuncia el pin igual, y si no, se la hace descartar. Así nunca la atienden los dos. Los comandos
+ * que quedaron del lado viejo fallan con {@link GameMovedException} y se reenvían solos al nodo nuevo. Las sesiones no se mueven: los envíos ya viajan por el bus a todos los nodos, y el
+ * dueño nuevo arranca con un parche completo.
+ * <p>
+ * Los cambios de miembros también van por ese tema. Antes de que entre un nodo, cada nodo fija las
+ * partidas cargadas que el anillo nuevo le daría al que entra; {@link #rebalance()} las pasa después.
+ * Al apagarse, un nodo con compañeros primero se vacía con {@link #drain()}.
+ */
+@Component
+public class GameCluster {
+    private static final Logger log = LoggerFactory.getLogger(GameCluster.class);
+
+    static final String FORWARDED_METRIC = "teg.cluster.forwarded";
+    static final String MIGRATION_METRIC = "teg.cluster.migration";
+    static final String OWNERSHIP_TOPIC = "cluster.ownership";
+    private static final String MIGRATIONS = "/migrations";
+    private static final int MAX_REDIRECTS = 3;
+
+    private final ClusterBus bus;
+    private final GameEngine gameEngine;
+    private final GameCommandRetry commandRetry;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId;
+    private final long forwardTimeoutMillis;
+    private final int virtualNodes;
+    private final Map<Class<?>, Function<ForwardedCommand, Object>> handlers = new ConcurrentHashMap<>();
+    // Partidas que no están en el nodo que dice el anillo, por una migración
+    private final Map<Long, String> pins = new ConcurrentHashMap<>();
+    // Imágenes recibidas que esperan su pin, y el último traspaso confirmado de cada partida
+    private final Map<Long, Migration> pendingImages = new ConcurrentHashMap<>();
+    private final Map<Long, String> committed = new ConcurrentHashMap<>();
+    private final List<Consumer<Long>> ownershipListeners = new CopyOnWriteArrayList<>();
+    private final List<ClusterBus.Subscription> subscriptions = new ArrayList<>();
+    private volatile HashRing ring;
+
+    public GameCluster(ClusterBus bus, GameEngine gameEngine, GameCommandRetry commandRetry, ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry,
+                       @Value("${teg.cluster.node-id:local}") String nodeId,
+                       @Value("${teg.cluster.nodes:local}") List<String> nodes,
+                       @Value("${teg.cluster.virtual-nodes:128}") int virtualNodes,
+                       @Value("${teg.cluster.forward-timeout-ms:5000}") long forwardTimeoutMillis) {
+        if (!nodes.contains(nodeId)) {
+            throw new IllegalArgumentException("Node " + nodeId + " is not one of the cluster nodes " + nodes);
+        }
+        this.bus = bus;
+        this.gameEngine = gameEngine;
+        this.commandRetry = commandRetry;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.nodeId = nodeId;
+        this.forwardTimeoutMillis = forwardTimeoutMillis;
+        this.virtualNodes = virtualNodes;
+        this.ring = new HashRing(nodes, virtualNodes);
+        register(ForwardedCommand.Reinforce.class, c -> {
+            gameEngine.reinforce(c.gameId(), c.playerId(), c.reinforcements(), c.expectedVersion());
+            return null;
+        });
+        register(ForwardedCommand.Fortify.class, c -> {
+            gameEngine.fortify(c.gameId(), c.playerId(), c.fromCountryId(), c.toCountryId(), c.armies(),
+                    c.expectedVersion());
+            return null;
+        });
+        register(ForwardedCommand.Attack.class, c -> gameEngine.attack(c.gameId(), c.playerId(), c.fromCountryId(),
+                c.toCountryId(), c.attackerDice(), c.stopAtArmies(), c.maxRounds(), c.moving(), c.expectedVersion()));
+        register(ForwardedCommand.RollDice.class,
+                c -> gameEngine.rollDice(c.gameId(), c.attackerDice(), c.defenderDice()));
+        register(ForwardedCommand.NextPhase.class, c -> {
+            gameEngine.nextPhase(c.gameId());
+            return null;
+        });
+        register(ForwardedCommand.NextTurn.class, c -> {
+            gameEngine.nextTurn(c.gameId());
+            return null;
+        });
+        subscriptions.add(bus.serve(nodeId, this::handle));
+        subscriptions.add(bus.serve(nodeId + MIGRATIONS, this::receive));
+        subscriptions.add(bus.subscribe(OWNERSHIP_TOPIC, this::onChange));
+        // Si este nodo vuelve de un reinicio, los demás lo sacaron del anillo al vaciarlo
+        publish(new Change(Change.PREPARE, null, nodeId, null));
+        publish(new Change(Change.JOIN, null, nodeId, null));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ring.nodes().size() > 1) {
+            try {
+                drain();
+            } catch (RuntimeException e) {
+                log.warn("Could not drain node {} before shutdown", nodeId, e);
+            }
+        }
+        subscriptions.forEach(ClusterBus.Subscription::close);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public String ownerOf(Long gameId) {
+        String pinned = pins.get(gameId);
+        return pinned != null ? pinned : ring.ownerOf(gameId);
+    }
+
+    public List<String> nodes() {
+        return ring.nodes();
+    }
+
+    public boolean owns(Long gameId) {
+        return nodeId.equals(ownerOf(gameId));
+    }
+
+    /**
+     * Avisa cuando llega a este nodo una partida migrada, antes de instalar su estado; lo que se
+     * haya publicado acá de esa partida antes ya no sirve de base.
+     */
+    public void addOwnershipListener(Consumer<Long> listener) {
+        ownershipListeners.add(listener);
+    }
+
+    /** Agrega un tipo de comando que se ejecuta en el nodo dueño de la partida. */
+    public <C extends ForwardedCommand> void register(Class<C> type, Function<? super C, Object> handler) {
+        handlers.put(type, command -> handler.apply(type.cast(command)));
+    }
+
+    /**
+     * Agrega un comando que modifica la partida por JPA: corre en el nodo dueño, con la partida fuera
+     * del motor ({@link GameEngine#detached}) y en su propia transacción, que se repite si choca.
+     */
+    public <C extends ForwardedCommand> void registerDetached(Class<C> type, Consumer<? super C> work) {
+        register(type, c -> gameEngine.detached(c.gameId(), c.type(), () -> {
+            commandRetry.run(c.type(), () -> work.accept(c));
+            return null;
+        }));
+    }
+
+    public void reinforce(Long gameId, Long playerId, Map<Long, Integer> reinforcements, Long expectedVersion) {
+        execute(new ForwardedCommand.Reinforce(gameId, playerId, reinforcements, expectedVersion), Void.class);
+    }
+
+    public void fortify(Long gameId, Long playerId, Long fromCountryId, Long toCountryId, int armies,
+                        Long expectedVersion) {
+        execute(new ForwardedCommand.Fortify(gameId, playerId, fromCountryId, toCountryId, armies, expectedVersion),
+                Void.class);
+    }
+
+    public CombatResultDto attack(Long gameId, Long playerId, Long fromCountryId, Long toCountryId,
+                                  Integer attackerDice, int stopAtArmies, int maxRounds, Integer requestedMoving,
+                                  Long expectedVersion) {
+        return execute(new ForwardedCommand.Attack(gameId, playerId, fromCountryId, toCountryId, attackerDice,
+                stopAtArmies, maxRounds, requestedMoving, expectedVersion), CombatResultDto.class);
+    }
+
+    /** Dados de la próxima ronda de la partida, empaquetados; ver {@link GameEngine#rollDice}. */
+    public int rollDice(Long gameId, int attackerDice, int defenderDice) {
+        return execute(new ForwardedCommand.RollDice(gameId, attackerDice, defenderDice), Integer.class);
+    }
+
+    public void nextPhase(Long gameId) {
+        execute(new ForwardedCommand.NextPhase(gameId), Void.class);
+    }
+
+    public void nextTurn(Long gameId) {
+        execute(new ForwardedCommand.NextTurn(gameId), Void.class);
+    }
+
+    /**
+     * Ejecuta acá si este nodo es el dueño; si no, reenvía y espera la respuesta del dueño. Si la
+     * partida se mudó mientras tanto, sigue al nodo nuevo.
+     */
+    public <T> T execute(ForwardedCommand command, Class<T> resultType) {
+        String owner = ownerOf(command.gameId());
+        for (int redirects = 0; ; redirects++) {
+            try {
+                return execute(owner, command, resultType);
+            } catch (GameMovedException e) {
+                if (redirects == MAX_REDIRECTS) {
+                    throw new NodeUnavailableException("Game " + command.gameId() + " is moving between nodes");
+                }
+                owner = e.getNode();
+            }
+        }
+    }
+
+    /**
+     * Pasa la partida, que tiene que ser de este nodo, a {@code target}. Los jugadores sólo ven la
+     * pausa de escribir lo pendiente y mandar la imagen; si el destino no la recibe, vuelve acá.
+     */
+    public void migrate(Long gameId, String target) {
+        if (!owns(gameId)) {
+            throw new IllegalStateException("Game " + gameId + " is owned by node " + ownerOf(gameId));
+        }
+        if (!ring.contains(target)) {
+            throw new IllegalArgumentException("Unknown node " + target);
+        }
+        if (!nodeId.equals(target)) {
+            transfer(gameId, target);
+        }
+    }
+
+    /** Pasa a su nodo según el anillo las partidas cargadas acá que no le tocan. Devuelve cuántas. */
+    public int rebalance() {
+        int moved = 0;
+        for (Long gameId : gameEngine.loadedGames()) {
+            String target = ring.ownerOf(gameId);
+            if (owns(gameId) && !nodeId.equals(target)) {
+                transfer(gameId, target);
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Saca este nodo del anillo y pasa sus partidas cargadas a los demás, por ejemplo antes de un
+     * deploy. Las partidas se fijan acá antes de salir del anillo, así nadie las hidrata mientras
+     * tanto. Devuelve cuántas se movieron.
+     */
+    public int drain() {
+        if (!ring.contains(nodeId) || ring.nodes().size() < 2) {
+            return 0;
+        }
+        for (Long gameId : gameEngine.loadedGames()) {
+            if (owns(gameId)) {
+                publish(new Change(Change.PIN, gameId, nodeId, null));
+            }
+        }
+        publish(new Change(Change.LEAVE, null, nodeId, null));
+        int moved = 0;
+        for (Long gameId : gameEngine.loadedGames()) {
+            try {
+                transfer(gameId, ring.ownerOf(gameId));
+                moved++;
+            } catch (RuntimeException e) {
+                log.warn("Could not move game {} off node {}", gameId, nodeId, e);
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Prepara la imagen en {@code target} y confirma con el pin. Si algo falla a mitad de camino, lo
+     * que decide es el estado del traspaso en el destino: sólo se vuelve atrás si no lo tiene.
+     */
+    private void transfer(Long gameId, String target) {
+        String token = UUID.randomUUID().toString();
+        Timer.Sample pause = Timer.start(meterRegistry);
+        try {
+            gameEngine.handOff(gameId, target, image -> {
+                try {
+                    Reply reply = request(target + MIGRATIONS, new Migration(Migration.PREPARE, token, gameId, image),
+                            "migration of game " + gameId);
+                    if (reply.error() != null) {
+                        throw reply.error().toException(reply.message(), reply.node());
+                    }
+                } catch (RuntimeException e) {
+                    if (!Migration.PREPARED.equals(migrationStatus(target, gameId, token))) {
+                        abort(target, gameId, token);
+                        throw e;
+                    }
+                }
+                try {
+                    publish(new Change(Change.PIN, gameId, target, token));
+                } catch (RuntimeException e) {
+                    if (!Migration.COMMITTED.equals(migrationStatus(target, gameId, token))) {
+                        abort(target, gameId, token);
+                        throw e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            pause.stop(meterRegistry.timer(MIGRATION_METRIC, "outcome", "failed"));
+            throw e;
+        }
+        pause.stop(meterRegistry.timer(MIGRATION_METRIC, "outcome", "moved"));
+        log.info("Game {} moved from node {} to node {}", gameId, nodeId, target);
+    }
+
+    /** Estado del traspaso {@code token} en el destino; si no contesta, {@link Migration#UNKNOWN}. */
+    private String migrationStatus(String target, Long gameId, String token) {
+        try {
+            Reply reply = request(target + MIGRATIONS, new Migration(Migration.STATUS, token, gameId, null),
+                    "migration status of game " + gameId);
+            return reply.error() == null && reply.result() != null ? reply.result().asText() : Migration.UNKNOWN;
+        } catch (RuntimeException e) {
+            return Migration.UNKNOWN;
+        }
+    }
+
+    // Sin pin el destino nunca atiende la partida: descartar la imagen es sólo limpieza
+    private void abort(String target, Long gameId, String token) {
+        try {
+            request(target + MIGRATIONS, new Migration(Migration.ABORT, token, gameId, null),
+                    "abort of migration of game " + gameId);
+        } catch (RuntimeException e) {
+            log.warn("Could not abort migration of game {} on node {}", gameId, target, e);
+        }
+    }
+
+    private <T> T execute(String owner, ForwardedCommand command, Class<T> resultType) {
+        if (nodeId.equals(owner)) {
+            return resultType.cast(handler(command).apply(command));
+        }
+        meterRegistry.counter(FORWARDED_METRIC, "command", command.type()).increment();
+        Reply reply = request(owner, command, command.type());
+        if (reply.error() != null) {
+            throw reply.error().toException(reply.message(), reply.node());
+        }
+        return reply.result() == null || resultType == Void.class ? null
+                : objectMapper.convertValue(reply.result(), resultType);
+    }
+
+    private Reply request(String node, Object payload, String what) {
+        try {
+            byte[] response = bus.request(node, objectMapper.writeValueAsBytes(payload))
+                    .get(forwardTimeoutMillis, TimeUnit.MILLISECONDS);
+            return objectMapper.readValue(response, Reply.class);
+        } catch (TimeoutException e) {
+            throw new NodeUnavailableException("Node " + node + " did not answer " + what + " in time");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof NodeUnavailableException unavailable) {
+                throw unavailable;
+            }
+            throw new NodeUnavailableException("Sending " + what + " to " + node + " failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new NodeUnavailableException("Interrupted while sending " + what + " to " + node);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode " + what + " for " + node, e);
+        }
+    }
+
+    /** Atiende un comando reenviado; los errores vuelven como respuesta, no como excepción del bus. */
+    byte[] handle(byte[] request) {
+        return respond(() -> {
+            ForwardedCommand command = read(request, ForwardedCommand.class);
+            String owner = ownerOf(command.gameId());
+            if (!nodeId.equals(owner)) {
+                throw new GameMovedException("Game " + command.gameId() + " is owned by node " + owner, owner);
+            }
+            return handler(command).apply(command);
+        });
+    }
+
+    /**
+     * Atiende las fases de un traspaso hacia este nodo. La imagen preparada queda pendiente hasta que
+     * llegue su pin; repetir un pedido no cambia el resultado.
+     */
+    byte[] receive(byte[] request) {
+        return respond(() -> {
+            Migration migration = read(request, Migration.class);
+            Long gameId = migration.gameId();
+            switch (migration.phase()) {
+                case Migration.PREPARE -> pendingImages.put(gameId, migration);
+                case Migration.ABORT -> pendingImages.computeIfPresent(gameId,
+                        (id, pending) -> pending.token().equals(migration.token()) ? null : pending);
+                case Migration.STATUS -> {
+                    if (migration.token().equals(committed.get(gameId))) {
+                        return Migration.COMMITTED;
+                    }
+                    Migration pending = pendingImages.get(gameId);
+                    return pending != null && pending.token().equals(migration.token())
+                            ? Migration.PREPARED : Migration.UNKNOWN;
+                }
+                default -> throw new IllegalArgumentException("Unknown migration phase " + migration.phase());
+            }
+            return null;
+        });
+    }
+
+    /** El pin confirmó el traspaso: si la imagen preparada es la de ese traspaso se sigue desde ella. */
+    private void commit(Change change) {
+        Migration pending = pendingImages.get(change.gameId());
+        if (pending != null && pending.token().equals(change.token())
+                && pendingImages.remove(change.gameId(), pending)) {
+            committed.put(change.gameId(), change.token());
+            ownershipListeners.forEach(listener -> listener.accept(change.gameId()));
+            gameEngine.adopt(pending.image());
+        } else {
+            gameEngine.reclaim(change.gameId());
+        }
+    }
+
+    private byte[] respond(Supplier<Object> action) {
+        Reply reply;
+        try {
+            Object result = action.get();
+            reply = new Reply(null, null, null, result == null ? null : objectMapper.valueToTree(result));
+        } catch (GameMovedException e) {
+            reply = new Reply(RemoteError.GAME_MOVED, e.getMessage(), e.getNode(), null);
+        } catch (RuntimeException e) {
+            reply = new Reply(RemoteError.of(e), e.getMessage(), null, null);
+        }
+        try {
+            return objectMapper.writeValueAsBytes(reply);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode reply", e);
+        }
+    }
+
+    private <T> T read(byte[] payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed " + type.getSimpleName());
+        }
+    }
+
+    private void publish(Change change) {
+        try {
+            bus.publish(OWNERSHIP_TOPIC, objectMapper.writeValueAsBytes(change));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot encode ownership change", e);
+        }
+    }
+
+    /** Aplica un cambio de dueño o de miembros; llega en el mismo orden a todos los nodos. */
+    private void onChange(byte[] payload) {
+        Change change = read(payload, Change.class);
+        List<Long> moving = new ArrayList<>();
+        boolean gained = false;
+        synchronized (pins) {
+            HashRing current = ring;
+            switch (change.type()) {
+                case Change.PIN -> {
+                    gained = nodeId.equals(change.node()) && !owns(change.gameId());
+                    pins.put(change.gameId(), change.node());
+                    if (!nodeId.equals(change.node())) {
+                        pendingImages.remove(change.gameId());
+                        committed.remove(change.gameId());
+                    }
+                }
+                case Change.PREPARE -> {
+                    if (!current.contains(change.node())) {
+                        HashRing next = withNode(current, change.node(), true);
+                        for (Long gameId : gameEngine.loadedGames()) {
+                            if (owns(gameId) && !nodeId.equals(next.ownerOf(gameId))) {
+                                moving.add(gameId);
+                            }
+                        }
+                    }
+                }
+                case Change.JOIN -> {
+                    if (!current.contains(change.node())) {
+                        ring = withNode(current, change.node(), true);
+                        prunePins();
+                    }
+                }
+                case Change.LEAVE -> {
+                    if (current.contains(change.node()) && current.nodes().size() > 1) {
+                        ring = withNode(current, change.node(), false);
+                        prunePins();
+                    }
+                }
+                default -> log.warn("Unknown ownership change {}", change.type());
+            }
+        }
+        if (gained) {
+            commit(change);
+        }
+        // Las partidas que le tocarían al que entra se quedan acá hasta rebalancear
+        moving.forEach(gameId -> publish(new Change(Change.PIN, gameId, nodeId, null)));
+    }
+
+    private HashRing withNode(HashRing current, String node, boolean add) {
+        List<String> nodes = new ArrayList<>(current.nodes());
+        if (add) {
+            nodes.add(node);
+        } else {
+            nodes.remove(node);
+        }
+        return new HashRing(nodes, virtualNodes);
+    }
+
+    /** Los pins que coinciden con el anillo nuevo ya no hacen falta. */
+    private void prunePins() {
+        HashRing current = ring;
+        pins.entrySet().removeIf(pin -> pin.getValue().equals(current.ownerOf(pin.getKey())));
+    }
+
+    private Function<ForwardedCommand, Object> handler(ForwardedCommand command) {
+        Function<ForwardedCommand, Object> handler = handlers.get(command.getClass());
+        if (handler == null) {
+            throw new IllegalArgumentException("Unknown command " + command.type());
+        }
+        return handler;
+    }
+
+    record Reply(RemoteError error, String message, String node, JsonNode result) {
+    }
+
+    /**
+     * Cambio de dueño de una partida ({@code PIN}) o de los miembros del anillo. El pin de un traspaso
+     * lleva su {@code token}; los demás, null.
+     */
+    record Change(String type, Long gameId, String node, String token) {
+        static final String PIN = "pin";
+        static final String PREPARE = "prepare";
+        static final String JOIN = "join";
+        static final String LEAVE = "leave";
+    }
+
+    /** Una fase de un traspaso, identificado por {@code token}; sólo {@code PREPARE} lleva la imagen. */
+    record Migration(String phase, String token, Long gameId, GameImage image) {
+        static final String PREPARE = "prepare";
+        static final String STATUS = "status";
+        static final String ABORT = "abort";
+        static final String PREPARED = "prepared";
+        static final String COMMITTED = "committed";
+        static final String UNKNOWN = "unknown";
+    }
+}
@@ -0,0 +1,76 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Anillo de hashing consistente de partidas a nodos. Cada nodo ocupa {@code virtualNodes} puntos del
+ * anillo y una partida es del primer punto a partir del hash de su id, así que sumar o sacar un nodo
+ * mueve sólo las partidas de los tramos que cambian de dueño (alrededor de 1/n).
+ * <p>
+ * Es inmutable: un cambio de miembros arma un anillo nuevo.
+ */
+public final class HashRing {
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        this.nodes = List.copyOf(nodes);
+        int replicas = Math.max(1, virtualNodes);
+        long[][] entries = new long[this.nodes.size() * replicas][];
+        int next = 0;
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int replica = 0; replica < replicas; replica++) {
+                entries[next++] = new long[]{hash(this.nodes.get(node) + "#" + replica), node};
+            }
+        }
+        // Empates (casi imposibles) se resuelven por posición del nodo para que todos los armen igual
+        Arrays.sort(entries, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    public String ownerOf(long gameId) {
+        int index = Arrays.binarySearch(points, mix(gameId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public boolean contains(String node) {
+        return nodes.contains(node);
+    }
+
+    /** FNV-1a de 64 bits más la mezcla final de MurmurHash3, para repartir bien ids consecutivos. */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
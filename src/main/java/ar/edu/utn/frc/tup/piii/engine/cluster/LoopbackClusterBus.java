@@ -0,0 +1,80 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import ar.edu.utn.frc.tup.piii.exception.NodeUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link ClusterBus} dentro de la JVM. Con un solo nodo es el camino normal; con varios nodos
+ * compartiendo la misma instancia permite probar el ruteo sin un broker.
+ * <p>
+ * Las difusiones se entregan en el hilo que publica, así conservan el orden. Los pedidos se atienden
+ * en otro hilo, como llegarían por la red, para que quien reenvía no ejecute código del otro nodo
+ * con sus locks tomados.
+ */
+public class LoopbackClusterBus implements ClusterBus {
+    private static final Logger log = LoggerFactory.getLogger(LoopbackClusterBus.class);
+
+    private final Map<String, List<Consumer<byte[]>>> topics = new ConcurrentHashMap<>();
+    private final Map<String, Function<byte[], byte[]>> handlers = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public LoopbackClusterBus() {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "cluster-loopback-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void publish(String topic, byte[] payload) {
+        for (Consumer<byte[]> listener : topics.getOrDefault(topic, List.of())) {
+            try {
+                listener.accept(payload);
+            } catch (RuntimeException e) {
+                log.warn("Cluster listener failed on topic {}", topic, e);
+            }
+        }
+    }
+
+    @Override
+    public Subscription subscribe(String topic, Consumer<byte[]> listener) {
+        List<Consumer<byte[]>> listeners = topics.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>());
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    @Override
+    public CompletableFuture<byte[]> request(String node, byte[] payload) {
+        Function<byte[], byte[]> handler = handlers.get(node);
+        if (handler == null) {
+            return CompletableFuture.failedFuture(new NodeUnavailableException("Node " + node + " is not reachable"));
+        }
+        return CompletableFuture.supplyAsync(() -> handler.apply(payload), executor);
+    }
+
+    @Override
+    public Subscription serve(String node, Function<byte[], byte[]> handler) {
+        if (handlers.putIfAbsent(node, handler) != null) {
+            throw new IllegalStateException("Node " + node + " is already being served");
+        }
+        return () -> handlers.remove(node, handler);
+    }
+}
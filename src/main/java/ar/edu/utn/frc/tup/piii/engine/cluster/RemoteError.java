@@ -0,0 +1,86 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import ar.edu.utn.frc.tup.piii.exception.GameMovedException;
+import ar.edu.utn.frc.tup.piii.exception.InvalidCredentialsException;
+import ar.edu.utn.frc.tup.piii.exception.NodeUnavailableException;
+import ar.edu.utn.frc.tup.piii.exception.PlayerAccessDeniedException;
+import ar.edu.utn.frc.tup.piii.exception.StaleGameStateException;
+import ar.edu.utn.frc.tup.piii.exception.UserNotFoundException;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Código con el que vuelve el error de un comando reenviado. Viaja por nombre, así que los nombres
+ * no se cambian. Cada código se reconstruye como una excepción que {@code GlobalExceptionHandler}
+ * contesta con el mismo {@link #status()} que habría contestado el nodo dueño.
+ */
+enum RemoteError {
+    CONFLICT(HttpStatus.CONFLICT),
+    GAME_MOVED(HttpStatus.SERVICE_UNAVAILABLE),
+    NODE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE),
+    ACCESS_DENIED(HttpStatus.FORBIDDEN),
+    INVALID_CREDENTIALS(HttpStatus.UNAUTHORIZED),
+    USER_NOT_FOUND(HttpStatus.NOT_FOUND),
+    ENTITY_NOT_FOUND(HttpStatus.BAD_REQUEST),
+    UNSUPPORTED(HttpStatus.BAD_REQUEST),
+    INVALID_ARGUMENT(HttpStatus.BAD_REQUEST),
+    INVALID_STATE(HttpStatus.BAD_REQUEST);
+
+    private final HttpStatus status;
+
+    RemoteError(HttpStatus status) {
+        this.status = status;
+    }
+
+    HttpStatus status() {
+        return status;
+    }
+
+    static RemoteError of(RuntimeException e) {
+        if (e instanceof StaleGameStateException || e instanceof OptimisticLockingFailureException) {
+            return CONFLICT;
+        }
+        if (e instanceof GameMovedException) {
+            return GAME_MOVED;
+        }
+        if (e instanceof NodeUnavailableException) {
+            return NODE_UNAVAILABLE;
+        }
+        if (e instanceof PlayerAccessDeniedException) {
+            return ACCESS_DENIED;
+        }
+        if (e instanceof InvalidCredentialsException) {
+            return INVALID_CREDENTIALS;
+        }
+        if (e instanceof UserNotFoundException) {
+            return USER_NOT_FOUND;
+        }
+        if (e instanceof EntityNotFoundException) {
+            return ENTITY_NOT_FOUND;
+        }
+        if (e instanceof UnsupportedOperationException) {
+            return UNSUPPORTED;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return INVALID_ARGUMENT;
+        }
+        return INVALID_STATE;
+    }
+
+    /** {@code node} sólo lo usa {@link #GAME_MOVED}: el nodo al que se mudó la partida. */
+    RuntimeException toException(String message, String node) {
+        return switch (this) {
+            case CONFLICT -> new StaleGameStateException(message);
+            case GAME_MOVED -> new GameMovedException(message, node);
+            case NODE_UNAVAILABLE -> new NodeUnavailableException(message);
+            case ACCESS_DENIED -> new PlayerAccessDeniedException(message);
+            case INVALID_CREDENTIALS -> new InvalidCredentialsException(message);
+            case USER_NOT_FOUND -> new UserNotFoundException(message);
+            case ENTITY_NOT_FOUND -> new EntityNotFoundException(message);
+            case UNSUPPORTED -> new UnsupportedOperationException(message);
+            case INVALID_ARGUMENT -> new IllegalArgumentException(message);
+            case INVALID_STATE -> new IllegalStateException(message);
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+/**
+ * Secuencia de tiradas entre dos países alimentada por {@link DiceStream}.
+ * <p>
+ * Con la semilla, la primera tirada, los ejércitos iniciales y el umbral de corte se reproduce
+ * exactamente el mismo combate, así que los registros de combate no necesitan guardar los dados.
+ * El atacante nunca tira más dados que los ejércitos que superan {@code stopAtArmies}.
+ */
+public final class Battle {
+
+    private long seed;
+    private long firstRound;
+    private int stopAtArmies;
+    private final int[] attackerDice = new int[CombatOddsEngine.MAX_DICE];
+    private final int[] defenderDice = new int[CombatOddsEngine.MAX_DICE];
+
+    private int attackerArmies;
+    private int defenderArmies;
+    private int rounds;
+    private int lastRoll;
+
+    public Battle(long seed, long firstRound, int attackerArmies, int defenderArmies, int stopAtArmies) {
+        reset(seed, firstRound, attackerArmies, defenderArmies, stopAtArmies);
+    }
+
+    /** Reutiliza la instancia para otro combate; las simulaciones evitan así reservar memoria por corrida. */
+    public Battle reset(long seed, long firstRound, int attackerArmies, int defenderArmies, int stopAtArmies) {
+        this.seed = seed;
+        this.firstRound = firstRound;
+        this.attackerArmies = attackerArmies;
+        this.defenderArmies = defenderArmies;
+        this.stopAtArmies = Math.max(1, stopAtArmies);
+        this.rounds = 0;
+        this.lastRoll = 0;
+        return this;
+    }
+
+    public boolean canContinue() {
+        return defenderArmies > 0 && attackerArmies > stopAtArmies;
+    }
+
+    /** Resuelve una tirada y devuelve los dados empaquetados con {@link DiceCodec}. */
+    public int nextRound() {
+        int attackerCount = Math.min(DiceRules.attackerDice(attackerArmies), attackerArmies - stopAtArmies);
+        int defenderCount = DiceRules.defenderDice(defenderArmies);
+        DiceStream.roll(seed, firstRound + rounds, attackerDice, attackerCount, defenderDice, defenderCount);
+        int lost = DiceRules.attackerLosses(attackerDice, attackerCount, defenderDice, defenderCount);
+        attackerArmies -= lost;
+        defenderArmies -= Math.min(attackerCount, defenderCount) - lost;
+        rounds++;
+        lastRoll = DiceCodec.pack(attackerDice, attackerCount, defenderDice, defenderCount);
+        return lastRoll;
+    }
+
+    /** Tira hasta {@code maxRounds} veces o hasta que el combate no pueda seguir. */
+    public Battle run(int maxRounds) {
+        while (rounds < maxRounds && canContinue()) {
+            nextRound();
+        }
+        return this;
+    }
+
+    public boolean isConquered() {
+        return defenderArmies == 0;
+    }
+
+    public int getAttackerArmies() {
+        return attackerArmies;
+    }
+
+    public int getDefenderArmies() {
+        return defenderArmies;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    public int getLastRoll() {
+        return lastRoll;
+    }
+}
@@ -0,0 +1,374 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Probabilidades exactas de combate calculadas sobre la cadena de Markov de tiradas.
+ * <p>
+ * Cada estado es (ejércitos del país atacante, ejércitos del país defensor). El atacante tira
+ * {@code min(3, ejércitos - 1)} dados y el defensor {@code min(3, ejércitos)}; se comparan los
+ * dados de mayor a menor y los empates los gana el defensor. Las probabilidades de cada tirada
+ * se enumeran una sola vez y la tabla de estados se arma al arrancar, hasta {@code maxArmies}
+ * (como mucho {@value #MAX_TABLE_ARMIES}) ejércitos por lado; las consultas no la amplían.
+ * <p>
+ * Más allá de la tabla, cada consulta recorre la cadena fila por fila guardando sólo las últimas
+ * filas y el resultado queda en un cache chico. Por encima de {@value #MAX_EXACT_ARMIES} ejércitos:
+ * si el otro lado tiene menos de {@value #MIN_APPROXIMATE_ARMIES}, el lado grande se recorta a
+ * {@value #MAX_EXACT_ARMIES} (el ataque se decide mucho antes de gastarlos); si no, se usa la
+ * aproximación normal de la suma de tiradas de tres contra tres, que respeta los ejércitos de cada
+ * lado y se vuelve más extrema al crecer los ejércitos, como la cadena exacta.
+ * <p>
+ * Las consultas dentro de la tabla son O(1) y no reservan memoria.
+ */
+@Component
+public class CombatOddsEngine {
+
+    public static final int MAX_DICE = 3;
+
+    /** Tope de la tabla precalculada: tres arreglos de (tope + 1)² doubles. */
+    static final int MAX_TABLE_ARMIES = 1024;
+
+    /** Tope de los recorridos por filas y de las distribuciones de pérdidas. */
+    static final int MAX_EXACT_ARMIES = 4096;
+
+    /** Ejércitos del lado chico desde los que se usa la aproximación normal. */
+    static final int MIN_APPROXIMATE_ARMIES = 64;
+
+    private static final int DIE_FACES = 6;
+    private static final int LARGE_CACHE_SIZE = 256;
+
+    /** ROUND_LOSS[a][d][k]: probabilidad de que el atacante pierda k ejércitos tirando a contra d dados */
+    private static final double[][][] ROUND_LOSS = enumerateRounds();
+
+    private final OddsTable table;
+    private final Map<Long, Odds> large = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Odds> eldest) {
+            return size() > LARGE_CACHE_SIZE;
+        }
+    };
+
+    public CombatOddsEngine(@Value("${teg.combat.odds.max-armies:64}") int maxArmies) {
+        if (maxArmies < 2) {
+            throw new IllegalArgumentException("teg.combat.odds.max-armies must be at least 2");
+        }
+        this.table = OddsTable.build(Math.min(maxArmies, MAX_TABLE_ARMIES));
+    }
+
+    /**
+     * Probabilidad de conquistar el país defensor atacando hasta que el atacante quede con un solo ejército.
+     * @param attackerArmies ejércitos en el país atacante (incluye el que debe quedar)
+     * @param defenderArmies ejércitos en el país defensor
+     */
+    public double conquestProbability(int attackerArmies, int defenderArmies) {
+        if (defenderArmies <= 0) {
+            return 1.0;
+        }
+        if (attackerArmies <= 1) {
+            return 0.0;
+        }
+        return table.covers(attackerArmies, defenderArmies) ? table.conquest[table.offset(attackerArmies, defenderArmies)]
+                : largeOdds(attackerArmies, defenderArmies).conquest();
+    }
+
+    /** Ejércitos que se espera pierda el atacante hasta conquistar o quedarse sin poder atacar. */
+    public double expectedAttackerLosses(int attackerArmies, int defenderArmies) {
+        if (defenderArmies <= 0 || attackerArmies <= 1) {
+            return 0.0;
+        }
+        return table.covers(attackerArmies, defenderArmies)
+                ? table.attackerLosses[table.offset(attackerArmies, defenderArmies)]
+                : largeOdds(attackerArmies, defenderArmies).attackerLosses();
+    }
+
+    /** Ejércitos que se espera pierda el defensor hasta el final del ataque. */
+    public double expectedDefenderLosses(int attackerArmies, int defenderArmies) {
+        if (defenderArmies <= 0 || attackerArmies <= 1) {
+            return 0.0;
+        }
+        return table.covers(attackerArmies, defenderArmies)
+                ? table.defenderLosses[table.offset(attackerArmies, defenderArmies)]
+                : largeOdds(attackerArmies, defenderArmies).defenderLosses();
+    }
+
+    /**
+     * Distribución exacta de las pérdidas de cada lado al terminar el ataque (conquista o atacante
+     * con un solo ejército): {@code attacker()[k]} es la probabilidad de que el atacante pierda k
+     * ejércitos y {@code defender()[k]} la de que los pierda el defensor. Recorre la cadena hacia
+     * adelante guardando sólo las últimas filas.
+     * @throws IllegalArgumentException si algún lado supera {@value #MAX_EXACT_ARMIES} ejércitos
+     */
+    public LossDistribution lossDistribution(int attackerArmies, int defenderArmies) {
+        if (attackerArmies > MAX_EXACT_ARMIES || defenderArmies > MAX_EXACT_ARMIES) {
+            throw new IllegalArgumentException("Loss distributions are computed up to " + MAX_EXACT_ARMIES + " armies per side");
+        }
+        int a = Math.max(1, attackerArmies);
+        int d = Math.max(0, defenderArmies);
+        double[] attacker = new double[a];
+        double[] defender = new double[d + 1];
+        int window = MAX_DICE + 1;
+        double[][] reach = new double[window][d + 1];
+        reach[a % window][d] = 1.0;
+        for (int row = a; row >= 1; row--) {
+            double[] current = reach[row % window];
+            // Perder sólo el atacante deja la misma fila con menos defensores: se recorre de más a menos
+            for (int left = d; left >= 0; left--) {
+                double p = current[left];
+                if (p == 0.0) {
+                    continue;
+                }
+                if (left == 0 || row == 1) {
+                    attacker[a - row] += p;
+                    defender[d - left] += p;
+                    continue;
+                }
+                double[] losses = ROUND_LOSS[Math.min(MAX_DICE, row - 1)][Math.min(MAX_DICE, left)];
+                int comparisons = losses.length - 1;
+                for (int k = 0; k <= comparisons; k++) {
+                    reach[(row - k) % window][left - (comparisons - k)] += p * losses[k];
+                }
+            }
+            Arrays.fill(current, 0.0);
+        }
+        return new LossDistribution(attacker, defender);
+    }
+
+    /**
+     * Probabilidad de que en una sola tirada el atacante pierda exactamente {@code attackerLosses} ejércitos
+     * (el defensor pierde el resto de las comparaciones).
+     */
+    public double roundLossProbability(int attackerDice, int defenderDice, int attackerLosses) {
+        checkDice(attackerDice, defenderDice);
+        double[] losses = ROUND_LOSS[attackerDice][defenderDice];
+        return attackerLosses < 0 || attackerLosses >= losses.length ? 0.0 : losses[attackerLosses];
+    }
+
+    /** Probabilidad de que en una sola tirada el defensor pierda más ejércitos que el atacante. */
+    public double favourableRoundProbability(int attackerDice, int defenderDice) {
+        checkDice(attackerDice, defenderDice);
+        double[] losses = ROUND_LOSS[attackerDice][defenderDice];
+        int comparisons = losses.length - 1;
+        double p = 0.0;
+        for (int k = 0; 2 * k < comparisons; k++) {
+            p += losses[k];
+        }
+        return p;
+    }
+
+    /** Cantidad de ejércitos por lado cubiertos por la tabla precalculada. */
+    public int getTableBound() {
+        return table.bound;
+    }
+
+    private Odds largeOdds(int attackerArmies, int defenderArmies) {
+        if (Math.max(attackerArmies, defenderArmies) > MAX_EXACT_ARMIES) {
+            if (Math.min(attackerArmies, defenderArmies) >= MIN_APPROXIMATE_ARMIES) {
+                return approximateOdds(attackerArmies, defenderArmies);
+            }
+            return largeOdds(Math.min(attackerArmies, MAX_EXACT_ARMIES), Math.min(defenderArmies, MAX_EXACT_ARMIES));
+        }
+        long key = (long) attackerArmies << 32 | defenderArmies;
+        synchronized (large) {
+            Odds odds = large.get(key);
+            if (odds != null) {
+                return odds;
+            }
+        }
+        Odds[] result = new Odds[1];
+        solveRows(attackerArmies, defenderArmies, (a, conquest, attackerLosses, defenderLosses) -> {
+            if (a == attackerArmies) {
+                result[0] = new Odds(conquest[defenderArmies], attackerLosses[defenderArmies],
+                        defenderLosses[defenderArmies]);
+            }
+        });
+        synchronized (large) {
+            large.put(key, result[0]);
+        }
+        return result[0];
+    }
+
+    /**
+     * Aproximación normal para ejércitos grandes de los dos lados, donde cada tirada es de tres
+     * contra tres. Hay conquista si, tras {@code (a - 1) + d - 1} comparaciones, el atacante perdió
+     * menos de {@code a - 1}. Las pérdidas de cada lado son las que lleva cuando el otro se queda sin
+     * ejércitos, recortadas a lo que tiene: {@code E[min(X, tope)]} con X normal.
+     */
+    static Odds approximateOdds(int attackerArmies, int defenderArmies) {
+        double[] losses = ROUND_LOSS[MAX_DICE][MAX_DICE];
+        double mean = 0.0;
+        double square = 0.0;
+        for (int k = 0; k < losses.length; k++) {
+            mean += k * losses[k];
+            square += (double) k * k * losses[k];
+        }
+        double variance = square - mean * mean;
+        double defenderMean = MAX_DICE - mean;
+        double attackerBudget = attackerArmies - 1.0;
+        double defenderBudget = defenderArmies;
+
+        double rounds = (attackerBudget + defenderBudget - 1) / MAX_DICE;
+        double conquest = normalCdf((attackerBudget - 0.5 - mean * rounds) / Math.sqrt(variance * rounds));
+
+        double untilDefenderFalls = defenderBudget / defenderMean;
+        double attackerLosses = cappedMean(mean * untilDefenderFalls,
+                MAX_DICE / defenderMean * Math.sqrt(variance * untilDefenderFalls), attackerBudget);
+        double untilAttackerFalls = attackerBudget / mean;
+        double defenderLosses = cappedMean(defenderMean * untilAttackerFalls,
+                MAX_DICE / mean * Math.sqrt(variance * untilAttackerFalls), defenderBudget);
+        return new Odds(conquest, attackerLosses, defenderLosses);
+    }
+
+    /** {@code E[min(X, cap)]} para X normal, entre 0 y {@code cap}. */
+    private static double cappedMean(double mean, double deviation, double cap) {
+        double z = (mean - cap) / deviation;
+        double excess = deviation * (z * normalCdf(z) + Math.exp(-z * z / 2) / Math.sqrt(2 * Math.PI));
+        return Math.max(0.0, Math.min(cap, mean - excess));
+    }
+
+    /** Función de distribución normal estándar (erfc de Numerical Recipes, error relativo menor a 1.2e-7). */
+    static double normalCdf(double z) {
+        double x = Math.abs(z) / Math.sqrt(2);
+        double t = 1.0 / (1.0 + 0.5 * x);
+        double erfc = t * Math.exp(-x * x - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return z >= 0 ? 1.0 - erfc / 2 : erfc / 2;
+    }
+
+    private static void checkDice(int attackerDice, int defenderDice) {
+        if (attackerDice < 1 || attackerDice > MAX_DICE || defenderDice < 1 || defenderDice > MAX_DICE) {
+            throw new IllegalArgumentException("Dice must be between 1 and " + MAX_DICE);
+        }
+    }
+
+    private static double[][][] enumerateRounds() {
+        double[][][] result = new double[MAX_DICE + 1][MAX_DICE + 1][];
+        for (int a = 1; a <= MAX_DICE; a++) {
+            for (int d = 1; d <= MAX_DICE; d++) {
+                result[a][d] = enumerateRound(a, d);
+            }
+        }
+        return result;
+    }
+
+    private static double[] enumerateRound(int attackerDice, int defenderDice) {
+        int comparisons = Math.min(attackerDice, defenderDice);
+        long[] counts = new long[comparisons + 1];
+        int dice = attackerDice + defenderDice;
+        int outcomes = (int) Math.pow(DIE_FACES, dice);
+        int[] att = new int[attackerDice];
+        int[] def = new int[defenderDice];
+        for (int code = 0; code < outcomes; code++) {
+            int rest = code;
+            for (int i = 0; i < attackerDice; i++) {
+                att[i] = rest % DIE_FACES + 1;
+                rest /= DIE_FACES;
+            }
+            for (int i = 0; i < defenderDice; i++) {
+                def[i] = rest % DIE_FACES + 1;
+                rest /= DIE_FACES;
+            }
+            counts[DiceRules.attackerLosses(att, attackerDice, def, defenderDice)]++;
+        }
+        double[] probabilities = new double[comparisons + 1];
+        for (int k = 0; k <= comparisons; k++) {
+            probabilities[k] = (double) counts[k] / outcomes;
+        }
+        return probabilities;
+    }
+
+    /**
+     * Resuelve la cadena para atacante 0..{@code attackerArmies} y defensor 0..{@code defenderArmies}.
+     * Cada tirada le resta a lo sumo {@value #MAX_DICE} ejércitos al atacante y al menos uno a alguno
+     * de los dos, así que alcanza con las últimas {@value #MAX_DICE} filas y recorrer cada fila de
+     * menos a más defensores. Cada fila terminada se pasa a {@code rows}; los arreglos se reusan.
+     */
+    private static void solveRows(int attackerArmies, int defenderArmies, RowConsumer rows) {
+        int window = MAX_DICE + 1;
+        double[][] conquest = new double[window][defenderArmies + 1];
+        double[][] attackerLosses = new double[window][defenderArmies + 1];
+        double[][] defenderLosses = new double[window][defenderArmies + 1];
+        for (int a = 0; a <= attackerArmies; a++) {
+            int row = a % window;
+            for (int d = 0; d <= defenderArmies; d++) {
+                conquest[row][d] = d == 0 ? 1.0 : 0.0;
+                attackerLosses[row][d] = 0.0;
+                defenderLosses[row][d] = 0.0;
+                if (d == 0 || a <= 1) {
+                    continue;
+                }
+                double[] losses = ROUND_LOSS[Math.min(MAX_DICE, a - 1)][Math.min(MAX_DICE, d)];
+                int comparisons = losses.length - 1;
+                double win = 0.0;
+                double lostByAttacker = 0.0;
+                double lostByDefender = 0.0;
+                for (int k = 0; k <= comparisons; k++) {
+                    double p = losses[k];
+                    int next = (a - k) % window;
+                    int nextDefender = d - (comparisons - k);
+                    win += p * conquest[next][nextDefender];
+                    lostByAttacker += p * (k + attackerLosses[next][nextDefender]);
+                    lostByDefender += p * (comparisons - k + defenderLosses[next][nextDefender]);
+                }
+                conquest[row][d] = win;
+                attackerLosses[row][d] = lostByAttacker;
+                defenderLosses[row][d] = lostByDefender;
+            }
+            rows.accept(a, conquest[row], attackerLosses[row], defenderLosses[row]);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(int attackerArmies, double[] conquest, double[] attackerLosses, double[] defenderLosses);
+    }
+
+    record Odds(double conquest, double attackerLosses, double defenderLosses) {
+    }
+
+    /** Probabilidad de cada cantidad de ejércitos perdidos por lado al terminar un ataque. */
+    public record LossDistribution(double[] attacker, double[] defender) {
+    }
+
+    /** Tabla inmutable de estados (atacante, defensor) indexada en forma plana. */
+    private static final class OddsTable {
+        private final int bound;
+        private final int stride;
+        private final double[] conquest;
+        private final double[] attackerLosses;
+        private final double[] defenderLosses;
+
+        private OddsTable(int bound) {
+            this.bound = bound;
+            this.stride = bound + 1;
+            int size = stride * stride;
+            this.conquest = new double[size];
+            this.attackerLosses = new double[size];
+            this.defenderLosses = new double[size];
+        }
+
+        private boolean covers(int attackerArmies, int defenderArmies) {
+            return attackerArmies <= bound && defenderArmies <= bound;
+        }
+
+        private int offset(int attackerArmies, int defenderArmies) {
+            return attackerArmies * stride + defenderArmies;
+        }
+
+        private static OddsTable build(int bound) {
+            OddsTable t = new OddsTable(bound);
+            solveRows(bound, bound, (a, conquest, attackerLosses, defenderLosses) -> {
+                int at = t.offset(a, 0);
+                System.arraycopy(conquest, 0, t.conquest, at, t.stride);
+                System.arraycopy(attackerLosses, 0, t.attackerLosses, at, t.stride);
+                System.arraycopy(defenderLosses, 0, t.defenderLosses, at, t.stride);
+            });
+            return t;
+        }
+    }
+}
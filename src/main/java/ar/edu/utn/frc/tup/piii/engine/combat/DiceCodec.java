@@ -0,0 +1,84 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Empaqueta los dados de una tirada en 22 bits: 2 bits por cantidad de dados de cada lado
+ * y 3 bits por dado (tres del atacante y tres del defensor).
+ * <p>
+ * Una traza de varias tiradas ocupa {@value #BYTES_PER_ROUND} bytes por tirada.
+ */
+public final class DiceCodec {
+
+    public static final int BYTES_PER_ROUND = 3;
+
+    private static final int COUNT_BITS = 2;
+    private static final int DIE_BITS = 3;
+    private static final int DIE_MASK = (1 << DIE_BITS) - 1;
+    private static final int ATTACKER_SHIFT = 2 * COUNT_BITS;
+    private static final int DEFENDER_SHIFT = ATTACKER_SHIFT + CombatOddsEngine.MAX_DICE * DIE_BITS;
+
+    private DiceCodec() {
+    }
+
+    public static int pack(int[] attacker, int attackerCount, int[] defender, int defenderCount) {
+        int packed = attackerCount | defenderCount << COUNT_BITS;
+        for (int i = 0; i < attackerCount; i++) {
+            packed |= attacker[i] << (ATTACKER_SHIFT + i * DIE_BITS);
+        }
+        for (int i = 0; i < defenderCount; i++) {
+            packed |= defender[i] << (DEFENDER_SHIFT + i * DIE_BITS);
+        }
+        return packed;
+    }
+
+    public static int attackerCount(int packed) {
+        return packed & 0b11;
+    }
+
+    public static int defenderCount(int packed) {
+        return packed >>> COUNT_BITS & 0b11;
+    }
+
+    public static int attackerDie(int packed, int index) {
+        return packed >>> (ATTACKER_SHIFT + index * DIE_BITS) & DIE_MASK;
+    }
+
+    public static int defenderDie(int packed, int index) {
+        return packed >>> (DEFENDER_SHIFT + index * DIE_BITS) & DIE_MASK;
+    }
+
+    public static List<Integer> attackerDice(int packed) {
+        List<Integer> dice = new ArrayList<>(attackerCount(packed));
+        for (int i = 0; i < attackerCount(packed); i++) {
+            dice.add(attackerDie(packed, i));
+        }
+        return dice;
+    }
+
+    public static List<Integer> defenderDice(int packed) {
+        List<Integer> dice = new ArrayList<>(defenderCount(packed));
+        for (int i = 0; i < defenderCount(packed); i++) {
+            dice.add(defenderDie(packed, i));
+        }
+        return dice;
+    }
+
+    /** Escribe la tirada {@code round} dentro de una traza con lugar suficiente. */
+    public static void writeRound(byte[] trace, int round, int packed) {
+        int at = round * BYTES_PER_ROUND;
+        trace[at] = (byte) packed;
+        trace[at + 1] = (byte) (packed >>> 8);
+        trace[at + 2] = (byte) (packed >>> 16);
+    }
+
+    public static int readRound(byte[] trace, int round) {
+        int at = round * BYTES_PER_ROUND;
+        return (trace[at] & 0xFF) | (trace[at + 1] & 0xFF) << 8 | (trace[at + 2] & 0xFF) << 16;
+    }
+
+    public static int rounds(byte[] trace) {
+        return trace == null ? 0 : trace.length / BYTES_PER_ROUND;
+    }
+}
@@ -0,0 +1,66 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import java.util.List;
+
+/**
+ * Dados de una tirada empaquetados en un entero con {@link DiceCodec}; se persiste en una sola columna.
+ */
+public final class DiceRoll {
+
+    private final int packed;
+
+    private DiceRoll(int packed) {
+        this.packed = packed;
+    }
+
+    public static DiceRoll of(int packed) {
+        return new DiceRoll(packed);
+    }
+
+    public static DiceRoll of(List<Integer> attackerDice, List<Integer> defenderDice) {
+        if (attackerDice.size() > CombatOddsEngine.MAX_DICE || defenderDice.size() > CombatOddsEngine.MAX_DICE) {
+            throw new IllegalArgumentException("At most " + CombatOddsEngine.MAX_DICE + " dice per side");
+        }
+        return new DiceRoll(DiceCodec.pack(toArray(attackerDice), attackerDice.size(),
+                toArray(defenderDice), defenderDice.size()));
+    }
+
+    public int getPacked() {
+        return packed;
+    }
+
+    public List<Integer> getAttackerDice() {
+        return DiceCodec.attackerDice(packed);
+    }
+
+    public List<Integer> getDefenderDice() {
+        return DiceCodec.defenderDice(packed);
+    }
+
+    private static int[] toArray(List<Integer> dice) {
+        int[] values = new int[dice.size()];
+        for (int i = 0; i < values.length; i++) {
+            int value = dice.get(i);
+            if (value < 1 || value > 6) {
+                throw new IllegalArgumentException("Invalid die value " + value);
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof DiceRoll other && other.packed == packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(packed);
+    }
+
+    @Override
+    public String toString() {
+        return getAttackerDice() + " vs " + getDefenderDice();
+    }
+}
@@ -0,0 +1,61 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+/**
+ * Reglas de dados del TEG compartidas por el combate real, la simulación y el cálculo de probabilidades.
+ */
+public final class DiceRules {
+
+    private DiceRules() {
+    }
+
+    /** Dados que puede tirar un país atacante: uno por ejército, dejando uno, hasta tres. */
+    public static int attackerDice(int armies) {
+        return Math.max(0, Math.min(CombatOddsEngine.MAX_DICE, armies - 1));
+    }
+
+    /** Dados que tira un país defensor: uno por ejército, hasta tres. */
+    public static int defenderDice(int armies) {
+        return Math.max(0, Math.min(CombatOddsEngine.MAX_DICE, armies));
+    }
+
+    /**
+     * Ejércitos que pasan al país conquistado: entre 1 y tantos como dados tiró el atacante en la última
+     * tirada, sin dejar vacío el origen. {@code requested} null significa el máximo.
+     */
+    public static int movingArmies(int attackerRemaining, int attackerDice, Integer requested) {
+        int max = Math.min(attackerDice, attackerRemaining - 1);
+        int wanted = requested == null ? max : requested;
+        return Math.max(1, Math.min(max, wanted));
+    }
+
+    /**
+     * Ejércitos que pierde el atacante al comparar los dados de mayor a menor; los empates gana el defensor.
+     * El defensor pierde {@code min(attackerCount, defenderCount)} menos este valor.
+     * Ordena los primeros elementos de ambos arreglos in situ.
+     */
+    public static int attackerLosses(int[] attacker, int attackerCount, int[] defender, int defenderCount) {
+        sortDescending(attacker, attackerCount);
+        sortDescending(defender, defenderCount);
+        int comparisons = Math.min(attackerCount, defenderCount);
+        int losses = 0;
+        for (int i = 0; i < comparisons; i++) {
+            if (attacker[i] <= defender[i]) {
+                losses++;
+            }
+        }
+        return losses;
+    }
+
+    /** Ordenamiento por inserción: a lo sumo tres dados, sin reservar memoria. */
+    public static void sortDescending(int[] dice, int count) {
+        for (int i = 1; i < count; i++) {
+            int value = dice[i];
+            int j = i - 1;
+            while (j >= 0 && dice[j] < value) {
+                dice[j + 1] = dice[j];
+                j--;
+            }
+            dice[j + 1] = value;
+        }
+    }
+}
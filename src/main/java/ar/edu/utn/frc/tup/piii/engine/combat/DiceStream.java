@@ -0,0 +1,52 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generador de dados determinístico por partida basado en SplitMix64.
+ * <p>
+ * No guarda estado: cada tirada se deriva de la semilla de la partida y de su número de tirada,
+ * así que distintas partidas (o distintas tiradas de la misma partida) nunca comparten un generador
+ * y cualquier tirada se puede reproducir a partir de ese par de valores.
+ */
+public final class DiceStream {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int DIE_FACES = 6;
+
+    private DiceStream() {
+    }
+
+    /** Semilla nueva para una partida. */
+    public static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+
+    /**
+     * Llena los primeros {@code attackerCount} y {@code defenderCount} lugares con la tirada
+     * número {@code round} de la partida; no reserva memoria.
+     */
+    public static void roll(long seed, long round, int[] attacker, int attackerCount,
+                            int[] defender, int defenderCount) {
+        long state = mix(seed + (round + 1) * GOLDEN_GAMMA);
+        for (int i = 0; i < attackerCount; i++) {
+            state += GOLDEN_GAMMA;
+            attacker[i] = face(mix(state));
+        }
+        for (int i = 0; i < defenderCount; i++) {
+            state += GOLDEN_GAMMA;
+            defender[i] = face(mix(state));
+        }
+    }
+
+    /** Convierte 32 bits aleatorios en una cara de 1 a 6 por multiplicación (sesgo menor a 2^-32). */
+    private static int face(long random) {
+        return (int) (((random >>> 32) * DIE_FACES) >>> 32) + 1;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,202 @@
+package ar.edu.utn.frc.tup.piii.engine.event;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardDrawn;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.FortificationPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameFinished;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameRestored;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ObjectiveCompleted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PhaseChanged;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerEliminated;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerJoined;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerLeft;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TerritoryConquered;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnEnded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+
+import java.util.Arrays;
+
+/**
+ * Guarda un {@link GameEventData} en la columna {@code game_events.data} como una lista de números
+ * separados por coma, en el orden de los campos del registro. Los arreglos van precedidos por su
+ * largo y la fase por su nombre. El tipo no se repite: ya está en la columna {@code type}.
+ * <p>
+ * Los arreglos agregados al final de un registro pueden faltar en filas viejas: se leen vacíos
+ * (o con -1 por jugador, los objetivos del inicio).
+ */
+public final class GameEventCodec {
+    private static final char SEPARATOR = ',';
+
+    private GameEventCodec() {
+    }
+
+    public static String encode(GameEventData data) {
+        Writer out = new Writer();
+        if (data instanceof GameStarted e) {
+            out.put(e.diceSeed()).put(e.playerIds()).put(e.objectiveIds());
+        } else if (data instanceof PlayerJoined e) {
+            out.put(e.playerId()).put(e.seat());
+        } else if (data instanceof PlayerLeft e) {
+            out.put(e.playerId());
+        } else if (data instanceof TurnStarted e) {
+            out.put(e.seat()).put(e.turn()).put(e.armiesToPlace());
+        } else if (data instanceof PhaseChanged e) {
+            out.put(e.phase().name());
+        } else if (data instanceof AttackPerformed e) {
+            out.put(e.fromCountryId()).put(e.toCountryId()).put(e.attackerLosses()).put(e.defenderLosses())
+                    .put(e.diceSeed()).put(e.diceRound()).put(e.rounds());
+        } else if (data instanceof TerritoryConquered e) {
+            out.put(e.fromCountryId()).put(e.toCountryId()).put(e.conquerorId()).put(e.movingArmies());
+        } else if (data instanceof CardsTraded e) {
+            out.put(e.playerId()).put(e.armies()).put(e.cardIds()).put(e.countryIds());
+        } else if (data instanceof ReinforcementsPlaced e) {
+            out.put(e.playerId()).put(e.countryIds()).put(e.armies());
+        } else if (data instanceof FortificationPerformed e) {
+            out.put(e.fromCountryId()).put(e.toCountryId()).put(e.armies());
+        } else if (data instanceof TurnEnded e) {
+            out.put(e.seat());
+        } else if (data instanceof PlayerEliminated e) {
+            out.put(e.playerId());
+        } else if (data instanceof GameFinished e) {
+            out.put(e.winnerId());
+        } else if (data instanceof ObjectiveCompleted e) {
+            out.put(e.playerId()).put(e.objectiveId());
+        } else if (data instanceof GameRestored e) {
+            out.put(e.snapshotId()).put(e.sequence());
+        } else if (data instanceof CardDrawn e) {
+            out.put(e.playerId()).put(e.cardId()).put(e.countryId());
+        }
+        return out.toString();
+    }
+
+    public static GameEventData decode(EventType type, String data) {
+        Reader in = new Reader(data);
+        return switch (type) {
+            case GAME_STARTED -> {
+                long diceSeed = in.nextLong();
+                long[] playerIds = in.nextLongs();
+                yield new GameStarted(diceSeed, playerIds, in.hasNext() ? in.nextLongs() : noObjectives(playerIds.length));
+            }
+            case PLAYER_JOINED -> new PlayerJoined(in.nextLong(), in.nextInt());
+            case PLAYER_LEFT -> new PlayerLeft(in.nextLong());
+            case TURN_STARTED -> new TurnStarted(in.nextInt(), in.nextInt(), in.nextInt());
+            case PHASE_CHANGED -> new PhaseChanged(GamePhase.valueOf(in.next()));
+            case ATTACK_PERFORMED -> new AttackPerformed(in.nextLong(), in.nextLong(), in.nextInt(), in.nextInt(),
+                    in.nextLong(), in.nextLong(), in.nextInt());
+            case TERRITORY_CONQUERED -> new TerritoryConquered(in.nextLong(), in.nextLong(), in.nextLong(),
+                    in.nextInt());
+            case CARDS_TRADED -> new CardsTraded(in.nextLong(), in.nextInt(), in.nextLongsOrEmpty(),
+                    in.nextLongsOrEmpty());
+            case REINFORCEMENTS_PLACED -> new ReinforcementsPlaced(in.nextLong(), in.nextLongs(), in.nextInts());
+            case FORTIFICATION_PERFORMED -> new FortificationPerformed(in.nextLong(), in.nextLong(), in.nextInt());
+            case TURN_ENDED -> new TurnEnded(in.nextInt());
+            case PLAYER_ELIMINATED -> new PlayerEliminated(in.nextLong());
+            case GAME_FINISHED -> new GameFinished(in.nextLong());
+            case OBJECTIVE_COMPLETED -> new ObjectiveCompleted(in.nextLong(), in.nextLong());
+            case GAME_RESTORED -> new GameRestored(in.nextLong(), in.nextLong());
+            case CARD_DRAWN -> new CardDrawn(in.nextLong(), in.nextLong(), in.nextLong());
+        };
+    }
+
+    private static long[] noObjectives(int players) {
+        long[] objectives = new long[players];
+        Arrays.fill(objectives, -1L);
+        return objectives;
+    }
+
+    private static final class Writer {
+        private final StringBuilder text = new StringBuilder(32);
+
+        Writer put(long value) {
+            return put(Long.toString(value));
+        }
+
+        Writer put(long[] values) {
+            put(values.length);
+            for (long value : values) {
+                put(value);
+            }
+            return this;
+        }
+
+        Writer put(int[] values) {
+            put(values.length);
+            for (int value : values) {
+                put(value);
+            }
+            return this;
+        }
+
+        Writer put(String value) {
+            if (!text.isEmpty()) {
+                text.append(SEPARATOR);
+            }
+            text.append(value);
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+
+    private static final class Reader {
+        private final String text;
+        private int position;
+
+        Reader(String text) {
+            this.text = text == null ? "" : text;
+        }
+
+        boolean hasNext() {
+            return !text.isEmpty() && position <= text.length();
+        }
+
+        String next() {
+            if (position > text.length()) {
+                throw new IllegalArgumentException("Truncated event data: " + text);
+            }
+            int end = text.indexOf(SEPARATOR, position);
+            if (end < 0) {
+                end = text.length();
+            }
+            String value = text.substring(position, end);
+            position = end + 1;
+            return value;
+        }
+
+        long nextLong() {
+            return Long.parseLong(next());
+        }
+
+        int nextInt() {
+            return Integer.parseInt(next());
+        }
+
+        long[] nextLongs() {
+            long[] values = new long[nextInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = nextLong();
+            }
+            return values;
+        }
+
+        long[] nextLongsOrEmpty() {
+            return hasNext() ? nextLongs() : new long[0];
+        }
+
+        int[] nextInts() {
+            int[] values = new int[nextInt()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = nextInt();
+            }
+            return values;
+        }
+    }
+}
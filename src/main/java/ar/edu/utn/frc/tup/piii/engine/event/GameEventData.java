@@ -0,0 +1,124 @@
+package ar.edu.utn.frc.tup.piii.engine.event;
+
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+
+/**
+ * Contenido tipado de un {@code GameEvent}: un registro por {@link EventType}, solo con ids y
+ * números, lo justo para que {@code GameReplayer} pueda reaplicarlo sobre el estado anterior.
+ * <p>
+ * Los ids de jugador ausentes (sin ganador, territorio neutral) se guardan como -1.
+ */
+public sealed interface GameEventData {
+
+    EventType type();
+
+    /**
+     * Reparto inicial: los países se barajan con {@code diceSeed} y se asignan por asiento. El
+     * objetivo secreto de cada asiento va en {@code objectiveIds} (-1 si no tiene).
+     */
+    record GameStarted(long diceSeed, long[] playerIds, long[] objectiveIds) implements GameEventData {
+        public EventType type() {
+            return EventType.GAME_STARTED;
+        }
+    }
+
+    record PlayerJoined(long playerId, int seat) implements GameEventData {
+        public EventType type() {
+            return EventType.PLAYER_JOINED;
+        }
+    }
+
+    record PlayerLeft(long playerId) implements GameEventData {
+        public EventType type() {
+            return EventType.PLAYER_LEFT;
+        }
+    }
+
+    record TurnStarted(int seat, int turn, int armiesToPlace) implements GameEventData {
+        public EventType type() {
+            return EventType.TURN_STARTED;
+        }
+    }
+
+    record PhaseChanged(GamePhase phase) implements GameEventData {
+        public EventType type() {
+            return EventType.PHASE_CHANGED;
+        }
+    }
+
+    /** Resultado de un ataque; los dados se reproducen con la semilla y la primera tirada. */
+    record AttackPerformed(long fromCountryId, long toCountryId, int attackerLosses, int defenderLosses,
+                           long diceSeed, long diceRound, int rounds) implements GameEventData {
+        public EventType type() {
+            return EventType.ATTACK_PERFORMED;
+        }
+    }
+
+    record TerritoryConquered(long fromCountryId, long toCountryId, long conquerorId, int movingArmies)
+            implements GameEventData {
+        public EventType type() {
+            return EventType.TERRITORY_CONQUERED;
+        }
+    }
+
+    /** Las tarjetas canjeadas y el país de cada una (-1 para un comodín). */
+    record CardsTraded(long playerId, int armies, long[] cardIds, long[] countryIds) implements GameEventData {
+        public EventType type() {
+            return EventType.CARDS_TRADED;
+        }
+    }
+
+    record ReinforcementsPlaced(long playerId, long[] countryIds, int[] armies) implements GameEventData {
+        public EventType type() {
+            return EventType.REINFORCEMENTS_PLACED;
+        }
+    }
+
+    record FortificationPerformed(long fromCountryId, long toCountryId, int armies) implements GameEventData {
+        public EventType type() {
+            return EventType.FORTIFICATION_PERFORMED;
+        }
+    }
+
+    record TurnEnded(int seat) implements GameEventData {
+        public EventType type() {
+            return EventType.TURN_ENDED;
+        }
+    }
+
+    record PlayerEliminated(long playerId) implements GameEventData {
+        public EventType type() {
+            return EventType.PLAYER_ELIMINATED;
+        }
+    }
+
+    record GameFinished(long winnerId) implements GameEventData {
+        public EventType type() {
+            return EventType.GAME_FINISHED;
+        }
+    }
+
+    record ObjectiveCompleted(long playerId, long objectiveId) implements GameEventData {
+        public EventType type() {
+            return EventType.OBJECTIVE_COMPLETED;
+        }
+    }
+
+    /** Tarjeta que pasó del mazo a la mano del jugador; {@code countryId} es -1 para un comodín. */
+    record CardDrawn(long playerId, long cardId, long countryId) implements GameEventData {
+        public EventType type() {
+            return EventType.CARD_DRAWN;
+        }
+    }
+
+    /**
+     * La partida volvió al estado del snapshot {@code snapshotId}, que cubre el log hasta
+     * {@code sequence}. Los eventos anteriores quedan como historia; el replay sigue desde el snapshot.
+     */
+    record GameRestored(long snapshotId, long sequence) implements GameEventData {
+        public EventType type() {
+            return EventType.GAME_RESTORED;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta un comando JPA sobre una partida en su propia transacción y, si choca con otra escritura
+ * (el {@code @Version} de {@code Game}, {@code Player} o {@code GameTerritory} no coincide), lo
+ * vuelve a intentar desde cero con los datos frescos.
+ * <p>
+ * Dentro de una transacción ya abierta no se reintenta: el conflicto tiene que llegar a quien la
+ * abrió, que es el único que puede repetirla entera.
+ */
+@Component
+public class GameCommandRetry {
+    static final String COMMAND_METRIC = "teg.game.commands";
+    static final String CONFLICT_METRIC = "teg.game.conflicts";
+    private static final long BACKOFF_MILLIS = 10;
+
+    private final TransactionTemplate transaction;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+
+    public GameCommandRetry(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                            @Value("${teg.game.max-attempts:3}") int maxAttempts) {
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public <T> T execute(String command, Supplier<T> action) {
+        meterRegistry.counter(COMMAND_METRIC, "command", command).increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                boolean retry = attempt < maxAttempts;
+                meterRegistry.counter(CONFLICT_METRIC, "command", command, "outcome", retry ? "retried" : "failed")
+                        .increment();
+                if (!retry) {
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String command, Runnable action) {
+        execute(command, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, BACKOFF_MILLIS * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a game command", e);
+        }
+    }
+}
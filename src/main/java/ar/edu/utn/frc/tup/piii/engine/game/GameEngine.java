@@ -0,0 +1,813 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.Battle;
+import ar.edu.utn.frc.tup.piii.engine.combat.CombatOddsEngine;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceCodec;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRules;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceStream;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.FortificationPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PhaseChanged;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerEliminated;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TerritoryConquered;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnEnded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.exception.GameMovedException;
+import ar.edu.utn.frc.tup.piii.exception.StaleGameStateException;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Motor autoritativo de las partidas en curso.
+ * <p>
+ * Cada partida activa vive hidratada en un {@link GameState}; los comandos se validan y aplican en
+ * memoria, sin cargar el agregado JPA. Todos los comandos de una partida pasan por su
+ * {@link GameMailbox} y se aplican de a uno en orden de llegada; las lecturas toman el monitor del
+ * estado y pueden correr en paralelo con la cola. Los cambios se escriben en segundo
+ * plano cada {@code teg.engine.flush-interval-ms}, cada partida en su propia transacción. Si las escrituras
+ * se atrasan más de {@code teg.engine.max-lag-ms}, el comando que supere ese atraso vacía su partida
+ * antes de volver, así que la pérdida ante una caída queda acotada.
+ * <p>
+ * Lo que bloquea en la base (hidratar, vaciar y el trabajo de {@link #detached(Long, String, Supplier)})
+ * corre en los hilos de {@code teg.engine.io-threads}, en el mismo orden del buzón; los hilos de
+ * comandos solo aplican en memoria. El vaciado por atraso lo hace quien mandó el comando, al volver.
+ * <p>
+ * Una partida cuyas escrituras fallan queda en cuarentena: conserva lo pendiente y el vaciado de
+ * fondo la reintenta con espera creciente, sin frenar a las demás. Si falla porque sus filas cambiaron
+ * por fuera del motor, su copia en memoria se descarta y el próximo comando la vuelve a hidratar.
+ * <p>
+ * Las entidades siguen siendo el almacenamiento durable y la fuente de la que se rehidrata al
+ * arrancar. Quien vaya a modificar una partida por JPA lo hace dentro de
+ * {@link #detached(Long, String, Supplier)}, en el nodo dueño.
+ * <p>
+ * Una partida se puede pasar a otro nodo sin cortarla: {@link #handOff(Long, String, Consumer)} la congela en
+ * su buzón y la vacía, y el otro nodo sigue desde esa imagen con {@link #adopt(GameImage)}.
+ */
+@Component
+public class GameEngine {
+    private static final Logger log = LoggerFactory.getLogger(GameEngine.class);
+
+    static final String STALE_METRIC = "teg.engine.stale-commands";
+    static final String FLUSH_FAILURE_METRIC = "teg.engine.flush-failures";
+    static final String CONFLICT_METRIC = "teg.engine.write-conflicts";
+    private static final long MAX_FLUSH_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final BooleanSupplier BLOCKING = () -> true;
+
+    private final GameStateStore store;
+    private final MapTopologyProvider topologyProvider;
+    private final long maxLagNanos;
+    private final long flushIntervalNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, GameState> games = new ConcurrentHashMap<>();
+    private final Map<Long, GameMailbox> mailboxes = new ConcurrentHashMap<>();
+    // Partidas entregadas a otro nodo, con el nodo que las tiene
+    private final Map<Long, String> movedTo = new ConcurrentHashMap<>();
+    // Partidas con un detached en curso: sus eventos los agrega JPA, no el motor
+    private final Set<Long> detachedGames = ConcurrentHashMap.newKeySet();
+    private final List<Consumer<GameState>> turnListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<GameState>> commandListeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService commandExecutor;
+    private final ExecutorService ioExecutor;
+    private final ScheduledExecutorService flusher;
+
+    public GameEngine(GameStateStore store, MapTopologyProvider topologyProvider, MeterRegistry meterRegistry,
+                      @Value("${teg.engine.flush-interval-ms:200}") long flushIntervalMillis,
+                      @Value("${teg.engine.max-lag-ms:2000}") long maxLagMillis,
+                      @Value("${teg.engine.command-threads:0}") int commandThreads,
+                      @Value("${teg.engine.io-threads:8}") int ioThreads) {
+        this.store = store;
+        this.topologyProvider = topologyProvider;
+        this.meterRegistry = meterRegistry;
+        this.maxLagNanos = TimeUnit.MILLISECONDS.toNanos(maxLagMillis);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        int threads = commandThreads > 0 ? commandThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger workers = new AtomicInteger();
+        this.commandExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "game-engine-command-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger ioWorkers = new AtomicInteger();
+        this.ioExecutor = Executors.newFixedThreadPool(Math.max(1, ioThreads), r -> {
+            Thread thread = new Thread(r, "game-engine-io-" + ioWorkers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-engine-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDue, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        commandExecutor.shutdown();
+        ioExecutor.shutdown();
+        flusher.shutdown();
+        try {
+            flushAll();
+        } catch (RuntimeException e) {
+            log.error("Final flush failed, pending writes are lost", e);
+        }
+    }
+
+    /**
+     * Avisa cada vez que una partida pasa al turno de otro jugador. Corre en el hilo del buzón con el
+     * monitor del estado tomado, así que tiene que ser rápido y no hacer entrada/salida.
+     */
+    public void addTurnListener(Consumer<GameState> listener) {
+        turnListeners.add(listener);
+    }
+
+    /**
+     * Avisa después de cada comando aplicado, ya sin el monitor del estado pero todavía en el hilo
+     * del buzón: para una misma partida los avisos llegan de a uno y en orden.
+     */
+    public void addCommandListener(Consumer<GameState> listener) {
+        commandListeners.add(listener);
+    }
+
+    public boolean isLoaded(Long gameId) {
+        return games.containsKey(gameId);
+    }
+
+    public Set<Long> loadedGames() {
+        return Set.copyOf(games.keySet());
+    }
+
+    /**
+     * Si el motor numera los eventos de la partida: la tiene cargada y no hay un {@link #detached}
+     * en curso. Mientras tanto, un evento agregado por JPA repetiría su secuencia.
+     */
+    public boolean allocatesSequences(Long gameId) {
+        return games.containsKey(gameId) && !detachedGames.contains(gameId);
+    }
+
+    /** Lee el estado de la partida con su monitor tomado, hidratándola si hace falta. */
+    public <T> T read(Long gameId, Function<GameState, T> reader) {
+        GameState state = state(gameId);
+        synchronized (state) {
+            return reader.apply(state);
+        }
+    }
+
+    /**
+     * Como {@link #read(Long, Function)} pero sin hidratar: si la partida no está cargada devuelve
+     * {@code otherwise}, que lee de la base o del {@code ContinentControlTracker}.
+     */
+    public <T> T readIfLoaded(Long gameId, Function<GameState, T> reader, Supplier<T> otherwise) {
+        GameState state = games.get(gameId);
+        if (state == null) {
+            return otherwise.get();
+        }
+        synchronized (state) {
+            return reader.apply(state);
+        }
+    }
+
+    /**
+     * Lee dueños y ejércitos sin hidratar la partida: del estado cargado, que puede tener cambios sin
+     * escribir, o si no está cargada del {@code ContinentControlTracker}, que se arma desde JPA.
+     */
+    public <T> T readControl(Long gameId, Function<ContinentControl, T> reader) {
+        return readIfLoaded(gameId, state -> reader.apply(state.getTerritories()),
+                () -> store.readControl(gameId, reader));
+    }
+
+    public void reinforce(Long gameId, Long playerId, Map<Long, Integer> reinforcements, Long expectedVersion) {
+        run(gameId, "reinforce", expectedVersion, state -> {
+
+            int seat = requireTurn(state, playerId, GamePhase.REINFORCEMENT);
+            ContinentControl territories = state.getTerritories();
+            MapTopology topology = territories.getTopology();
+            int available = state.armiesToPlace(seat);
+            long total = 0;
+            for (Map.Entry<Long, Integer> entry : reinforcements.entrySet()) {
+                int country = topology.indexOf(entry.getKey());
+                if (country < 0 || territories.ownerId(country) != playerId || entry.getValue() == null
+                        || entry.getValue() < 0) {
+                    throw new IllegalArgumentException("Invalid reinforcement for country " + entry.getKey());
+                }
+                if (entry.getValue() > available) {
+                    throw new IllegalArgumentException("Not enough armies to place");
+                }
+                total += entry.getValue();
+            }
+            if (total > available) {
+                throw new IllegalArgumentException("Not enough armies to place");
+            }
+            for (Map.Entry<Long, Integer> entry : reinforcements.entrySet()) {
+                int country = topology.indexOf(entry.getKey());
+                state.setArmies(country, territories.armies(country) + entry.getValue());
+            }
+            state.setArmiesToPlace(seat, available - (int) total);
+            long[] countryIds = new long[reinforcements.size()];
+            int[] armies = new int[countryIds.length];
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : reinforcements.entrySet()) {
+                countryIds[i] = entry.getKey();
+                armies[i++] = entry.getValue();
+            }
+            state.addEvent(playerId, new ReinforcementsPlaced(playerId, countryIds, armies));
+        });
+    }
+
+    public void fortify(Long gameId, Long playerId, Long fromCountryId, Long toCountryId, int armies,
+                        Long expectedVersion) {
+        run(gameId, "fortify", expectedVersion, state -> {
+            requireTurn(state, playerId, GamePhase.FORTIFY);
+            ContinentControl territories = state.getTerritories();
+            int from = territories.getTopology().indexOf(fromCountryId);
+            int to = territories.getTopology().indexOf(toCountryId);
+            if (armies < 1 || from < 0 || to < 0 || from == to || territories.ownerId(from) != playerId
+                    || !territories.connected(from, to) || territories.armies(from) - armies < 1) {
+                throw new IllegalArgumentException("Invalid fortify");
+            }
+            state.setArmies(from, territories.armies(from) - armies);
+            state.setArmies(to, territories.armies(to) + armies);
+            state.addEvent(playerId, new FortificationPerformed(fromCountryId, toCountryId, armies));
+        });
+    }
+
+    /**
+     * Resuelve un ataque con el generador de dados de la partida: una tirada si {@code maxRounds} es 1,
+     * o hasta conquistar o quedar en {@code stopAtArmies} en modo relámpago. Si se indica
+     * {@code attackerDice}, el umbral se calcula para tirar esa cantidad de dados.
+     */
+    public CombatResultDto attack(Long gameId, Long playerId, Long fromCountryId, Long toCountryId,
+                                  Integer attackerDice, int stopAtArmies, int maxRounds, Integer requestedMoving,
+                                  Long expectedVersion) {
+        return call(gameId, "attack", expectedVersion, state -> {
+            int seat = requireTurn(state, playerId, GamePhase.ATTACK);
+            ContinentControl territories = state.getTerritories();
+            MapTopology topology = territories.getTopology();
+            int from = topology.indexOf(fromCountryId);
+            int to = topology.indexOf(toCountryId);
+            if (from < 0 || to < 0) {
+                throw new IllegalArgumentException("Country is not part of the game");
+            }
+            if (territories.ownerId(from) != playerId) {
+                throw new IllegalStateException("The attacking country does not belong to the player");
+            }
+            if (territories.ownerId(to) == playerId) {
+                throw new IllegalStateException("A player cannot attack his own country");
+            }
+            if (territories.armies(from) < 2) {
+                throw new IllegalStateException("At least 2 armies are required to attack");
+            }
+            if (!topology.areAdjacent(from, to)) {
+                throw new IllegalStateException("Countries are not adjacent");
+            }
+            if (state.getDiceSeed() == 0L) {
+                state.setDiceSeed(DiceStream.newSeed());
+            }
+
+            long defenderId = territories.ownerId(to);
+            int attackerInitial = territories.armies(from);
+            int defenderInitial = territories.armies(to);
+            long firstRound = state.getDiceRound();
+            int stopAt = Math.max(1, stopAtArmies);
+            if (attackerDice != null) {
+                int dice = Math.max(1, Math.min(DiceRules.attackerDice(attackerInitial), attackerDice));
+                stopAt = attackerInitial - dice;
+            }
+            if (attackerInitial <= stopAt) {
+                throw new IllegalStateException("The attacking country already has " + stopAt + " armies or less");
+            }
+            Battle battle = new Battle(state.getDiceSeed(), firstRound, attackerInitial, defenderInitial, stopAt)
+                    .run(maxRounds);
+            state.setDiceRound(firstRound + battle.getRounds());
+
+            int attackerLeft = battle.getAttackerArmies();
+            int defenderLeft = battle.getDefenderArmies();
+            if (battle.isConquered()) {
+                int moving = DiceRules.movingArmies(attackerLeft, DiceCodec.attackerCount(battle.getLastRoll()),
+                        requestedMoving);
+                attackerLeft -= moving;
+                defenderLeft = moving;
+            }
+            state.setArmies(from, attackerLeft);
+            state.setArmies(to, defenderLeft);
+            state.addEvent(playerId, new AttackPerformed(fromCountryId, toCountryId,
+                    attackerInitial - battle.getAttackerArmies(), defenderInitial - battle.getDefenderArmies(),
+                    state.getDiceSeed(), firstRound, battle.getRounds()));
+            if (battle.isConquered()) {
+                state.setOwner(to, playerId);
+                state.addEvent(playerId, new TerritoryConquered(fromCountryId, toCountryId, playerId, defenderLeft));
+                int defenderSeat = defenderId < 0 ? -1 : state.seatOf(defenderId);
+                if (defenderSeat >= 0 && territories.territories(defenderId) == 0) {
+                    state.setPlayerStatus(defenderSeat, PlayerStatus.ELIMINATED);
+                    state.addEvent(playerId, new PlayerEliminated(defenderId));
+                }
+            }
+            state.addCombat(new PendingCombat(gameId, playerId, fromCountryId, toCountryId, state.getTurn(),
+                    LocalDateTime.now(), attackerInitial, defenderInitial, attackerInitial - battle.getAttackerArmies(),
+                    defenderInitial - battle.getDefenderArmies(), battle.isConquered(), battle.getRounds(),
+                    state.getDiceSeed(), firstRound, stopAt, battle.getLastRoll()));
+
+            int defenderSeat = defenderId < 0 ? -1 : state.seatOf(defenderId);
+            return CombatResultDto.builder()
+                    .attackerCountryId(fromCountryId)
+                    .attackerCountryName(topologyProvider.country(from).getName())
+                    .defenderCountryId(toCountryId)
+                    .defenderCountryName(topologyProvider.country(to).getName())
+                    .attackerPlayerName(state.playerName(seat))
+                    .defenderPlayerName(defenderSeat < 0 ? null : state.playerName(defenderSeat))
+                    .attackerDice(DiceCodec.attackerDice(battle.getLastRoll()))
+                    .defenderDice(DiceCodec.defenderDice(battle.getLastRoll()))
+                    .attackerLosses(attackerInitial - battle.getAttackerArmies())
+                    .defenderLosses(defenderInitial - battle.getDefenderArmies())
+                    .territoryConquered(battle.isConquered())
+                    .attackerRemainingArmies(attackerLeft)
+                    .defenderRemainingArmies(defenderLeft)
+                    .rounds(battle.getRounds())
+                    .build();
+        });
+    }
+
+    /**
+     * Tira la próxima ronda del generador de la partida, empaquetada con {@link DiceCodec}. La ronda
+     * queda consumida igual que las de un ataque, así que se reproduce con la semilla y su número.
+     */
+    public int rollDice(Long gameId, int attackerDice, int defenderDice) {
+        if (attackerDice < 0 || attackerDice > CombatOddsEngine.MAX_DICE
+                || defenderDice < 0 || defenderDice > CombatOddsEngine.MAX_DICE) {
+            throw new IllegalArgumentException("At most " + CombatOddsEngine.MAX_DICE + " dice per side");
+        }
+        return call(gameId, "rollDice", null, state -> {
+            if (state.getDiceSeed() == 0L) {
+                state.setDiceSeed(DiceStream.newSeed());
+            }
+            int[] attacker = new int[CombatOddsEngine.MAX_DICE];
+            int[] defender = new int[CombatOddsEngine.MAX_DICE];
+            long round = state.getDiceRound();
+            DiceStream.roll(state.getDiceSeed(), round, attacker, attackerDice, defender, defenderDice);
+            state.setDiceRound(round + 1);
+            return DiceCodec.pack(attacker, attackerDice, defender, defenderDice);
+        });
+    }
+
+    /** REINFORCEMENT → ATTACK → FORTIFY → END_TURN → turno siguiente. */
+    public void nextPhase(Long gameId) {
+        run(gameId, "nextPhase", null, state -> {
+            requireInProgress(state);
+            GamePhase phase = state.getPhase();
+            if (phase == GamePhase.REINFORCEMENT) {
+                changePhase(state, GamePhase.ATTACK);
+            } else if (phase == GamePhase.ATTACK) {
+                changePhase(state, GamePhase.FORTIFY);
+            } else if (phase == GamePhase.FORTIFY) {
+                changePhase(state, GamePhase.END_TURN);
+            } else {
+                advanceTurn(state);
+            }
+        });
+    }
+
+    public void nextTurn(Long gameId) {
+        run(gameId, "nextTurn", null, state -> {
+            requireInProgress(state);
+            advanceTurn(state);
+        });
+    }
+
+    /** Escribe ya lo pendiente de la partida, si está cargada, aunque esté en cuarentena. */
+    public void flush(Long gameId) {
+        GameState state = games.get(gameId);
+        if (state != null) {
+            flush(state);
+        }
+    }
+
+    /** Escribe todas las partidas, cada una por su lado; si alguna falla, relanza al final. */
+    public void flushAll() {
+        RuntimeException failure = null;
+        for (GameState state : new ArrayList<>(games.values())) {
+            try {
+                flush(state);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Vacía y descarta la partida: a partir de acá la fuente de verdad vuelve a ser JPA. Pasa por el
+     * buzón, así que espera a que terminen los comandos que ya estaban encolados.
+     */
+    public void release(Long gameId) {
+        if (!games.containsKey(gameId) && !mailboxes.containsKey(gameId)) {
+            return;
+        }
+        submit(gameId, "release", BLOCKING, () -> {
+            unload(gameId);
+            closeMailbox(gameId);
+            return null;
+        });
+    }
+
+    /**
+     * Corre {@code work}, que modifica la partida por JPA, desde el buzón y con la partida fuera del
+     * motor: antes vacía y descarta el estado, y hasta que {@code work} termine no se aplica ningún
+     * otro comando de la partida. Lo que una lectura haya hidratado mientras tanto se descarta al
+     * final, así que el próximo comando vuelve a leer lo que dejó {@code work}. Corre en el hilo del
+     * buzón, así que {@code work} abre su propia transacción. Se llama en el nodo dueño (por
+     * {@code GameCluster}); si la partida se mudó falla con {@link GameMovedException}.
+     */
+    public <T> T detached(Long gameId, String command, Supplier<T> work) {
+        return submit(gameId, command, BLOCKING, () -> {
+            String node = movedTo.get(gameId);
+            if (node != null) {
+                throw new GameMovedException("Game " + gameId + " moved to node " + node, node);
+            }
+            detachedGames.add(gameId);
+            unload(gameId);
+            try {
+                return work.get();
+            } finally {
+                games.remove(gameId);
+                detachedGames.remove(gameId);
+                closeMailbox(gameId);
+            }
+        });
+    }
+
+    /**
+     * Entrega la partida al nodo {@code node}. Pasa por el buzón, así que espera los comandos ya
+     * encolados; escribe lo pendiente (eventos incluidos) y, con la partida congelada, le pasa a
+     * {@code transfer} la imagen del estado ya vaciado para que la haga llegar al nodo nuevo. Si
+     * {@code transfer} falla, la partida sigue acá como estaba. Si no, ya no se carga más en este
+     * nodo: lo que siga en su buzón, o llegue después, falla con {@link GameMovedException} hasta
+     * que vuelva con {@link #adopt(GameImage)} o {@link #reclaim(Long)}.
+     */
+    public void handOff(Long gameId, String node, Consumer<GameImage> transfer) {
+        submit(gameId, "handOff", BLOCKING, () -> {
+            GameState state = state(gameId);
+            state.flushLock.lock();
+            try {
+                flush(state);
+                GameImage image;
+                synchronized (state) {
+                    image = GameImage.of(state);
+                }
+                movedTo.put(gameId, node);
+                games.remove(gameId, state);
+                store.handedOff(gameId);
+                try {
+                    transfer.accept(image);
+                } catch (RuntimeException e) {
+                    movedTo.remove(gameId);
+                    games.put(gameId, state);
+                    store.adopted(state);
+                    throw e;
+                }
+            } finally {
+                state.flushLock.unlock();
+            }
+            closeMailbox(gameId);
+            return null;
+        });
+    }
+
+    /**
+     * Sigue con una partida que entregó otro nodo. Si ya estaba cargada (por ejemplo, hidratada por
+     * JPA mientras la imagen viajaba) queda la copia con la versión más nueva. Avisa a los
+     * {@link #addCommandListener(Consumer) listeners de comandos} como si fuera un comando más.
+     */
+    public void adopt(GameImage image) {
+        Long gameId = image.gameId();
+        submit(gameId, "adopt", () -> false, () -> {
+            movedTo.remove(gameId);
+            GameState incoming = GameStateCodec.decode(gameId, image.state(), topologyProvider.get(),
+                    image.playerNames());
+            incoming.setRowVersions(image.playerVersions(), image.territoryVersions());
+            GameState current = games.get(gameId);
+            long currentVersion = -1;
+            if (current != null) {
+                synchronized (current) {
+                    currentVersion = current.getVersion();
+                }
+            }
+            GameState state = current;
+            if (currentVersion < incoming.getVersion()) {
+                games.put(gameId, incoming);
+                store.adopted(incoming);
+                state = incoming;
+            }
+            notifyCommand(state);
+            return null;
+        });
+    }
+
+    /** La partida vuelve a ser de este nodo sin imagen: la próxima vez se hidrata por JPA. */
+    public void reclaim(Long gameId) {
+        movedTo.remove(gameId);
+    }
+
+    private void run(Long gameId, String command, Long expectedVersion, Consumer<GameState> action) {
+        call(gameId, command, expectedVersion, state -> {
+            action.accept(state);
+            return null;
+        });
+    }
+
+    /**
+     * Aplica el comando con el monitor del estado, sube la versión y, si las escrituras vienen
+     * atrasadas, vacía. Con {@code expectedVersion} el comando se rechaza si el cliente no vio el
+     * último estado: primero sin encolar, contra la copia en memoria, y de nuevo ya en el buzón.
+     */
+    private <T> T call(Long gameId, String command, Long expectedVersion, Function<GameState, T> action) {
+        GameState loaded = games.get(gameId);
+        if (loaded != null) {
+            requireVersion(loaded, command, expectedVersion);
+        }
+        T result = submit(gameId, command, () -> !games.containsKey(gameId), () -> {
+            GameState state = state(gameId);
+            T applied;
+            synchronized (state) {
+                requireVersion(state, command, expectedVersion);
+                int turn = state.getTurn();
+                int seat = state.getCurrentPlayer();
+                applied = action.apply(state);
+                state.bumpVersion();
+                if (state.getTurn() != turn || state.getCurrentPlayer() != seat) {
+                    turnListeners.forEach(listener -> listener.accept(state));
+                }
+            }
+            notifyCommand(state);
+            return applied;
+        });
+        GameState state = games.get(gameId);
+        if (state != null) {
+            afterCommand(state);
+        }
+        return result;
+    }
+
+    private void requireVersion(GameState state, String command, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return;
+        }
+        long version;
+        synchronized (state) {
+            version = state.getVersion();
+        }
+        if (version != expectedVersion) {
+            meterRegistry.counter(STALE_METRIC, "command", command).increment();
+            throw new StaleGameStateException("Stale game state: expected version " + expectedVersion
+                    + " but the game is at " + version);
+        }
+    }
+
+    /**
+     * Encola el comando en el buzón de la partida y espera su resultado. Las excepciones del comando
+     * se relanzan tal cual; desde un comando de la misma partida se ejecuta directo. Si
+     * {@code blocking} da true cuando le toca, corre en un hilo de entrada/salida.
+     */
+    private <T> T submit(Long gameId, String command, BooleanSupplier blocking, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable job = () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        while (true) {
+            GameMailbox mailbox = mailboxes.computeIfAbsent(gameId,
+                    id -> new GameMailbox(id, commandExecutor, ioExecutor, meterRegistry));
+            if (mailbox.isWorker()) {
+                return task.get();
+            }
+            if (mailbox.offer(command, blocking, job)) {
+                break;
+            }
+            mailboxes.remove(gameId, mailbox);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private GameState state(Long gameId) {
+        GameState state = games.get(gameId);
+        if (state == null) {
+            String node = movedTo.get(gameId);
+            if (node != null) {
+                throw new GameMovedException("Game " + gameId + " moved to node " + node, node);
+            }
+            state = games.computeIfAbsent(gameId, store::load);
+        }
+        return state;
+    }
+
+    private void unload(Long gameId) {
+        GameState state = games.get(gameId);
+        if (state != null) {
+            state.flushLock.lock();
+            try {
+                flush(state);
+                games.remove(gameId, state);
+            } finally {
+                state.flushLock.unlock();
+            }
+        }
+    }
+
+    private void closeMailbox(Long gameId) {
+        GameMailbox mailbox = mailboxes.get(gameId);
+        if (mailbox != null && mailbox.isWorker() && mailbox.closeIfIdle()) {
+            mailboxes.remove(gameId, mailbox);
+        }
+    }
+
+    private static void changePhase(GameState state, GamePhase phase) {
+        state.setPhase(phase);
+        state.addEvent(state.getCurrentPlayerId(), new PhaseChanged(phase));
+    }
+
+    private void advanceTurn(GameState state) {
+        int players = state.playerCount();
+        int seat = state.getCurrentPlayer();
+        state.addEvent(state.getCurrentPlayerId(), new TurnEnded(seat));
+        for (int step = 0; step < players; step++) {
+            seat = (seat + 1) % players;
+            if (seat == 0) {
+                state.setTurn(state.getTurn() + 1);
+            }
+            if (state.playerStatus(seat) != PlayerStatus.ELIMINATED) {
+                break;
+            }
+        }
+        state.setCurrentPlayer(seat);
+        state.setPhase(GamePhase.REINFORCEMENT);
+        state.setArmiesToPlace(seat, state.armiesToPlace(seat)
+                + GameRules.reinforcements(state.getTerritories(), state.playerId(seat)));
+        state.addEvent(state.playerId(seat), new TurnStarted(seat, state.getTurn(), state.armiesToPlace(seat)));
+    }
+
+    private void notifyCommand(GameState state) {
+        for (Consumer<GameState> listener : commandListeners) {
+            try {
+                listener.accept(state);
+            } catch (RuntimeException e) {
+                log.warn("Command listener failed for game {}", state.getGameId(), e);
+            }
+        }
+    }
+
+    private void afterCommand(GameState state) {
+        long since = state.getDirtySince();
+        long now = System.nanoTime();
+        if (since != 0 && now - since > maxLagNanos && !isQuarantined(state, now)) {
+            flush(state);
+        }
+    }
+
+    /**
+     * Copia lo pendiente de la partida y lo escribe con su candado de escritura tomado. Si falla, lo
+     * pendiente vuelve al estado y la partida entra en cuarentena.
+     */
+    private void flush(GameState state) {
+        state.flushLock.lock();
+        try {
+            PendingWrites writes;
+            synchronized (state) {
+                if (!state.isDirty()) {
+                    return;
+                }
+                writes = state.drain();
+            }
+            try {
+                store.write(writes);
+            } catch (RuntimeException e) {
+                synchronized (state) {
+                    state.restore(writes);
+                }
+                quarantine(state);
+                throw e;
+            }
+            synchronized (state) {
+                state.written(writes);
+            }
+            state.failedFlushes = 0;
+            state.flushRetryAt = 0;
+        } finally {
+            state.flushLock.unlock();
+        }
+    }
+
+    // Espera el doble del intervalo por cada falla seguida, hasta MAX_FLUSH_BACKOFF_NANOS
+    private void quarantine(GameState state) {
+        int failures = ++state.failedFlushes;
+        long backoff = Math.min(MAX_FLUSH_BACKOFF_NANOS, flushIntervalNanos << Math.min(failures, 20));
+        state.flushRetryAt = System.nanoTime() + backoff;
+        meterRegistry.counter(FLUSH_FAILURE_METRIC).increment();
+    }
+
+    private static boolean isQuarantined(GameState state, long now) {
+        long retryAt = state.flushRetryAt;
+        return retryAt != 0 && now - retryAt < 0;
+    }
+
+    /** Pasada del vaciado de fondo: cada partida por su lado, salteando las que están en cuarentena. */
+    private void flushDue() {
+        for (GameState state : new ArrayList<>(games.values())) {
+            if (isQuarantined(state, System.nanoTime())) {
+                continue;
+            }
+            try {
+                flush(state);
+            } catch (OptimisticLockingFailureException e) {
+                log.error("Game {} changed outside the engine, dropping its in-memory state", state.getGameId(), e);
+                discard(state);
+            } catch (RuntimeException e) {
+                log.warn("Write-behind flush failed for game {} ({} in a row), will retry", state.getGameId(),
+                        state.failedFlushes, e);
+            }
+        }
+    }
+
+    // Lo pendiente ya no se puede escribir sobre lo que hay en la base: se pierde y se rehidrata
+    private void discard(GameState state) {
+        state.flushLock.lock();
+        try {
+            if (games.remove(state.getGameId(), state)) {
+                synchronized (state) {
+                    state.drain();
+                }
+                store.discarded(state.getGameId());
+                meterRegistry.counter(CONFLICT_METRIC).increment();
+            }
+        } finally {
+            state.flushLock.unlock();
+        }
+    }
+
+    private static int requireTurn(GameState state, Long playerId, GamePhase phase) {
+        requireInProgress(state);
+        if (state.getCurrentPlayerId() != playerId) {
+            throw new IllegalStateException("It is not this player's turn");
+        }
+        if (state.getPhase() != phase) {
+            throw new IllegalStateException("Current phase is " + state.getPhase());
+        }
+        return state.getCurrentPlayer();
+    }
+
+    private static void requireInProgress(GameState state) {
+        if (state.getStatus() != GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Game is not in progress");
+        }
+    }
+}
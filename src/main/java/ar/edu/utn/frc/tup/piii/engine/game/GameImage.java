@@ -0,0 +1,21 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Una partida tal como pasa de un nodo a otro: el estado en el formato de {@link GameStateCodec} más
+ * los nombres de los jugadores y las versiones de sus filas en la base, que el codec no guarda.
+ */
+public record GameImage(Long gameId, byte[] state, Map<Long, String> playerNames, long[] playerVersions,
+                        long[] territoryVersions) {
+
+    static GameImage of(GameState state) {
+        Map<Long, String> names = new HashMap<>();
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            names.put(state.playerId(seat), state.playerName(seat));
+        }
+        return new GameImage(state.getGameId(), GameStateCodec.encode(state), names, state.playerVersions(),
+                state.territoryVersions());
+    }
+}
@@ -0,0 +1,135 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Cola de comandos de una partida. Los comandos corren de a uno y en el orden en que llegaron, en un
+ * hilo prestado del ejecutor compartido; partidas distintas no comparten ningún candado.
+ * <p>
+ * Los comandos que van a la base (hidratar, vaciar, escribir por JPA) se marcan como bloqueantes:
+ * cuando le toca a uno, el buzón sigue en un hilo del ejecutor de entrada/salida y vuelve al de
+ * comandos con el siguiente que no lo sea. El orden no cambia y los hilos de comandos nunca esperan
+ * a la base.
+ * <p>
+ * Después de {@link #BATCH} comandos seguidos el buzón devuelve el hilo y se vuelve a encolar, para
+ * que una partida muy activa no acapare el ejecutor.
+ */
+final class GameMailbox {
+    static final String DEPTH_METRIC = "teg.engine.mailbox.depth";
+    static final String COMMAND_METRIC = "teg.engine.command";
+    private static final int BATCH = 64;
+
+    private final String gameTag;
+    private final Executor executor;
+    private final Executor ioExecutor;
+    private final MeterRegistry registry;
+    private final Gauge depth;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Queue<Task> queue = new ArrayDeque<>();
+    private boolean scheduled;
+    private boolean closed;
+    private volatile Thread worker;
+
+    GameMailbox(long gameId, Executor executor, Executor ioExecutor, MeterRegistry registry) {
+        this.gameTag = Long.toString(gameId);
+        this.executor = executor;
+        this.ioExecutor = ioExecutor;
+        this.registry = registry;
+        this.depth = Gauge.builder(DEPTH_METRIC, this, GameMailbox::depth)
+                .tag("game", gameTag)
+                .description("Comandos esperando en el buzón de la partida")
+                .register(registry);
+    }
+
+    /**
+     * Encola el comando; devuelve false si el buzón ya se cerró y hay que pedir uno nuevo.
+     * {@code blocking} se evalúa cuando le toca correr, con el estado de ese momento.
+     */
+    synchronized boolean offer(String command, BooleanSupplier blocking, Runnable task) {
+        if (closed) {
+            return false;
+        }
+        Timer timer = timers.computeIfAbsent(command, this::timer);
+        long enqueued = System.nanoTime();
+        queue.add(new Task(blocking, () -> {
+            try {
+                task.run();
+            } finally {
+                timer.record(System.nanoTime() - enqueued, TimeUnit.NANOSECONDS);
+            }
+        }));
+        if (!scheduled) {
+            scheduled = true;
+            executor.execute(() -> drain(executor));
+        }
+        return true;
+    }
+
+    /** True si quien llama es el hilo que está atendiendo este buzón. */
+    boolean isWorker() {
+        return worker == Thread.currentThread();
+    }
+
+    synchronized int depth() {
+        return queue.size();
+    }
+
+    /** Cierra el buzón si no quedan comandos esperando; lo llama un comando del propio buzón. */
+    synchronized boolean closeIfIdle() {
+        if (!queue.isEmpty()) {
+            return false;
+        }
+        closed = true;
+        registry.remove(depth);
+        timers.values().forEach(registry::remove);
+        return true;
+    }
+
+    private void drain(Executor current) {
+        worker = Thread.currentThread();
+        for (int i = 0; ; i++) {
+            Task task;
+            synchronized (this) {
+                task = i < BATCH ? queue.peek() : null;
+                if (task == null) {
+                    worker = null;
+                    if (queue.isEmpty()) {
+                        scheduled = false;
+                    } else {
+                        executor.execute(() -> drain(executor));
+                    }
+                    return;
+                }
+                Executor wanted = task.blocking().getAsBoolean() ? ioExecutor : executor;
+                if (wanted != current) {
+                    worker = null;
+                    wanted.execute(() -> drain(wanted));
+                    return;
+                }
+                queue.poll();
+            }
+            task.run().run();
+        }
+    }
+
+    private record Task(BooleanSupplier blocking, Runnable run) {
+    }
+
+    private Timer timer(String command) {
+        return Timer.builder(COMMAND_METRIC)
+                .tag("game", gameTag)
+                .tag("command", command)
+                .description("Tiempo desde que el comando entra al buzón hasta que termina")
+                .register(registry);
+    }
+}
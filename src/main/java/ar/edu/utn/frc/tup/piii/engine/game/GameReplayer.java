@@ -0,0 +1,255 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventCodec;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardDrawn;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.FortificationPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameFinished;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameRestored;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PhaseChanged;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerEliminated;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TerritoryConquered;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameEvent;
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import ar.edu.utn.frc.tup.piii.repository.GameEventRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reconstruye el estado de una partida a partir de su log de eventos: arranca del último snapshot
+ * que sirva (o del {@code GAME_STARTED} si no hay ninguno) y reaplica en orden los eventos con
+ * secuencia posterior. Un {@code GAME_RESTORED} vuelve al estado de su snapshot y el replay sigue
+ * desde ahí; los dados no retroceden, así que conservan la semilla y la tirada de antes de restaurar.
+ * Como después de restaurar los turnos se repiten, {@link #replayUntilTurn} da la primera vez que el
+ * log llegó a ese turno.
+ * <p>
+ * El resultado es un {@link GameState} suelto, que no se registra en {@link GameEngine} ni se
+ * escribe; la versión optimista queda en la del snapshot porque el log no la registra.
+ */
+@Component
+public class GameReplayer {
+    private final GameRepository gameRepository;
+    private final GameEventRepository eventRepository;
+    private final GameSnapshotRepository snapshotRepository;
+    private final MapTopologyProvider topologyProvider;
+
+    public GameReplayer(GameRepository gameRepository, GameEventRepository eventRepository,
+                        GameSnapshotRepository snapshotRepository, MapTopologyProvider topologyProvider) {
+        this.gameRepository = gameRepository;
+        this.eventRepository = eventRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.topologyProvider = topologyProvider;
+    }
+
+    /** Estado actual según el log. */
+    @Transactional(readOnly = true)
+    public GameState replay(Long gameId) {
+        return replay(gameId, snapshotRepository.findTopByGameIdOrderByLastSequenceDesc(gameId), Integer.MAX_VALUE);
+    }
+
+    /** Estado al terminar el turno {@code turn} (o el último conocido, si la partida no llegó). */
+    @Transactional(readOnly = true)
+    public GameState replayUntilTurn(Long gameId, int turn) {
+        return replay(gameId,
+                snapshotRepository.findTopByGameIdAndTurnNumberLessThanEqualOrderByLastSequenceDesc(gameId, turn),
+                turn);
+    }
+
+    private GameState replay(Long gameId, Optional<GameSnapshot> snapshot, int lastTurn) {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+        Map<Long, String> names = playerNames(game);
+        MapTopology topology = topologyProvider.get();
+        GameState state = snapshot.map(s -> fromSnapshot(s, names)).orElse(null);
+        long after = snapshot.map(GameSnapshot::getLastSequence).orElse(0L);
+        List<GameEvent> events = eventRepository.findByGameIdAndSequenceGreaterThanOrderBySequence(gameId, after);
+        for (GameEvent event : events) {
+            if (event.getTurnNumber() > lastTurn) {
+                break;
+            }
+            GameEventData data = GameEventCodec.decode(event.getType(), event.getData());
+            if (data instanceof GameStarted started) {
+                state = start(gameId, topology, started, names);
+            } else if (data instanceof GameRestored restored) {
+                state = restored(restored, state, names);
+            } else if (state != null) {
+                apply(state, data);
+            }
+            if (state != null) {
+                state.setLastSequence(event.getSequence());
+            }
+        }
+        if (state == null) {
+            throw new IllegalStateException("Game has not started");
+        }
+        return state;
+    }
+
+    /**
+     * Estado guardado en el snapshot: si es un delta, decodifica su keyframe y le aplica en orden los
+     * deltas de la cadena hasta llegar a él.
+     */
+    @Transactional(readOnly = true)
+    public GameState fromSnapshot(GameSnapshot snapshot, Map<Long, String> names) {
+        MapTopology topology = topologyProvider.get();
+        Long gameId = snapshot.getGame().getId();
+        if (snapshot.isKeyframe()) {
+            return GameStateCodec.decode(gameId, snapshot.getSerializedState(), topology, names);
+        }
+        GameSnapshot keyframe = snapshotRepository.findById(snapshot.getKeyframeId())
+                .orElseThrow(() -> new IllegalStateException("Missing keyframe for snapshot " + snapshot.getId()));
+        GameState state = GameStateCodec.decode(gameId, keyframe.getSerializedState(), topology, names);
+        for (GameSnapshot delta : snapshotRepository.findByKeyframeIdAndIdLessThanEqualOrderById(keyframe.getId(),
+                snapshot.getId())) {
+            GameStateCodec.applyDelta(state, delta.getSerializedState());
+        }
+        return state;
+    }
+
+    private GameState restored(GameRestored restored, GameState current, Map<Long, String> names) {
+        GameSnapshot snapshot = snapshotRepository.findById(restored.snapshotId())
+                .orElseThrow(() -> new IllegalStateException("Missing restored snapshot " + restored.snapshotId()));
+        GameState state = fromSnapshot(snapshot, names);
+        if (current != null) {
+            state.setDiceSeed(current.getDiceSeed());
+            state.setDiceRound(current.getDiceRound());
+        }
+        return state;
+    }
+
+    /** Nombres por id de jugador, que los snapshots y el log no guardan. */
+    public static Map<Long, String> playerNames(Game game) {
+        Map<Long, String> names = new HashMap<>();
+        for (Player player : game.getPlayers()) {
+            names.put(player.getId(), player.getDisplayName());
+        }
+        return names;
+    }
+
+    /** Reparte los países igual que al iniciar la partida. */
+    static GameState start(long gameId, MapTopology topology, GameStarted started, Map<Long, String> names) {
+        long[] playerIds = started.playerIds();
+        String[] playerNames = new String[playerIds.length];
+        PlayerStatus[] statuses = new PlayerStatus[playerIds.length];
+        for (int seat = 0; seat < playerIds.length; seat++) {
+            playerNames[seat] = names.get(playerIds[seat]);
+        }
+        Arrays.fill(statuses, PlayerStatus.ACTIVE);
+        ContinentControl territories = new ContinentControl(topology);
+        int[] order = GameRules.dealOrder(topology.size(), started.diceSeed());
+        for (int i = 0; i < order.length; i++) {
+            territories.setArmies(order[i], 1);
+            territories.setOwner(order[i], playerIds[i % playerIds.length]);
+        }
+        GameState state = new GameState(gameId, territories, playerIds.clone(), playerNames, statuses,
+                new int[playerIds.length]);
+        state.setHeader(GameStatus.IN_PROGRESS, GamePhase.REINFORCEMENT, 1, 0, started.diceSeed(), 0L, 0L);
+        long[] objectiveIds = started.objectiveIds();
+        for (int seat = 0; seat < objectiveIds.length && seat < playerIds.length; seat++) {
+            if (objectiveIds[seat] >= 0) {
+                state.setObjective(seat, objectiveIds[seat]);
+            }
+        }
+        return state;
+    }
+
+    /** Reaplica un evento ya validado; no vuelve a chequear reglas ni a tirar dados. */
+    static void apply(GameState state, GameEventData data) {
+        MapTopology topology = state.getTerritories().getTopology();
+        if (data instanceof TurnStarted e) {
+            state.setCurrentPlayer(e.seat());
+            state.setTurn(e.turn());
+            state.setPhase(GamePhase.REINFORCEMENT);
+            state.setArmiesToPlace(e.seat(), e.armiesToPlace());
+        } else if (data instanceof PhaseChanged e) {
+            state.setPhase(e.phase());
+        } else if (data instanceof AttackPerformed e) {
+            addArmies(state, topology.indexOf(e.fromCountryId()), -e.attackerLosses());
+            addArmies(state, topology.indexOf(e.toCountryId()), -e.defenderLosses());
+            state.setDiceSeed(e.diceSeed());
+            state.setDiceRound(e.diceRound() + e.rounds());
+        } else if (data instanceof TerritoryConquered e) {
+            int to = topology.indexOf(e.toCountryId());
+            addArmies(state, topology.indexOf(e.fromCountryId()), -e.movingArmies());
+            if (to >= 0) {
+                state.setArmies(to, e.movingArmies());
+                state.setOwner(to, e.conquerorId());
+            }
+        } else if (data instanceof CardsTraded e) {
+            int seat = state.seatOf(e.playerId());
+            state.setArmiesToPlace(seat, state.armiesToPlace(seat) + e.armies());
+            for (long countryId : e.countryIds()) {
+                changeHand(state, seat, countryId, false);
+            }
+        } else if (data instanceof CardDrawn e) {
+            changeHand(state, state.seatOf(e.playerId()), e.countryId(), true);
+        } else if (data instanceof ReinforcementsPlaced e) {
+            int total = 0;
+            for (int i = 0; i < e.countryIds().length; i++) {
+                addArmies(state, topology.indexOf(e.countryIds()[i]), e.armies()[i]);
+                total += e.armies()[i];
+            }
+            int seat = state.seatOf(e.playerId());
+            state.setArmiesToPlace(seat, state.armiesToPlace(seat) - total);
+        } else if (data instanceof FortificationPerformed e) {
+            addArmies(state, topology.indexOf(e.fromCountryId()), -e.armies());
+            addArmies(state, topology.indexOf(e.toCountryId()), e.armies());
+        } else if (data instanceof PlayerEliminated e) {
+            int seat = state.seatOf(e.playerId());
+            if (seat >= 0) {
+                state.setPlayerStatus(seat, PlayerStatus.ELIMINATED);
+            }
+        } else if (data instanceof GameFinished) {
+            state.setStatus(GameStatus.FINISHED);
+        }
+        // PLAYER_JOINED, PLAYER_LEFT, TURN_ENDED y OBJECTIVE_COMPLETED no cambian el tablero;
+        // GAME_RESTORED lo resuelve replay, que lee el snapshot
+    }
+
+    /** Agrega o saca de la mano del asiento la tarjeta del país {@code countryId} (-1: un comodín). */
+    private static void changeHand(GameState state, int seat, long countryId, boolean drawn) {
+        if (seat < 0) {
+            return;
+        }
+        long[] hand = state.hand(seat).clone();
+        int wildcards = state.wildcards(seat);
+        int country = countryId < 0 ? -1 : state.getTerritories().getTopology().indexOf(countryId);
+        if (country < 0) {
+            wildcards = Math.max(0, wildcards + (drawn ? 1 : -1));
+        } else if (drawn) {
+            Bits.set(hand, country);
+        } else {
+            Bits.clear(hand, country);
+        }
+        state.setHand(seat, hand, wildcards);
+    }
+
+    private static void addArmies(GameState state, int country, int delta) {
+        if (country >= 0) {
+            state.setArmies(country, state.getTerritories().armies(country) + delta);
+        }
+    }
+}
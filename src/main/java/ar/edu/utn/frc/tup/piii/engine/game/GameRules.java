@@ -0,0 +1,38 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+
+import java.util.Random;
+
+/** Reglas de reparto y de turno del TEG que no dependen de los dados. */
+public final class GameRules {
+
+    public static final int MIN_REINFORCEMENTS = 3;
+
+    private GameRules() {
+    }
+
+    /** La mitad de los países (mínimo 3) más los continentes controlados. */
+    public static int reinforcements(ContinentControl control, long playerId) {
+        return Math.max(MIN_REINFORCEMENTS, control.territories(playerId) / 2) + control.continentBonus(playerId);
+    }
+
+    /**
+     * Orden en que se reparten los países al empezar: el país {@code order[i]} (índice denso) es del
+     * asiento {@code i % jugadores}. Depende solo de la semilla, así el reparto se puede repetir.
+     */
+    public static int[] dealOrder(int countries, long diceSeed) {
+        int[] order = new int[countries];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(diceSeed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,321 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Escribe los snapshots de las partidas en segundo plano, para que el cambio de turno no espere a la
+ * base.
+ * <p>
+ * Cada vez que empieza un turno en {@link GameEngine} se codifica el estado (unos microsegundos, con
+ * el monitor ya tomado) y se deja en una cola acotada con una entrada por partida: si la partida ya
+ * tenía un snapshot esperando, el nuevo lo reemplaza. Cada {@code teg.snapshot.write-interval-ms} se
+ * vacía la cola en una transacción, con los deltas insertados en lote; los keyframes van de a uno
+ * porque los deltas siguientes necesitan su id.
+ * <p>
+ * La última cabeza de cadena de cada partida queda en memoria, así que un delta no relee la base.
+ * Quien borre o reescriba snapshots por fuera tiene que llamar a {@link #forget(Long)}.
+ */
+@Component
+public class GameSnapshotWriter {
+    private static final Logger log = LoggerFactory.getLogger(GameSnapshotWriter.class);
+
+    static final String DEPTH_METRIC = "teg.snapshot.queue.depth";
+    static final String LAG_METRIC = "teg.snapshot.queue.lag";
+    static final String DROPPED_METRIC = "teg.snapshot.dropped";
+    static final String WRITTEN_METRIC = "teg.snapshot.written";
+    private static final String INSERT_SNAPSHOT = "INSERT INTO game_snapshots (game_id, turn_number, last_sequence,"
+            + " serialized_state, keyframe_id, created_at, created_by_system) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final GameEngine gameEngine;
+    private final GameReplayer replayer;
+    private final GameSnapshotRepository snapshotRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final MeterRegistry meterRegistry;
+    private final int capacity;
+    private final int keyframeTurns;
+    private final LinkedHashMap<Long, Capture> pending = new LinkedHashMap<>();
+    private final Map<Long, ChainHead> heads = new ConcurrentHashMap<>();
+    // Un solo escritor a la vez: la cadena de cada partida se arma en orden
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ScheduledExecutorService writer;
+    private boolean closed;
+
+    public GameSnapshotWriter(GameEngine gameEngine, GameReplayer replayer, GameSnapshotRepository snapshotRepository,
+                              MapTopologyProvider topologyProvider, JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                              @Value("${teg.snapshot.queue-capacity:1024}") int capacity,
+                              @Value("${teg.snapshot.keyframe-turns:5}") int keyframeTurns,
+                              @Value("${teg.snapshot.write-interval-ms:500}") long writeIntervalMillis) {
+        this.gameEngine = gameEngine;
+        this.replayer = replayer;
+        this.snapshotRepository = snapshotRepository;
+        this.topologyProvider = topologyProvider;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+        this.capacity = Math.max(1, capacity);
+        this.keyframeTurns = Math.max(1, keyframeTurns);
+        Gauge.builder(DEPTH_METRIC, this, GameSnapshotWriter::depth).register(meterRegistry);
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "game-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drainQuietly, writeIntervalMillis, writeIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        gameEngine.addTurnListener(this::offer);
+    }
+
+    /** Deja de aceptar snapshots y escribe, en este hilo, todos los que ya estaban en la cola. */
+    @PreDestroy
+    public void shutdown() {
+        synchronized (pending) {
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+
+    /** Encola un snapshot del estado actual de la partida. */
+    public void schedule(Long gameId) {
+        gameEngine.read(gameId, state -> {
+            offer(state);
+            return null;
+        });
+    }
+
+    /** Escribe ya un snapshot del estado actual y devuelve su id; reemplaza al que estaba en cola. */
+    public long writeNow(Long gameId, boolean createdBySystem) {
+        Capture capture = gameEngine.read(gameId, state -> Capture.of(state, createdBySystem));
+        synchronized (pending) {
+            if (pending.remove(gameId) != null) {
+                dropped("coalesced");
+            }
+        }
+        writeLock.lock();
+        try {
+            Long id = write(List.of(capture)).get(0);
+            return id != null ? id : snapshotRepository.findTopByGameIdOrderByIdDesc(gameId)
+                    .map(GameSnapshot::getId).orElseThrow();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /** Olvida la cabeza de cadena de la partida; el próximo snapshot la vuelve a leer de la base. */
+    public void forget(Long gameId) {
+        writeLock.lock();
+        try {
+            heads.remove(gameId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Con el monitor del estado tomado: solo codifica y encola
+    void offer(GameState state) {
+        Capture capture = Capture.of(state, true);
+        synchronized (pending) {
+            if (closed) {
+                dropped("closed");
+                return;
+            }
+            Capture previous = pending.get(capture.gameId());
+            if (previous != null) {
+                pending.put(capture.gameId(), capture.since(previous.enqueuedAt()));
+                dropped("coalesced");
+            } else if (pending.size() >= capacity) {
+                dropped("overflow");
+            } else {
+                pending.put(capture.gameId(), capture);
+            }
+        }
+    }
+
+    int depth() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    void drain() {
+        List<Capture> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            batch.forEach(capture -> heads.remove(capture.gameId()));
+            meterRegistry.counter(DROPPED_METRIC, "reason", "failed").increment(batch.size());
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (RuntimeException e) {
+            log.warn("Snapshot write failed", e);
+        }
+    }
+
+    /**
+     * Con el candado de escritura tomado. Devuelve los ids de los keyframes en el orden de
+     * {@code batch}; los deltas van en lote y quedan en null.
+     */
+    private List<Long> write(List<Capture> batch) {
+        // Los eventos que cubre cada snapshot tienen que estar escritos antes que él
+        batch.forEach(capture -> gameEngine.flush(capture.gameId()));
+        Map<Long, ChainHead> updated = new HashMap<>();
+        List<Long> ids = writeTransaction.execute(status -> {
+            List<Long> written = new ArrayList<>(batch.size());
+            List<Object[]> deltas = new ArrayList<>();
+            for (Capture capture : batch) {
+                GameState current = GameStateCodec.decode(capture.gameId(), capture.state(), topologyProvider.get(),
+                        Map.of());
+                ChainHead head = heads.containsKey(capture.gameId()) ? heads.get(capture.gameId())
+                        : loadHead(capture.gameId());
+                if (head == null || capture.turn() - head.keyframeTurn() >= keyframeTurns
+                        || !samePlayers(head.state(), current)) {
+                    long id = insertKeyframe(capture);
+                    written.add(id);
+                    updated.put(capture.gameId(), new ChainHead(id, capture.turn(), current));
+                    meterRegistry.counter(WRITTEN_METRIC, "kind", "keyframe").increment();
+                } else {
+                    deltas.add(row(capture, GameStateCodec.encodeDelta(head.state(), current), head.keyframeId()));
+                    written.add(null);
+                    updated.put(capture.gameId(), new ChainHead(head.keyframeId(), head.keyframeTurn(), current));
+                    meterRegistry.counter(WRITTEN_METRIC, "kind", "delta").increment();
+                }
+            }
+            if (!deltas.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SNAPSHOT, deltas);
+            }
+            return written;
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            Capture capture = batch.get(i);
+            ChainHead head = updated.get(capture.gameId());
+            if (head.state().getStatus() == GameStatus.IN_PROGRESS) {
+                heads.put(capture.gameId(), head);
+            } else {
+                heads.remove(capture.gameId());
+            }
+            meterRegistry.timer(LAG_METRIC).record(System.nanoTime() - capture.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        return ids;
+    }
+
+    /** Último snapshot de la partida en la base, o null si no hay o no se puede leer. */
+    private ChainHead loadHead(Long gameId) {
+        Optional<GameSnapshot> latest = snapshotRepository.findTopByGameIdOrderByIdDesc(gameId);
+        if (latest.isEmpty()) {
+            return null;
+        }
+        GameSnapshot snapshot = latest.get();
+        Optional<GameSnapshot> keyframe = snapshot.isKeyframe() ? latest
+                : snapshotRepository.findById(snapshot.getKeyframeId());
+        try {
+            GameState state = replayer.fromSnapshot(snapshot, Map.of());
+            return keyframe.map(k -> new ChainHead(k.getId(), k.getTurnNumber(), state)).orElse(null);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private long insertKeyframe(Capture capture) {
+        KeyHolder key = new GeneratedKeyHolder();
+        Object[] row = row(capture, capture.state(), null);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT_SNAPSHOT, new String[]{"id"});
+            for (int i = 0; i < row.length; i++) {
+                statement.setObject(i + 1, row[i]);
+            }
+            return statement;
+        }, key);
+        return key.getKey().longValue();
+    }
+
+    private static Object[] row(Capture capture, byte[] state, Long keyframeId) {
+        return new Object[]{capture.gameId(), capture.turn(), capture.lastSequence(), state, keyframeId,
+                Timestamp.valueOf(LocalDateTime.now()), capture.createdBySystem()};
+    }
+
+    private static boolean samePlayers(GameState base, GameState state) {
+        if (base.playerCount() != state.playerCount()) {
+            return false;
+        }
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            if (base.playerId(seat) != state.playerId(seat)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dropped(String reason) {
+        meterRegistry.counter(DROPPED_METRIC, "reason", reason).increment();
+    }
+
+    private record Capture(long gameId, int turn, long lastSequence, byte[] state, boolean createdBySystem,
+                           long enqueuedAt) {
+        static Capture of(GameState state, boolean createdBySystem) {
+            return new Capture(state.getGameId(), state.getTurn(), state.getLastSequence(),
+                    GameStateCodec.encode(state), createdBySystem, System.nanoTime());
+        }
+
+        Capture since(long enqueuedAt) {
+            return new Capture(gameId, turn, lastSequence, state, createdBySystem, enqueuedAt);
+        }
+    }
+
+    private record ChainHead(long keyframeId, int keyframeTurn, GameState state) {
+    }
+}
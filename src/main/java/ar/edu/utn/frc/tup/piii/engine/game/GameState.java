@@ -0,0 +1,379 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventCodec;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Estado en memoria de una partida activa: cabecera, jugadores por asiento y territorios (en el
+ * {@link ContinentControl} de la partida), más lo que todavía falta escribir en la base.
+ * <p>
+ * No es seguro para hilos: {@link GameEngine} lo modifica y lo lee siempre con el monitor del estado.
+ */
+public final class GameState {
+
+    private final long gameId;
+    private final ContinentControl territories;
+    private GameStatus status;
+    private GamePhase phase;
+    private int turn;
+    private int currentPlayer;
+    private long diceSeed;
+    private long diceRound;
+    private long version;
+    private long lastSequence;
+
+    private final long[] playerIds;
+    private final String[] playerNames;
+    private final PlayerStatus[] playerStatus;
+    private final int[] armiesToPlace;
+    private final long[] objectiveIds;
+    private final long[][] hands;
+    private final int[] wildcards;
+
+    // Pendiente de escritura
+    private boolean headerDirty;
+    private final boolean[] playerDirty;
+    private final long[] dirtyCountries;
+    private final List<PendingCombat> pendingCombats = new ArrayList<>();
+    private final List<Object[]> pendingEvents = new ArrayList<>();
+    private long dirtySince;
+
+    // Versiones de las filas tal como están en la base: las escrituras solo pasan si nadie las cambió
+    private long persistedVersion;
+    private final long[] playerVersions;
+    private final long[] territoryVersions;
+
+    // Serializa las escrituras de la partida para que nunca se pisen en desorden
+    final ReentrantLock flushLock = new ReentrantLock();
+    // Vaciados fallidos seguidos y desde cuándo (nanoTime) se reintenta; los maneja GameEngine
+    int failedFlushes;
+    volatile long flushRetryAt;
+
+    GameState(long gameId, ContinentControl territories, long[] playerIds, String[] playerNames,
+              PlayerStatus[] playerStatus, int[] armiesToPlace) {
+        this.gameId = gameId;
+        this.territories = territories;
+        this.playerIds = playerIds;
+        this.playerNames = playerNames;
+        this.playerStatus = playerStatus;
+        this.armiesToPlace = armiesToPlace;
+        this.objectiveIds = new long[playerIds.length];
+        this.hands = new long[playerIds.length][Bits.words(territories.getTopology().size())];
+        this.wildcards = new int[playerIds.length];
+        this.playerDirty = new boolean[playerIds.length];
+        this.dirtyCountries = Bits.create(territories.getTopology().size());
+        this.playerVersions = new long[playerIds.length];
+        this.territoryVersions = new long[territories.getTopology().size()];
+    }
+
+    public long getGameId() {
+        return gameId;
+    }
+
+    public ContinentControl getTerritories() {
+        return territories;
+    }
+
+    public GameStatus getStatus() {
+        return status;
+    }
+
+    public GamePhase getPhase() {
+        return phase;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    public long getCurrentPlayerId() {
+        return playerIds[currentPlayer];
+    }
+
+    public long getDiceSeed() {
+        return diceSeed;
+    }
+
+    public long getDiceRound() {
+        return diceRound;
+    }
+
+    /** Versión de la partida: la de la fila al hidratar, más uno por cada comando aplicado. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Secuencia del último evento del log de la partida (0 si todavía no hay ninguno). */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public int playerCount() {
+        return playerIds.length;
+    }
+
+    /** Asiento del jugador (posición en la lista de jugadores de la partida) o -1. */
+    public int seatOf(long playerId) {
+        for (int seat = 0; seat < playerIds.length; seat++) {
+            if (playerIds[seat] == playerId) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+
+    public long playerId(int seat) {
+        return playerIds[seat];
+    }
+
+    public String playerName(int seat) {
+        return playerNames[seat];
+    }
+
+    public PlayerStatus playerStatus(int seat) {
+        return playerStatus[seat];
+    }
+
+    public int armiesToPlace(int seat) {
+        return armiesToPlace[seat];
+    }
+
+    /** Id del objetivo secreto del asiento, 0 si no tiene. */
+    public long objectiveId(int seat) {
+        return objectiveIds[seat];
+    }
+
+    /** Tarjetas de país en la mano del asiento, como máscara sobre la topología; no modificar. */
+    public long[] hand(int seat) {
+        return hands[seat];
+    }
+
+    /** Comodines (tarjetas sin país) en la mano del asiento. */
+    public int wildcards(int seat) {
+        return wildcards[seat];
+    }
+
+    public boolean isDirty() {
+        return headerDirty || !Bits.isEmpty(dirtyCountries) || !pendingCombats.isEmpty() || !pendingEvents.isEmpty()
+                || anyPlayerDirty();
+    }
+
+    /** Momento (nanoTime) del cambio más viejo todavía sin escribir; 0 si no hay pendientes. */
+    public long getDirtySince() {
+        return dirtySince;
+    }
+
+    /** La versión es también la de la fila {@code games}: un estado recién armado coincide con la base. */
+    void setHeader(GameStatus status, GamePhase phase, int turn, int currentPlayer, long diceSeed, long diceRound,
+                   long version) {
+        this.status = status;
+        this.phase = phase;
+        this.turn = turn;
+        this.currentPlayer = currentPlayer;
+        this.diceSeed = diceSeed;
+        this.diceRound = diceRound;
+        this.version = version;
+        this.persistedVersion = version;
+    }
+
+    /** Versión de la fila de cada asiento y de cada territorio (por índice de la topología). */
+    void setRowVersions(long[] players, long[] countries) {
+        System.arraycopy(players, 0, playerVersions, 0, playerVersions.length);
+        System.arraycopy(countries, 0, territoryVersions, 0, territoryVersions.length);
+    }
+
+    long[] playerVersions() {
+        return playerVersions.clone();
+    }
+
+    long[] territoryVersions() {
+        return territoryVersions.clone();
+    }
+
+    void setStatus(GameStatus status) {
+        this.status = status;
+        markHeader();
+    }
+
+    void setPhase(GamePhase phase) {
+        this.phase = phase;
+        markHeader();
+    }
+
+    void setTurn(int turn) {
+        this.turn = turn;
+        markHeader();
+    }
+
+    void setCurrentPlayer(int seat) {
+        this.currentPlayer = seat;
+        markHeader();
+    }
+
+    void setDiceSeed(long diceSeed) {
+        this.diceSeed = diceSeed;
+        markHeader();
+    }
+
+    void setDiceRound(long diceRound) {
+        this.diceRound = diceRound;
+        markHeader();
+    }
+
+    void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    /** Agrega el evento al log con la secuencia siguiente y lo deja pendiente de insertar. */
+    void addEvent(long actorId, GameEventData data) {
+        lastSequence++;
+        pendingEvents.add(new Object[]{gameId, lastSequence, turn, actorId < 0 ? null : actorId, data.type().name(),
+                GameEventCodec.encode(data), Timestamp.valueOf(LocalDateTime.now())});
+        touch();
+    }
+
+    void bumpVersion() {
+        version++;
+        markHeader();
+    }
+
+    void setArmiesToPlace(int seat, int armies) {
+        armiesToPlace[seat] = armies;
+        markPlayer(seat);
+    }
+
+    // Objetivo y mano todavía los escribe JPA: no se marcan como pendientes
+    void setObjective(int seat, long objectiveId) {
+        objectiveIds[seat] = objectiveId;
+    }
+
+    void setHand(int seat, long[] countries, int wildcardCount) {
+        System.arraycopy(countries, 0, hands[seat], 0, hands[seat].length);
+        wildcards[seat] = wildcardCount;
+    }
+
+    void setPlayerStatus(int seat, PlayerStatus status) {
+        playerStatus[seat] = status;
+        markPlayer(seat);
+    }
+
+    void setOwner(int country, long playerId) {
+        territories.setOwner(country, playerId);
+        markCountry(country);
+    }
+
+    void setArmies(int country, int armies) {
+        territories.setArmies(country, armies);
+        markCountry(country);
+    }
+
+    void addCombat(PendingCombat combat) {
+        pendingCombats.add(combat);
+        touch();
+    }
+
+    /** Copia y limpia lo pendiente; el llamador lo escribe fuera del monitor. */
+    PendingWrites drain() {
+        long[] countries = dirtyCountries.clone();
+        List<Object[]> territoryRows = new ArrayList<>(Bits.cardinality(countries));
+        for (int i = Bits.nextSetBit(countries, 0); i >= 0; i = Bits.nextSetBit(countries, i + 1)) {
+            long owner = territories.ownerId(i);
+            territoryRows.add(new Object[]{owner < 0 ? null : owner, territories.armies(i), gameId,
+                    territories.getTopology().countryId(i), territoryVersions[i]});
+        }
+        List<Object[]> playerRows = new ArrayList<>();
+        for (int seat = 0; seat < playerIds.length; seat++) {
+            if (playerDirty[seat]) {
+                LocalDateTime eliminatedAt = playerStatus[seat] == PlayerStatus.ELIMINATED ? LocalDateTime.now() : null;
+                playerRows.add(new Object[]{armiesToPlace[seat], playerStatus[seat].name(), eliminatedAt,
+                        playerIds[seat], playerVersions[seat]});
+            }
+        }
+        Object[] header = headerDirty ? new Object[]{status.name(), phase == null ? null : phase.name(), turn,
+                currentPlayer, diceSeed, diceRound, version, gameId, persistedVersion} : null;
+        PendingWrites writes = new PendingWrites(gameId, header, playerRows, territoryRows,
+                List.copyOf(pendingCombats), List.copyOf(pendingEvents));
+        headerDirty = false;
+        Arrays.fill(playerDirty, false);
+        Arrays.fill(dirtyCountries, 0L);
+        pendingCombats.clear();
+        pendingEvents.clear();
+        dirtySince = 0;
+        return writes;
+    }
+
+    /** Lo drenado ya está en la base: las filas escritas quedan con su versión nueva. */
+    void written(PendingWrites writes) {
+        if (writes.header() != null) {
+            persistedVersion = (Long) writes.header()[6];
+        }
+        for (Object[] row : writes.players()) {
+            playerVersions[seatOf((Long) row[3])]++;
+        }
+        for (Object[] row : writes.territories()) {
+            territoryVersions[territories.getTopology().indexOf((Long) row[3])]++;
+        }
+    }
+
+    /** Vuelve a marcar lo que no se pudo escribir para reintentarlo en la próxima pasada. */
+    void restore(PendingWrites failed) {
+        if (failed.header() != null) {
+            markHeader();
+        }
+        for (Object[] row : failed.players()) {
+            markPlayer(seatOf((Long) row[3]));
+        }
+        for (Object[] row : failed.territories()) {
+            markCountry(territories.getTopology().indexOf((Long) row[3]));
+        }
+        pendingCombats.addAll(0, failed.combats());
+        pendingEvents.addAll(0, failed.events());
+        touch();
+    }
+
+    private boolean anyPlayerDirty() {
+        for (boolean dirty : playerDirty) {
+            if (dirty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void markHeader() {
+        headerDirty = true;
+        touch();
+    }
+
+    private void markPlayer(int seat) {
+        playerDirty[seat] = true;
+        touch();
+    }
+
+    private void markCountry(int country) {
+        Bits.set(dirtyCountries, country);
+        touch();
+    }
+
+    private void touch() {
+        if (dirtySince == 0) {
+            dirtySince = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Formato binario de un {@link GameState} para {@code game_snapshots.serialized_state}. Los enteros
+ * van como varint (LEB128, sin signo) salvo la semilla y el checksum, que van fijos:
+ * <pre>
+ * versión(1) tipo(1) status(1) phase(1) turn currentPlayer diceSeed(8) diceRound version lastSequence
+ * jugadores, y por asiento: playerId status(1) armiesToPlace objectiveId mano(⌈países/8⌉) comodines
+ * checksum(4) países, owners[país] (asiento+1, 0 si es neutral), armies[país]
+ * </pre>
+ * Un delta (tipo {@link #DELTA}) tiene la misma cabecera y después solo lo que cambió respecto del
+ * snapshot anterior: {@code checksum(4) jugadores, n, (asiento, campos del asiento)*, m,
+ * (país, owner, armies)*}.
+ * <p>
+ * Los estados y fases van con códigos fijos, no con su posición en el enum, así que agregar o
+ * reordenar constantes no cambia los snapshots guardados. Los de la primera versión no tenían byte
+ * de versión (empezaban con 1 o 2 según el tipo) y guardaban ordinales; se siguen leyendo, y por eso
+ * la versión actual es {@value #VERSION}.
+ * <p>
+ * Los países van por índice de la topología, así que el checksum de sus ids tiene que coincidir al
+ * decodificar. Los nombres de los jugadores no se guardan: los pone quien decodifica.
+ */
+public final class GameStateCodec {
+    public static final byte VERSION = 3;
+    public static final byte FULL = 0;
+    public static final byte DELTA = 1;
+
+    private static final int LEGACY_FULL = 1;
+    private static final int LEGACY_DELTA = 2;
+
+    private GameStateCodec() {
+    }
+
+    public static byte[] encode(GameState state) {
+        ContinentControl territories = state.getTerritories();
+        MapTopology topology = territories.getTopology();
+        Writer out = new Writer(48 + state.playerCount() * (24 + handBytes(topology)) + topology.size() * 3);
+        out.put(VERSION);
+        out.put(FULL);
+        writeHeader(out, state);
+        out.putVarint(state.playerCount());
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            out.putVarint(state.playerId(seat));
+            writeSeat(out, state, seat);
+        }
+
+        out.putFixed(checksum(topology), Integer.BYTES);
+        out.putVarint(topology.size());
+        for (int country = 0; country < topology.size(); country++) {
+            out.putVarint(ownerSeat(state, country));
+        }
+        for (int country = 0; country < topology.size(); country++) {
+            out.putVarint(territories.armies(country));
+        }
+        return out.toByteArray();
+    }
+
+    /** Rearma el estado sobre {@code topology}, que tiene que ser la misma con la que se codificó. */
+    public static GameState decode(long gameId, byte[] data, MapTopology topology, Map<Long, String> playerNames) {
+        Reader in = new Reader(data);
+        if (in.readKind() != FULL) {
+            throw new IllegalArgumentException("Not a full game state");
+        }
+        Header header = readHeader(in);
+        int count = in.nextInt();
+        long[] ids = new long[count];
+        String[] names = new String[count];
+        SeatFields[] seats = new SeatFields[count];
+        for (int seat = 0; seat < count; seat++) {
+            ids[seat] = in.nextLong();
+            names[seat] = playerNames.get(ids[seat]);
+            seats[seat] = readSeat(in, topology);
+        }
+
+        checkTopology(in, topology);
+        if (in.nextInt() != topology.size()) {
+            throw new IllegalStateException("Snapshot was taken with a different map");
+        }
+        ContinentControl territories = new ContinentControl(topology);
+        for (int country = 0; country < topology.size(); country++) {
+            int seat = in.nextInt();
+            territories.setOwner(country, seat == 0 ? null : ids[seat - 1]);
+        }
+        for (int country = 0; country < topology.size(); country++) {
+            territories.setArmies(country, in.nextInt());
+        }
+
+        GameState state = new GameState(gameId, territories, ids, names, new PlayerStatus[count], new int[count]);
+        header.applyTo(state);
+        for (int seat = 0; seat < count; seat++) {
+            seats[seat].applyTo(state, seat);
+        }
+        return state;
+    }
+
+    /**
+     * Diferencia entre {@code base} y {@code state}, que tienen que ser de la misma partida, con los
+     * mismos jugadores y sobre la misma topología.
+     */
+    public static byte[] encodeDelta(GameState base, GameState state) {
+        if (base.playerCount() != state.playerCount()) {
+            throw new IllegalArgumentException("Players changed since the base snapshot");
+        }
+        ContinentControl territories = state.getTerritories();
+        ContinentControl previous = base.getTerritories();
+        MapTopology topology = territories.getTopology();
+        Writer out = new Writer(64);
+        out.put(VERSION);
+        out.put(DELTA);
+        writeHeader(out, state);
+        out.putFixed(checksum(topology), Integer.BYTES);
+        out.putVarint(state.playerCount());
+
+        int changedSeats = 0;
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            if (seatChanged(base, state, seat)) {
+                changedSeats++;
+            }
+        }
+        out.putVarint(changedSeats);
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            if (seatChanged(base, state, seat)) {
+                out.putVarint(seat);
+                writeSeat(out, state, seat);
+            }
+        }
+
+        int changedCountries = 0;
+        for (int country = 0; country < topology.size(); country++) {
+            if (countryChanged(previous, territories, country)) {
+                changedCountries++;
+            }
+        }
+        out.putVarint(changedCountries);
+        for (int country = 0; country < topology.size(); country++) {
+            if (countryChanged(previous, territories, country)) {
+                out.putVarint(country);
+                out.putVarint(ownerSeat(state, country));
+                out.putVarint(territories.armies(country));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** Aplica sobre {@code state} un delta generado a partir de ese mismo estado. */
+    public static void applyDelta(GameState state, byte[] delta) {
+        MapTopology topology = state.getTerritories().getTopology();
+        Reader in = new Reader(delta);
+        if (in.readKind() != DELTA) {
+            throw new IllegalArgumentException("Not a game state delta");
+        }
+        Header header = readHeader(in);
+        checkTopology(in, topology);
+        if (in.nextInt() != state.playerCount()) {
+            throw new IllegalStateException("Delta does not match the players of its base snapshot");
+        }
+        header.applyTo(state);
+        for (int i = in.nextInt(); i > 0; i--) {
+            int seat = in.nextInt();
+            readSeat(in, topology).applyTo(state, seat);
+        }
+        ContinentControl territories = state.getTerritories();
+        for (int i = in.nextInt(); i > 0; i--) {
+            int country = in.nextInt();
+            int seat = in.nextInt();
+            territories.setOwner(country, seat == 0 ? null : state.playerId(seat - 1));
+            territories.setArmies(country, in.nextInt());
+        }
+    }
+
+    /** Si el snapshot (completo o delta) tiene un formato conocido y se tomó sobre {@code topology}. */
+    public static boolean isReadable(byte[] data, MapTopology topology) {
+        try {
+            if (isDelta(data)) {
+                Reader in = new Reader(data);
+                in.readKind();
+                readHeader(in);
+                checkTopology(in, topology);
+            } else {
+                decode(0L, data, topology, Map.of());
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public static boolean isDelta(byte[] data) {
+        try {
+            return new Reader(data).readKind() == DELTA;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    static int checksum(MapTopology topology) {
+        int hash = 1;
+        for (int country = 0; country < topology.size(); country++) {
+            hash = 31 * hash + Long.hashCode(topology.countryId(country));
+        }
+        return hash;
+    }
+
+    private static int handBytes(MapTopology topology) {
+        return (topology.size() + 7) >>> 3;
+    }
+
+    private static void checkTopology(Reader in, MapTopology topology) {
+        if ((int) in.nextFixed(Integer.BYTES) != checksum(topology)) {
+            throw new IllegalStateException("Snapshot was taken with a different map");
+        }
+    }
+
+    private static int ownerSeat(GameState state, int country) {
+        long owner = state.getTerritories().ownerId(country);
+        return owner < 0 ? 0 : state.seatOf(owner) + 1;
+    }
+
+    private static boolean seatChanged(GameState base, GameState state, int seat) {
+        return base.playerStatus(seat) != state.playerStatus(seat)
+                || base.armiesToPlace(seat) != state.armiesToPlace(seat)
+                || base.objectiveId(seat) != state.objectiveId(seat)
+                || base.wildcards(seat) != state.wildcards(seat)
+                || !Arrays.equals(base.hand(seat), state.hand(seat));
+    }
+
+    private static boolean countryChanged(ContinentControl previous, ContinentControl current, int country) {
+        return previous.ownerId(country) != current.ownerId(country)
+                || previous.armies(country) != current.armies(country);
+    }
+
+    private static void writeHeader(Writer out, GameState state) {
+        out.put((byte) code(state.getStatus()));
+        out.put((byte) code(state.getPhase()));
+        out.putVarint(state.getTurn());
+        out.putVarint(state.getCurrentPlayer());
+        out.putFixed(state.getDiceSeed(), Long.BYTES);
+        out.putVarint(state.getDiceRound());
+        out.putVarint(state.getVersion());
+        out.putVarint(state.getLastSequence());
+    }
+
+    private static Header readHeader(Reader in) {
+        GameStatus status = gameStatus(in.get() + in.enumShift());
+        GamePhase phase = gamePhase(in.get());
+        return new Header(status, phase, in.nextInt(), in.nextInt(), in.nextFixed(Long.BYTES), in.nextLong(),
+                in.nextLong(), in.nextLong());
+    }
+
+    private static void writeSeat(Writer out, GameState state, int seat) {
+        out.put((byte) code(state.playerStatus(seat)));
+        out.putVarint(state.armiesToPlace(seat));
+        out.putVarint(state.objectiveId(seat));
+        long[] hand = state.hand(seat);
+        for (int i = 0; i < handBytes(state.getTerritories().getTopology()); i++) {
+            out.put((byte) (hand[i >>> 3] >>> ((i & 7) << 3)));
+        }
+        out.putVarint(state.wildcards(seat));
+    }
+
+    private static SeatFields readSeat(Reader in, MapTopology topology) {
+        PlayerStatus status = playerStatus(in.get() + in.enumShift());
+        int armiesToPlace = in.nextInt();
+        long objectiveId = in.nextLong();
+        long[] hand = new long[topology.words()];
+        for (int i = 0; i < handBytes(topology); i++) {
+            hand[i >>> 3] |= (in.get() & 0xFFL) << ((i & 7) << 3);
+        }
+        return new SeatFields(status, armiesToPlace, objectiveId, hand, in.nextInt());
+    }
+
+    private static int code(GameStatus status) {
+        return switch (status) {
+            case WAITING_FOR_PLAYERS -> 1;
+            case IN_PROGRESS -> 2;
+            case PAUSED -> 3;
+            case FINISHED -> 4;
+            case CANCELLED -> 5;
+        };
+    }
+
+    private static GameStatus gameStatus(int code) {
+        return switch (code) {
+            case 1 -> GameStatus.WAITING_FOR_PLAYERS;
+            case 2 -> GameStatus.IN_PROGRESS;
+            case 3 -> GameStatus.PAUSED;
+            case 4 -> GameStatus.FINISHED;
+            case 5 -> GameStatus.CANCELLED;
+            default -> throw new IllegalArgumentException("Unknown game status code " + code);
+        };
+    }
+
+    /** 0 es sin fase. */
+    private static int code(GamePhase phase) {
+        if (phase == null) {
+            return 0;
+        }
+        return switch (phase) {
+            case SETUP -> 1;
+            case REINFORCEMENT -> 2;
+            case ATTACK -> 3;
+            case FORTIFY -> 4;
+            case END_TURN -> 5;
+        };
+    }
+
+    private static GamePhase gamePhase(int code) {
+        return switch (code) {
+            case 0 -> null;
+            case 1 -> GamePhase.SETUP;
+            case 2 -> GamePhase.REINFORCEMENT;
+            case 3 -> GamePhase.ATTACK;
+            case 4 -> GamePhase.FORTIFY;
+            case 5 -> GamePhase.END_TURN;
+            default -> throw new IllegalArgumentException("Unknown game phase code " + code);
+        };
+    }
+
+    private static int code(PlayerStatus status) {
+        return switch (status) {
+            case ACTIVE -> 1;
+            case ELIMINATED -> 2;
+            case DISCONNECTED -> 3;
+            case WAITING -> 4;
+        };
+    }
+
+    private static PlayerStatus playerStatus(int code) {
+        return switch (code) {
+            case 1 -> PlayerStatus.ACTIVE;
+            case 2 -> PlayerStatus.ELIMINATED;
+            case 3 -> PlayerStatus.DISCONNECTED;
+            case 4 -> PlayerStatus.WAITING;
+            default -> throw new IllegalArgumentException("Unknown player status code " + code);
+        };
+    }
+
+    private record Header(GameStatus status, GamePhase phase, int turn, int currentPlayer, long diceSeed,
+                          long diceRound, long version, long lastSequence) {
+        void applyTo(GameState state) {
+            state.setHeader(status, phase, turn, currentPlayer, diceSeed, diceRound, version);
+            state.setLastSequence(lastSequence);
+        }
+    }
+
+    private record SeatFields(PlayerStatus status, int armiesToPlace, long objectiveId, long[] hand,
+                              int wildcards) {
+        void applyTo(GameState state, int seat) {
+            state.setPlayerStatus(seat, status);
+            state.setArmiesToPlace(seat, armiesToPlace);
+            state.setObjective(seat, objectiveId);
+            state.setHand(seat, hand, wildcards);
+        }
+    }
+
+    static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        Writer(int capacity) {
+            buffer = new byte[Math.max(16, capacity)];
+        }
+
+        void put(byte value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, size * 2);
+            }
+            buffer[size++] = value;
+        }
+
+        void putVarint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        void putFixed(long value, int bytes) {
+            for (int i = 0; i < bytes; i++) {
+                put((byte) (value >>> (i << 3)));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    static final class Reader {
+        private final byte[] data;
+        private int position;
+        private boolean legacy;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        /** Lee versión y tipo; un snapshot de la primera versión empieza directo con el tipo. */
+        int readKind() {
+            int first = get();
+            if (first == VERSION) {
+                int kind = get();
+                if (kind != FULL && kind != DELTA) {
+                    throw new IllegalArgumentException("Unknown game state kind " + kind);
+                }
+                return kind;
+            }
+            legacy = true;
+            return switch (first) {
+                case LEGACY_FULL -> FULL;
+                case LEGACY_DELTA -> DELTA;
+                default -> throw new IllegalArgumentException("Unknown game state version " + first);
+            };
+        }
+
+        /** Los estados de la primera versión eran ordinales, uno menos que los códigos de ahora. */
+        int enumShift() {
+            return legacy ? 1 : 0;
+        }
+
+        int get() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated game state");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long nextLong() {
+            long value = 0;
+            for (int shift = 0; shift < Long.SIZE; shift += 7) {
+                int b = get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        int nextInt() {
+            return (int) nextLong();
+        }
+
+        long nextFixed(int bytes) {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value |= (long) get() << (i << 3);
+            }
+            return value;
+        }
+    }
+}
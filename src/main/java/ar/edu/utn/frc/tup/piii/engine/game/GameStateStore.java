@@ -0,0 +1,229 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.model.entity.Card;
+import ar.edu.utn.frc.tup.piii.model.entity.CombatResult;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import ar.edu.utn.frc.tup.piii.repository.CombatResultRepository;
+import ar.edu.utn.frc.tup.piii.repository.CountryRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameEventRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Lee una partida de las entidades JPA para hidratar su {@link GameState} y escribe por lotes lo que
+ * {@link GameEngine} fue cambiando en memoria.
+ * <p>
+ * Las escrituras corren en una transacción propia ({@code REQUIRES_NEW}): no dependen de que la
+ * transacción de quien pidió el vaciado termine bien. Cada UPDATE lleva la versión que el estado
+ * leyó de la fila; si alguna fila cambió por fuera del motor no se escribe nada y falla con
+ * {@link OptimisticLockingFailureException}.
+ */
+@Component
+public class GameStateStore {
+    private static final String UPDATE_GAME = "UPDATE games SET status = ?, current_phase = ?, current_turn = ?,"
+            + " current_player_index = ?, dice_seed = ?, dice_round = ?, version = ?, last_modified = CURRENT_TIMESTAMP"
+            + " WHERE id = ? AND version = ?";
+    private static final String UPDATE_PLAYER = "UPDATE players SET armies_to_place = ?, status = ?,"
+            + " eliminated_at = COALESCE(eliminated_at, ?), version = version + 1 WHERE id = ? AND version = ?";
+    private static final String INSERT_EVENT = "INSERT INTO game_events (game_id, sequence, turn_number, actor_id,"
+            + " type, data, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_TERRITORY = "UPDATE game_territories SET player_id = ?, armies = ?, version = version + 1"
+            + " WHERE game_id = ? AND country_id = ? AND version = ?";
+
+    private final GameRepository gameRepository;
+    private final PlayerRepository playerRepository;
+    private final CountryRepository countryRepository;
+    private final CombatResultRepository combatResultRepository;
+    private final GameEventRepository eventRepository;
+    private final ContinentControlTracker controlTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+
+    public GameStateStore(GameRepository gameRepository, PlayerRepository playerRepository,
+                          CountryRepository countryRepository, CombatResultRepository combatResultRepository,
+                          GameEventRepository eventRepository, ContinentControlTracker controlTracker, JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.gameRepository = gameRepository;
+        this.playerRepository = playerRepository;
+        this.countryRepository = countryRepository;
+        this.combatResultRepository = combatResultRepository;
+        this.eventRepository = eventRepository;
+        this.controlTracker = controlTracker;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Hidrata una partida en curso; las que no empezaron o ya terminaron se manejan solo con JPA. */
+    public GameState load(Long gameId) {
+        return readTransaction.execute(status -> {
+            Game game = gameRepository.findById(gameId)
+                    .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+            if (game.getStatus() != GameStatus.IN_PROGRESS) {
+                throw new IllegalStateException("Game is not in progress");
+            }
+            List<Player> players = game.getPlayers();
+            int count = players.size();
+            long[] ids = new long[count];
+            String[] names = new String[count];
+            PlayerStatus[] statuses = new PlayerStatus[count];
+            int[] armiesToPlace = new int[count];
+            for (int seat = 0; seat < count; seat++) {
+                Player player = players.get(seat);
+                ids[seat] = player.getId();
+                names[seat] = player.getDisplayName();
+                statuses[seat] = player.getStatus();
+                armiesToPlace[seat] = player.getArmiesToPlace() == null ? 0 : player.getArmiesToPlace();
+            }
+            GameState state = new GameState(gameId, controlTracker.forGame(gameId), ids, names, statuses,
+                    armiesToPlace);
+            state.setRowVersions(versions(players), territoryVersions(game, state.getTerritories().getTopology()));
+            state.setHeader(game.getStatus(), game.getCurrentPhase(), game.getCurrentTurn(),
+                    game.getCurrentPlayerIndex(), game.getDiceSeed() == null ? 0L : game.getDiceSeed(),
+                    game.getDiceRound() == null ? 0L : game.getDiceRound(),
+                    game.getVersion() == null ? 0L : game.getVersion());
+            for (int seat = 0; seat < count; seat++) {
+                loadHand(state, seat, players.get(seat));
+            }
+            state.setLastSequence(eventRepository.findLastSequence(gameId));
+            return state;
+        });
+    }
+
+    /** Una partida que llegó de otro nodo: sus territorios pasan a ser los que sigue el tracker. */
+    public void adopted(GameState state) {
+        controlTracker.install(state.getGameId(), state.getTerritories());
+    }
+
+    /** La partida se fue a otro nodo: lo que quede acá de sus territorios ya no se actualiza. */
+    public void handedOff(Long gameId) {
+        controlTracker.evict(gameId);
+    }
+
+    /** El motor descartó su copia: la próxima carga vuelve a leer los territorios de la base. */
+    public void discarded(Long gameId) {
+        controlTracker.evict(gameId);
+    }
+
+    private static long[] versions(List<Player> players) {
+        long[] versions = new long[players.size()];
+        for (int seat = 0; seat < versions.length; seat++) {
+            versions[seat] = players.get(seat).getVersion() == null ? 0L : players.get(seat).getVersion();
+        }
+        return versions;
+    }
+
+    private static long[] territoryVersions(Game game, MapTopology topology) {
+        long[] versions = new long[topology.size()];
+        for (GameTerritory territory : game.getGameterritories()) {
+            int country = topology.indexOf(territory.getCountry().getId());
+            if (country >= 0 && territory.getVersion() != null) {
+                versions[country] = territory.getVersion();
+            }
+        }
+        return versions;
+    }
+
+    private static void loadHand(GameState state, int seat, Player player) {
+        MapTopology topology = state.getTerritories().getTopology();
+        if (player.getObjective() != null) {
+            state.setObjective(seat, player.getObjective().getId());
+        }
+        long[] countries = Bits.create(topology.size());
+        int wildcards = 0;
+        for (Card card : player.getHand()) {
+            int country = card.getCountry() == null ? -1 : topology.indexOf(card.getCountry().getId());
+            if (country >= 0) {
+                Bits.set(countries, country);
+            } else {
+                wildcards++;
+            }
+        }
+        state.setHand(seat, countries, wildcards);
+    }
+
+    /** Lee dueños y ejércitos de una partida que no está en el motor, según lo escrito. */
+    public <T> T readControl(Long gameId, Function<ContinentControl, T> reader) {
+        return controlTracker.read(gameId, reader);
+    }
+
+    /**
+     * Escribe los cambios de una partida en su propia transacción, agrupando cada UPDATE en lote: si
+     * falla, no arrastra a las demás.
+     */
+    public void write(PendingWrites writes) {
+        writeTransaction.executeWithoutResult(status -> {
+            if (writes.header() != null) {
+                update(UPDATE_GAME, List.<Object[]>of(writes.header()), "games");
+            }
+            if (!writes.players().isEmpty()) {
+                update(UPDATE_PLAYER, writes.players(), "players");
+            }
+            if (!writes.territories().isEmpty()) {
+                update(UPDATE_TERRITORY, writes.territories(), "game_territories");
+            }
+            if (!writes.events().isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_EVENT, writes.events());
+            }
+            if (!writes.combats().isEmpty()) {
+                combatResultRepository.saveAll(writes.combats().stream().map(this::toEntity).toList());
+            }
+        });
+    }
+
+    // Un 0 es una fila con otra versión (o borrada): la transacción se deshace entera
+    private void update(String sql, List<Object[]> rows, String table) {
+        int[] counts = jdbcTemplate.batchUpdate(sql, rows);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new OptimisticLockingFailureException("Stale " + table + " row "
+                        + Arrays.toString(rows.get(i)) + ": it was changed outside the game engine");
+            }
+        }
+    }
+
+    private CombatResult toEntity(PendingCombat combat) {
+        return CombatResult.builder()
+                .game(gameRepository.getReferenceById(combat.gameId()))
+                .attacker(playerRepository.getReferenceById(combat.attackerPlayerId()))
+                .roundNumber(combat.roundNumber())
+                .timestamp(combat.timestamp() != null ? combat.timestamp() : LocalDateTime.now())
+                .attackerOrigin(countryRepository.getReferenceById(combat.fromCountryId()))
+                .defenderTarget(countryRepository.getReferenceById(combat.toCountryId()))
+                .attackerInitialUnits(combat.attackerInitial())
+                .defenderInitialUnits(combat.defenderInitial())
+                .attackerLosses(combat.attackerLosses())
+                .defenderLosses(combat.defenderLosses())
+                .territoryConquered(combat.conquered())
+                .rounds(combat.rounds())
+                .diceSeed(combat.diceSeed())
+                .diceRound(combat.diceRound())
+                .stopAtArmies(combat.stopAtArmies())
+                .dice(DiceRoll.of(combat.packedDice()))
+                .build();
+    }
+}
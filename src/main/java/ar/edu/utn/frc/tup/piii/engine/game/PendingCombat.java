@@ -0,0 +1,10 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import java.time.LocalDateTime;
+
+/** Combate resuelto en memoria que todavía no se insertó en {@code combat_results}. */
+record PendingCombat(long gameId, long attackerPlayerId, long fromCountryId, long toCountryId, int roundNumber,
+                     LocalDateTime timestamp, int attackerInitial, int defenderInitial, int attackerLosses,
+                     int defenderLosses, boolean conquered, int rounds, long diceSeed, long diceRound,
+                     int stopAtArmies, int packedDice) {
+}
@@ -0,0 +1,12 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import java.util.List;
+
+/**
+ * Cambios de una partida listos para escribir: filas de parámetros para los UPDATE de
+ * {@link GameStateStore}, los combates y las filas de eventos a insertar. {@code header} es null si la
+ * cabecera no cambió.
+ */
+record PendingWrites(long gameId, Object[] header, List<Object[]> players, List<Object[]> territories,
+                     List<PendingCombat> combats, List<Object[]> events) {
+}
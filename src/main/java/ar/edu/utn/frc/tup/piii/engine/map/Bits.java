@@ -0,0 +1,114 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+/**
+ * Operaciones sobre conjuntos de países representados como {@code long[]} (un bit por índice denso).
+ * Con el mapa del TEG (50 países) cada conjunto entra en una sola palabra.
+ */
+public final class Bits {
+
+    private Bits() {
+    }
+
+    public static long[] create(int size) {
+        return new long[words(size)];
+    }
+
+    public static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    public static boolean get(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    public static void clear(long[] bits, int index) {
+        bits[index >>> 6] &= ~(1L << index);
+    }
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** ¿Todos los bits de {@code subset} están en {@code bits}? */
+    public static boolean containsAll(long[] bits, long[] subset) {
+        for (int i = 0; i < subset.length; i++) {
+            if ((subset[i] & ~bits[i]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static int intersectionCount(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    /** {@code into |= bits}. */
+    public static void or(long[] into, long[] bits) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] |= bits[i];
+        }
+    }
+
+    /** {@code into &= bits}. */
+    public static void and(long[] into, long[] bits) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] &= bits[i];
+        }
+    }
+
+    /** {@code into &= ~bits}. */
+    public static void andNot(long[] into, long[] bits) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] &= ~bits[i];
+        }
+    }
+
+    /** Siguiente índice con bit encendido a partir de {@code from}, o -1. */
+    public static int nextSetBit(long[] bits, int from) {
+        int word = from >>> 6;
+        if (word >= bits.length) {
+            return -1;
+        }
+        long current = bits[word] & (-1L << from);
+        while (true) {
+            if (current != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(current);
+            }
+            if (++word == bits.length) {
+                return -1;
+            }
+            current = bits[word];
+        }
+    }
+}
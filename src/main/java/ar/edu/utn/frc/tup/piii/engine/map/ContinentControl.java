@@ -0,0 +1,175 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import java.util.Arrays;
+
+/**
+ * Contadores de control de una partida: países por jugador y continente, total de países por
+ * jugador y la máscara de continentes que controla cada uno.
+ * <p>
+ * Cada cambio de dueño actualiza solo el continente del país, así que consultar control,
+ * bonificaciones o cantidad de países nunca recorre el mapa. Los jugadores se identifican por
+ * asiento igual que en {@link TerritoryBoard}; el bit {@code c} de la máscara es el continente de
+ * índice {@code c} en el {@link MapTopology}. Las componentes conexas de cada jugador están en
+ * {@link OwnerComponents} y las fronteras con su amenaza en {@link FrontierScores}.
+ * <p>
+ * No es thread-safe: el de una partida cargada se usa con el monitor de su {@code GameState} y el
+ * de una que no lo está, a través de {@link ContinentControlTracker}.
+ */
+public final class ContinentControl {
+
+    public static final int MAX_CONTINENTS = Long.SIZE;
+
+    private final MapTopology topology;
+    private final TerritoryBoard owners;
+    private final OwnerComponents components;
+    private final FrontierScores frontier;
+    private int[][] ownedPerContinent = new int[0][];
+    private int[] totals = new int[0];
+    private long[] controlled = new long[0];
+    private long[][] ownedMasks = new long[0][];
+
+    public ContinentControl(MapTopology topology) {
+        if (topology.continentCount() > MAX_CONTINENTS) {
+            throw new IllegalStateException("At most " + MAX_CONTINENTS + " continents are supported");
+        }
+        this.topology = topology;
+        this.owners = new TerritoryBoard(topology.getCountryIndex());
+        this.components = new OwnerComponents(topology, owners);
+        this.frontier = new FrontierScores(topology, owners);
+    }
+
+    public MapTopology getTopology() {
+        return topology;
+    }
+
+    /** Registra el nuevo dueño del país (null = neutral). Repetir el mismo dueño no cambia nada. */
+    public void setOwner(int country, Long playerId) {
+        int previous = owners.ownerSeat(country);
+        owners.setOwner(country, playerId);
+        int current = owners.ownerSeat(country);
+        if (previous == current) {
+            return;
+        }
+        components.invalidate();
+        ensureSeat(current);
+        int continent = topology.continentOf(country);
+        if (previous != TerritoryBoard.NEUTRAL) {
+            totals[previous]--;
+            Bits.clear(ownedMasks[previous], country);
+            if (continent >= 0) {
+                ownedPerContinent[previous][continent]--;
+                controlled[previous] &= ~(1L << continent);
+            }
+        }
+        if (current != TerritoryBoard.NEUTRAL) {
+            totals[current]++;
+            Bits.set(ownedMasks[current], country);
+            if (continent >= 0 && ++ownedPerContinent[current][continent] == topology.continentSize(continent)) {
+                controlled[current] |= 1L << continent;
+            }
+        }
+        frontier.ownerChanged(country, ownedMasks);
+    }
+
+    /** Registra los ejércitos del país y ajusta la amenaza de sus vecinos enemigos. */
+    public void setArmies(int country, int armies) {
+        int delta = armies - owners.armies(country);
+        owners.setArmies(country, armies);
+        frontier.armiesChanged(country, delta);
+    }
+
+    public int armies(int country) {
+        return owners.armies(country);
+    }
+
+    public long ownerId(int country) {
+        return owners.ownerId(country);
+    }
+
+    public int territories(Long playerId) {
+        int seat = owners.seatOf(playerId);
+        return seat == TerritoryBoard.NEUTRAL ? 0 : totals[seat];
+    }
+
+    public int ownedIn(Long playerId, int continent) {
+        int seat = owners.seatOf(playerId);
+        return seat == TerritoryBoard.NEUTRAL ? 0 : ownedPerContinent[seat][continent];
+    }
+
+    /** Bit {@code c} encendido si el jugador controla el continente de índice {@code c}. */
+    public long controlledMask(Long playerId) {
+        int seat = owners.seatOf(playerId);
+        return seat == TerritoryBoard.NEUTRAL ? 0L : controlled[seat];
+    }
+
+    public boolean controls(Long playerId, int continent) {
+        return (controlledMask(playerId) & (1L << continent)) != 0;
+    }
+
+    /** Jugador que controla el continente, o {@link TerritoryBoard#NO_PLAYER}. */
+    public long controllerOf(int continent) {
+        for (int seat = 0; seat < controlled.length; seat++) {
+            if ((controlled[seat] & (1L << continent)) != 0) {
+                return owners.playerAt(seat);
+            }
+        }
+        return TerritoryBoard.NO_PLAYER;
+    }
+
+    /** Ejércitos extra por los continentes que controla el jugador. */
+    public int continentBonus(Long playerId) {
+        long mask = controlledMask(playerId);
+        int bonus = 0;
+        while (mask != 0) {
+            bonus += topology.continentBonus(Long.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return bonus;
+    }
+
+    /** Países del jugador con algún limítrofe ajeno. Devuelve una copia. */
+    public long[] borderMask(Long playerId) {
+        return frontier.border(ownedMask(playerId));
+    }
+
+    /** Países del jugador rodeados solo por países propios. Devuelve una copia. */
+    public long[] interiorMask(Long playerId) {
+        return frontier.interior(ownedMask(playerId));
+    }
+
+    /** Ejércitos enemigos limítrofes al país; 0 para países interiores o neutrales. */
+    public int threat(int country) {
+        return frontier.threat(country);
+    }
+
+    /** Verdadero si se llega de {@code from} a {@code to} pasando solo por países del mismo dueño. */
+    public boolean connected(int from, int to) {
+        return components.connected(from, to, ownedMasks);
+    }
+
+    /** Países alcanzables desde {@code from} por territorio propio, sin incluirlo. Devuelve una copia. */
+    public long[] reachable(int from) {
+        return components.reachable(from, ownedMasks);
+    }
+
+    private long[] ownedMask(Long playerId) {
+        int seat = owners.seatOf(playerId);
+        return seat == TerritoryBoard.NEUTRAL ? null : ownedMasks[seat];
+    }
+
+    private void ensureSeat(int seat) {
+        if (seat < totals.length) {
+            return;
+        }
+        int size = seat + 1;
+        int previous = totals.length;
+        totals = Arrays.copyOf(totals, size);
+        controlled = Arrays.copyOf(controlled, size);
+        ownedPerContinent = Arrays.copyOf(ownedPerContinent, size);
+        ownedMasks = Arrays.copyOf(ownedMasks, size);
+        for (int i = previous; i < size; i++) {
+            ownedPerContinent[i] = new int[topology.continentCount()];
+            ownedMasks[i] = Bits.create(topology.size());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.repository.GameTerritoryRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Mantiene un {@link ContinentControl} por partida.
+ * <p>
+ * Se arma a partir de los territorios la primera vez que se consulta una partida y después se
+ * actualiza con cada cambio de dueño o de ejércitos. Si la transacción que produjo el cambio se
+ * revierte, la partida se descarta y se vuelve a leer en la próxima consulta.
+ * <p>
+ * Lecturas y cambios pasan con el monitor del {@link ContinentControl} tomado. Mientras la partida
+ * está en el motor, el mismo contador es el de su {@code GameState} y se usa solo desde el motor.
+ */
+@Component
+public class ContinentControlTracker {
+    private final GameTerritoryRepository territoryRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final Map<Long, ContinentControl> games = new ConcurrentHashMap<>();
+
+    public ContinentControlTracker(GameTerritoryRepository territoryRepository,
+                                   MapTopologyProvider topologyProvider) {
+        this.territoryRepository = territoryRepository;
+        this.topologyProvider = topologyProvider;
+    }
+
+    public ContinentControl forGame(Long gameId) {
+        ContinentControl control = games.get(gameId);
+        if (control == null) {
+            control = games.computeIfAbsent(gameId, this::load);
+        }
+        return control;
+    }
+
+    /** Lee los contadores de la partida con su monitor tomado. */
+    public <T> T read(Long gameId, Function<ContinentControl, T> reader) {
+        ContinentControl control = forGame(gameId);
+        synchronized (control) {
+            return reader.apply(control);
+        }
+    }
+
+    /** Copia dueño y ejércitos del territorio a los contadores de su partida. */
+    public void territoryChanged(Long gameId, GameTerritory territory) {
+        ContinentControl control = forGame(gameId);
+        int index = control.getTopology().indexOf(territory.getCountry().getId());
+        if (index >= 0) {
+            synchronized (control) {
+                apply(control, index, territory);
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(gameId);
+                    }
+                }
+            });
+        }
+    }
+
+    public void evict(Long gameId) {
+        games.remove(gameId);
+    }
+
+    /** Usa {@code control} para la partida, por ejemplo el de un estado que llegó de otro nodo. */
+    public void install(Long gameId, ContinentControl control) {
+        games.put(gameId, control);
+    }
+
+    private ContinentControl load(Long gameId) {
+        ContinentControl control = new ContinentControl(topologyProvider.get());
+        for (GameTerritory territory : territoryRepository.findByGameId(gameId)) {
+            int index = control.getTopology().indexOf(territory.getCountry().getId());
+            if (index >= 0) {
+                apply(control, index, territory);
+            }
+        }
+        return control;
+    }
+
+    private static void apply(ContinentControl control, int index, GameTerritory territory) {
+        control.setArmies(index, territory.getArmies() == null ? 0 : territory.getArmies());
+        control.setOwner(index, territory.getOwner() == null ? null : territory.getOwner().getId());
+    }
+}
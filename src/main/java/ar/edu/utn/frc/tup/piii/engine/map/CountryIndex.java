@@ -0,0 +1,66 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Asigna a cada país un índice denso (0..n-1) ordenando los ids.
+ * <p>
+ * Como los ids son generados por la base y quedan casi contiguos, la búsqueda id → índice
+ * usa un arreglo desplazado por el menor id: O(1) y sin reservar memoria.
+ */
+public final class CountryIndex {
+
+    private static final int MAX_SPAN_FACTOR = 8;
+
+    private final long[] ids;
+    private final long minId;
+    private final int[] indexByOffset;
+
+    private CountryIndex(long[] sortedIds) {
+        this.ids = sortedIds;
+        this.minId = sortedIds.length == 0 ? 0 : sortedIds[0];
+        long span = sortedIds.length == 0 ? 0 : sortedIds[sortedIds.length - 1] - minId + 1;
+        if (span <= (long) Math.max(64, sortedIds.length) * MAX_SPAN_FACTOR) {
+            indexByOffset = new int[(int) span];
+            Arrays.fill(indexByOffset, -1);
+            for (int i = 0; i < sortedIds.length; i++) {
+                indexByOffset[(int) (sortedIds[i] - minId)] = i;
+            }
+        } else {
+            indexByOffset = null;
+        }
+    }
+
+    public static CountryIndex of(Collection<Long> countryIds) {
+        long[] sorted = countryIds.stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        return new CountryIndex(sorted);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /** Índice denso del país o -1 si no pertenece al mapa. */
+    public int indexOf(long countryId) {
+        if (indexByOffset != null) {
+            long offset = countryId - minId;
+            return offset < 0 || offset >= indexByOffset.length ? -1 : indexByOffset[(int) offset];
+        }
+        int found = Arrays.binarySearch(ids, countryId);
+        return found < 0 ? -1 : found;
+    }
+
+    public int indexOf(Long countryId) {
+        return countryId == null ? -1 : indexOf(countryId.longValue());
+    }
+
+    public long idAt(int index) {
+        return ids[index];
+    }
+
+    /** Dos índices son intercambiables si numeran exactamente los mismos países. */
+    public boolean sameAs(CountryIndex other) {
+        return this == other || Arrays.equals(ids, other.ids);
+    }
+}
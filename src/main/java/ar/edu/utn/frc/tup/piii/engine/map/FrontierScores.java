@@ -0,0 +1,91 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+/**
+ * Qué países son frontera (tienen algún limítrofe ajeno) y su amenaza: la suma de ejércitos
+ * enemigos limítrofes. Un cambio de dueño recalcula solo el país y sus vecinos; un cambio de
+ * ejércitos ajusta la amenaza de los vecinos enemigos con la diferencia.
+ */
+final class FrontierScores {
+
+    private final MapTopology topology;
+    private final TerritoryBoard owners;
+    private final long[] border;
+    private final int[] threat;
+
+    FrontierScores(MapTopology topology, TerritoryBoard owners) {
+        this.topology = topology;
+        this.owners = owners;
+        this.border = Bits.create(topology.size());
+        this.threat = new int[topology.size()];
+    }
+
+    /** Llamar después de que {@code country} cambió de dueño, con las máscaras ya actualizadas. */
+    void ownerChanged(int country, long[][] ownedMasks) {
+        refresh(country, ownedMasks);
+        long[] row = topology.adjacencyRow(country);
+        for (int n = Bits.nextSetBit(row, 0); n >= 0; n = Bits.nextSetBit(row, n + 1)) {
+            refresh(n, ownedMasks);
+        }
+    }
+
+    void armiesChanged(int country, int delta) {
+        int seat = owners.ownerSeat(country);
+        if (delta == 0 || seat == TerritoryBoard.NEUTRAL) {
+            return;
+        }
+        long[] row = topology.adjacencyRow(country);
+        for (int n = Bits.nextSetBit(row, 0); n >= 0; n = Bits.nextSetBit(row, n + 1)) {
+            int neighbor = owners.ownerSeat(n);
+            if (neighbor != TerritoryBoard.NEUTRAL && neighbor != seat) {
+                threat[n] += delta;
+            }
+        }
+    }
+
+    /** Países de {@code owned} que son frontera. Devuelve una copia. */
+    long[] border(long[] owned) {
+        long[] mask = Bits.create(topology.size());
+        if (owned != null) {
+            Bits.or(mask, owned);
+            Bits.and(mask, border);
+        }
+        return mask;
+    }
+
+    /** Países de {@code owned} que no son frontera. Devuelve una copia. */
+    long[] interior(long[] owned) {
+        long[] mask = Bits.create(topology.size());
+        if (owned != null) {
+            Bits.or(mask, owned);
+            Bits.andNot(mask, border);
+        }
+        return mask;
+    }
+
+    int threat(int country) {
+        return threat[country];
+    }
+
+    private void refresh(int country, long[][] ownedMasks) {
+        int seat = owners.ownerSeat(country);
+        long[] row = topology.adjacencyRow(country);
+        if (seat == TerritoryBoard.NEUTRAL) {
+            Bits.clear(border, country);
+            threat[country] = 0;
+            return;
+        }
+        if (Bits.containsAll(ownedMasks[seat], row)) {
+            Bits.clear(border, country);
+        } else {
+            Bits.set(border, country);
+        }
+        int sum = 0;
+        for (int n = Bits.nextSetBit(row, 0); n >= 0; n = Bits.nextSetBit(row, n + 1)) {
+            int neighbor = owners.ownerSeat(n);
+            if (neighbor != TerritoryBoard.NEUTRAL && neighbor != seat) {
+                sum += owners.armies(n);
+            }
+        }
+        threat[country] = sum;
+    }
+}
@@ -0,0 +1,188 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapa inmutable en memoria: índices densos de países, filas de adyacencia como bitsets y
+ * máscaras de pertenencia a cada continente.
+ * <p>
+ * Se construye una vez al arrancar a partir de {@code countries}, {@code country_neighbors},
+ * {@code borders} y {@code continents}; todas las consultas posteriores son operaciones de bits.
+ * Los arreglos devueltos por {@link #adjacencyRow(int)} y {@link #continentMask(int)} son los
+ * internos y no deben modificarse.
+ */
+public final class MapTopology {
+
+    private final CountryIndex countries;
+    private final long[][] adjacency;
+    private final int[] continentOf;
+    private final long[] continentIds;
+    private final int[] continentBonus;
+    private final long[][] continentMasks;
+    private final int[] continentSizes;
+
+    private MapTopology(CountryIndex countries, long[][] adjacency, int[] continentOf, long[] continentIds,
+                        int[] continentBonus, long[][] continentMasks) {
+        this.countries = countries;
+        this.adjacency = adjacency;
+        this.continentOf = continentOf;
+        this.continentIds = continentIds;
+        this.continentBonus = continentBonus;
+        this.continentMasks = continentMasks;
+        this.continentSizes = new int[continentMasks.length];
+        for (int c = 0; c < continentMasks.length; c++) {
+            continentSizes[c] = Bits.cardinality(continentMasks[c]);
+        }
+    }
+
+    public static MapTopology empty() {
+        return new Builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public CountryIndex getCountryIndex() {
+        return countries;
+    }
+
+    public int size() {
+        return countries.size();
+    }
+
+    public int words() {
+        return Bits.words(countries.size());
+    }
+
+    public int indexOf(Long countryId) {
+        return countries.indexOf(countryId);
+    }
+
+    public long countryId(int index) {
+        return countries.idAt(index);
+    }
+
+    public boolean contains(Long countryId) {
+        return countries.indexOf(countryId) >= 0;
+    }
+
+    public boolean areAdjacent(int country1, int country2) {
+        return Bits.get(adjacency[country1], country2);
+    }
+
+    public boolean areAdjacent(Long countryId1, Long countryId2) {
+        int a = countries.indexOf(countryId1);
+        int b = countries.indexOf(countryId2);
+        return a >= 0 && b >= 0 && Bits.get(adjacency[a], b);
+    }
+
+    public long[] adjacencyRow(int country) {
+        return adjacency[country];
+    }
+
+    public int continentCount() {
+        return continentIds.length;
+    }
+
+    /** Índice del continente del país, o -1 si no tiene. */
+    public int continentOf(int country) {
+        return continentOf[country];
+    }
+
+    public int continentIndexOf(Long continentId) {
+        if (continentId == null) {
+            return -1;
+        }
+        int found = Arrays.binarySearch(continentIds, continentId);
+        return found < 0 ? -1 : found;
+    }
+
+    public long continentId(int continent) {
+        return continentIds[continent];
+    }
+
+    public int continentBonus(int continent) {
+        return continentBonus[continent];
+    }
+
+    public int continentSize(int continent) {
+        return continentSizes[continent];
+    }
+
+    public long[] continentMask(int continent) {
+        return continentMasks[continent];
+    }
+
+    /** Ids de los países marcados en {@code mask}, en orden de índice. */
+    public List<Long> countryIds(long[] mask) {
+        List<Long> ids = new ArrayList<>(Bits.cardinality(mask));
+        for (int i = Bits.nextSetBit(mask, 0); i >= 0; i = Bits.nextSetBit(mask, i + 1)) {
+            ids.add(countries.idAt(i));
+        }
+        return ids;
+    }
+
+    public static final class Builder {
+        private final Map<Long, Long> continentByCountry = new HashMap<>();
+        private final Map<Long, Integer> bonusByContinent = new HashMap<>();
+        private final List<long[]> borders = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder country(long countryId, Long continentId) {
+            continentByCountry.put(countryId, continentId);
+            return this;
+        }
+
+        public Builder continent(long continentId, int bonusArmies) {
+            bonusByContinent.put(continentId, bonusArmies);
+            return this;
+        }
+
+        /** Los límites son simétricos: basta con registrarlos en un sentido. */
+        public Builder border(long countryId, long adjacentId) {
+            borders.add(new long[]{countryId, adjacentId});
+            return this;
+        }
+
+        public MapTopology build() {
+            CountryIndex index = CountryIndex.of(continentByCountry.keySet());
+            int n = index.size();
+            long[][] adjacency = new long[n][Bits.words(n)];
+            for (long[] border : borders) {
+                int a = index.indexOf(border[0]);
+                int b = index.indexOf(border[1]);
+                if (a >= 0 && b >= 0 && a != b) {
+                    Bits.set(adjacency[a], b);
+                    Bits.set(adjacency[b], a);
+                }
+            }
+
+            continentByCountry.values().stream()
+                    .filter(id -> id != null && !bonusByContinent.containsKey(id))
+                    .forEach(id -> bonusByContinent.put(id, 0));
+            long[] continentIds = bonusByContinent.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+            int[] bonus = new int[continentIds.length];
+            long[][] masks = new long[continentIds.length][Bits.words(n)];
+            for (int c = 0; c < continentIds.length; c++) {
+                bonus[c] = bonusByContinent.get(continentIds[c]);
+            }
+            int[] continentOf = new int[n];
+            for (int i = 0; i < n; i++) {
+                Long continentId = continentByCountry.get(index.idAt(i));
+                int c = continentId == null ? -1 : Arrays.binarySearch(continentIds, continentId);
+                continentOf[i] = c;
+                if (c >= 0) {
+                    Bits.set(masks[c], i);
+                }
+            }
+            return new MapTopology(index, adjacency, continentOf, continentIds, bonus, masks);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Continent;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.repository.BorderRepository;
+import ar.edu.utn.frc.tup.piii.repository.ContinentRepository;
+import ar.edu.utn.frc.tup.piii.repository.CountryRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Carga el {@link MapTopology} una sola vez al arrancar y lo comparte entre todas las partidas.
+ * <p>
+ * Junto al mapa guarda los países (con su continente ya cargado) en orden de índice, para que los
+ * servicios devuelvan entidades sin volver a la base. Esas entidades están desasociadas de la sesión:
+ * solo deben leerse sus atributos simples y el continente.
+ */
+@Component
+public class MapTopologyProvider {
+    private final CountryRepository countryRepository;
+    private final BorderRepository borderRepository;
+    private final ContinentRepository continentRepository;
+
+    private volatile Snapshot snapshot;
+
+    public MapTopologyProvider(CountryRepository countryRepository, BorderRepository borderRepository,
+                               ContinentRepository continentRepository) {
+        this.countryRepository = countryRepository;
+        this.borderRepository = borderRepository;
+        this.continentRepository = continentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    public MapTopology get() {
+        return snapshot().topology;
+    }
+
+    /** País del mapa por índice denso. */
+    public Country country(int index) {
+        return snapshot().countries.get(index);
+    }
+
+    public List<Country> countries(long[] mask) {
+        Snapshot current = snapshot();
+        List<Country> result = new ArrayList<>(Bits.cardinality(mask));
+        for (int i = Bits.nextSetBit(mask, 0); i >= 0; i = Bits.nextSetBit(mask, i + 1)) {
+            result.add(current.countries.get(i));
+        }
+        return result;
+    }
+
+    /** Vuelve a leer el mapa; solo hace falta si se editan países o límites con la aplicación en marcha. */
+    @Transactional(readOnly = true)
+    public synchronized MapTopology reload() {
+        MapTopology.Builder builder = MapTopology.builder();
+        for (Continent continent : continentRepository.findAll()) {
+            builder.continent(continent.getId(), continent.getBonusArmies() == null ? 0 : continent.getBonusArmies());
+        }
+        List<Country> countries = countryRepository.findAllWithContinent();
+        for (Country country : countries) {
+            builder.country(country.getId(), country.getContinent() == null ? null : country.getContinent().getId());
+        }
+        for (Object[] pair : countryRepository.findNeighborPairs()) {
+            builder.border((Long) pair[0], (Long) pair[1]);
+        }
+        for (Object[] pair : borderRepository.findBorderPairs()) {
+            builder.border((Long) pair[0], (Long) pair[1]);
+        }
+        MapTopology topology = builder.build();
+        Country[] byIndex = new Country[topology.size()];
+        for (Country country : countries) {
+            byIndex[topology.indexOf(country.getId())] = country;
+        }
+        snapshot = new Snapshot(topology, List.of(byIndex));
+        return topology;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private record Snapshot(MapTopology topology, List<Country> countries) {
+    }
+}
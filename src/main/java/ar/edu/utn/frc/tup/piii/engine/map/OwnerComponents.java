@@ -0,0 +1,85 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Componentes conexas de los países de cada jugador (países propios unidos por límites), que es lo
+ * que decide a dónde se puede reagrupar. Se recalculan con un relleno por bitsets la primera vez que
+ * se consultan después de un cambio de dueño.
+ */
+final class OwnerComponents {
+
+    private final MapTopology topology;
+    private final TerritoryBoard owners;
+    private final int[] component;
+    private long[][] componentMasks = new long[0][];
+    private boolean dirty = true;
+
+    OwnerComponents(MapTopology topology, TerritoryBoard owners) {
+        this.topology = topology;
+        this.owners = owners;
+        this.component = new int[topology.size()];
+    }
+
+    void invalidate() {
+        dirty = true;
+    }
+
+    boolean connected(int from, int to, long[][] ownedMasks) {
+        ensure(ownedMasks);
+        return component[from] >= 0 && component[from] == component[to];
+    }
+
+    long[] reachable(int from, long[][] ownedMasks) {
+        ensure(ownedMasks);
+        long[] mask = Bits.create(topology.size());
+        if (component[from] >= 0) {
+            Bits.or(mask, componentMasks[component[from]]);
+            Bits.clear(mask, from);
+        }
+        return mask;
+    }
+
+    private void ensure(long[][] ownedMasks) {
+        if (!dirty) {
+            return;
+        }
+        Arrays.fill(component, -1);
+        List<long[]> masks = new ArrayList<>();
+        for (int country = 0; country < component.length; country++) {
+            int seat = owners.ownerSeat(country);
+            if (component[country] >= 0 || seat == TerritoryBoard.NEUTRAL) {
+                continue;
+            }
+            long[] reach = flood(country, ownedMasks[seat]);
+            for (int i = Bits.nextSetBit(reach, 0); i >= 0; i = Bits.nextSetBit(reach, i + 1)) {
+                component[i] = masks.size();
+            }
+            masks.add(reach);
+        }
+        componentMasks = masks.toArray(new long[0][]);
+        dirty = false;
+    }
+
+    private long[] flood(int start, long[] owned) {
+        long[] reach = Bits.create(topology.size());
+        Bits.set(reach, start);
+        long[] frontier = reach.clone();
+        long[] next = Bits.create(topology.size());
+        while (!Bits.isEmpty(frontier)) {
+            Arrays.fill(next, 0L);
+            for (int i = Bits.nextSetBit(frontier, 0); i >= 0; i = Bits.nextSetBit(frontier, i + 1)) {
+                Bits.or(next, topology.adjacencyRow(i));
+            }
+            Bits.and(next, owned);
+            Bits.andNot(next, reach);
+            Bits.or(reach, next);
+            long[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        return reach;
+    }
+}
@@ -0,0 +1,137 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import java.util.Arrays;
+
+/**
+ * Estado de los territorios de una partida indexado por país: dueño y ejércitos en arreglos
+ * primitivos, para que las consultas de propiedad no recorran ni copien la lista de entidades.
+ * <p>
+ * Los dueños se guardan como asientos (posición en {@link #playerIds}), así que comparar dueños
+ * es comparar enteros. {@link #NEUTRAL} marca un país sin dueño.
+ */
+public final class TerritoryBoard {
+
+    public static final int NEUTRAL = -1;
+    public static final long NO_PLAYER = -1L;
+
+    private final CountryIndex countries;
+    private final int[] owners;
+    private final int[] armies;
+    private long[] playerIds = new long[6];
+    private int playerCount;
+
+    public TerritoryBoard(CountryIndex countries) {
+        this.countries = countries;
+        this.owners = new int[countries.size()];
+        this.armies = new int[countries.size()];
+        Arrays.fill(owners, NEUTRAL);
+    }
+
+    public CountryIndex getCountryIndex() {
+        return countries;
+    }
+
+    public int size() {
+        return countries.size();
+    }
+
+    public int indexOf(Long countryId) {
+        return countries.indexOf(countryId);
+    }
+
+    /** Asiento del jugador en este tablero, o {@link #NEUTRAL} si todavía no tiene países. */
+    public int seatOf(Long playerId) {
+        if (playerId == null) {
+            return NEUTRAL;
+        }
+        for (int seat = 0; seat < playerCount; seat++) {
+            if (playerIds[seat] == playerId) {
+                return seat;
+            }
+        }
+        return NEUTRAL;
+    }
+
+    public long playerAt(int seat) {
+        return seat == NEUTRAL ? NO_PLAYER : playerIds[seat];
+    }
+
+    public int ownerSeat(int country) {
+        return owners[country];
+    }
+
+    public long ownerId(int country) {
+        return playerAt(owners[country]);
+    }
+
+    public int armies(int country) {
+        return armies[country];
+    }
+
+    public boolean isOwnedBy(int country, Long playerId) {
+        int seat = owners[country];
+        return seat != NEUTRAL && playerId != null && playerIds[seat] == playerId;
+    }
+
+    public void setOwner(int country, Long playerId) {
+        owners[country] = playerId == null ? NEUTRAL : seatFor(playerId);
+    }
+
+    public void setArmies(int country, int value) {
+        armies[country] = value;
+    }
+
+    public int countOwnedBy(Long playerId) {
+        int seat = seatOf(playerId);
+        if (seat == NEUTRAL) {
+            return 0;
+        }
+        int count = 0;
+        for (int owner : owners) {
+            if (owner == seat) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /** Marca en {@code into} (ya dimensionado con {@link Bits#create(int)}) los países del jugador. */
+    public long[] ownedMask(Long playerId, long[] into) {
+        Arrays.fill(into, 0L);
+        int seat = seatOf(playerId);
+        if (seat != NEUTRAL) {
+            for (int i = 0; i < owners.length; i++) {
+                if (owners[i] == seat) {
+                    Bits.set(into, i);
+                }
+            }
+        }
+        return into;
+    }
+
+    /** Verdadero si el jugador posee todos los países de {@code mask}. */
+    public boolean ownsAll(Long playerId, long[] mask) {
+        int seat = seatOf(playerId);
+        if (seat == NEUTRAL) {
+            return Bits.isEmpty(mask);
+        }
+        for (int i = Bits.nextSetBit(mask, 0); i >= 0; i = Bits.nextSetBit(mask, i + 1)) {
+            if (owners[i] != seat) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int seatFor(long playerId) {
+        int seat = seatOf(playerId);
+        if (seat != NEUTRAL) {
+            return seat;
+        }
+        if (playerCount == playerIds.length) {
+            playerIds = Arrays.copyOf(playerIds, playerCount * 2);
+        }
+        playerIds[playerCount] = playerId;
+        return playerCount++;
+    }
+}
@@ -0,0 +1,208 @@
+package ar.edu.utn.frc.tup.piii.engine.sync;
+
+import ar.edu.utn.frc.tup.piii.dtos.websocket.GameStatePatchDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.PlayerPatchDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.PlayerViewDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.TerritoryPatchDto;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Recuerda lo último que se publicó de cada partida y arma el parche con lo que cambió desde ahí.
+ * La versión de la partida hace de número de secuencia: cada comando del motor la sube en uno.
+ * <p>
+ * {@link #diff(GameState)} se llama con el monitor del estado tomado y, por partida, siempre desde
+ * el hilo de su buzón, así que los parches salen en orden.
+ */
+@Component
+public class GameStateSync {
+    private final Map<Long, Mirror> mirrors = new ConcurrentHashMap<>();
+
+    /**
+     * Parche desde la última publicación, o null si no cambió nada. La primera vez que se ve una
+     * partida (o después de {@link #forget(Long)}) el parche es completo.
+     */
+    public GameStatePatchDto diff(GameState state) {
+        Mirror mirror = mirrors.get(state.getGameId());
+        if (mirror == null || mirror.owners.length != state.getTerritories().getTopology().size()
+                || mirror.statuses.length != state.playerCount()) {
+            mirror = new Mirror(state);
+            mirrors.put(state.getGameId(), mirror);
+            return mirror.full(state);
+        }
+        return mirror.update(state);
+    }
+
+    /**
+     * Vistas privadas de los asientos cuya mano u objetivo cambió desde la última vez; después de
+     * {@link #diff(GameState)} sobre una partida nueva salen todas. Mismo monitor que {@code diff}.
+     */
+    public List<PlayerViewDto> privateViews(GameState state) {
+        Mirror mirror = mirrors.get(state.getGameId());
+        return mirror == null ? List.of() : mirror.views(state);
+    }
+
+    /** Vista privada actual de un asiento, haya cambiado o no. */
+    public static PlayerViewDto privateView(GameState state, int seat) {
+        MapTopology topology = state.getTerritories().getTopology();
+        long[] hand = state.hand(seat);
+        List<Long> cards = new ArrayList<>(Bits.cardinality(hand));
+        for (int country = Bits.nextSetBit(hand, 0); country >= 0; country = Bits.nextSetBit(hand, country + 1)) {
+            cards.add(topology.countryId(country));
+        }
+        long objectiveId = state.objectiveId(seat);
+        return PlayerViewDto.builder()
+                .gameId(state.getGameId())
+                .playerId(state.playerId(seat))
+                .version(state.getVersion())
+                .objectiveId(objectiveId == 0 ? null : objectiveId)
+                .cardCountryIds(cards)
+                .wildcards(state.wildcards(seat))
+                .build();
+    }
+
+    /** Parche completo del estado actual, sin tocar lo que se recuerda de la partida. */
+    public static GameStatePatchDto snapshot(GameState state) {
+        return new Mirror(state).full(state);
+    }
+
+    /** Versión de lo último publicado, o null si todavía no se publicó nada de la partida. */
+    public Long publishedVersion(Long gameId) {
+        Mirror mirror = mirrors.get(gameId);
+        return mirror == null ? null : mirror.version;
+    }
+
+    public void forget(Long gameId) {
+        mirrors.remove(gameId);
+    }
+
+    private static final class Mirror {
+        private volatile long version;
+        private GameStatus status;
+        private GamePhase phase;
+        private int turn;
+        private long currentPlayerId;
+        private final long[] owners;
+        private final int[] armies;
+        private final PlayerStatus[] statuses;
+        private final int[] armiesToPlace;
+        private final long[] objectives;
+        private final long[][] hands;
+        private final int[] wildcards;
+
+        Mirror(GameState state) {
+            owners = new long[state.getTerritories().getTopology().size()];
+            armies = new int[owners.length];
+            statuses = new PlayerStatus[state.playerCount()];
+            armiesToPlace = new int[statuses.length];
+            objectives = new long[statuses.length];
+            hands = new long[statuses.length][];
+            wildcards = new int[statuses.length];
+        }
+
+        GameStatePatchDto full(GameState state) {
+            GameStatePatchDto patch = header(state, null, true);
+            patch.setStatus(status);
+            patch.setCurrentPhase(phase);
+            patch.setCurrentTurn(turn);
+            patch.setCurrentPlayerId(currentPlayerId);
+            patch.setTerritories(territories(state, true));
+            patch.setPlayers(players(state, true));
+            return patch;
+        }
+
+        GameStatePatchDto update(GameState state) {
+            long base = version;
+            GameStatus previousStatus = status;
+            GamePhase previousPhase = phase;
+            int previousTurn = turn;
+            long previousPlayer = currentPlayerId;
+            GameStatePatchDto patch = header(state, base, null);
+            List<TerritoryPatchDto> territories = territories(state, false);
+            List<PlayerPatchDto> players = players(state, false);
+            boolean headerChanged = previousStatus != status || previousPhase != phase || previousTurn != turn
+                    || previousPlayer != currentPlayerId;
+            if (base == version && !headerChanged && territories.isEmpty() && players.isEmpty()) {
+                return null;
+            }
+            patch.setStatus(previousStatus != status ? status : null);
+            patch.setCurrentPhase(previousPhase != phase ? phase : null);
+            patch.setCurrentTurn(previousTurn != turn ? turn : null);
+            patch.setCurrentPlayerId(previousPlayer != currentPlayerId ? currentPlayerId : null);
+            patch.setTerritories(territories.isEmpty() ? null : territories);
+            patch.setPlayers(players.isEmpty() ? null : players);
+            return patch;
+        }
+
+        List<PlayerViewDto> views(GameState state) {
+            List<PlayerViewDto> changed = new ArrayList<>();
+            for (int seat = 0; seat < hands.length; seat++) {
+                long[] hand = state.hand(seat);
+                if (hands[seat] == null || objectives[seat] != state.objectiveId(seat)
+                        || wildcards[seat] != state.wildcards(seat) || !Arrays.equals(hands[seat], hand)) {
+                    objectives[seat] = state.objectiveId(seat);
+                    wildcards[seat] = state.wildcards(seat);
+                    hands[seat] = hand.clone();
+                    changed.add(privateView(state, seat));
+                }
+            }
+            return changed;
+        }
+
+        private GameStatePatchDto header(GameState state, Long base, Boolean full) {
+            version = state.getVersion();
+            status = state.getStatus();
+            phase = state.getPhase();
+            turn = state.getTurn();
+            currentPlayerId = state.getCurrentPlayerId();
+            return GameStatePatchDto.builder()
+                    .gameId(state.getGameId())
+                    .baseVersion(base)
+                    .version(version)
+                    .full(full)
+                    .build();
+        }
+
+        private List<TerritoryPatchDto> territories(GameState state, boolean all) {
+            ContinentControl territories = state.getTerritories();
+            MapTopology topology = territories.getTopology();
+            List<TerritoryPatchDto> changed = new ArrayList<>();
+            for (int country = 0; country < owners.length; country++) {
+                long owner = territories.ownerId(country);
+                int count = territories.armies(country);
+                if (all || owners[country] != owner || armies[country] != count) {
+                    owners[country] = owner;
+                    armies[country] = count;
+                    changed.add(new TerritoryPatchDto(topology.countryId(country), owner < 0 ? null : owner, count));
+                }
+            }
+            return changed;
+        }
+
+        private List<PlayerPatchDto> players(GameState state, boolean all) {
+            List<PlayerPatchDto> changed = new ArrayList<>();
+            for (int seat = 0; seat < statuses.length; seat++) {
+                PlayerStatus playerStatus = state.playerStatus(seat);
+                int toPlace = state.armiesToPlace(seat);
+                if (all || statuses[seat] != playerStatus || armiesToPlace[seat] != toPlace) {
+                    statuses[seat] = playerStatus;
+                    armiesToPlace[seat] = toPlace;
+                    changed.add(new PlayerPatchDto(state.playerId(seat), playerStatus, toPlace));
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ar.edu.utn.frc.tup.piii.exception;
+
+public class GameMovedException extends RuntimeException{
+    private final String node;
+
+    public GameMovedException (String msg, String node){
+        super(msg);
+        this.node = node;
+    }
+
+    /** Nodo que tiene ahora la partida. */
+    public String getNode(){
+        return node;
+    }
+}
@@ -0,0 +1,7 @@
+package ar.edu.utn.frc.tup.piii.exception;
+
+public class NodeUnavailableException extends RuntimeException{
+    public NodeUnavailableException (String msg){
+        super(msg);
+    }
+}
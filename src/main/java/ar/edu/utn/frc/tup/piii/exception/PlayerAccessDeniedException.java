@@ -0,0 +1,7 @@
+package ar.edu.utn.frc.tup.piii.exception;
+
+public class PlayerAccessDeniedException extends RuntimeException{
+    public PlayerAccessDeniedException (String msg){
+        super(msg);
+    }
+}
@@ -0,0 +1,7 @@
+package ar.edu.utn.frc.tup.piii.exception;
+
+public class StaleGameStateException extends RuntimeException{
+    public StaleGameStateException (String msg){
+        super(msg);
+    }
+}
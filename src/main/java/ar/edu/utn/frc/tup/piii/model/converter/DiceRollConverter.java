@@ -0,0 +1,22 @@
+package ar.edu.utn.frc.tup.piii.model.converter;
+
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Guarda una tirada completa (hasta tres dados por lado) en una columna entera de ancho fijo.
+ */
+@Converter
+public class DiceRollConverter implements AttributeConverter<DiceRoll, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(DiceRoll roll) {
+        return roll == null ? null : roll.getPacked();
+    }
+
+    @Override
+    public DiceRoll convertToEntityAttribute(Integer packed) {
+        return packed == null ? null : DiceRoll.of(packed);
+    }
+}
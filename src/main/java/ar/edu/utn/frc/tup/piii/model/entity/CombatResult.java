@@ -1,5 +1,9 @@
 package ar.edu.utn.frc.tup.piii.model.entity;
 
+import ar.edu.utn.frc.tup.piii.engine.combat.Battle;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceCodec;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import ar.edu.utn.frc.tup.piii.model.converter.DiceRollConverter;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -31,6 +35,11 @@ public class CombatResult {
     @Column(name = "played_at", nullable = false)
     private LocalDateTime timestamp;
 
+    /** Jugador que inició el ataque */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "attacker_player_id")
+    private Player attacker;
+
     /** País atacante (origen del ataque) */
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "attacker_origin_id", nullable = false)
@@ -49,23 +58,10 @@ public class CombatResult {
     @Column(name = "defender_initial_units", nullable = false)
     private int defenderInitialUnits;
 
-    /** Dados que sacó el atacante */
-    @ElementCollection
-    @CollectionTable(
-            name = "combat_attacker_dice",
-            joinColumns = @JoinColumn(name = "combat_result_id")
-    )
-    @Column(name = "die_value", nullable = false)
-    private List<Integer> attackerDice;
-
-    /** Dados que sacó el defensor */
-    @ElementCollection
-    @CollectionTable(
-            name = "combat_defender_dice",
-            joinColumns = @JoinColumn(name = "combat_result_id")
-    )
-    @Column(name = "die_value", nullable = false)
-    private List<Integer> defenderDice;
+    /** Dados de la última tirada, empaquetados en una sola columna */
+    @Convert(converter = DiceRollConverter.class)
+    @Column(name = "dice")
+    private DiceRoll dice;
 
     /** Pérdidas de unidades del atacante */
     @Column(name = "attacker_losses", nullable = false)
@@ -78,4 +74,47 @@ public class CombatResult {
     /** ¿Se conquistó el territorio? */
     @Column(name = "territory_conquered", nullable = false)
     private boolean territoryConquered;
+
+    /** Tiradas resueltas en este registro (más de una en un ataque relámpago) */
+    @Column(name = "rounds", nullable = false)
+    @Builder.Default
+    private int rounds = 1;
+
+    /** Semilla de dados de la partida; con ella y la primera tirada se reproducen los dados */
+    @Column(name = "dice_seed")
+    private Long diceSeed;
+
+    /** Número de la primera tirada de la partida usada por este combate */
+    @Column(name = "dice_round")
+    private Long diceRound;
+
+    /** Ejércitos por debajo de los cuales el atacante no arriesga dados */
+    @Column(name = "stop_at_armies")
+    private Integer stopAtArmies;
+
+    /** Dados que sacó el atacante en la última tirada */
+    public List<Integer> getAttackerDice() {
+        return dice == null ? List.of() : dice.getAttackerDice();
+    }
+
+    /** Dados que sacó el defensor en la última tirada */
+    public List<Integer> getDefenderDice() {
+        return dice == null ? List.of() : dice.getDefenderDice();
+    }
+
+    /**
+     * Reproduce los dados de cada tirada de este combate, empaquetados con {@link DiceCodec}.
+     * Los combates guardados antes del generador por partida solo conservan la columna {@code dice}.
+     */
+    public int[] replayRolls() {
+        if (diceSeed == null) {
+            return dice == null ? new int[0] : new int[]{dice.getPacked()};
+        }
+        Battle battle = new Battle(diceSeed, diceRound, attackerInitialUnits, defenderInitialUnits, stopAtArmies);
+        int[] rolls = new int[rounds];
+        for (int i = 0; i < rounds && battle.canContinue(); i++) {
+            rolls[i] = battle.nextRound();
+        }
+        return rolls;
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ar.edu.utn.frc.tup.piii.model.entity;
 
+import ar.edu.utn.frc.tup.piii.engine.map.CountryIndex;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,11 +27,12 @@ public class Continent {
     @OneToMany(mappedBy = "continent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Country> countries = new HashSet<>();
 
-    public boolean isControlledBy(Player player, Game game) {
-        return countries.stream()
-                .allMatch(country -> {
-                    GameTerritory territory = game.getTerritories().get(country);
-                    return territory != null && player.equals(territory.getOwner());
-                });
+    public boolean isControlledBy(Player player, Game game, CountryIndex mapCountries) {
+        for (Country country : countries) {
+            if (!game.isOwnedBy(mapCountries, country.getId(), player)) {
+                return false;
+            }
+        }
+        return true;
     }
 }
\ No newline at end of file
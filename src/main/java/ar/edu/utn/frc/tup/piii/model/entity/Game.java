@@ -4,6 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
+import lombok.Setter;
+import lombok.ToString;
+import ar.edu.utn.frc.tup.piii.engine.map.CountryIndex;
+import ar.edu.utn.frc.tup.piii.engine.map.TerritoryBoard;
 import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
 import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
 import java.time.LocalDateTime;
@@ -67,8 +72,18 @@ public class Game {
     @Column(name = "last_modified")
     private LocalDateTime lastModified;
 
+    @Column(name = "dice_seed")
+    private Long diceSeed; // semilla de DiceStream, se fija al iniciar la partida
+
+    @Column(name = "dice_round")
+    private Long diceRound = 0L; // próxima tirada a consumir del generador de la partida
+
+    @Version
+    private Long version; // lo sube cada escritura; también lo incrementa GameEngine al aplicar comandos
+
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Player> players = new ArrayList<>();
+    @OrderBy("seatOrder")
+    private List<Player> players = new ArrayList<>(); // por asiento: el índice es el asiento de GameState
 
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<GameTerritory> gameterritories = new ArrayList<>();
@@ -85,6 +100,17 @@ public class Game {
     @OneToMany(mappedBy = "game", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<GameSnapshot> snapshots = new ArrayList<>();
 
+    // Vista indexada de gameterritories sobre el CountryIndex del mapa; la mantienen GameTerritory.setOwner/setArmies
+    @Transient
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private transient TerritoryBoard board;
+
+    @Transient
+    @ToString.Exclude
+    @Setter(AccessLevel.NONE)
+    private transient GameTerritory[] territoryByIndex;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -111,6 +137,90 @@ public class Game {
         return players.get(currentPlayerIndex);
     }
 
+    public void setGameterritories(List<GameTerritory> gameterritories) {
+        this.gameterritories = gameterritories;
+        invalidateBoard();
+    }
+
+    /**
+     * Dueños y ejércitos por índice de país, con los índices del mapa ({@code MapTopology#getCountryIndex}).
+     * Se arma una vez por índice; después lo mantienen los setters de {@link GameTerritory}.
+     */
+    public TerritoryBoard getBoard(CountryIndex countries) {
+        if (board == null || board.getCountryIndex() != countries) {
+            rebuildBoard(countries);
+        }
+        return board;
+    }
+
+    /** Territorio de la partida para el país, sin recorrer la lista; null si no está en juego. */
+    public GameTerritory getTerritory(CountryIndex countries, Long countryId) {
+        int index = getBoard(countries).indexOf(countryId);
+        return index < 0 ? null : territoryByIndex[index];
+    }
+
+    public boolean isOwnedBy(CountryIndex countries, Long countryId, Player player) {
+        TerritoryBoard current = getBoard(countries);
+        int index = current.indexOf(countryId);
+        return index >= 0 && player != null && current.isOwnedBy(index, player.getId());
+    }
+
+    public int getArmies(CountryIndex countries, Long countryId) {
+        TerritoryBoard current = getBoard(countries);
+        int index = current.indexOf(countryId);
+        return index < 0 ? 0 : current.armies(index);
+    }
+
+    /** Un territorio que se agregó a la lista después de armar el tablero entra con su primer cambio. */
+    void territoryChanged(GameTerritory territory) {
+        if (board == null || territory.getCountry() == null) {
+            return;
+        }
+        int index = indexOf(board, territory);
+        if (territoryByIndex[index] == null) {
+            territoryByIndex[index] = territory;
+        } else if (territoryByIndex[index] != territory) {
+            throw new IllegalStateException("Game " + id + " has two territories for country "
+                    + territory.getCountry().getId());
+        }
+        board.setOwner(index, territory.getOwner() == null ? null : territory.getOwner().getId());
+        board.setArmies(index, territory.getArmies() == null ? 0 : territory.getArmies());
+    }
+
+    public void invalidateBoard() {
+        board = null;
+        territoryByIndex = null;
+    }
+
+    private void rebuildBoard(CountryIndex countries) {
+        TerritoryBoard rebuilt = new TerritoryBoard(countries);
+        GameTerritory[] byIndex = new GameTerritory[rebuilt.size()];
+        for (GameTerritory territory : gameterritories) {
+            if (territory.getCountry() == null) {
+                throw new IllegalStateException("Game " + id + " has a territory without a country");
+            }
+            int index = indexOf(rebuilt, territory);
+            if (byIndex[index] != null) {
+                throw new IllegalStateException("Game " + id + " has two territories for country "
+                        + territory.getCountry().getId());
+            }
+            byIndex[index] = territory;
+            rebuilt.setOwner(index, territory.getOwner() == null ? null : territory.getOwner().getId());
+            rebuilt.setArmies(index, territory.getArmies() == null ? 0 : territory.getArmies());
+        }
+        territoryByIndex = byIndex;
+        board = rebuilt;
+    }
+
+    private int indexOf(TerritoryBoard on, GameTerritory territory) {
+        int index = on.indexOf(territory.getCountry().getId());
+        if (index < 0) {
+            throw new IllegalStateException("Country " + territory.getCountry().getId() + " of game " + id
+                    + " is not on the map");
+        }
+        return index;
+    }
+
     public Map<Country, GameTerritory> getTerritories() {
         Map<Country, GameTerritory> territoryMap = new HashMap<>();
         for (GameTerritory territory : gameterritories) {
@@ -8,7 +8,8 @@ import ar.edu.utn.frc.tup.piii.model.enums.EventType;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "game_events")
+@Table(name = "game_events",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"game_id", "sequence"}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +22,9 @@ public class GameEvent {
     @JoinColumn(name = "game_id", nullable = false)
     private Game game;
 
+    @Column(nullable = false)
+    private Long sequence; // correlativo por partida, empieza en 1
+
     @Column(name = "turn_number", nullable = false)
     private Integer turnNumber;
 
@@ -33,7 +37,7 @@ public class GameEvent {
     private EventType type;
 
     @Column(length = 2000)
-    private String data; // JSON o estructura serializada
+    private String data; // GameEventCodec según el tipo
 
     @Column(nullable = false)
     private LocalDateTime timestamp;
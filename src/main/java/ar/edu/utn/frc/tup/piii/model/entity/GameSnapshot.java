@@ -23,9 +23,14 @@ public class GameSnapshot {
     @Column(name = "turn_number", nullable = false)
     private Integer turnNumber;
 
-    @Lob
-    @Column(name = "serialized_state", nullable = false)
-    private String serializedState;
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence; // último evento incluido; el replay sigue desde el siguiente
+
+    @Column(name = "serialized_state", nullable = false, length = 8192)
+    private byte[] serializedState; // GameStateCodec: completo, o delta respecto del snapshot anterior
+
+    @Column(name = "keyframe_id")
+    private Long keyframeId; // null en los completos; en los deltas, el completo del que parte la cadena
 
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -40,12 +45,16 @@ public class GameSnapshot {
         }
     }
 
-    public static GameSnapshot createFrom(Game game) {
+    public static GameSnapshot createFrom(Game game, int turnNumber, long lastSequence, byte[] serializedState) {
         GameSnapshot snapshot = new GameSnapshot();
         snapshot.setGame(game);
-        snapshot.setTurnNumber(game.getCurrentTurn());
-        // TODO La serialización sería implementada según la estrategia elegida
-        snapshot.setSerializedState("{}"); // Placeholder
+        snapshot.setTurnNumber(turnNumber);
+        snapshot.setLastSequence(lastSequence);
+        snapshot.setSerializedState(serializedState);
         return snapshot;
     }
+
+    public boolean isKeyframe() {
+        return keyframeId == null;
+    }
 }
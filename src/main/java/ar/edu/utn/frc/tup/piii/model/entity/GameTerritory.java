@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.Hibernate;
 
 @Entity
 @Table(name = "game_territories")
@@ -30,6 +31,24 @@ public class GameTerritory {
     @Column(nullable = false)
     private Integer armies = 1;
 
+    @Version
+    private Long version;
+
+    // Los setters avisan a la partida (si ya está cargada) para mantener su TerritoryBoard al día
+    public void setOwner(Player owner) {
+        this.owner = owner;
+        if (game != null && Hibernate.isInitialized(game)) {
+            game.territoryChanged(this);
+        }
+    }
+
+    public void setArmies(Integer armies) {
+        this.armies = armies;
+        if (game != null && Hibernate.isInitialized(game)) {
+            game.territoryChanged(this);
+        }
+    }
+
     @PrePersist
     @PreUpdate
     protected void validateArmies() {
@@ -57,6 +57,9 @@ public class Player {
     @Column(name = "eliminated_at")
     private LocalDateTime eliminatedAt;
 
+    @Version
+    private Long version;
+
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Card> hand = new ArrayList<>();
 
@@ -5,6 +5,7 @@ public enum EventType {
     PLAYER_JOINED,
     PLAYER_LEFT,
     TURN_STARTED,
+    PHASE_CHANGED,
     ATTACK_PERFORMED,
     TERRITORY_CONQUERED,
     CARDS_TRADED,
@@ -13,5 +14,7 @@ public enum EventType {
     TURN_ENDED,
     PLAYER_ELIMINATED,
     GAME_FINISHED,
-    OBJECTIVE_COMPLETED
+    OBJECTIVE_COMPLETED,
+    GAME_RESTORED,
+    CARD_DRAWN
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Border;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+
+public interface BorderRepository extends JpaRepository<Border, Long> {
+    @Query("select b.country.id, b.adjacent.id from Border b")
+    List<Object[]> findBorderPairs();
+}
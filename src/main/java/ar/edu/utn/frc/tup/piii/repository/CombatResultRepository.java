@@ -0,0 +1,13 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.CombatResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface CombatResultRepository extends JpaRepository<CombatResult, Long> {
+    List<CombatResult> findByGameIdOrderByTimestampAsc(Long gameId);
+    List<CombatResult> findByAttackerIdOrderByTimestampAsc(Long playerId);
+    int countByGameId(Long gameId);
+    int countByAttackerId(Long playerId);
+    int countByAttackerIdAndTerritoryConquered(Long playerId, boolean territoryConquered);
+}
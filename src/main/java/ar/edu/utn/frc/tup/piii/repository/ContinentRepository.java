@@ -0,0 +1,9 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Continent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Optional;
+
+public interface ContinentRepository extends JpaRepository<Continent, Long> {
+    Optional<Continent> findByName(String name);
+}
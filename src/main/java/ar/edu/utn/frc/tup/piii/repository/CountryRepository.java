@@ -0,0 +1,19 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.List;
+import java.util.Optional;
+
+public interface CountryRepository extends JpaRepository<Country, Long> {
+    Optional<Country> findByName(String name);
+    List<Country> findByContinentId(Long continentId);
+    List<Country> findByContinentName(String continentName);
+
+    @Query("select c from Country c join fetch c.continent")
+    List<Country> findAllWithContinent();
+
+    @Query("select c.id, n.id from Country c join c.neighbors n")
+    List<Object[]> findNeighborPairs();
+}
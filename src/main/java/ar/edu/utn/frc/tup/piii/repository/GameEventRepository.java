@@ -0,0 +1,23 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.GameEvent;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface GameEventRepository extends JpaRepository<GameEvent, Long> {
+    List<GameEvent> findByGameIdOrderBySequence(Long gameId);
+    List<GameEvent> findByGameIdAndSequenceGreaterThanOrderBySequence(Long gameId, Long sequence);
+    List<GameEvent> findByGameIdAndTurnNumberOrderBySequence(Long gameId, Integer turnNumber);
+    List<GameEvent> findByGameIdOrderBySequenceDesc(Long gameId, Pageable pageable);
+    List<GameEvent> findByActorIdOrderByTimestamp(Long actorId);
+    List<GameEvent> findByType(EventType type);
+    int countByGameIdAndType(Long gameId, EventType type);
+    int countByActorIdAndType(Long actorId, EventType type);
+
+    @Query("SELECT COALESCE(MAX(e.sequence), 0) FROM GameEvent e WHERE e.game.id = :gameId")
+    long findLastSequence(@Param("gameId") Long gameId);
+}
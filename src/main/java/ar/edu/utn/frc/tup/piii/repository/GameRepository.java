@@ -0,0 +1,20 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface GameRepository extends JpaRepository<Game, Long> {
+    Optional<Game> findByGameCode(String gameCode);
+    List<Game> findByStatusIn(Collection<GameStatus> statuses);
+    List<Game> findDistinctByPlayersUserId(Long userId);
+
+    // Sube la versión aunque solo cambien las colecciones (jugadores), para que dos altas choquen
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<Game> findLockedById(Long id);
+}
@@ -0,0 +1,16 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface GameSnapshotRepository extends JpaRepository<GameSnapshot, Long> {
+    List<GameSnapshot> findByGameIdOrderByLastSequence(Long gameId);
+    Optional<GameSnapshot> findTopByGameIdOrderByLastSequenceDesc(Long gameId);
+    int countByGameId(Long gameId);
+    Optional<GameSnapshot> findTopByGameIdOrderByIdDesc(Long gameId);
+    List<GameSnapshot> findByKeyframeIdAndIdLessThanEqualOrderById(Long keyframeId, Long id);
+    List<GameSnapshot> findByKeyframeIdAndIdGreaterThan(Long keyframeId, Long id);
+    Optional<GameSnapshot> findTopByGameIdAndTurnNumberLessThanEqualOrderByLastSequenceDesc(Long gameId, Integer turn);
+}
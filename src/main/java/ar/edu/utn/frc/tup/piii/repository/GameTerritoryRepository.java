@@ -0,0 +1,13 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+import java.util.Optional;
+
+public interface GameTerritoryRepository extends JpaRepository<GameTerritory, Long> {
+    Optional<GameTerritory> findByGameIdAndCountryId(Long gameId, Long countryId);
+    List<GameTerritory> findByGameId(Long gameId);
+    List<GameTerritory> findByGameIdAndOwnerId(Long gameId, Long playerId);
+    int countByGameIdAndOwnerId(Long gameId, Long playerId);
+}
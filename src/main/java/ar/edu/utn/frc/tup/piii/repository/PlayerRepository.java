@@ -0,0 +1,9 @@
+package ar.edu.utn.frc.tup.piii.repository;
+
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.List;
+
+public interface PlayerRepository extends JpaRepository<Player, Long> {
+    List<Player> findByGameId(Long gameId);
+}
@@ -0,0 +1,103 @@
+package ar.edu.utn.frc.tup.piii.repository.migration;
+
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Copia los dados guardados en las tablas viejas {@code combat_attacker_dice} y
+ * {@code combat_defender_dice} a la columna empaquetada {@code combat_results.dice}.
+ * <p>
+ * Solo toca combates sin dados empaquetados, así que se puede ejecutar en cada arranque. Avanza de a
+ * {@value #BATCH_SIZE} combates por id, así nunca tiene en memoria más que una página. Las tablas
+ * viejas no guardaban el orden de los dados; se empaquetan de mayor a menor, como se comparan.
+ * Las tablas viejas no se borran; una vez migradas pueden eliminarse a mano.
+ */
+@Component
+public class CombatDiceMigration {
+    private static final Logger log = LoggerFactory.getLogger(CombatDiceMigration.class);
+
+    static final String ATTACKER_TABLE = "combat_attacker_dice";
+    static final String DEFENDER_TABLE = "combat_defender_dice";
+    static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CombatDiceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void migrate() {
+        if (!tableExists(ATTACKER_TABLE) || !tableExists(DEFENDER_TABLE)) {
+            return;
+        }
+        int migrated = 0;
+        long after = Long.MIN_VALUE;
+        while (true) {
+            List<Long> page = jdbcTemplate.queryForList("SELECT DISTINCT d.combat_result_id FROM " + ATTACKER_TABLE
+                    + " d JOIN combat_results c ON c.id = d.combat_result_id"
+                    + " WHERE c.dice IS NULL AND d.combat_result_id > ?"
+                    + " ORDER BY d.combat_result_id LIMIT " + BATCH_SIZE, Long.class, after);
+            if (page.isEmpty()) {
+                break;
+            }
+            long last = page.get(page.size() - 1);
+            Map<Long, List<Integer>> attacker = loadDice(ATTACKER_TABLE, after, last);
+            Map<Long, List<Integer>> defender = loadDice(DEFENDER_TABLE, after, last);
+            List<Object[]> updates = new ArrayList<>(attacker.size());
+            for (Map.Entry<Long, List<Integer>> entry : attacker.entrySet()) {
+                List<Integer> defenderDice = defender.getOrDefault(entry.getKey(), List.of());
+                updates.add(new Object[]{DiceRoll.of(entry.getValue(), defenderDice).getPacked(), entry.getKey()});
+            }
+            jdbcTemplate.batchUpdate("UPDATE combat_results SET dice = ? WHERE id = ? AND dice IS NULL", updates);
+            migrated += updates.size();
+            after = last;
+        }
+        if (migrated > 0) {
+            log.info("Packed dice of {} legacy combat results", migrated);
+        }
+    }
+
+    /** Dados de los combates con id en {@code (after, last]} que todavía no tienen la columna empaquetada. */
+    private Map<Long, List<Integer>> loadDice(String table, long after, long last) {
+        Map<Long, List<Integer>> dice = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT d.combat_result_id, d.die_value FROM " + table + " d"
+                        + " JOIN combat_results c ON c.id = d.combat_result_id"
+                        + " WHERE c.dice IS NULL AND d.combat_result_id > ? AND d.combat_result_id <= ?"
+                        + " ORDER BY d.combat_result_id, d.die_value DESC",
+                rs -> {
+                    dice.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>(3)).add(rs.getInt(2));
+                }, after, last);
+        return dice;
+    }
+
+    private boolean tableExists(String table) {
+        Boolean exists = jdbcTemplate.execute((Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            return hasTable(metaData, table) || hasTable(metaData, table.toUpperCase());
+        });
+        return Boolean.TRUE.equals(exists);
+    }
+
+    private static boolean hasTable(DatabaseMetaData metaData, String table) throws SQLException {
+        try (ResultSet tables = metaData.getTables(null, null, table, new String[]{"TABLE"})) {
+            return tables.next();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.AttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.BlitzAttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.cluster.ForwardedCommand;
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.engine.combat.CombatOddsEngine;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceCodec;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRules;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerEliminated;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TerritoryConquered;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.CombatResult;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import ar.edu.utn.frc.tup.piii.repository.CombatResultRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameTerritoryRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.CombatService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.WebSocketService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Los ataques y todo lo que cambia la partida pasan por el nodo dueño ({@link GameCluster}): los
+ * ataques los resuelve el motor y los cambios de dueño por JPA corren con
+ * {@link GameEngine#detached}. Las consultas leen el control de la partida cargada en el motor, o
+ * el de {@link ContinentControlTracker} si no está cargada.
+ */
+@Service
+public class CombatServiceImpl implements CombatService {
+
+    private final CombatResultRepository combatResultRepository;
+    private final GameTerritoryRepository territoryRepository;
+    private final PlayerRepository playerRepository;
+    private final CombatOddsEngine oddsEngine;
+    private final MapTopologyProvider topologyProvider;
+    private final ContinentControlTracker controlTracker;
+    private final GameEngine gameEngine;
+    private final GameCluster gameCluster;
+    private final GameEventService eventService;
+    private final ObjectProvider<WebSocketService> webSocketService;
+
+    public CombatServiceImpl(CombatResultRepository combatResultRepository,
+                             GameTerritoryRepository territoryRepository,
+                             PlayerRepository playerRepository,
+                             CombatOddsEngine oddsEngine,
+                             MapTopologyProvider topologyProvider,
+                             ContinentControlTracker controlTracker,
+                             GameEngine gameEngine,
+                             GameCluster gameCluster,
+                             GameEventService eventService,
+                             ObjectProvider<WebSocketService> webSocketService) {
+        this.combatResultRepository = combatResultRepository;
+        this.territoryRepository = territoryRepository;
+        this.playerRepository = playerRepository;
+        this.oddsEngine = oddsEngine;
+        this.topologyProvider = topologyProvider;
+        this.controlTracker = controlTracker;
+        this.gameEngine = gameEngine;
+        this.gameCluster = gameCluster;
+        this.eventService = eventService;
+        this.webSocketService = webSocketService;
+        gameCluster.registerDetached(ForwardedCommand.Conquer.class,
+                c -> conquerDetached(c.gameId(), c.playerId(), c.fromCountryId(), c.toCountryId(), c.armies()));
+        gameCluster.registerDetached(ForwardedCommand.CheckElimination.class,
+                c -> eliminateIfEmpty(c.gameId(), findPlayer(c.playerId())));
+    }
+
+    /** Un ataque de una tirada: va al motor del nodo dueño igual que {@code GameService.performAttack}. */
+    @Override
+    public CombatResultDto executeAttack(AttackDto attackDto) {
+        Game game = findPlayer(attackDto.getPlayerId()).getGame();
+        CombatResultDto result = gameCluster.attack(game.getId(), attackDto.getPlayerId(),
+                attackDto.getAttackerCountryId(), attackDto.getDefenderCountryId(), attackDto.getAttackerDice(), 1, 1,
+                attackDto.getAttackingArmies(), attackDto.getExpectedVersion());
+        publish(game, result);
+        return result;
+    }
+
+    /**
+     * Resuelve todas las tiradas en el motor hasta conquistar o hasta que el origen quede con
+     * {@code stopAtArmies} ejércitos, y registra un único combate con las pérdidas acumuladas.
+     */
+    @Override
+    public CombatResultDto executeBlitzAttack(BlitzAttackDto blitzAttackDto) {
+        Game game = findPlayer(blitzAttackDto.getPlayerId()).getGame();
+        int stopAt = blitzAttackDto.getStopAtArmies() == null ? 1 : Math.max(1, blitzAttackDto.getStopAtArmies());
+        CombatResultDto result = gameCluster.attack(game.getId(), blitzAttackDto.getPlayerId(),
+                blitzAttackDto.getAttackerCountryId(), blitzAttackDto.getDefenderCountryId(), null, stopAt,
+                Integer.MAX_VALUE, blitzAttackDto.getMovingArmies(), null);
+        publish(game, result);
+        return result;
+    }
+
+    /** Una tirada suelta con el generador de la partida; consume su ronda pero no mueve ejércitos. */
+    @Override
+    public CombatResult simulateCombat(Long gameId, Country attacker, Country defender, int attackerDice,
+                                       int defenderDice) {
+        return resolve(rollDice(gameId, attackerDice, defenderDice), attacker, defender);
+    }
+
+    @Override
+    public DiceRoll rollDice(Long gameId, int attackerDice, int defenderDice) {
+        return DiceRoll.of(gameCluster.rollDice(gameId, attackerDice, defenderDice));
+    }
+
+    @Override
+    public CombatResult resolveCombat(List<Integer> attackerDice, List<Integer> defenderDice,
+                                      Country attackerCountry, Country defenderCountry) {
+        return resolve(DiceRoll.of(attackerDice, defenderDice), attackerCountry, defenderCountry);
+    }
+
+    private static CombatResult resolve(DiceRoll dice, Country attackerCountry, Country defenderCountry) {
+        int packed = dice.getPacked();
+        int attackerCount = DiceCodec.attackerCount(packed);
+        int defenderCount = DiceCodec.defenderCount(packed);
+        int[] att = new int[attackerCount];
+        int[] def = new int[defenderCount];
+        for (int i = 0; i < attackerCount; i++) {
+            att[i] = DiceCodec.attackerDie(packed, i);
+        }
+        for (int i = 0; i < defenderCount; i++) {
+            def[i] = DiceCodec.defenderDie(packed, i);
+        }
+        int attackerLosses = DiceRules.attackerLosses(att, attackerCount, def, defenderCount);
+        int defenderLosses = Math.min(attackerCount, defenderCount) - attackerLosses;
+        return CombatResult.builder()
+                .timestamp(LocalDateTime.now())
+                .attackerOrigin(attackerCountry)
+                .defenderTarget(defenderCountry)
+                .dice(dice)
+                .attackerLosses(attackerLosses)
+                .defenderLosses(defenderLosses)
+                .build();
+    }
+
+    @Override
+    public boolean canAttack(Country from, Country to, Player attacker) {
+        if (attacker == null || attacker.getGame() == null || attacker.isEliminated()) {
+            return false;
+        }
+        Long gameId = attacker.getGame().getId();
+        return isValidAttack(gameId, from.getId(), to.getId(), attacker.getId());
+    }
+
+    @Override
+    public boolean hasEnoughArmies(Long gameId, Long countryId, int requiredArmies) {
+        return gameEngine.readControl(gameId, control -> {
+            int country = control.getTopology().indexOf(countryId);
+            return country >= 0 && control.armies(country) >= requiredArmies;
+        });
+    }
+
+    @Override
+    public boolean areCountriesAdjacent(Country country1, Country country2) {
+        return topologyProvider.get().areAdjacent(country1.getId(), country2.getId());
+    }
+
+    @Override
+    public boolean isValidAttack(Long gameId, Long attackerCountryId, Long defenderCountryId, Long playerId) {
+        if (!topologyProvider.get().areAdjacent(attackerCountryId, defenderCountryId)) {
+            return false;
+        }
+        return gameEngine.readControl(gameId, control -> {
+            int from = control.getTopology().indexOf(attackerCountryId);
+            int to = control.getTopology().indexOf(defenderCountryId);
+            return from >= 0 && to >= 0 && control.ownerId(from) == playerId && control.ownerId(to) != playerId
+                    && control.armies(from) > 1;
+        });
+    }
+
+    @Override
+    public double calculateAttackProbability(int attackerArmies, int defenderArmies) {
+        return oddsEngine.conquestProbability(attackerArmies, defenderArmies);
+    }
+
+    /** Probabilidad de que una sola tirada con esos dados le cueste más ejércitos al defensor que al atacante. */
+    @Override
+    public double calculateWinProbability(int attackerDice, int defenderDice) {
+        return oddsEngine.favourableRoundProbability(attackerDice, defenderDice);
+    }
+
+    /** Pérdidas de cada lado si el atacante sigue hasta conquistar o quedarse con un ejército. */
+    @Override
+    public CombatOddsEngine.LossDistribution calculateLossDistribution(int attackerArmies, int defenderArmies) {
+        return oddsEngine.lossDistribution(attackerArmies, defenderArmies);
+    }
+
+    /** Cambia el dueño por JPA: corre en el nodo dueño con la partida fuera del motor. */
+    @Override
+    public void conquestTerritory(Country attackerCountry, Country conqueredCountry, Player conqueror,
+                                  int movingArmies) {
+        gameCluster.execute(new ForwardedCommand.Conquer(conqueror.getGame().getId(), conqueror.getId(),
+                attackerCountry.getId(), conqueredCountry.getId(), movingArmies), Void.class);
+    }
+
+    /** Los ejércitos que pasan salen del país atacante, que tiene que quedar con al menos uno. */
+    private void conquerDetached(Long gameId, Long conquerorId, Long fromCountryId, Long countryId,
+                                 int movingArmies) {
+        Player conqueror = findPlayer(conquerorId);
+        GameTerritory origin = findTerritory(gameId, fromCountryId);
+        GameTerritory territory = findTerritory(gameId, countryId);
+        int originArmies = origin.getArmies() == null ? 0 : origin.getArmies();
+        if (origin.getOwner() == null || !origin.getOwner().getId().equals(conquerorId)
+                || !topologyProvider.get().areAdjacent(fromCountryId, countryId)
+                || movingArmies < 1 || originArmies - movingArmies < 1) {
+            throw new IllegalArgumentException("Invalid conquest of country " + countryId);
+        }
+        Player previousOwner = territory.getOwner();
+        origin.setArmies(originArmies - movingArmies);
+        territory.setOwner(conqueror);
+        territory.setArmies(movingArmies);
+        territoryRepository.save(origin);
+        territoryRepository.save(territory);
+        controlTracker.territoryChanged(gameId, origin);
+        controlTracker.territoryChanged(gameId, territory);
+        eventService.append(conqueror.getGame(), conqueror, new TerritoryConquered(fromCountryId, countryId,
+                conquerorId, movingArmies));
+        if (previousOwner != null && !previousOwner.getId().equals(conquerorId)) {
+            eliminateIfEmpty(gameId, previousOwner);
+        }
+    }
+
+    @Override
+    public boolean wouldPlayerBeEliminated(Player player, Country lostCountry) {
+        return gameEngine.readControl(player.getGame().getId(), control -> {
+            int country = control.getTopology().indexOf(lostCountry.getId());
+            return country >= 0 && control.territories(player.getId()) == 1
+                    && control.ownerId(country) == player.getId();
+        });
+    }
+
+    /** Los ataques del motor ya eliminan al defensor; esto cubre los cambios de dueño hechos por JPA. */
+    @Override
+    public void checkPlayerElimination(Game game, Player player) {
+        gameCluster.execute(new ForwardedCommand.CheckElimination(game.getId(), player.getId()), Void.class);
+    }
+
+    private void eliminateIfEmpty(Long gameId, Player player) {
+        if (player.isEliminated()) {
+            return;
+        }
+        if (controlTracker.read(gameId, control -> control.territories(player.getId())) == 0) {
+            player.setStatus(PlayerStatus.ELIMINATED);
+            player.setEliminatedAt(LocalDateTime.now());
+            playerRepository.save(player);
+            eventService.append(player.getGame(), null, new PlayerEliminated(player.getId()));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CombatResult> getCombatHistory(Long gameId) {
+        return combatResultRepository.findByGameIdOrderByTimestampAsc(gameId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CombatResult> getCombatHistoryByPlayer(Long playerId) {
+        return combatResultRepository.findByAttackerIdOrderByTimestampAsc(playerId);
+    }
+
+    @Override
+    public int getTotalAttacks(Long gameId) {
+        return combatResultRepository.countByGameId(gameId);
+    }
+
+    @Override
+    public int getSuccessfulAttacks(Long playerId) {
+        return combatResultRepository.countByAttackerIdAndTerritoryConquered(playerId, true);
+    }
+
+    @Override
+    public int getFailedAttacks(Long playerId) {
+        return combatResultRepository.countByAttackerIdAndTerritoryConquered(playerId, false);
+    }
+
+    @Override
+    public double getAttackSuccessRate(Long playerId) {
+        int total = combatResultRepository.countByAttackerId(playerId);
+        return total == 0 ? 0.0 : (double) getSuccessfulAttacks(playerId) / total;
+    }
+
+    private void publish(Game game, CombatResultDto dto) {
+        webSocketService.ifAvailable(ws -> ws.notifyAttackResult(game, dto));
+    }
+
+    private Player findPlayer(Long playerId) {
+        return playerRepository.findById(playerId)
+                .orElseThrow(() -> new EntityNotFoundException("Player not found"));
+    }
+
+    private GameTerritory findTerritory(Long gameId, Long countryId) {
+        return territoryRepository.findByGameIdAndCountryId(gameId, countryId)
+                .orElseThrow(() -> new EntityNotFoundException("Country " + countryId + " is not part of the game"));
+    }
+}
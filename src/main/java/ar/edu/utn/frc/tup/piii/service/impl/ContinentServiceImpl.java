@@ -0,0 +1,164 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.engine.map.TerritoryBoard;
+import ar.edu.utn.frc.tup.piii.model.entity.Continent;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.repository.ContinentRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.ContinentService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * El control de continentes se lee de los contadores de {@link ContinentControl}, que se
+ * actualizan con cada cambio de dueño; ninguna consulta recorre los territorios de la partida.
+ * Si la partida está cargada en el {@link GameEngine} se leen los de su estado, que puede tener
+ * cambios sin escribir; si no, los de {@link ContinentControlTracker}.
+ */
+@Service
+public class ContinentServiceImpl implements ContinentService {
+    private final ContinentRepository continentRepository;
+    private final PlayerRepository playerRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final GameEngine gameEngine;
+
+    public ContinentServiceImpl(ContinentRepository continentRepository,
+                                PlayerRepository playerRepository,
+                                MapTopologyProvider topologyProvider,
+                                GameEngine gameEngine) {
+        this.continentRepository = continentRepository;
+        this.playerRepository = playerRepository;
+        this.topologyProvider = topologyProvider;
+        this.gameEngine = gameEngine;
+    }
+
+    @Override
+    public Continent save(Continent continent) {
+        return continentRepository.save(continent);
+    }
+
+    @Override
+    public Optional<Continent> findById(Long id) {
+        return continentRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Continent> findByName(String name) {
+        return continentRepository.findByName(name);
+    }
+
+    @Override
+    public List<Continent> findAll() {
+        return continentRepository.findAll();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        continentRepository.deleteById(id);
+    }
+
+    @Override
+    public boolean isControlledBy(Long continentId, Player player) {
+        int continent = continentIndex(continentId);
+        return gameEngine.readControl(player.getGame().getId(), control -> control.controls(player.getId(), continent));
+    }
+
+    @Override
+    public Player getController(Long gameId, Long continentId) {
+        int continent = continentIndex(continentId);
+        long controller = gameEngine.readControl(gameId, control -> control.controllerOf(continent));
+        return controller == TerritoryBoard.NO_PLAYER ? null : playerRepository.findById(controller).orElse(null);
+    }
+
+    @Override
+    public List<Continent> getContinentsControlledBy(Player player) {
+        MapTopology topology = topologyProvider.get();
+        long mask = gameEngine.readControl(player.getGame().getId(), control -> control.controlledMask(player.getId()));
+        List<Long> ids = new ArrayList<>(Long.bitCount(mask));
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            ids.add(topology.continentId(Long.numberOfTrailingZeros(rest)));
+        }
+        return ids.isEmpty() ? List.of() : continentRepository.findAllById(ids);
+    }
+
+    @Override
+    public int getBonusArmies(Long continentId) {
+        return topologyProvider.get().continentBonus(continentIndex(continentId));
+    }
+
+    @Override
+    public int getContinentBonus(Player player) {
+        return gameEngine.readControl(player.getGame().getId(), control -> control.continentBonus(player.getId()));
+    }
+
+    @Override
+    public int getTotalCountries(Long continentId) {
+        return topologyProvider.get().continentSize(continentIndex(continentId));
+    }
+
+    @Override
+    public int getCountriesOwnedBy(Long continentId, Player player) {
+        int continent = continentIndex(continentId);
+        return gameEngine.readControl(player.getGame().getId(), control -> control.ownedIn(player.getId(), continent));
+    }
+
+    @Override
+    public double getControlPercentage(Long continentId, Player player) {
+        int continent = continentIndex(continentId);
+        int total = topologyProvider.get().continentSize(continent);
+        int owned = gameEngine.readControl(player.getGame().getId(),
+                control -> control.ownedIn(player.getId(), continent));
+        return total == 0 ? 0.0 : owned * 100.0 / total;
+    }
+
+    @Override
+    public List<Country> getCountriesInContinent(Long continentId) {
+        return topologyProvider.countries(topologyProvider.get().continentMask(continentIndex(continentId)));
+    }
+
+    @Override
+    public boolean isCountryInContinent(Long countryId, Long continentId) {
+        MapTopology topology = topologyProvider.get();
+        int country = topology.indexOf(countryId);
+        int continent = topology.continentIndexOf(continentId);
+        return country >= 0 && continent >= 0 && topology.continentOf(country) == continent;
+    }
+
+    /** Jugadores con al menos un país en el continente. */
+    @Override
+    public List<Player> getPlayersInContinent(Long gameId, Long continentId) {
+        long[] countries = topologyProvider.get().continentMask(continentIndex(continentId));
+        Set<Long> owners = gameEngine.readControl(gameId, control -> {
+            Set<Long> ids = new LinkedHashSet<>();
+            for (int i = Bits.nextSetBit(countries, 0); i >= 0; i = Bits.nextSetBit(countries, i + 1)) {
+                long owner = control.ownerId(i);
+                if (owner != TerritoryBoard.NO_PLAYER) {
+                    ids.add(owner);
+                }
+            }
+            return ids;
+        });
+        return owners.isEmpty() ? List.of() : playerRepository.findAllById(owners);
+    }
+
+    private int continentIndex(Long continentId) {
+        int index = topologyProvider.get().continentIndexOf(continentId);
+        if (index < 0) {
+            throw new EntityNotFoundException("Continent " + continentId + " is not part of the map");
+        }
+        return index;
+    }
+}
@@ -0,0 +1,280 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.engine.cluster.ForwardedCommand;
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Continent;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.repository.CountryRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameTerritoryRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.CountryService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Las relaciones entre países se resuelven con el {@link MapTopology} cargado al arrancar y la
+ * propiedad, las fronteras y las amenazas con los contadores de {@link ContinentControl}: los del
+ * estado del {@link GameEngine} si la partida está cargada y si no los de {@link ContinentControlTracker}.
+ * <p>
+ * Los ejércitos son de cada partida: se leen del {@link GameEngine} si la tiene cargada y si no de
+ * sus territorios. Un país nunca queda con menos de un ejército. Los cambios se escriben por JPA en el
+ * nodo dueño de la partida ({@link GameCluster}), con la partida fuera del motor
+ * ({@link GameEngine#detached}).
+ */
+@Service
+public class CountryServiceImpl implements CountryService {
+
+    private final CountryRepository countryRepository;
+    private final GameTerritoryRepository territoryRepository;
+    private final PlayerRepository playerRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final ContinentControlTracker controlTracker;
+    private final GameEngine gameEngine;
+    private final GameCluster gameCluster;
+
+    public CountryServiceImpl(CountryRepository countryRepository,
+                              GameTerritoryRepository territoryRepository,
+                              PlayerRepository playerRepository,
+                              MapTopologyProvider topologyProvider,
+                              ContinentControlTracker controlTracker,
+                              GameEngine gameEngine,
+                              GameCluster gameCluster) {
+        this.countryRepository = countryRepository;
+        this.territoryRepository = territoryRepository;
+        this.playerRepository = playerRepository;
+        this.topologyProvider = topologyProvider;
+        this.controlTracker = controlTracker;
+        this.gameEngine = gameEngine;
+        this.gameCluster = gameCluster;
+        gameCluster.registerDetached(ForwardedCommand.AssignOwner.class,
+                c -> assignDetached(c.gameId(), c.playerId(), c.countryId()));
+        gameCluster.registerDetached(ForwardedCommand.AddArmies.class, c -> updateArmies(c.gameId(), c.countryId(),
+                current -> Math.addExact(current, c.armies())));
+        gameCluster.registerDetached(ForwardedCommand.SetArmies.class,
+                c -> updateArmies(c.gameId(), c.countryId(), current -> c.armies()));
+    }
+
+    @Override
+    public Country save(Country country) {
+        return countryRepository.save(country);
+    }
+
+    @Override
+    public Optional<Country> findById(Long id) {
+        return countryRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Country> findByName(String name) {
+        return countryRepository.findByName(name);
+    }
+
+    @Override
+    public List<Country> findAll() {
+        return countryRepository.findAll();
+    }
+
+    @Override
+    public List<Country> findByContinent(Continent continent) {
+        return countryRepository.findByContinentId(continent.getId());
+    }
+
+    @Override
+    public List<Country> findByOwner(Player owner) {
+        Long playerId = owner.getId();
+        long[] owned = gameEngine.readControl(owner.getGame().getId(), control -> {
+            long[] mask = control.borderMask(playerId);
+            Bits.or(mask, control.interiorMask(playerId));
+            return mask;
+        });
+        return topologyProvider.countries(owned);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        countryRepository.deleteById(id);
+    }
+
+    @Override
+    public void assignOwner(Long countryId, Player owner) {
+        gameCluster.execute(new ForwardedCommand.AssignOwner(owner.getGame().getId(), owner.getId(), countryId),
+                Void.class);
+    }
+
+    @Override
+    public void changeOwner(Long countryId, Player newOwner) {
+        assignOwner(countryId, newOwner);
+    }
+
+    @Override
+    public boolean isOwnedBy(Long countryId, Player player) {
+        return gameEngine.readControl(player.getGame().getId(), control -> {
+            int index = control.getTopology().indexOf(countryId);
+            return index >= 0 && control.ownerId(index) == player.getId();
+        });
+    }
+
+    @Override
+    public void addArmies(Long gameId, Long countryId, int armies) {
+        requireNotNegative(armies);
+        gameCluster.execute(new ForwardedCommand.AddArmies(gameId, countryId, armies), Void.class);
+    }
+
+    @Override
+    public void removeArmies(Long gameId, Long countryId, int armies) {
+        requireNotNegative(armies);
+        gameCluster.execute(new ForwardedCommand.AddArmies(gameId, countryId, -armies), Void.class);
+    }
+
+    @Override
+    public void setArmies(Long gameId, Long countryId, int armies) {
+        gameCluster.execute(new ForwardedCommand.SetArmies(gameId, countryId, armies), Void.class);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getArmies(Long gameId, Long countryId) {
+        int armies = gameEngine.readIfLoaded(gameId, state -> {
+            int index = state.getTerritories().getTopology().indexOf(countryId);
+            return index < 0 ? -1 : state.getTerritories().armies(index);
+        }, () -> findTerritory(gameId, countryId).getArmies());
+        if (armies < 0) {
+            throw new EntityNotFoundException("Country " + countryId + " is not part of the game");
+        }
+        return armies;
+    }
+
+    @Override
+    public Set<Country> getNeighbors(Long countryId) {
+        return new LinkedHashSet<>(topologyProvider.countries(neighborMask(countryId)));
+    }
+
+    @Override
+    public boolean areNeighbors(Long countryId1, Long countryId2) {
+        return topologyProvider.get().areAdjacent(countryId1, countryId2);
+    }
+
+    @Override
+    public boolean canAttackFrom(Long fromCountryId, Long toCountryId) {
+        return topologyProvider.get().areAdjacent(fromCountryId, toCountryId);
+    }
+
+    /** Sin partida no hay dueños: se puede atacar a cualquier limítrofe. */
+    @Override
+    public List<Country> getAttackableCountries(Long countryId) {
+        return topologyProvider.countries(neighborMask(countryId));
+    }
+
+    /** Países desde los que se puede reforzar (reagrupar hacia) el país indicado. */
+    @Override
+    public List<Country> getDefensibleCountries(Long countryId) {
+        return topologyProvider.countries(neighborMask(countryId));
+    }
+
+    /** Atacar con {@code attackingArmies} deja al menos un ejército en el país. */
+    @Override
+    @Transactional(readOnly = true)
+    public boolean canAttack(Long gameId, Long countryId, int attackingArmies) {
+        return attackingArmies >= 1 && getArmies(gameId, countryId) > attackingArmies;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean canDefend(Long gameId, Long countryId) {
+        return getArmies(gameId, countryId) >= 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasMinimumArmies(Long gameId, Long countryId, int minimum) {
+        return getArmies(gameId, countryId) >= minimum;
+    }
+
+    @Override
+    public List<Country> findCountriesInContinent(String continentName) {
+        return countryRepository.findByContinentName(continentName);
+    }
+
+    /** Países del jugador con al menos un limítrofe ajeno. */
+    @Override
+    public List<Country> findBorderCountries(Player player) {
+        return topologyProvider.countries(gameEngine.readControl(player.getGame().getId(),
+                control -> control.borderMask(player.getId())));
+    }
+
+    /** Países del jugador rodeados solo por países propios. */
+    @Override
+    public List<Country> findInteriorCountries(Player player) {
+        return topologyProvider.countries(gameEngine.readControl(player.getGame().getId(),
+                control -> control.interiorMask(player.getId())));
+    }
+
+    /** Ejércitos enemigos limítrofes a cada país frontera del jugador, por id de país. */
+    @Override
+    public Map<Long, Integer> getThreatScores(Player player) {
+        return gameEngine.readControl(player.getGame().getId(), control -> {
+            long[] border = control.borderMask(player.getId());
+            Map<Long, Integer> scores = new LinkedHashMap<>();
+            for (int i = Bits.nextSetBit(border, 0); i >= 0; i = Bits.nextSetBit(border, i + 1)) {
+                scores.put(control.getTopology().countryId(i), control.threat(i));
+            }
+            return scores;
+        });
+    }
+
+    private long[] neighborMask(Long countryId) {
+        MapTopology topology = topologyProvider.get();
+        int index = topology.indexOf(countryId);
+        if (index < 0) {
+            throw new EntityNotFoundException("Country " + countryId + " is not part of the map");
+        }
+        return topology.adjacencyRow(index);
+    }
+
+    private void assignDetached(Long gameId, Long playerId, Long countryId) {
+        GameTerritory territory = findTerritory(gameId, countryId);
+        territory.setOwner(playerRepository.findById(playerId)
+                .orElseThrow(() -> new EntityNotFoundException("Player not found")));
+        territoryRepository.save(territory);
+        controlTracker.territoryChanged(gameId, territory);
+    }
+
+    private void updateArmies(Long gameId, Long countryId, IntUnaryOperator change) {
+        GameTerritory territory = findTerritory(gameId, countryId);
+        int armies = change.applyAsInt(territory.getArmies());
+        if (armies < 1) {
+            throw new IllegalArgumentException("Country " + countryId + " must keep at least 1 army");
+        }
+        territory.setArmies(armies);
+        territoryRepository.save(territory);
+        controlTracker.territoryChanged(gameId, territory);
+    }
+
+    private static void requireNotNegative(int armies) {
+        if (armies < 0) {
+            throw new IllegalArgumentException("Armies cannot be negative");
+        }
+    }
+
+    private GameTerritory findTerritory(Long gameId, Long countryId) {
+        return territoryRepository.findByGameIdAndCountryId(gameId, countryId)
+                .orElseThrow(() -> new EntityNotFoundException("Country " + countryId + " is not part of the game"));
+    }
+}
@@ -0,0 +1,200 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.event.GameEventDto;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventCodec;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardDrawn;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.FortificationPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameRestored;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PhaseChanged;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerJoined;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TerritoryConquered;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameEvent;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.repository.GameEventRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Log de eventos de las partidas, append-only y con secuencia correlativa por partida.
+ * <p>
+ * Acá se registran los eventos de los caminos JPA: sala, inicio y fin, y también los canjes de
+ * tarjetas, las conquistas y las eliminaciones, que corren con la partida fuera del motor
+ * ({@code GameEngine#detached}) y se agregan por este servicio. Los de una partida cargada en
+ * {@code GameEngine} los agrega el motor y se insertan con su vaciado.
+ * <p>
+ * La secuencia tiene un solo dueño por vez: mientras el motor tiene la partida, la numera él a
+ * partir de la última del log al hidratarla; si no, la siguiente es la última guardada más uno.
+ * Por eso {@link #append} falla si el motor la tiene cargada.
+ */
+@Service
+public class GameEventServiceImpl implements GameEventService {
+    private final GameEventRepository eventRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final GameEngine gameEngine;
+
+    public GameEventServiceImpl(GameEventRepository eventRepository, MapTopologyProvider topologyProvider,
+                                GameEngine gameEngine) {
+        this.eventRepository = eventRepository;
+        this.topologyProvider = topologyProvider;
+        this.gameEngine = gameEngine;
+    }
+
+    @Override
+    public Optional<GameEvent> findById(Long id) {
+        return eventRepository.findById(id);
+    }
+
+    @Override
+    public List<GameEvent> findByGame(Game game) {
+        return eventRepository.findByGameIdOrderBySequence(game.getId());
+    }
+
+    @Override
+    public List<GameEvent> findByPlayer(Player player) {
+        return eventRepository.findByActorIdOrderByTimestamp(player.getId());
+    }
+
+    @Override
+    public List<GameEvent> findByEventType(EventType eventType) {
+        return eventRepository.findByType(eventType);
+    }
+
+    /** La secuencia se toma dentro de la transacción de quien modifica la partida (y sube su versión). */
+    @Override
+    @Transactional
+    public GameEvent append(Game game, Player actor, GameEventData data) {
+        if (gameEngine.allocatesSequences(game.getId())) {
+            throw new IllegalStateException("Game " + game.getId() + " is loaded in the engine, which numbers its events");
+        }
+        GameEvent event = new GameEvent();
+        event.setGame(game);
+        event.setSequence(eventRepository.findLastSequence(game.getId()) + 1);
+        event.setTurnNumber(game.getCurrentTurn() == null ? 0 : game.getCurrentTurn());
+        event.setActor(actor);
+        event.setType(data.type());
+        event.setData(GameEventCodec.encode(data));
+        return eventRepository.save(event);
+    }
+
+    @Override
+    public GameEventData getData(GameEvent event) {
+        return GameEventCodec.decode(event.getType(), event.getData());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameEventDto> getGameHistory(Long gameId) {
+        return eventRepository.findByGameIdOrderBySequence(gameId).stream().map(this::toDto).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameEventDto> getPlayerHistory(Long playerId) {
+        return eventRepository.findByActorIdOrderByTimestamp(playerId).stream().map(this::toDto).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameEventDto> getTurnHistory(Long gameId, int turnNumber) {
+        return eventRepository.findByGameIdAndTurnNumberOrderBySequence(gameId, turnNumber).stream()
+                .map(this::toDto).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameEventDto> getRecentEvents(Long gameId, int limit) {
+        List<GameEventDto> recent = new ArrayList<>();
+        for (GameEvent event : eventRepository.findByGameIdOrderBySequenceDesc(gameId, PageRequest.of(0, limit))) {
+            recent.add(toDto(event));
+        }
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    @Override
+    public int getAttackCount(Long gameId) {
+        return eventRepository.countByGameIdAndType(gameId, EventType.ATTACK_PERFORMED);
+    }
+
+    @Override
+    public int getAttackCountByPlayer(Long playerId) {
+        return eventRepository.countByActorIdAndType(playerId, EventType.ATTACK_PERFORMED);
+    }
+
+    @Override
+    public int getConquestCount(Long gameId) {
+        return eventRepository.countByGameIdAndType(gameId, EventType.TERRITORY_CONQUERED);
+    }
+
+    @Override
+    public int getConquestCountByPlayer(Long playerId) {
+        return eventRepository.countByActorIdAndType(playerId, EventType.TERRITORY_CONQUERED);
+    }
+
+    private GameEventDto toDto(GameEvent event) {
+        GameEventData data = getData(event);
+        return GameEventDto.builder()
+                .id(event.getId())
+                .turnNumber(event.getTurnNumber())
+                .actorName(event.getActor() == null ? null : event.getActor().getDisplayName())
+                .type(event.getType())
+                .description(describe(data))
+                .data(event.getData())
+                .timestamp(event.getTimestamp())
+                .build();
+    }
+
+    private String describe(GameEventData data) {
+        if (data instanceof GameStarted e) {
+            return "Game started with " + e.playerIds().length + " players";
+        } else if (data instanceof PlayerJoined e) {
+            return "Joined at seat " + (e.seat() + 1);
+        } else if (data instanceof TurnStarted e) {
+            return "Turn " + e.turn() + " started with " + e.armiesToPlace() + " armies to place";
+        } else if (data instanceof PhaseChanged e) {
+            return "Phase changed to " + e.phase();
+        } else if (data instanceof AttackPerformed e) {
+            return "Attacked " + countryName(e.toCountryId()) + " from " + countryName(e.fromCountryId())
+                    + ": lost " + e.attackerLosses() + ", killed " + e.defenderLosses();
+        } else if (data instanceof TerritoryConquered e) {
+            return "Conquered " + countryName(e.toCountryId()) + " moving " + e.movingArmies() + " armies";
+        } else if (data instanceof CardsTraded e) {
+            return "Traded " + e.cardIds().length + " cards for " + e.armies() + " armies";
+        } else if (data instanceof CardDrawn e) {
+            return e.countryId() < 0 ? "Drew a wildcard" : "Drew the card of " + countryName(e.countryId());
+        } else if (data instanceof ReinforcementsPlaced e) {
+            return "Placed " + IntStream.of(e.armies()).sum() + " armies";
+        } else if (data instanceof FortificationPerformed e) {
+            return "Moved " + e.armies() + " armies from " + countryName(e.fromCountryId()) + " to "
+                    + countryName(e.toCountryId());
+        } else if (data instanceof GameRestored e) {
+            return "Game restored to snapshot " + e.snapshotId();
+        }
+        return data.type().name();
+    }
+
+    private String countryName(long countryId) {
+        MapTopology topology = topologyProvider.get();
+        int index = topology.indexOf(countryId);
+        return index < 0 ? String.valueOf(countryId) : topologyProvider.country(index).getName();
+    }
+}
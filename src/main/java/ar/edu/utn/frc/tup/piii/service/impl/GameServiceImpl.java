@@ -0,0 +1,575 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.AttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.FortifyDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.GameCreationDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.ReinforcementDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceStream;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameFinished;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PlayerJoined;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.game.GameCommandRetry;
+import ar.edu.utn.frc.tup.piii.engine.cluster.ForwardedCommand;
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameRules;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Card;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.entity.User;
+import ar.edu.utn.frc.tup.piii.model.enums.CardType;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerColor;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import ar.edu.utn.frc.tup.piii.repository.CountryRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.UserRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.CombatService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameSnapshotService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Los comandos de juego van al motor por {@link GameCluster}. Terminar, pausar, borrar o restaurar
+ * una partida y canjear tarjetas se escribe por JPA: también se manda al nodo dueño y corre con
+ * {@link GameEngine#detached}, así ningún comando la vuelve a hidratar a mitad de la escritura.
+ */
+@Service
+public class GameServiceImpl implements GameService {
+    private static final int MIN_PLAYERS = 2;
+    private static final int TRADE_SIZE = 3;
+    private static final String CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+
+    private final GameRepository gameRepository;
+    private final CountryRepository countryRepository;
+    private final UserRepository userRepository;
+    private final CombatService combatService;
+    private final MapTopologyProvider topologyProvider;
+    private final ContinentControlTracker controlTracker;
+    private final GameEngine gameEngine;
+    private final GameCluster gameCluster;
+    private final GameCommandRetry commandRetry;
+    private final GameEventService eventService;
+    private final GameSnapshotService snapshotService;
+
+    public GameServiceImpl(GameRepository gameRepository,
+                           CountryRepository countryRepository,
+                           UserRepository userRepository,
+                           CombatService combatService,
+                           MapTopologyProvider topologyProvider,
+                           ContinentControlTracker controlTracker,
+                           GameEngine gameEngine,
+                           GameCluster gameCluster,
+                           GameCommandRetry commandRetry,
+                           GameEventService eventService,
+                           GameSnapshotService snapshotService) {
+        this.gameRepository = gameRepository;
+        this.countryRepository = countryRepository;
+        this.userRepository = userRepository;
+        this.combatService = combatService;
+        this.topologyProvider = topologyProvider;
+        this.controlTracker = controlTracker;
+        this.gameEngine = gameEngine;
+        this.gameCluster = gameCluster;
+        this.commandRetry = commandRetry;
+        this.eventService = eventService;
+        this.snapshotService = snapshotService;
+        gameCluster.registerDetached(ForwardedCommand.EndGame.class, c -> endDetached(c.gameId()));
+        gameCluster.registerDetached(ForwardedCommand.PauseGame.class, c -> pauseDetached(c.gameId()));
+        gameCluster.registerDetached(ForwardedCommand.DeleteGame.class, c -> {
+            gameRepository.deleteById(c.gameId());
+            controlTracker.evict(c.gameId());
+        });
+        gameCluster.registerDetached(ForwardedCommand.RestoreGame.class,
+                c -> snapshotService.restoreFromSnapshot(c.gameId(), c.snapshotId()));
+        gameCluster.registerDetached(ForwardedCommand.TradeCards.class,
+                c -> tradeDetached(c.gameId(), c.playerId(), c.cardIds()));
+    }
+
+    @Override
+    public Game save(Game game) {
+        return gameRepository.save(game);
+    }
+
+    @Override
+    public Optional<Game> findById(Long id) {
+        return gameRepository.findById(id);
+    }
+
+    @Override
+    public List<Game> findAll() {
+        return gameRepository.findAll();
+    }
+
+    @Override
+    public List<Game> findActiveGames() {
+        return gameRepository.findByStatusIn(EnumSet.of(GameStatus.WAITING_FOR_PLAYERS, GameStatus.IN_PROGRESS,
+                GameStatus.PAUSED));
+    }
+
+    @Override
+    public List<Game> findGamesByPlayer(User user) {
+        return gameRepository.findDistinctByPlayersUserId(user.getId());
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        gameCluster.execute(new ForwardedCommand.DeleteGame(id), Void.class);
+    }
+
+    @Override
+    @Transactional
+    public Game createGame(GameCreationDto creationDto) {
+        User creator = userRepository.findById(creationDto.getCreatorUserId())
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        Game game = new Game();
+        game.setGameCode(creationDto.getGameCode() != null ? creationDto.getGameCode() : newGameCode());
+        game.setCreatedBy(creator);
+        if (creationDto.getMaxPlayers() != null) {
+            game.setMaxPlayers(creationDto.getMaxPlayers());
+        }
+        game.setTurnTimeLimit(creationDto.getTurnTimeLimit());
+        if (creationDto.getChatEnabled() != null) {
+            game.setChatEnabled(creationDto.getChatEnabled());
+        }
+        if (creationDto.getPactsAllowed() != null) {
+            game.setPactsAllowed(creationDto.getPactsAllowed());
+        }
+        addPlayer(game, creator);
+        Game saved = gameRepository.save(game);
+        recordJoin(saved);
+        return saved;
+    }
+
+    @Override
+    public Game joinGame(Long gameId, User user) {
+        return commandRetry.execute("join", () -> {
+            Game game = gameRepository.findLockedById(gameId)
+                    .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+            if (game.getStatus() != GameStatus.WAITING_FOR_PLAYERS) {
+                throw new IllegalStateException("Game already started");
+            }
+            if (game.getPlayers().stream().anyMatch(p -> p.getUser() != null
+                    && p.getUser().getId().equals(user.getId()))) {
+                throw new IllegalStateException("User already joined this game");
+            }
+            if (!game.hasSlot()) {
+                throw new IllegalStateException("Game is full");
+            }
+            addPlayer(game, user);
+            Game saved = gameRepository.saveAndFlush(game);
+            recordJoin(saved);
+            return saved;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean hasSlot(Long gameId) {
+        return findGame(gameId).hasSlot();
+    }
+
+    /** Cerrar una sala deja el cupo en los jugadores actuales; abrirla vuelve al máximo de colores. */
+    @Override
+    public void setGameOpen(Long gameId, boolean open) {
+        commandRetry.run("setOpen", () -> {
+            Game game = findGame(gameId);
+            if (game.getStatus() != GameStatus.WAITING_FOR_PLAYERS) {
+                throw new IllegalStateException("Game already started");
+            }
+            game.setMaxPlayers(open ? PlayerColor.values().length : game.getPlayers().size());
+            gameRepository.save(game);
+        });
+    }
+
+    /** Reparte los países al azar (con la semilla de dados de la partida) y arranca el primer turno. */
+    @Override
+    public void startGame(Long gameId) {
+        commandRetry.run("start", () -> {
+            Game game = findGame(gameId);
+            if (!canStart(game)) {
+                throw new IllegalStateException("Game cannot be started");
+            }
+            if (game.getDiceSeed() == null) {
+                game.setDiceSeed(DiceStream.newSeed());
+            }
+            List<Player> players = game.getPlayers();
+            players.forEach(p -> p.setStatus(PlayerStatus.ACTIVE));
+
+            MapTopology topology = topologyProvider.get();
+            int[] order = GameRules.dealOrder(topology.size(), game.getDiceSeed());
+            List<GameTerritory> territories = new ArrayList<>(order.length);
+            for (int i = 0; i < order.length; i++) {
+                GameTerritory territory = new GameTerritory();
+                territory.setGame(game);
+                territory.setCountry(countryRepository.getReferenceById(topology.countryId(order[i])));
+                territory.setOwner(players.get(i % players.size()));
+                territory.setArmies(1);
+                territories.add(territory);
+            }
+            game.setGameterritories(territories);
+            controlTracker.evict(gameId);
+
+            game.setStatus(GameStatus.IN_PROGRESS);
+            game.setStartedAt(LocalDateTime.now());
+            game.setCurrentTurn(1);
+            game.setCurrentPlayerIndex(0);
+            game.setCurrentPhase(GamePhase.REINFORCEMENT);
+            gameRepository.saveAndFlush(game);
+            Player first = game.getCurrentPlayer();
+            first.setArmiesToPlace(controlTracker.read(gameId,
+                    control -> GameRules.reinforcements(control, first.getId())));
+            eventService.append(game, null, new GameStarted(game.getDiceSeed(),
+                    players.stream().mapToLong(Player::getId).toArray(),
+                    players.stream().mapToLong(p -> p.getObjective() == null ? -1L : p.getObjective().getId())
+                            .toArray()));
+            eventService.append(game, first, new TurnStarted(0, 1, first.getArmiesToPlace()));
+        });
+    }
+
+    @Override
+    public void endGame(Long gameId) {
+        gameCluster.execute(new ForwardedCommand.EndGame(gameId), Void.class);
+    }
+
+    private void endDetached(Long gameId) {
+        Game game = findGame(gameId);
+        List<Player> active = activePlayers(game);
+        Player winner = active.size() == 1 ? active.get(0) : null;
+        game.setStatus(GameStatus.FINISHED);
+        game.setFinishedAt(LocalDateTime.now());
+        gameRepository.save(game);
+        eventService.append(game, winner, new GameFinished(winner == null ? -1L : winner.getId()));
+        controlTracker.evict(gameId);
+    }
+
+    @Override
+    public void nextTurn(Long gameId) {
+        gameCluster.nextTurn(gameId);
+    }
+
+    @Override
+    public void nextPhase(Long gameId) {
+        gameCluster.nextPhase(gameId);
+    }
+
+    @Override
+    public CombatResultDto performAttack(Long gameId, AttackDto attackDto) {
+        return gameCluster.attack(gameId, attackDto.getPlayerId(), attackDto.getAttackerCountryId(),
+                attackDto.getDefenderCountryId(), attackDto.getAttackerDice(), 1, 1, attackDto.getAttackingArmies(),
+                attackDto.getExpectedVersion());
+    }
+
+    @Override
+    public void performReinforcement(Long gameId, ReinforcementDto reinforcementDto) {
+        gameCluster.reinforce(gameId, reinforcementDto.getPlayerId(), reinforcementDto.getReinforcements(),
+                reinforcementDto.getExpectedVersion());
+    }
+
+    @Override
+    public void performFortify(Long gameId, FortifyDto fortifyDto) {
+        gameCluster.fortify(gameId, fortifyDto.getPlayerId(), fortifyDto.getFromCountryId(),
+                fortifyDto.getToCountryId(), fortifyDto.getArmies() == null ? 0 : fortifyDto.getArmies(),
+                fortifyDto.getExpectedVersion());
+    }
+
+    /**
+     * Canjea tres tarjetas de la mano en la fase de refuerzo. Los primeros canjes del jugador dan 4, 7
+     * y 10 ejércitos y cada uno de los siguientes 5 más; las tarjetas vuelven al mazo.
+     */
+    @Override
+    public void tradeCards(Long gameId, Long playerId, List<Card> cards) {
+        gameCluster.execute(new ForwardedCommand.TradeCards(gameId, playerId,
+                cards.stream().map(Card::getId).toList()), Void.class);
+    }
+
+    private void tradeDetached(Long gameId, Long playerId, List<Long> cardIds) {
+        Game game = findGame(gameId);
+        Player player = requireTurn(game, playerId, GamePhase.REINFORCEMENT);
+        List<Card> traded = new ArrayList<>(cardIds.size());
+        for (Long cardId : cardIds) {
+            Card owned = player.getHand().stream()
+                    .filter(c -> c.getId().equals(cardId))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Card " + cardId + " is not in the player's hand"));
+            if (traded.contains(owned)) {
+                throw new IllegalArgumentException("Card " + cardId + " is repeated");
+            }
+            traded.add(owned);
+        }
+        if (!isValidTrade(traded)) {
+            throw new IllegalArgumentException("Invalid card combination");
+        }
+        int previousTrades = (int) game.getEvents().stream()
+                .filter(event -> event.getType() == EventType.CARDS_TRADED && event.getActor() != null
+                        && event.getActor().getId().equals(playerId))
+                .count();
+        int armies = tradeArmies(previousTrades);
+        player.setArmiesToPlace(player.getArmiesToPlace() + armies);
+        for (Card card : traded) {
+            player.getHand().remove(card);
+            card.setOwner(null);
+            card.setIsInDeck(true);
+        }
+        gameRepository.save(game);
+        eventService.append(game, player, new CardsTraded(playerId, armies,
+                traded.stream().mapToLong(Card::getId).toArray(),
+                traded.stream().mapToLong(c -> c.getCountry() == null ? -1L : c.getCountry().getId()).toArray()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isGameOver(Long gameId) {
+        Game game = findGame(gameId);
+        if (game.isOver()) {
+            return true;
+        }
+        if (gameEngine.isLoaded(gameId)) {
+            return gameEngine.read(gameId, state -> activeSeats(state).size() == 1);
+        }
+        return activePlayers(game).size() == 1;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Player getWinner(Long gameId) {
+        Game game = findGame(gameId);
+        if (gameEngine.isLoaded(gameId)) {
+            List<Integer> active = gameEngine.read(gameId, this::activeSeats);
+            return active.size() == 1 ? game.getPlayers().get(active.get(0)) : null;
+        }
+        List<Player> active = activePlayers(game);
+        return active.size() == 1 ? active.get(0) : null;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Player getCurrentPlayer(Long gameId) {
+        Game game = findGame(gameId);
+        if (gameEngine.isLoaded(gameId)) {
+            return game.getPlayers().get(gameEngine.read(gameId, GameState::getCurrentPlayer));
+        }
+        return game.getCurrentPlayer();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GamePhase getCurrentPhase(Long gameId) {
+        if (gameEngine.isLoaded(gameId)) {
+            return gameEngine.read(gameId, GameState::getPhase);
+        }
+        return findGame(gameId).getCurrentPhase();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int getCurrentTurn(Long gameId) {
+        if (gameEngine.isLoaded(gameId)) {
+            return gameEngine.read(gameId, GameState::getTurn);
+        }
+        return findGame(gameId).getCurrentTurn();
+    }
+
+    @Override
+    public void saveGameSnapshot(Long gameId) {
+        commandRetry.run("snapshot", () -> snapshotService.createSnapshot(findGame(gameId)));
+    }
+
+    @Override
+    public void loadGameSnapshot(Long gameId, Long snapshotId) {
+        gameCluster.execute(new ForwardedCommand.RestoreGame(gameId, snapshotId), Void.class);
+    }
+
+    @Override
+    public void pauseGame(Long gameId) {
+        gameCluster.execute(new ForwardedCommand.PauseGame(gameId), Void.class);
+    }
+
+    private void pauseDetached(Long gameId) {
+        Game game = findGame(gameId);
+        requireInProgress(game);
+        game.setStatus(GameStatus.PAUSED);
+        gameRepository.save(game);
+    }
+
+    @Override
+    public void resumeGame(Long gameId) {
+        commandRetry.run("resume", () -> {
+            Game game = findGame(gameId);
+            if (game.getStatus() != GameStatus.PAUSED) {
+                throw new IllegalStateException("Game is not paused");
+            }
+            game.setStatus(GameStatus.IN_PROGRESS);
+            gameRepository.save(game);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean canStartGame(Long gameId) {
+        return canStart(findGame(gameId));
+    }
+
+    @Override
+    public boolean isValidAttack(Long gameId, Country from, Country to, Long playerId) {
+        return combatService.isValidAttack(gameId, from.getId(), to.getId(), playerId);
+    }
+
+    @Override
+    public boolean isValidReinforcement(Long gameId, Map<Country, Integer> reinforcements, Long playerId) {
+        return gameEngine.read(gameId, state -> {
+            int seat = state.getCurrentPlayer();
+            if (state.getCurrentPlayerId() != playerId || state.getPhase() != GamePhase.REINFORCEMENT) {
+                return false;
+            }
+            ContinentControl territories = state.getTerritories();
+            int available = state.armiesToPlace(seat);
+            long total = 0;
+            for (Map.Entry<Country, Integer> entry : reinforcements.entrySet()) {
+                int country = territories.getTopology().indexOf(entry.getKey().getId());
+                if (entry.getValue() == null || entry.getValue() < 0 || entry.getValue() > available || country < 0
+                        || territories.ownerId(country) != playerId) {
+                    return false;
+                }
+                total += entry.getValue();
+            }
+            return total <= available;
+        });
+    }
+
+    @Override
+    public boolean isValidFortify(Long gameId, Country from, Country to, int armies, Long playerId) {
+        return isValidFortify(gameId, from.getId(), to.getId(), armies, playerId);
+    }
+
+    /** Países propios a los que se puede reagrupar desde {@code fromCountryId} sin pasar por territorio ajeno. */
+    @Override
+    @Transactional(readOnly = true)
+    public List<Country> getFortifyDestinations(Long gameId, Long fromCountryId, Long playerId) {
+        long[] reachable = gameEngine.readControl(gameId, control -> {
+            int from = control.getTopology().indexOf(fromCountryId);
+            return from < 0 || control.ownerId(from) != playerId ? null : control.reachable(from);
+        });
+        return reachable == null ? List.of() : topologyProvider.countries(reachable);
+    }
+
+    private boolean isValidFortify(Long gameId, Long fromCountryId, Long toCountryId, Integer armies, Long playerId) {
+        if (armies == null || armies < 1 || fromCountryId.equals(toCountryId)) {
+            return false;
+        }
+        return gameEngine.readControl(gameId, control -> {
+            MapTopology topology = control.getTopology();
+            int from = topology.indexOf(fromCountryId);
+            int to = topology.indexOf(toCountryId);
+            if (from < 0 || to < 0 || control.ownerId(from) != playerId || !control.connected(from, to)) {
+                return false;
+            }
+            return control.armies(from) - armies >= 1;
+        });
+    }
+
+    private boolean canStart(Game game) {
+        return game.getStatus() == GameStatus.WAITING_FOR_PLAYERS && game.getPlayers().size() >= MIN_PLAYERS;
+    }
+
+    private void addPlayer(Game game, User user) {
+        int seat = game.getPlayers().size();
+        Player player = new Player();
+        player.setGame(game);
+        player.setUser(user);
+        player.setSeatOrder(seat);
+        player.setColor(PlayerColor.values()[seat]);
+        player.setStatus(PlayerStatus.WAITING);
+        game.getPlayers().add(player);
+    }
+
+    // El jugador recién agregado es el último; se lee de la partida guardada para tener su id
+    private void recordJoin(Game saved) {
+        Player player = saved.getPlayers().get(saved.getPlayers().size() - 1);
+        eventService.append(saved, player, new PlayerJoined(player.getId(), player.getSeatOrder()));
+    }
+
+    private List<Player> activePlayers(Game game) {
+        return game.getPlayers().stream().filter(p -> !p.isEliminated()).toList();
+    }
+
+    /** Ejércitos del canje número {@code previousTrades + 1}: 4, 7, 10 y de ahí 5 más cada vez. */
+    private static int tradeArmies(int previousTrades) {
+        return previousTrades < 3 ? 4 + 3 * previousTrades : 10 + 5 * (previousTrades - 2);
+    }
+
+    /** Tres tarjetas del mismo tipo o de tres tipos distintos; el comodín vale por cualquiera. */
+    private static boolean isValidTrade(List<Card> cards) {
+        if (cards.size() != TRADE_SIZE) {
+            return false;
+        }
+        List<CardType> symbols = cards.stream().map(Card::getType).filter(type -> type != CardType.WILDCARD).toList();
+        long distinct = symbols.stream().distinct().count();
+        return distinct <= 1 || distinct == symbols.size();
+    }
+
+    private Player requireTurn(Game game, Long playerId, GamePhase phase) {
+        requireInProgress(game);
+        Player current = game.getCurrentPlayer();
+        if (current == null || !current.getId().equals(playerId)) {
+            throw new IllegalStateException("It is not this player's turn");
+        }
+        if (game.getCurrentPhase() != phase) {
+            throw new IllegalStateException("Current phase is " + game.getCurrentPhase());
+        }
+        return current;
+    }
+
+    private List<Integer> activeSeats(GameState state) {
+        List<Integer> seats = new ArrayList<>();
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            if (state.playerStatus(seat) != PlayerStatus.ELIMINATED) {
+                seats.add(seat);
+            }
+        }
+        return seats;
+    }
+
+    private static void requireInProgress(Game game) {
+        if (game.getStatus() != GameStatus.IN_PROGRESS) {
+            throw new IllegalStateException("Game is not in progress");
+        }
+    }
+
+    private Game findGame(Long gameId) {
+        return gameRepository.findById(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+    }
+
+    private static String newGameCode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder code = new StringBuilder(6);
+        for (int i = 0; i < 6; i++) {
+            code.append(CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length())));
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,285 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameRestored;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameReplayer;
+import ar.edu.utn.frc.tup.piii.engine.game.GameSnapshotWriter;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodec;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Card;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameSnapshotService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Snapshots de partidas en curso, tomados del {@link GameState} que tiene {@link GameEngine} y
+ * escritos por {@link GameSnapshotWriter}. Cada snapshot recuerda la secuencia del último evento que
+ * incluye, así que el replay sigue desde ahí.
+ * <p>
+ * Cada {@code teg.snapshot.keyframe-turns} turnos se guarda un keyframe (el estado completo); entre
+ * uno y otro, cada snapshot es un delta respecto del anterior de la cadena. Para leer un delta hay
+ * que aplicar su keyframe y todos los deltas previos, así que borrar o limpiar nunca deja uno suelto.
+ */
+@Service
+public class GameSnapshotServiceImpl implements GameSnapshotService {
+    private final GameSnapshotRepository snapshotRepository;
+    private final GameRepository gameRepository;
+    private final GameEventService eventService;
+    private final GameEngine gameEngine;
+    private final GameReplayer replayer;
+    private final ContinentControlTracker controlTracker;
+    private final MapTopologyProvider topologyProvider;
+    private final GameSnapshotWriter snapshotWriter;
+
+    public GameSnapshotServiceImpl(GameSnapshotRepository snapshotRepository, GameRepository gameRepository,
+                                   GameEventService eventService, GameEngine gameEngine,
+                                   GameReplayer replayer, ContinentControlTracker controlTracker,
+                                   MapTopologyProvider topologyProvider, GameSnapshotWriter snapshotWriter) {
+        this.snapshotRepository = snapshotRepository;
+        this.gameRepository = gameRepository;
+        this.eventService = eventService;
+        this.gameEngine = gameEngine;
+        this.replayer = replayer;
+        this.controlTracker = controlTracker;
+        this.topologyProvider = topologyProvider;
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    @Override
+    public GameSnapshot save(GameSnapshot snapshot) {
+        return snapshotRepository.save(snapshot);
+    }
+
+    @Override
+    public Optional<GameSnapshot> findById(Long id) {
+        return snapshotRepository.findById(id);
+    }
+
+    @Override
+    public List<GameSnapshot> findAll() {
+        return snapshotRepository.findAll();
+    }
+
+    @Override
+    public List<GameSnapshot> findByGame(Game game) {
+        return snapshotRepository.findByGameIdOrderByLastSequence(game.getId());
+    }
+
+    /** Borra el snapshot junto con los deltas que dependen de él. */
+    @Override
+    @Transactional
+    public void deleteById(Long id) {
+        snapshotRepository.findById(id).ifPresent(snapshot -> {
+            Long keyframeId = snapshot.isKeyframe() ? snapshot.getId() : snapshot.getKeyframeId();
+            snapshotRepository.deleteAll(snapshotRepository.findByKeyframeIdAndIdGreaterThan(keyframeId, id));
+            snapshotRepository.delete(snapshot);
+            snapshotWriter.forget(snapshot.getGame().getId());
+        });
+    }
+
+    @Override
+    @Transactional
+    public GameSnapshot createSnapshot(Game game) {
+        return written(snapshotWriter.writeNow(game.getId(), false));
+    }
+
+    @Override
+    @Transactional
+    public GameSnapshot createAutoSnapshot(Game game) {
+        return written(snapshotWriter.writeNow(game.getId(), true));
+    }
+
+    /**
+     * Vuelve la partida al estado del snapshot: lo escribe en las entidades y agrega un
+     * {@code GAME_RESTORED} al log, desde el que sigue el replay. Los eventos y snapshots posteriores
+     * al restaurado se conservan como auditoría, y los dados siguen donde estaban para que restaurar
+     * no repita tiradas. Escribe por JPA, así que se llama con la partida fuera del motor
+     * ({@link GameEngine#detached}).
+     */
+    @Override
+    @Transactional
+    public void restoreFromSnapshot(Long gameId, Long snapshotId) {
+        GameSnapshot snapshot = snapshotRepository.findById(snapshotId)
+                .filter(s -> s.getGame().getId().equals(gameId))
+                .orElseThrow(() -> new EntityNotFoundException("Snapshot not found"));
+        Game game = snapshot.getGame();
+        GameState state = replayer.fromSnapshot(snapshot, GameReplayer.playerNames(game));
+
+        game.setStatus(state.getStatus());
+        game.setCurrentPhase(state.getPhase());
+        game.setCurrentTurn(state.getTurn());
+        game.setCurrentPlayerIndex(state.getCurrentPlayer());
+        Map<Long, Player> players = new HashMap<>();
+        for (Player player : game.getPlayers()) {
+            players.put(player.getId(), player);
+            int seat = state.seatOf(player.getId());
+            if (seat >= 0) {
+                player.setStatus(state.playerStatus(seat));
+                player.setArmiesToPlace(state.armiesToPlace(seat));
+            }
+        }
+        MapTopology topology = state.getTerritories().getTopology();
+        for (int country = 0; country < topology.size(); country++) {
+            GameTerritory territory = game.getTerritory(topology.getCountryIndex(), topology.countryId(country));
+            if (territory != null) {
+                territory.setOwner(players.get(state.getTerritories().ownerId(country)));
+                territory.setArmies(state.getTerritories().armies(country));
+            }
+        }
+        restoreHands(game, state, players);
+
+        gameRepository.save(game);
+        eventService.append(game, null, new GameRestored(snapshotId, snapshot.getLastSequence()));
+        controlTracker.evict(gameId);
+        snapshotWriter.forget(gameId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public GameSnapshot getLatestSnapshot(Long gameId) {
+        return snapshotRepository.findTopByGameIdOrderByLastSequenceDesc(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Snapshot not found"));
+    }
+
+    @Override
+    public void autoSaveSnapshot(Game game) {
+        createAutoSnapshot(game);
+    }
+
+    /** Lo escribe {@link GameSnapshotWriter} en segundo plano; si ya había uno en cola, lo reemplaza. */
+    @Override
+    public void scheduleAutoSave(Game game) {
+        snapshotWriter.schedule(game.getId());
+    }
+
+    /**
+     * Deja al menos los últimos {@code keepLast}; si el más viejo de esos es un delta, también se
+     * quedan su keyframe y los deltas intermedios.
+     */
+    @Override
+    @Transactional
+    public void cleanOldSnapshots(Long gameId, int keepLast) {
+        List<GameSnapshot> snapshots = new ArrayList<>(snapshotRepository.findByGameIdOrderByLastSequence(gameId));
+        snapshots.sort(Comparator.comparing(GameSnapshot::getId));
+        int remove = snapshots.size() - Math.max(0, keepLast);
+        if (remove <= 0) {
+            return;
+        }
+        if (remove < snapshots.size()) {
+            GameSnapshot oldestKept = snapshots.get(remove);
+            long keyframeId = oldestKept.isKeyframe() ? oldestKept.getId() : oldestKept.getKeyframeId();
+            while (remove > 0 && snapshots.get(remove - 1).getId() >= keyframeId) {
+                remove--;
+            }
+        }
+        snapshotRepository.deleteAll(snapshots.subList(0, remove));
+        if (remove == snapshots.size()) {
+            snapshotWriter.forget(gameId);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean canRestoreSnapshot(Long gameId, Long snapshotId) {
+        return snapshotRepository.findById(snapshotId)
+                .filter(snapshot -> snapshot.getGame().getId().equals(gameId))
+                .filter(this::isSnapshotValid)
+                .map(snapshot -> materialize(snapshot) != null)
+                .orElse(false);
+    }
+
+    @Override
+    public boolean isSnapshotValid(GameSnapshot snapshot) {
+        return snapshot.getSerializedState() != null
+                && GameStateCodec.isReadable(snapshot.getSerializedState(), topologyProvider.get());
+    }
+
+    @Override
+    public byte[] serializeGameState(Game game) {
+        gameEngine.flush(game.getId());
+        return gameEngine.read(game.getId(), GameStateCodec::encode);
+    }
+
+    /** Solo para snapshots completos: un delta no se puede leer sin su cadena. */
+    @Override
+    @Transactional(readOnly = true)
+    public GameState deserializeGameState(Long gameId, byte[] serializedState) {
+        Game game = gameRepository.findById(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+        return GameStateCodec.decode(gameId, serializedState, topologyProvider.get(), GameReplayer.playerNames(game));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<GameSnapshot> getSnapshotHistory(Long gameId) {
+        return snapshotRepository.findByGameIdOrderByLastSequence(gameId);
+    }
+
+    @Override
+    public int getSnapshotCount(Long gameId) {
+        return snapshotRepository.countByGameId(gameId);
+    }
+
+    private GameSnapshot written(long snapshotId) {
+        return snapshotRepository.findById(snapshotId)
+                .orElseThrow(() -> new EntityNotFoundException("Snapshot not found"));
+    }
+
+    /** Estado del snapshot con su cadena aplicada, o null si no se puede leer. */
+    private GameState materialize(GameSnapshot snapshot) {
+        try {
+            return replayer.fromSnapshot(snapshot, Map.of());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // Las tarjetas de país vuelven a la mano que indica el snapshot; los comodines, por cantidad
+    private static void restoreHands(Game game, GameState state, Map<Long, Player> players) {
+        MapTopology topology = state.getTerritories().getTopology();
+        int[] wildcards = new int[state.playerCount()];
+        for (int seat = 0; seat < wildcards.length; seat++) {
+            wildcards[seat] = state.wildcards(seat);
+        }
+        for (Card card : game.getDeck()) {
+            int seat = -1;
+            if (card.getCountry() != null) {
+                int country = topology.indexOf(card.getCountry().getId());
+                for (int s = 0; country >= 0 && s < state.playerCount() && seat < 0; s++) {
+                    seat = Bits.get(state.hand(s), country) ? s : -1;
+                }
+            } else {
+                for (int s = 0; s < wildcards.length && seat < 0; s++) {
+                    if (wildcards[s] > 0) {
+                        wildcards[s]--;
+                        seat = s;
+                    }
+                }
+            }
+            Player owner = seat < 0 ? null : players.get(state.playerId(seat));
+            if (owner != card.getOwner()) {
+                card.setOwner(owner);
+                card.setIsInDeck(owner == null);
+            }
+        }
+    }
+}
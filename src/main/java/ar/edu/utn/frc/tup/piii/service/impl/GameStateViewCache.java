@@ -0,0 +1,101 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Último {@code GAME_STATE} público de cada partida, ya serializado, guardado por partida y versión.
+ * Un comando que sube la versión no necesita invalidar nada: la clave nueva no está y el frame viejo
+ * se descarta cuando entra el de la versión siguiente. Se guardan a lo sumo
+ * {@code teg.ws.state-cache-games} partidas; se descarta la menos usada.
+ */
+@Component
+public class GameStateViewCache {
+    static final String METRIC = "teg.ws.state-cache";
+
+    private final int games;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Long> latest = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public GameStateViewCache(MeterRegistry meterRegistry,
+                              @Value("${teg.ws.state-cache-games:256}") int capacity) {
+        this.games = Math.max(1, capacity);
+        this.hits = meterRegistry.counter(METRIC, "result", "hit");
+        this.misses = meterRegistry.counter(METRIC, "result", "miss");
+        this.evictions = meterRegistry.counter(METRIC, "result", "evicted");
+        Gauge.builder(METRIC + ".size", this, GameStateViewCache::size).register(meterRegistry);
+    }
+
+    /** El frame de la partida en esa versión, o null si no está. */
+    public byte[] get(Long gameId, long version) {
+        Entry entry = entries.get(new Key(gameId, version));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        entry.used = clock.incrementAndGet();
+        hits.increment();
+        return entry.frame;
+    }
+
+    /** No pisa un frame de una versión más nueva con uno armado antes. */
+    public void put(Long gameId, long version, byte[] frame) {
+        Entry entry = new Entry(frame, clock.incrementAndGet());
+        latest.compute(gameId, (id, current) -> {
+            if (current != null && current > version) {
+                return current;
+            }
+            entries.put(new Key(gameId, version), entry);
+            if (current != null && current != version) {
+                entries.remove(new Key(gameId, current));
+            }
+            return version;
+        });
+        while (entries.size() > games && evictLeastUsed()) {
+            evictions.increment();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** Recorre las entradas, que son a lo sumo una por partida. */
+    private boolean evictLeastUsed() {
+        Map.Entry<Key, Entry> oldest = null;
+        for (Map.Entry<Key, Entry> candidate : entries.entrySet()) {
+            if (oldest == null || candidate.getValue().used < oldest.getValue().used) {
+                oldest = candidate;
+            }
+        }
+        if (oldest == null || !entries.remove(oldest.getKey(), oldest.getValue())) {
+            return false;
+        }
+        latest.remove(oldest.getKey().gameId(), oldest.getKey().version());
+        return true;
+    }
+
+    private record Key(Long gameId, long version) {
+    }
+
+    private static final class Entry {
+        private final byte[] frame;
+        private volatile long used;
+
+        private Entry(byte[] frame, long used) {
+            this.frame = frame;
+            this.used = used;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import java.security.Principal;
+
+/**
+ * Jugador autenticado de una sesión STOMP. El nombre es el id del jugador: es lo que usa
+ * {@code convertAndSendToUser} para llegar a sus sesiones.
+ */
+public record PlayerPrincipal(Long playerId, Long gameId) implements Principal {
+
+    @Override
+    public String getName() {
+        return playerId.toString();
+    }
+
+    public boolean is(Long gameId, Long playerId) {
+        return this.gameId.equals(gameId) && this.playerId.equals(playerId);
+    }
+}
@@ -0,0 +1,234 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Quién está conectado, indexado por sesión, por jugador y por partida.
+ * <p>
+ * Todo vive en mapas concurrentes: las consultas no toman locks. El alta y la baja de una sesión
+ * corren enteras dentro del {@code compute} de su entrada, así que no se pisan entre sí; además sólo
+ * bloquean las entradas del jugador y la partida afectados. Cada partida lleva la cuenta de
+ * jugadores con al menos una sesión, así que {@link #connectedPlayers(Long)} no recorre nada.
+ * Desconectar dos veces la misma sesión no hace nada la segunda vez.
+ * <p>
+ * Las sesiones que no dan señales (mensajes o heartbeats STOMP, ver {@link #touch(String)}) durante
+ * {@code teg.ws.presence-ttl-ms} se dan de baja y se cierran. Los vencimientos van en una rueda de
+ * tiempo: tocar una sesión la mueve de casillero y cada tick revisa sólo el casillero que vence.
+ */
+@Component
+public class PresenceRegistry {
+    static final String SESSIONS_METRIC = "teg.ws.presence.sessions";
+    static final String REAPED_METRIC = "teg.ws.presence.reaped";
+    private static final int SLOTS = 64;
+
+    private final Map<String, Presence> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> playerSessions = new ConcurrentHashMap<>();
+    private final Map<Long, GamePresence> games = new ConcurrentHashMap<>();
+    @SuppressWarnings("unchecked")
+    private final Set<String>[] wheel = new Set[SLOTS];
+    private final long ttlMillis;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final Consumer<String> onReap;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService reaper;
+    private long lastTick;
+
+    @Autowired
+    public PresenceRegistry(SessionOutboundQueues outboundQueues, MeterRegistry meterRegistry,
+                            @Value("${teg.ws.presence-ttl-ms:30000}") long ttlMillis) {
+        this(ttlMillis, System::currentTimeMillis, outboundQueues::disconnect, meterRegistry, true);
+    }
+
+    PresenceRegistry(long ttlMillis, LongSupplier clock, Consumer<String> onReap, MeterRegistry meterRegistry,
+                     boolean scheduled) {
+        this.ttlMillis = Math.max(1, ttlMillis);
+        // Un vencimiento nunca queda a más de media vuelta: cada casillero se revisa una vez por vuelta
+        this.tickMillis = Math.max(1, this.ttlMillis / (SLOTS / 2));
+        this.clock = clock;
+        this.onReap = onReap;
+        this.meterRegistry = meterRegistry;
+        for (int slot = 0; slot < SLOTS; slot++) {
+            wheel[slot] = ConcurrentHashMap.newKeySet();
+        }
+        this.lastTick = clock.getAsLong() / tickMillis;
+        Gauge.builder(SESSIONS_METRIC, sessions, Map::size).register(meterRegistry);
+        if (scheduled) {
+            reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ws-presence-reaper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reaper.scheduleWithFixedDelay(() -> reap(clock.getAsLong()), tickMillis, tickMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            reaper = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+    }
+
+    /** Registra la sesión; si ya estaba registrada no cambia nada. */
+    public void connect(String sessionId, Long playerId, Long gameId) {
+        Presence created = new Presence(playerId, gameId);
+        Presence presence = sessions.compute(sessionId, (id, existing) -> {
+            if (existing != null) {
+                return existing;
+            }
+            boolean[] first = new boolean[1];
+            playerSessions.compute(playerId, (player, set) -> {
+                Set<String> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+                first[0] = target.isEmpty();
+                target.add(sessionId);
+                return target;
+            });
+            // Alta y baja de la partida en el mismo compute: no se puede borrar mientras se le agrega una sesión
+            games.compute(gameId, (game, current) -> {
+                GamePresence target = current == null ? new GamePresence() : current;
+                target.sessions.add(sessionId);
+                if (first[0]) {
+                    target.players.incrementAndGet();
+                }
+                return target;
+            });
+            return created;
+        });
+        // Fuera del compute: el reaper descarta de la rueda las sesiones que todavía no ve registradas
+        if (presence == created) {
+            schedule(sessionId, created, clock.getAsLong());
+        }
+    }
+
+    /** Da de baja la sesión. Devuelve false si ya no estaba. */
+    public boolean disconnect(String sessionId) {
+        boolean[] removed = new boolean[1];
+        sessions.computeIfPresent(sessionId, (id, presence) -> {
+            removed[0] = true;
+            wheel[presence.slot].remove(sessionId);
+            boolean[] last = new boolean[1];
+            playerSessions.computeIfPresent(presence.playerId, (player, set) -> {
+                last[0] = set.remove(sessionId) && set.isEmpty();
+                return set.isEmpty() ? null : set;
+            });
+            games.computeIfPresent(presence.gameId, (game, current) -> {
+                current.sessions.remove(sessionId);
+                if (last[0]) {
+                    current.players.decrementAndGet();
+                }
+                return current.sessions.isEmpty() ? null : current;
+            });
+            return null;
+        });
+        return removed[0];
+    }
+
+    /** La sesión dio señales de vida: su vencimiento se corre un ttl. */
+    public void touch(String sessionId) {
+        Presence presence = sessions.get(sessionId);
+        if (presence != null) {
+            schedule(sessionId, presence, clock.getAsLong());
+        }
+    }
+
+    public boolean isConnected(Long playerId) {
+        return playerSessions.containsKey(playerId);
+    }
+
+    public Long playerOf(String sessionId) {
+        Presence presence = sessions.get(sessionId);
+        return presence == null ? null : presence.playerId;
+    }
+
+    public Long gameOf(String sessionId) {
+        Presence presence = sessions.get(sessionId);
+        return presence == null ? null : presence.gameId;
+    }
+
+    /** Jugadores de la partida con al menos una sesión abierta. */
+    public int connectedPlayers(Long gameId) {
+        GamePresence game = games.get(gameId);
+        return game == null ? 0 : game.players.get();
+    }
+
+    public Set<String> gameSessions(Long gameId) {
+        GamePresence game = games.get(gameId);
+        return game == null ? Set.of() : Set.copyOf(game.sessions);
+    }
+
+    public Set<String> playerSessions(Long playerId) {
+        Set<String> set = playerSessions.get(playerId);
+        return set == null ? Set.of() : Set.copyOf(set);
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Revisa los casilleros vencidos hasta {@code now}; lo llama el timer, o los tests con su reloj. */
+    synchronized void reap(long now) {
+        long tick = now / tickMillis;
+        for (long t = Math.max(lastTick + 1, tick - SLOTS + 1); t <= tick; t++) {
+            Set<String> slot = wheel[(int) (t % SLOTS)];
+            for (String sessionId : slot) {
+                Presence presence = sessions.get(sessionId);
+                if (presence == null) {
+                    slot.remove(sessionId);
+                } else if (presence.lastSeen + ttlMillis <= now && disconnect(sessionId)) {
+                    meterRegistry.counter(REAPED_METRIC).increment();
+                    onReap.accept(sessionId);
+                }
+            }
+        }
+        lastTick = Math.max(lastTick, tick);
+    }
+
+    private void schedule(String sessionId, Presence presence, long now) {
+        presence.lastSeen = now;
+        int slot = (int) (((now + ttlMillis + tickMillis - 1) / tickMillis) % SLOTS);
+        int previous = presence.slot;
+        if (previous != slot || !wheel[slot].contains(sessionId)) {
+            presence.slot = slot;
+            wheel[slot].add(sessionId);
+            if (previous != slot) {
+                wheel[previous].remove(sessionId);
+            }
+        }
+    }
+
+    private static final class Presence {
+        private final Long playerId;
+        private final Long gameId;
+        private volatile long lastSeen;
+        private volatile int slot;
+
+        Presence(Long playerId, Long gameId) {
+            this.playerId = playerId;
+            this.gameId = gameId;
+        }
+    }
+
+    private static final class GamePresence {
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger players = new AtomicInteger();
+    }
+}
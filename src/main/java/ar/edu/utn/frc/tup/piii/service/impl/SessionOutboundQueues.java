@@ -0,0 +1,351 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.websocket.WebSocketMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cola de salida acotada por sesión WebSocket, para que un cliente lento no haga crecer la memoria
+ * del servidor ni frene al resto de la partida.
+ * <p>
+ * El envío al cliente nunca bloquea a quien publica: los frames se encolan y un pool fijo de
+ * {@code teg.ws.outbound-threads} hilos los va mandando, de a {@value #DRAIN_BATCH} por sesión por
+ * vez para que una sesión con mucha cola no acapare un hilo. Los cierres van por otro pool, así un
+ * envío trabado no demora el cierre que lo destraba. Si la cola se llena, los parches pendientes (frames con
+ * {@code teg-kind:delta}) se colapsan en un único {@code RESYNC_REQUIRED} y el cliente pide el
+ * estado completo; si ni así hay lugar, o si un envío queda trabado más de
+ * {@code teg.ws.send-deadline-ms}, la sesión se cierra.
+ * <p>
+ * Las métricas son del conjunto de sesiones, no de cada una: frames encolados en total, sesiones
+ * abiertas, frames descartados y sesiones cortadas por motivo.
+ */
+@Component
+public class SessionOutboundQueues {
+    private static final Logger log = LoggerFactory.getLogger(SessionOutboundQueues.class);
+
+    /** Header STOMP con el tipo de frame; sólo los {@link #DELTA} se pueden colapsar. */
+    public static final String KIND_HEADER = "teg-kind";
+    public static final String DELTA = "delta";
+    static final String RESYNC = "resync";
+    static final String DEPTH_METRIC = "teg.ws.session.queue.depth";
+    static final String SESSIONS_METRIC = "teg.ws.sessions";
+    static final String DROPPED_METRIC = "teg.ws.session.dropped";
+    static final String DISCONNECTED_METRIC = "teg.ws.session.disconnected";
+    private static final String DELTA_LINE = "\n" + KIND_HEADER + ":" + DELTA + "\n";
+    static final int DRAIN_BATCH = 16;
+    private static final int CLOSER_THREADS = 2;
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final int capacity;
+    private final long sendDeadlineNanos;
+    private final Map<String, Outbound> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService writers;
+    private final ExecutorService closers;
+    private final ScheduledExecutorService sweeper;
+    private final Counter collapsed;
+    private final Counter overflow;
+
+    public SessionOutboundQueues(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+                                 @Value("${teg.ws.outbound-capacity:256}") int capacity,
+                                 @Value("${teg.ws.send-deadline-ms:10000}") long sendDeadlineMillis,
+                                 @Value("${teg.ws.outbound-threads:16}") int writerThreads) {
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.capacity = Math.max(2, capacity);
+        this.sendDeadlineNanos = TimeUnit.MILLISECONDS.toNanos(sendDeadlineMillis);
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), daemonThreads("ws-outbound-"));
+        this.closers = Executors.newFixedThreadPool(CLOSER_THREADS, daemonThreads("ws-outbound-close-"));
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-outbound-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, sendDeadlineMillis / 4);
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+        Gauge.builder(DEPTH_METRIC, this, SessionOutboundQueues::totalDepth).register(meterRegistry);
+        Gauge.builder(SESSIONS_METRIC, sessions, Map::size).register(meterRegistry);
+        collapsed = Counter.builder(DROPPED_METRIC).tag("reason", "collapsed").register(meterRegistry);
+        overflow = Counter.builder(DROPPED_METRIC).tag("reason", "overflow").register(meterRegistry);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threads = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+        writers.shutdownNow();
+        closers.shutdownNow();
+    }
+
+    /** Fábrica de decoradores para {@code WebSocketTransportRegistration}. */
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(open(session));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                Outbound outbound = closed(session.getId());
+                super.afterConnectionClosed(outbound == null ? session : outbound, closeStatus);
+            }
+        };
+    }
+
+    WebSocketSession open(WebSocketSession session) {
+        Outbound outbound = new Outbound(session);
+        sessions.put(session.getId(), outbound);
+        return outbound;
+    }
+
+    Outbound closed(String sessionId) {
+        Outbound outbound = sessions.remove(sessionId);
+        if (outbound != null) {
+            outbound.discard();
+        }
+        return outbound;
+    }
+
+    /** Cierra la sesión desde el servidor, por ejemplo porque dejó de dar señales de vida. */
+    public void disconnect(String sessionId) {
+        Outbound outbound = sessions.get(sessionId);
+        if (outbound != null) {
+            outbound.disconnect("stale");
+        }
+    }
+
+    /** Frames esperando en la cola de la sesión, o 0 si no existe. */
+    public int depth(String sessionId) {
+        Outbound outbound = sessions.get(sessionId);
+        return outbound == null ? 0 : outbound.depth();
+    }
+
+    private double totalDepth() {
+        int total = 0;
+        for (Outbound outbound : sessions.values()) {
+            total += outbound.depth();
+        }
+        return total;
+    }
+
+    void sweep() {
+        long now = System.nanoTime();
+        for (Outbound outbound : sessions.values()) {
+            long since = outbound.sendingSince;
+            if (since != 0 && now - since > sendDeadlineNanos) {
+                outbound.disconnect("blocked");
+            }
+        }
+    }
+
+    static boolean isDelta(WebSocketMessage<?> message) {
+        if (!(message instanceof TextMessage text)) {
+            return false;
+        }
+        String frame = text.getPayload();
+        int end = frame.indexOf("\n\n");
+        int line = frame.indexOf(DELTA_LINE);
+        return line >= 0 && (end < 0 || line < end);
+    }
+
+    /** Mismo destino y suscripción que el parche descartado, con un {@code RESYNC_REQUIRED} de cuerpo. */
+    private TextMessage resyncMarker(TextMessage delta) throws IOException {
+        List<Message<byte[]>> decoded = new StompDecoder()
+                .decode(ByteBuffer.wrap(delta.getPayload().getBytes(StandardCharsets.UTF_8)));
+        Message<byte[]> patch = decoded.get(0);
+        StompHeaderAccessor source = StompHeaderAccessor.wrap(patch);
+        WebSocketMessageDto body = objectMapper.readValue(patch.getPayload(), WebSocketMessageDto.class);
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        headers.setDestination(source.getDestination());
+        headers.setSubscriptionId(source.getSubscriptionId());
+        headers.setMessageId(source.getMessageId());
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        headers.setNativeHeader(KIND_HEADER, RESYNC);
+        byte[] payload = objectMapper.writeValueAsBytes(WebSocketMessageDto.builder()
+                .type("RESYNC_REQUIRED")
+                .gameId(body.getGameId())
+                .timestamp(LocalDateTime.now().toString())
+                .build());
+        byte[] frame = new StompEncoder().encode(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        return new TextMessage(frame);
+    }
+
+    final class Outbound extends WebSocketSessionDecorator {
+        private final ArrayDeque<WebSocketMessage<?>> queue = new ArrayDeque<>();
+        // 0 mientras no haya un envío en curso
+        private volatile long sendingSince;
+        private TextMessage marker;
+        private boolean writing;
+        private boolean closed;
+
+        Outbound(WebSocketSession session) {
+            super(session);
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            boolean start = false;
+            boolean full = false;
+            synchronized (queue) {
+                if (closed) {
+                    return;
+                }
+                if (queue.size() >= capacity && !collapse()) {
+                    full = true;
+                } else {
+                    queue.add(message);
+                    start = !writing;
+                    writing = true;
+                }
+            }
+            if (full) {
+                overflow.increment();
+                disconnect("overflow");
+            } else if (start) {
+                writers.execute(this::drain);
+            }
+        }
+
+        @Override
+        public void close(CloseStatus status) throws IOException {
+            discard();
+            super.close(status);
+        }
+
+        int depth() {
+            synchronized (queue) {
+                return queue.size();
+            }
+        }
+
+        /** Saca los parches de la cola y deja un marcador de resync en el lugar del primero. */
+        private boolean collapse() throws IOException {
+            boolean resyncQueued = false;
+            for (WebSocketMessage<?> frame : queue) {
+                resyncQueued |= frame == marker;
+            }
+            List<WebSocketMessage<?>> kept = new ArrayList<>(queue.size());
+            int removed = 0;
+            for (WebSocketMessage<?> frame : queue) {
+                if (!isDelta(frame)) {
+                    kept.add(frame);
+                    continue;
+                }
+                removed++;
+                if (!resyncQueued) {
+                    marker = resyncMarker((TextMessage) frame);
+                    kept.add(marker);
+                    resyncQueued = true;
+                }
+            }
+            if (removed == 0) {
+                return false;
+            }
+            queue.clear();
+            queue.addAll(kept);
+            collapsed.increment(removed);
+            return queue.size() < capacity;
+        }
+
+        /** Manda hasta {@value #DRAIN_BATCH} frames y, si quedan, vuelve a la cola del pool. */
+        private void drain() {
+            for (int sent = 0; ; sent++) {
+                WebSocketMessage<?> next;
+                synchronized (queue) {
+                    next = closed ? null : queue.peek();
+                    if (next == null) {
+                        writing = false;
+                        return;
+                    }
+                    if (sent == DRAIN_BATCH) {
+                        break;
+                    }
+                    queue.poll();
+                }
+                sendingSince = System.nanoTime();
+                try {
+                    getDelegate().sendMessage(next);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Send to WebSocket session {} failed", getId(), e);
+                    disconnect("failed");
+                    return;
+                } finally {
+                    sendingSince = 0;
+                }
+            }
+            writers.execute(this::drain);
+        }
+
+        private void discard() {
+            synchronized (queue) {
+                closed = true;
+                queue.clear();
+            }
+        }
+
+        private void disconnect(String reason) {
+            synchronized (queue) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+            }
+            meterRegistry.counter(DISCONNECTED_METRIC, "reason", reason).increment();
+            // El cierre puede trabarse igual que el envío: que no frene al que publica ni al barrido
+            closers.execute(() -> {
+                try {
+                    getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Close of WebSocket session {} failed", getId(), e);
+                }
+            });
+        }
+    }
+}
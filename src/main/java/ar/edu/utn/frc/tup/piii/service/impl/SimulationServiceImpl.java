@@ -0,0 +1,471 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationRequestDto;
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.Battle;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceCodec;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceStream;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.engine.map.TerritoryBoard;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.repository.GameTerritoryRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.SimulationService;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulación Monte Carlo de ataques encadenados sobre un pool Fork/Join propio.
+ * <p>
+ * Cada hoja del pool usa su propio generador y su propio {@link Battle}, así que las corridas no
+ * comparten estado ni reservan memoria. Los histogramas son uno por hilo del pool y por pedido, no
+ * uno por hoja: con miles de ejércitos, uno por hoja ocupaba decenas de megas. Cada pedido tiene un presupuesto de CPU (sumado entre todos
+ * los hilos) y se puede cancelar; el pool tiene menos hilos que núcleos para no quitarle CPU al juego.
+ * El presupuesto se mira entre lotes y también cada {@value #CHECK_ROUNDS} tiradas de un mismo
+ * combate, así que ni un combate largo se pasa; un intento cortado a la mitad no se cuenta.
+ * <p>
+ * Ejércitos y largo del camino tienen tope ({@link SimulationRequestDto#MAX_ARMIES},
+ * {@link SimulationRequestDto#MAX_PATH}). Con partida, los ejércitos y dueños salen del motor si la
+ * tiene cargada (la base puede venir atrasada); el camino tiene que ser de países enemigos, cada uno
+ * limítrofe del anterior, y el origen necesita al menos 2 ejércitos.
+ */
+@Service
+public class SimulationServiceImpl implements SimulationService {
+    private static final int LEAF_TRIALS = 8_192;
+    private static final int BATCH_TRIALS = 512;
+    private static final int CHECK_ROUNDS = 4_096;
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final GameTerritoryRepository territoryRepository;
+    private final GameEngine gameEngine;
+    private final MapTopologyProvider topologyProvider;
+    private final ForkJoinPool pool;
+    private final int defaultTrials;
+    private final int maxTrials;
+    private final long maxCpuMillis;
+
+    public SimulationServiceImpl(GameTerritoryRepository territoryRepository, GameEngine gameEngine,
+                                 MapTopologyProvider topologyProvider,
+                                 @Value("${teg.simulation.parallelism:0}") int parallelism,
+                                 @Value("${teg.simulation.default-trials:100000}") int defaultTrials,
+                                 @Value("${teg.simulation.max-trials:5000000}") int maxTrials,
+                                 @Value("${teg.simulation.max-cpu-millis:2000}") long maxCpuMillis) {
+        this.territoryRepository = territoryRepository;
+        this.gameEngine = gameEngine;
+        this.topologyProvider = topologyProvider;
+        this.defaultTrials = defaultTrials;
+        this.maxTrials = maxTrials;
+        this.maxCpuMillis = maxCpuMillis;
+        int threads = parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("teg-simulation-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public SimulationResultDto simulate(SimulationRequestDto request) {
+        try {
+            return simulateAsync(request).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /** Cancelar el future detiene las corridas en curso en el próximo control del presupuesto. */
+    @Override
+    public CompletableFuture<SimulationResultDto> simulateAsync(SimulationRequestDto request) {
+        Plan plan = plan(request);
+        long cpuMillis = request.getCpuBudgetMillis() == null
+                ? maxCpuMillis : Math.min(request.getCpuBudgetMillis(), maxCpuMillis);
+        int trials = request.getTrials() == null ? defaultTrials : Math.min(request.getTrials(), maxTrials);
+        long seed = request.getSeed() == null ? DiceStream.newSeed() : request.getSeed();
+        Budget budget = new Budget(TimeUnit.MILLISECONDS.toNanos(cpuMillis));
+
+        CompletableFuture<SimulationResultDto> future = CompletableFuture.supplyAsync(() -> {
+            Outcomes outcomes = new Outcomes(plan);
+            new TrialsTask(plan, budget, outcomes, seed, 0, trials).invoke();
+            return toDto(outcomes.total(), plan, budget);
+        }, pool);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                budget.cancelled = true;
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public SimulationResultDto simulateAttack(int attackerArmies, int defenderArmies, int trials) {
+        return simulatePath(attackerArmies, new int[]{defenderArmies}, trials);
+    }
+
+    @Override
+    public SimulationResultDto simulatePath(int attackerArmies, int[] defenderArmies, int trials) {
+        List<Integer> defenders = new ArrayList<>(defenderArmies.length);
+        for (int armies : defenderArmies) {
+            defenders.add(armies);
+        }
+        return simulate(SimulationRequestDto.builder()
+                .attackerArmies(attackerArmies)
+                .defenderArmies(defenders)
+                .trials(trials)
+                .build());
+    }
+
+    private Plan plan(SimulationRequestDto request) {
+        int stopAt = request.getStopAtArmies() == null ? 1 : Math.max(1, request.getStopAtArmies());
+        if (request.getGameId() != null) {
+            if (request.getFromCountryId() == null || request.getPathCountryIds() == null
+                    || request.getPathCountryIds().isEmpty()) {
+                throw new IllegalArgumentException("Origin country and path are required to simulate on a game");
+            }
+            List<Long> countries = new ArrayList<>(request.getPathCountryIds().size() + 1);
+            countries.add(request.getFromCountryId());
+            countries.addAll(request.getPathCountryIds());
+            checkPath(countries);
+            Long[] owners = new Long[countries.size()];
+            int[] armies = armiesOf(request.getGameId(), countries, owners);
+            checkOwners(countries, owners);
+            int[] defenders = new int[armies.length - 1];
+            System.arraycopy(armies, 1, defenders, 0, defenders.length);
+            return checked(new Plan(armies[0], defenders, stopAt));
+        }
+        if (request.getAttackerArmies() == null || request.getDefenderArmies() == null
+                || request.getDefenderArmies().isEmpty()) {
+            throw new IllegalArgumentException("Attacker and defender armies are required");
+        }
+        int[] defenders = request.getDefenderArmies().stream().mapToInt(Integer::intValue).toArray();
+        for (int armies : defenders) {
+            if (armies < 1) {
+                throw new IllegalArgumentException("Every defending country has at least 1 army");
+            }
+        }
+        return checked(new Plan(request.getAttackerArmies(), defenders, stopAt));
+    }
+
+    /** Los mismos topes que valida el DTO, para los pedidos que no pasan por el controlador. */
+    private static Plan checked(Plan plan) {
+        if (plan.attackerArmies() < 2) {
+            throw new IllegalArgumentException("At least 2 armies are required to attack");
+        }
+        if (plan.attackerArmies() > SimulationRequestDto.MAX_ARMIES) {
+            throw new IllegalArgumentException("At most " + SimulationRequestDto.MAX_ARMIES
+                    + " attacking armies can be simulated");
+        }
+        if (plan.defenders().length > SimulationRequestDto.MAX_PATH) {
+            throw new IllegalArgumentException("A path cannot have more than " + SimulationRequestDto.MAX_PATH
+                    + " countries");
+        }
+        for (int armies : plan.defenders()) {
+            if (armies > SimulationRequestDto.MAX_ARMIES) {
+                throw new IllegalArgumentException("At most " + SimulationRequestDto.MAX_ARMIES
+                        + " defending armies can be simulated");
+            }
+        }
+        return plan;
+    }
+
+    private void checkPath(List<Long> countries) {
+        MapTopology topology = topologyProvider.get();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < countries.size(); i++) {
+            if (!seen.add(countries.get(i))) {
+                throw new IllegalArgumentException("Country " + countries.get(i) + " appears twice in the path");
+            }
+        }
+        for (int i = 1; i < countries.size(); i++) {
+            if (!topology.areAdjacent(countries.get(i - 1), countries.get(i))) {
+                throw new IllegalArgumentException("Countries " + countries.get(i - 1) + " and " + countries.get(i)
+                        + " are not adjacent");
+            }
+        }
+    }
+
+    /** El origen tiene dueño y ningún país del camino es suyo ni neutral. */
+    private static void checkOwners(List<Long> countries, Long[] owners) {
+        if (owners[0] == null) {
+            throw new IllegalArgumentException("Country " + countries.get(0) + " has no owner to attack with");
+        }
+        for (int i = 1; i < owners.length; i++) {
+            if (owners[i] == null || Objects.equals(owners[i], owners[0])) {
+                throw new IllegalArgumentException("Country " + countries.get(i) + " is not an enemy country");
+            }
+        }
+    }
+
+    /**
+     * Ejércitos de cada país y, en {@code owners}, su dueño (null si es neutral). Del motor si tiene
+     * la partida: sus ejércitos pueden no estar escritos todavía.
+     */
+    private int[] armiesOf(Long gameId, List<Long> countries, Long[] owners) {
+        int[] armies = new int[countries.size()];
+        if (gameEngine.isLoaded(gameId)) {
+            gameEngine.read(gameId, state -> {
+                MapTopology topology = state.getTerritories().getTopology();
+                for (int i = 0; i < armies.length; i++) {
+                    int country = topology.indexOf(countries.get(i));
+                    if (country < 0) {
+                        throw new EntityNotFoundException("Country " + countries.get(i) + " is not part of the game");
+                    }
+                    armies[i] = state.getTerritories().armies(country);
+                    long owner = state.getTerritories().ownerId(country);
+                    owners[i] = owner == TerritoryBoard.NO_PLAYER ? null : owner;
+                }
+                return null;
+            });
+            return armies;
+        }
+        for (int i = 0; i < armies.length; i++) {
+            Long countryId = countries.get(i);
+            GameTerritory territory = territoryRepository.findByGameIdAndCountryId(gameId, countryId)
+                    .orElseThrow(() -> new EntityNotFoundException("Country " + countryId + " is not part of the game"));
+            armies[i] = territory.getArmies() == null ? 0 : territory.getArmies();
+            owners[i] = territory.getOwner() == null ? null : territory.getOwner().getId();
+        }
+        return armies;
+    }
+
+    private static SimulationResultDto toDto(Outcome outcome, Plan plan, Budget budget) {
+        double trials = Math.max(1, outcome.trials);
+        List<Double> steps = new ArrayList<>(plan.defenders.length);
+        long atLeast = 0;
+        double[] reachedAtLeast = new double[plan.defenders.length + 1];
+        for (int k = plan.defenders.length; k >= 1; k--) {
+            atLeast += outcome.reached[k];
+            reachedAtLeast[k] = atLeast / trials;
+        }
+        for (int k = 1; k <= plan.defenders.length; k++) {
+            steps.add(reachedAtLeast[k]);
+        }
+        List<Double> surviving = new ArrayList<>(outcome.surviving.length);
+        for (long count : outcome.surviving) {
+            surviving.add(count / trials);
+        }
+        return SimulationResultDto.builder()
+                .trials(outcome.trials)
+                .conquestProbability(outcome.reached[plan.defenders.length] / trials)
+                .stepProbabilities(steps)
+                .survivingArmies(surviving)
+                .expectedAttackerLosses(outcome.attackerLosses / trials)
+                .expectedDefenderLosses(outcome.defenderLosses / trials)
+                .cpuTimeMillis(TimeUnit.NANOSECONDS.toMillis(budget.cpuUsed.sum()))
+                .budgetExhausted(budget.exhausted)
+                .cancelled(budget.cancelled)
+                .build();
+    }
+
+    /**
+     * Un intento: conquista el camino en orden y, tras cada conquista, avanza con los ejércitos
+     * que permiten las reglas (hasta tantos como dados se tiraron en la última tirada). Devuelve
+     * {@code false}, sin sumar nada, si el presupuesto se acabó en medio de un combate.
+     */
+    private static boolean runTrial(Plan plan, Battle battle, long seed, Outcome outcome, Meter meter) {
+        int front = plan.attackerArmies;
+        int held = 0;
+        int conquered = 0;
+        long round = 0;
+        long defenderLosses = 0;
+        for (int defenders : plan.defenders) {
+            battle.reset(seed, round, front, defenders, plan.stopAtArmies).run(CHECK_ROUNDS);
+            while (battle.canContinue()) {
+                if (!meter.check()) {
+                    return false;
+                }
+                battle.run(battle.getRounds() + CHECK_ROUNDS);
+            }
+            round += battle.getRounds();
+            defenderLosses += defenders - battle.getDefenderArmies();
+            int remaining = battle.getAttackerArmies();
+            if (!battle.isConquered()) {
+                front = remaining;
+                break;
+            }
+            int moving = Math.max(1, Math.min(DiceCodec.attackerCount(battle.getLastRoll()), remaining - 1));
+            held += remaining - moving;
+            front = moving;
+            conquered++;
+        }
+        held += front;
+        outcome.trials++;
+        outcome.reached[conquered]++;
+        outcome.surviving[held]++;
+        outcome.attackerLosses += plan.attackerArmies - held;
+        outcome.defenderLosses += defenderLosses;
+        return true;
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private record Plan(int attackerArmies, int[] defenders, int stopAtArmies) {
+    }
+
+    /** Presupuesto compartido por todas las hojas de un pedido. */
+    private static final class Budget {
+        private final long cpuNanos;
+        private final long deadlineNanos;
+        private final LongAdder cpuUsed = new LongAdder();
+        private volatile boolean exhausted;
+        private volatile boolean cancelled;
+
+        private Budget(long cpuNanos) {
+            this.cpuNanos = cpuNanos;
+            this.deadlineNanos = System.nanoTime() + cpuNanos;
+        }
+
+        private boolean shouldStop() {
+            return cancelled || exhausted;
+        }
+
+        private void charge(long nanos) {
+            cpuUsed.add(nanos);
+            if (cpuUsed.sum() > cpuNanos || System.nanoTime() > deadlineNanos) {
+                exhausted = true;
+            }
+        }
+    }
+
+    /** CPU que va gastando una hoja; cada control le carga al presupuesto lo usado desde el anterior. */
+    private static final class Meter {
+        private final Budget budget;
+        private long mark = cpuTime();
+
+        private Meter(Budget budget) {
+            this.budget = budget;
+        }
+
+        private boolean check() {
+            long now = cpuTime();
+            budget.charge(now - mark);
+            mark = now;
+            return !budget.shouldStop();
+        }
+    }
+
+    /**
+     * Un {@link Outcome} por hilo del pool para todo el pedido. Un hilo corre una hoja por vez, y el
+     * {@code join} de la raíz deja ver lo que sumaron todas.
+     */
+    private static final class Outcomes {
+        private final Plan plan;
+        private final Map<Integer, Outcome> byWorker = new ConcurrentHashMap<>();
+
+        private Outcomes(Plan plan) {
+            this.plan = plan;
+        }
+
+        private Outcome current() {
+            int worker = Thread.currentThread() instanceof ForkJoinWorkerThread thread ? thread.getPoolIndex() : -1;
+            return byWorker.computeIfAbsent(worker, index -> new Outcome(plan));
+        }
+
+        private Outcome total() {
+            Outcome total = new Outcome(plan);
+            byWorker.values().forEach(total::merge);
+            return total;
+        }
+    }
+
+    /** Histogramas parciales de un hilo; se suman al terminar el pedido. */
+    private static final class Outcome {
+        private long trials;
+        private final long[] reached;
+        private final long[] surviving;
+        private long attackerLosses;
+        private long defenderLosses;
+
+        private Outcome(Plan plan) {
+            this.reached = new long[plan.defenders.length + 1];
+            this.surviving = new long[plan.attackerArmies + 1];
+        }
+
+        private Outcome merge(Outcome other) {
+            trials += other.trials;
+            attackerLosses += other.attackerLosses;
+            defenderLosses += other.defenderLosses;
+            for (int i = 0; i < reached.length; i++) {
+                reached[i] += other.reached[i];
+            }
+            for (int i = 0; i < surviving.length; i++) {
+                surviving[i] += other.surviving[i];
+            }
+            return this;
+        }
+    }
+
+    private static final class TrialsTask extends RecursiveAction {
+        private final Plan plan;
+        private final Budget budget;
+        private final Outcomes outcomes;
+        private final long seed;
+        private final int start;
+        private final int count;
+
+        private TrialsTask(Plan plan, Budget budget, Outcomes outcomes, long seed, int start, int count) {
+            this.plan = plan;
+            this.budget = budget;
+            this.outcomes = outcomes;
+            this.seed = seed;
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            if (count > LEAF_TRIALS) {
+                int half = count / 2;
+                TrialsTask left = new TrialsTask(plan, budget, outcomes, seed, start, half);
+                left.fork();
+                new TrialsTask(plan, budget, outcomes, seed, start + half, count - half).compute();
+                left.join();
+                return;
+            }
+            Outcome outcome = outcomes.current();
+            SplittableRandom random = new SplittableRandom(seed + start * SEED_GAMMA);
+            Battle battle = new Battle(0L, 0L, 0, 0, 1);
+            Meter meter = new Meter(budget);
+            int done = 0;
+            while (done < count && !budget.shouldStop()) {
+                int batch = Math.min(BATCH_TRIALS, count - done);
+                for (int i = 0; i < batch; i++) {
+                    if (!runTrial(plan, battle, random.nextLong(), outcome, meter)) {
+                        return;
+                    }
+                }
+                done += batch;
+                meter.check();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Últimos frames de cada canal de espectadores ({@code /topic/spectate/{gameId}/{demora}}) que
+ * entregó este nodo, para que quien se suma arranque desde el último keyframe sin pedirle nada al
+ * dueño de la partida. Guarda los mismos bytes que recibe el broker: sumarse cuesta copiar unas
+ * referencias y mirar en vivo no cuesta nada más que el reparto del broker.
+ * <p>
+ * Cada canal es un buffer circular de {@code teg.ws.spectator-buffer} frames; se guardan a lo sumo
+ * {@code teg.ws.spectator-channels} canales y se descarta el menos usado.
+ */
+@Component
+public class SpectatorBuffers {
+    static final String CHANNELS_METRIC = "teg.ws.spectator.channels";
+
+    private final int capacity;
+    private final Map<String, Buffer> buffers;
+
+    public SpectatorBuffers(MeterRegistry meterRegistry,
+                            @Value("${teg.ws.spectator-buffer:512}") int capacity,
+                            @Value("${teg.ws.spectator-channels:1024}") int channels) {
+        this.capacity = Math.max(2, capacity);
+        int maxChannels = Math.max(1, channels);
+        this.buffers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Buffer> eldest) {
+                return size() > maxChannels;
+            }
+        };
+        Gauge.builder(CHANNELS_METRIC, this, SpectatorBuffers::size).register(meterRegistry);
+    }
+
+    public void append(String destination, byte[] frame, boolean keyframe) {
+        Buffer buffer;
+        synchronized (this) {
+            buffer = buffers.computeIfAbsent(destination, d -> new Buffer());
+        }
+        synchronized (buffer) {
+            buffer.frames[(int) (buffer.end % capacity)] = frame;
+            if (keyframe) {
+                buffer.keyframe = buffer.end;
+            }
+            buffer.end++;
+        }
+    }
+
+    /**
+     * Del último keyframe al frame más nuevo, en orden. Vacío si todavía no hubo keyframe o si ya
+     * se pisó: el espectador espera al próximo.
+     */
+    public List<byte[]> catchUp(String destination) {
+        Buffer buffer;
+        synchronized (this) {
+            buffer = buffers.get(destination);
+        }
+        if (buffer == null) {
+            return List.of();
+        }
+        synchronized (buffer) {
+            if (buffer.keyframe < 0 || buffer.end - buffer.keyframe > capacity) {
+                return List.of();
+            }
+            List<byte[]> frames = new ArrayList<>((int) (buffer.end - buffer.keyframe));
+            for (long seq = buffer.keyframe; seq < buffer.end; seq++) {
+                frames.add(buffer.frames[(int) (seq % capacity)]);
+            }
+            return frames;
+        }
+    }
+
+    public synchronized int size() {
+        return buffers.size();
+    }
+
+    private final class Buffer {
+        private final byte[][] frames = new byte[capacity][];
+        private long end;
+        private long keyframe = -1;
+    }
+}
@@ -0,0 +1,149 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Lo que ven los espectadores de cada partida, armado en el nodo dueño.
+ * <p>
+ * Cada parche público entra con el turno en que se generó (son los mismos bytes que les llegan a
+ * los jugadores) y sale hacia cada demora de {@code teg.ws.spectator-delays} recién cuando la
+ * partida avanzó esa cantidad de turnos; con demora 0, si se configura, sale enseguida. Al empezar cada turno se
+ * agrega un keyframe con el estado público completo, así quien se suma arranca desde ahí. Lo
+ * retenido vive en un buffer circular de {@code teg.ws.spectator-backlog} frames por partida; si se
+ * llena, la demora más larga pierde los más viejos y se recupera en el próximo keyframe. Cuando la
+ * partida termina se libera todo.
+ */
+@Component
+public class SpectatorFeed {
+    /** Valor del header {@code teg-kind} de los keyframes; no se colapsan como los parches. */
+    public static final String KEYFRAME = "keyframe";
+
+    private final int[] delays;
+    private final int backlog;
+    private final Map<Long, Feed> feeds = new ConcurrentHashMap<>();
+
+    public SpectatorFeed(@Value("${teg.ws.spectator-delays:1,3}") List<Integer> delays,
+                         @Value("${teg.ws.spectator-backlog:2048}") int backlog) {
+        this.delays = delays.stream().mapToInt(Integer::intValue).filter(delay -> delay >= 0)
+                .distinct().sorted().toArray();
+        this.backlog = Math.max(2, backlog);
+    }
+
+    public boolean isDelay(int delay) {
+        for (int configured : delays) {
+            if (configured == delay) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Si un parche del turno tendría que venir con keyframe. Se consulta con el estado a mano, antes
+     * de encolar el parche; puede dar de más si hay parches del mismo turno todavía en la cola.
+     */
+    public boolean needsKeyframe(Long gameId, int turn) {
+        Feed feed = feeds.get(gameId);
+        if (feed == null) {
+            return true;
+        }
+        synchronized (feed) {
+            return feed.keyframeTurn != turn;
+        }
+    }
+
+    /**
+     * Suma un parche de la partida y devuelve lo que corresponde mandar a cada demora. Por partida se
+     * llama en orden, desde su hilo de salida como los parches. {@code keyframe} sólo se pide si
+     * empezó un turno y el parche no era ya completo; si devuelve null, el turno queda sin keyframe.
+     */
+    public List<Release> offer(Long gameId, int turn, byte[] frame, boolean full, Supplier<byte[]> keyframe) {
+        Feed feed = feeds.computeIfAbsent(gameId, id -> new Feed());
+        List<Release> released = new ArrayList<>();
+        synchronized (feed) {
+            if (full) {
+                feed.add(turn, frame, KEYFRAME);
+            } else {
+                feed.add(turn, frame, SessionOutboundQueues.DELTA);
+                byte[] snapshot = feed.keyframeTurn != turn ? keyframe.get() : null;
+                if (snapshot != null) {
+                    feed.add(turn, snapshot, KEYFRAME);
+                }
+            }
+            feed.release(turn, released);
+        }
+        return released;
+    }
+
+    /** La partida terminó: sale todo lo retenido y se olvida. */
+    public List<Release> finish(Long gameId) {
+        Feed feed = feeds.remove(gameId);
+        List<Release> released = new ArrayList<>();
+        if (feed != null) {
+            synchronized (feed) {
+                feed.release(Integer.MAX_VALUE, released);
+            }
+        }
+        return released;
+    }
+
+    /** La partida dejó de publicarse desde este nodo; lo retenido se descarta. */
+    public void forget(Long gameId) {
+        feeds.remove(gameId);
+    }
+
+    public record Release(int delay, byte[] frame, String kind) {
+    }
+
+    private record Entry(int turn, byte[] frame, String kind) {
+    }
+
+    private final class Feed {
+        private final Entry[] ring = new Entry[backlog];
+        // Posiciones absolutas: ring[seq % backlog] guarda el frame seq mientras first <= seq < end
+        private long first;
+        private long end;
+        private final long[] next = new long[delays.length];
+        private int keyframeTurn = Integer.MIN_VALUE;
+
+        void add(int turn, byte[] frame, String kind) {
+            if (end - first == ring.length) {
+                ring[(int) (first % ring.length)] = null;
+                first++;
+            }
+            ring[(int) (end % ring.length)] = new Entry(turn, frame, kind);
+            end++;
+            if (KEYFRAME.equals(kind)) {
+                keyframeTurn = turn;
+            }
+        }
+
+        void release(int turn, List<Release> out) {
+            long keep = end;
+            for (int i = 0; i < delays.length; i++) {
+                long seq = Math.max(next[i], first);
+                while (seq < end) {
+                    Entry entry = ring[(int) (seq % ring.length)];
+                    if (turn != Integer.MAX_VALUE && entry.turn() > turn - delays[i]) {
+                        break;
+                    }
+                    out.add(new Release(delays[i], entry.frame(), entry.kind()));
+                    seq++;
+                }
+                next[i] = seq;
+                keep = Math.min(keep, seq);
+            }
+            while (first < keep) {
+                ring[(int) (first % ring.length)] = null;
+                first++;
+            }
+        }
+    }
+}
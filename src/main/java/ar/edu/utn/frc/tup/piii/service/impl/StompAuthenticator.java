@@ -0,0 +1,52 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.exception.InvalidCredentialsException;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.utils.JwtUtils;
+import io.jsonwebtoken.JwtException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Autentica el CONNECT STOMP: el header {@code Authorization: Bearer <jwt>} dice quién es el usuario
+ * y {@code player-id} con qué jugador entra; el jugador tiene que ser de ese usuario. Sin ninguno de
+ * los dos la sesión queda anónima, como espectador.
+ */
+@Component
+public class StompAuthenticator {
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+    public static final String PLAYER_HEADER = "player-id";
+    private static final String BEARER = "Bearer ";
+
+    private final JwtUtils jwtUtils;
+    private final PlayerRepository playerRepository;
+
+    public StompAuthenticator(JwtUtils jwtUtils, PlayerRepository playerRepository) {
+        this.jwtUtils = jwtUtils;
+        this.playerRepository = playerRepository;
+    }
+
+    /** El jugador de la sesión, o {@code null} si se conecta sin credenciales. */
+    @Transactional(readOnly = true)
+    public PlayerPrincipal authenticate(String authorization, String playerId) {
+        if (authorization == null && playerId == null) {
+            return null;
+        }
+        if (authorization == null || !authorization.startsWith(BEARER) || playerId == null) {
+            throw new InvalidCredentialsException("A bearer token and a player-id are required");
+        }
+        String username;
+        Player player;
+        try {
+            username = jwtUtils.extractUsername(authorization.substring(BEARER.length()));
+            player = playerRepository.findById(Long.valueOf(playerId)).orElse(null);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidCredentialsException("Invalid token or player-id");
+        }
+        if (player == null || player.getUser() == null || !player.getUser().getUsername().equals(username)) {
+            throw new InvalidCredentialsException("Player does not belong to the authenticated user");
+        }
+        return new PlayerPrincipal(player.getId(), player.getGame().getId());
+    }
+}
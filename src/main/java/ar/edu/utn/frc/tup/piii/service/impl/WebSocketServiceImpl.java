@@ -0,0 +1,669 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.country.CountryResponseDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.GameStateDto;
+import ar.edu.utn.frc.tup.piii.dtos.player.PlayerResponseDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.GameStatePatchDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.PlayerViewDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.WebSocketMessageDto;
+import ar.edu.utn.frc.tup.piii.engine.cluster.ClusterBus;
+import ar.edu.utn.frc.tup.piii.engine.cluster.ForwardedCommand;
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.engine.sync.GameStateSync;
+import ar.edu.utn.frc.tup.piii.model.entity.Card;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameTerritory;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.WebSocketService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mensajería STOMP de las partidas.
+ * <p>
+ * Después de cada comando del motor se publica en {@code /topic/games/{gameId}} un parche
+ * {@code GAME_PATCH} con lo que cambió; su {@code baseVersion} es la versión del parche anterior. Un
+ * cliente que ve un hueco (la base no coincide con su versión) pide el estado completo con
+ * {@link #sendGameState(Long, Long)} y descarta los parches con versión menor o igual a la recibida.
+ * La mano y el objetivo de cada jugador van aparte, como {@code PLAYER_VIEW} a su cola.
+ * <p>
+ * Lo propio de un jugador (estado completo pedido, {@code PLAYER_VIEW}) sale con
+ * {@code convertAndSendToUser} al {@link PlayerPrincipal} de sus sesiones, que se suscriben a
+ * {@code /user/queue/player}; ninguna otra sesión puede suscribirse a esa cola.
+ * <p>
+ * Cada mensaje se serializa una sola vez a JSON y esos mismos bytes son el payload que el broker
+ * reparte a todas las suscripciones del destino; el conversor de Jackson no interviene por sesión.
+ * Lo que le llega a cada sesión pasa por su cola de {@link SessionOutboundQueues}.
+ * <p>
+ * Con el monitor del estado tomado sólo se calcula el parche; serializarlo y mandarlo lo hace uno de
+ * los {@code teg.ws.publish-threads} hilos de salida, siempre el mismo para cada partida, así los
+ * parches salen en el orden en que se calcularon sin frenar al buzón ni al pedido que los disparó.
+ * <p>
+ * Con varios nodos, los parches salen del dueño de la partida ({@link GameCluster}) y todo envío
+ * viaja por el {@link ClusterBus}: cada nodo lo entrega a su broker local. Los pedidos de estado que
+ * llegan a otro nodo se reenvían al dueño. Si la partida se migra, las sesiones siguen donde están y
+ * el dueño nuevo publica un parche completo al recibirla.
+ * <p>
+ * Los espectadores se suscriben a {@code /topic/spectate/{gameId}/{demora}} y reciben sólo los
+ * parches públicos, los mismos bytes que los jugadores, retrasados esa cantidad de turnos por
+ * {@link SpectatorFeed}. Al suscribirse les llega a {@code /user/queue/spectate} lo que hay desde el
+ * último keyframe ({@link SpectatorBuffers}); de ahí en más aplican los parches como los jugadores.
+ */
+@Service
+public class WebSocketServiceImpl implements WebSocketService {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketServiceImpl.class);
+
+    static final String GAME_TOPIC = "/topic/games/";
+    static final String PLAYER_QUEUE = "/queue/player";
+    static final String BROADCAST_TOPIC = "/topic/all";
+    private static final int RECENT_EVENTS = 10;
+    static final String RELAY_TOPIC = "ws.relay";
+    static final String SPECTATE_TOPIC = "/topic/spectate/";
+    static final String SPECTATOR_QUEUE = "/queue/spectate";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEngine gameEngine;
+    private final GameStateSync stateSync;
+    private final GameRepository gameRepository;
+    private final PlayerRepository playerRepository;
+    private final MapTopologyProvider topologyProvider;
+    private final ObjectMapper objectMapper;
+    private final PresenceRegistry presence;
+    private final GameStateViewCache viewCache;
+    private final GameEventService eventService;
+    private final ClusterBus bus;
+    private final GameCluster cluster;
+    private final SpectatorFeed spectatorFeed;
+    private final SpectatorBuffers spectatorBuffers;
+    private final TransactionTemplate readTransaction;
+    private final ExecutorService[] outbound;
+
+    public WebSocketServiceImpl(SimpMessagingTemplate messagingTemplate, GameEngine gameEngine,
+                                GameStateSync stateSync, GameRepository gameRepository,
+                                PlayerRepository playerRepository, MapTopologyProvider topologyProvider,
+                                ObjectMapper objectMapper, PresenceRegistry presence,
+                                GameStateViewCache viewCache, GameEventService eventService, ClusterBus bus,
+                                GameCluster cluster, SpectatorFeed spectatorFeed, SpectatorBuffers spectatorBuffers,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${teg.ws.publish-threads:4}") int publishThreads) {
+        this.messagingTemplate = messagingTemplate;
+        this.gameEngine = gameEngine;
+        this.stateSync = stateSync;
+        this.gameRepository = gameRepository;
+        this.playerRepository = playerRepository;
+        this.topologyProvider = topologyProvider;
+        this.objectMapper = objectMapper;
+        this.presence = presence;
+        this.viewCache = viewCache;
+        this.eventService = eventService;
+        this.bus = bus;
+        this.cluster = cluster;
+        this.spectatorFeed = spectatorFeed;
+        this.spectatorBuffers = spectatorBuffers;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.outbound = new ExecutorService[Math.max(1, publishThreads)];
+        for (int i = 0; i < outbound.length; i++) {
+            String name = "ws-publish-" + i;
+            outbound[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        gameEngine.addCommandListener(this::publishPatch);
+        // Una partida que llega migrada arranca con un parche completo: lo publicado acá antes quedó viejo
+        cluster.addOwnershipListener(gameId -> {
+            stateSync.forget(gameId);
+            spectatorFeed.forget(gameId);
+        });
+        bus.subscribe(RELAY_TOPIC, this::deliver);
+        cluster.register(ForwardedCommand.SyncPlayer.class, command -> {
+            readTransaction.executeWithoutResult(status -> sendGameState(command.gameId(), command.playerId()));
+            return null;
+        });
+        cluster.register(ForwardedCommand.SyncGame.class, command -> {
+            readTransaction.executeWithoutResult(status -> syncGameState(findGame(command.gameId())));
+            return null;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService executor : outbound) {
+            executor.shutdown();
+        }
+    }
+
+    @Override
+    public void sendToGame(Long gameId, WebSocketMessageDto message) {
+        broadcast(gameId, serialize(message), null);
+    }
+
+    @Override
+    public void sendToPlayer(Long playerId, WebSocketMessageDto message) {
+        sendToUser(playerId, serialize(message));
+    }
+
+    @Override
+    public void sendToAllPlayers(WebSocketMessageDto message) {
+        send(BROADCAST_TOPIC, serialize(message), null);
+    }
+
+    @Override
+    public void broadcastGameUpdate(Game game) {
+        syncGameState(game);
+    }
+
+    @Override
+    public void notifyTurnChange(Game game, Player currentPlayer) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("playerId", currentPlayer.getId());
+        payload.put("playerName", currentPlayer.getDisplayName());
+        payload.put("turn", game.getCurrentTurn());
+        sendToGame(game.getId(), message("TURN_CHANGE", game.getId(), payload));
+    }
+
+    @Override
+    public void notifyAttackResult(Game game, Object combatResult) {
+        sendToGame(game.getId(), message("ATTACK_RESULT", game.getId(), combatResult));
+    }
+
+    @Override
+    public void notifyTerritoryConquest(Game game, Player conqueror, String territory) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("playerId", conqueror.getId());
+        payload.put("playerName", conqueror.getDisplayName());
+        payload.put("territory", territory);
+        sendToGame(game.getId(), message("TERRITORY_CONQUERED", game.getId(), payload));
+    }
+
+    @Override
+    public void notifyPlayerElimination(Game game, Player eliminatedPlayer) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("playerId", eliminatedPlayer.getId());
+        payload.put("playerName", eliminatedPlayer.getDisplayName());
+        sendToGame(game.getId(), message("PLAYER_ELIMINATED", game.getId(), payload));
+    }
+
+    @Override
+    public void notifyGameEnd(Game game, Player winner) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("winnerId", winner == null ? null : winner.getId());
+        payload.put("winnerName", winner == null ? null : winner.getDisplayName());
+        sendToGame(game.getId(), message("GAME_END", game.getId(), payload));
+        stateSync.forget(game.getId());
+    }
+
+    @Override
+    public void notifyGameStart(Game game) {
+        sendToGame(game.getId(), message("GAME_START", game.getId(), null));
+    }
+
+    /** La partida del jugador se busca una sola vez, al conectar; después todo sale del registro. */
+    @Override
+    public void addPlayerConnection(Long playerId, String sessionId) {
+        Player player = playerRepository.findById(playerId)
+                .orElseThrow(() -> new EntityNotFoundException("Player not found"));
+        presence.connect(sessionId, playerId, player.getGame().getId());
+    }
+
+    @Override
+    public void removePlayerConnection(Long playerId, String sessionId) {
+        if (playerId.equals(presence.playerOf(sessionId))) {
+            presence.disconnect(sessionId);
+        }
+    }
+
+    @Override
+    public boolean isPlayerConnected(Long playerId) {
+        return presence.isConnected(playerId);
+    }
+
+    @Override
+    public int getConnectedPlayersCount(Long gameId) {
+        return presence.connectedPlayers(gameId);
+    }
+
+    /** Cuenta como jugador la sesión que {@link StompAuthenticator} autenticó en el CONNECT. */
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        if (event.getUser() instanceof PlayerPrincipal player) {
+            presence.connect(StompHeaderAccessor.wrap(event.getMessage()).getSessionId(),
+                    player.playerId(), player.gameId());
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        presence.disconnect(event.getSessionId());
+    }
+
+    /** Una suscripción a {@code /topic/spectate/{gameId}/{demora}} con una demora configurada. */
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = headers.getDestination();
+        if (destination == null || !destination.startsWith(SPECTATE_TOPIC)) {
+            return;
+        }
+        String[] parts = destination.substring(SPECTATE_TOPIC.length()).split("/");
+        try {
+            int delay = parts.length == 2 ? Integer.parseInt(parts[1]) : -1;
+            if (spectatorFeed.isDelay(delay)) {
+                addSpectator(headers.getSessionId(), Long.valueOf(parts[0]), delay);
+            }
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring spectator subscription to {}", destination);
+        }
+    }
+
+    /**
+     * Manda a la sesión lo que hay desde el último keyframe de la demora; lo que sigue le llega por
+     * la suscripción. Se atiende en el nodo de la sesión, sin ir al dueño de la partida.
+     */
+    @Override
+    public void addSpectator(String sessionId, Long gameId, int delayTurns) {
+        for (byte[] frame : spectatorBuffers.catchUp(spectateDestination(gameId, delayTurns))) {
+            SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            headers.setSessionId(sessionId);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            headers.setLeaveMutable(true);
+            messagingTemplate.send("/user/" + sessionId + SPECTATOR_QUEUE,
+                    MessageBuilder.createMessage(frame, headers.getMessageHeaders()));
+        }
+    }
+
+    @Override
+    public void broadcastChatMessage(Long gameId, Object chatMessage) {
+        sendToGame(gameId, message("CHAT", gameId, chatMessage));
+    }
+
+    /**
+     * Estado completo a la cola del jugador, más su vista privada. Si la partida está en el motor,
+     * antes se publica lo que haya pendiente para que el próximo parche parta justo de la versión
+     * enviada; el estado sale por el mismo hilo de salida, detrás de ese parche. El cliente guarda
+     * los parches que le lleguen mientras espera y aplica los posteriores.
+     * <p>
+     * La parte pública sale de {@link GameStateViewCache} mientras la versión no cambie, así una
+     * tanda de reconexiones arma y serializa el estado una sola vez.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void sendGameState(Long gameId, Long playerId) {
+        if (!cluster.owns(gameId)) {
+            cluster.execute(new ForwardedCommand.SyncPlayer(gameId, playerId), Void.class);
+            return;
+        }
+        if (!gameEngine.isLoaded(gameId)) {
+            Game game = findGame(gameId);
+            sendToUser(playerId, stateFrame(game));
+            game.getPlayers().stream()
+                    .filter(player -> player.getId().equals(playerId))
+                    .findFirst()
+                    .ifPresent(player -> sendToPlayer(playerId, message("PLAYER_VIEW", gameId, privateView(player))));
+            return;
+        }
+        LiveView live = gameEngine.read(gameId, state -> {
+            publish(state);
+            byte[] cached = viewCache.get(gameId, state.getVersion());
+            int seat = state.seatOf(playerId);
+            return new LiveView(state.getVersion(), cached, cached == null ? toDto(state) : null,
+                    seat < 0 ? null : GameStateSync.privateView(state, seat));
+        });
+        byte[] frame = live.frame() != null ? live.frame() : cacheFrame(gameId, live.version(), live.state());
+        outbound(gameId).execute(() -> {
+            sendToUser(playerId, frame);
+            if (live.privateView() != null) {
+                sendToPlayer(playerId, message("PLAYER_VIEW", gameId, live.privateView()));
+            }
+        });
+    }
+
+    /** Parche a los suscriptores si la partida está en el motor; si no, el estado completo. */
+    @Override
+    @Transactional(readOnly = true)
+    public void syncGameState(Game game) {
+        if (!cluster.owns(game.getId())) {
+            cluster.execute(new ForwardedCommand.SyncGame(game.getId()), Void.class);
+            return;
+        }
+        if (game.getStatus() == GameStatus.IN_PROGRESS && gameEngine.isLoaded(game.getId())) {
+            gameEngine.read(game.getId(), state -> {
+                publish(state);
+                return null;
+            });
+            return;
+        }
+        stateSync.forget(game.getId());
+        byte[] frame = stateFrame(findGame(game.getId()));
+        outbound(game.getId()).execute(() -> {
+            broadcast(game.getId(), frame, null);
+            spectatorFeed.finish(game.getId()).forEach(release ->
+                    send(spectateDestination(game.getId(), release.delay()), release.frame(), release.kind()));
+        });
+    }
+
+    private void publishPatch(GameState state) {
+        synchronized (state) {
+            publish(state);
+        }
+    }
+
+    private byte[] stateFrame(Game game) {
+        long version = game.getVersion() == null ? 0 : game.getVersion();
+        byte[] frame = viewCache.get(game.getId(), version);
+        return frame != null ? frame : cacheFrame(game.getId(), version, toDto(game));
+    }
+
+    /** Completa lo que sale de la base (eventos recientes), serializa y guarda en el cache. */
+    private byte[] cacheFrame(Long gameId, long version, GameStateDto dto) {
+        dto.setRecentEvents(eventService.getRecentEvents(gameId, RECENT_EVENTS));
+        byte[] frame = serialize(message("GAME_STATE", gameId, dto));
+        viewCache.put(gameId, version, frame);
+        return frame;
+    }
+
+    private static PlayerViewDto privateView(Player player) {
+        List<Long> cards = new ArrayList<>();
+        int wildcards = 0;
+        for (Card card : player.getHand()) {
+            if (card.getCountry() == null) {
+                wildcards++;
+            } else {
+                cards.add(card.getCountry().getId());
+            }
+        }
+        return PlayerViewDto.builder()
+                .gameId(player.getGame().getId())
+                .playerId(player.getId())
+                .version(player.getGame().getVersion())
+                .objectiveId(player.getObjective() == null ? null : player.getObjective().getId())
+                .cardCountryIds(cards)
+                .wildcards(wildcards)
+                .build();
+    }
+
+    /**
+     * Se llama con el monitor del estado tomado: calcula el parche y lo encola en el hilo de salida
+     * de la partida, así el orden de los envíos es el de los diffs.
+     */
+    private void publish(GameState state) {
+        Long gameId = state.getGameId();
+        GameStatePatchDto patch = stateSync.diff(state);
+        List<PlayerViewDto> views = stateSync.privateViews(state);
+        if (patch == null && views.isEmpty()) {
+            return;
+        }
+        GameStatePatchDto keyframe = patch != null && !Boolean.TRUE.equals(patch.getFull())
+                && spectatorFeed.needsKeyframe(gameId, state.getTurn()) ? GameStateSync.snapshot(state) : null;
+        Publication publication = new Publication(gameId, state.getTurn(),
+                state.getStatus() != GameStatus.IN_PROGRESS, patch, keyframe, views);
+        outbound(gameId).execute(() -> sendPatch(publication));
+    }
+
+    private void sendPatch(Publication publication) {
+        Long gameId = publication.gameId();
+        try {
+            if (publication.patch() != null) {
+                byte[] frame = serialize(message("GAME_PATCH", gameId, publication.patch()));
+                broadcast(gameId, frame, SessionOutboundQueues.DELTA);
+                spectate(publication, frame);
+            }
+            for (PlayerViewDto view : publication.views()) {
+                sendToPlayer(view.getPlayerId(), message("PLAYER_VIEW", gameId, view));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cannot publish patch of game {}", gameId, e);
+        }
+    }
+
+    /** El mismo frame del parche, a cada demora de espectadores cuando le toca. */
+    private void spectate(Publication publication, byte[] frame) {
+        Long gameId = publication.gameId();
+        GameStatePatchDto keyframe = publication.keyframe();
+        List<SpectatorFeed.Release> released = spectatorFeed.offer(gameId, publication.turn(), frame,
+                Boolean.TRUE.equals(publication.patch().getFull()),
+                () -> keyframe == null ? null : serialize(message("GAME_PATCH", gameId, keyframe)));
+        if (publication.finished()) {
+            released.addAll(spectatorFeed.finish(gameId));
+        }
+        for (SpectatorFeed.Release release : released) {
+            send(spectateDestination(gameId, release.delay()), release.frame(), release.kind());
+        }
+    }
+
+    private ExecutorService outbound(Long gameId) {
+        return outbound[(int) Math.floorMod(gameId, (long) outbound.length)];
+    }
+
+    private static String spectateDestination(Long gameId, int delay) {
+        return SPECTATE_TOPIC + gameId + "/" + delay;
+    }
+
+    /** Un frame ya serializado a todas las sesiones suscriptas a la partida. */
+    private void broadcast(Long gameId, byte[] frame, String kind) {
+        send(GAME_TOPIC + gameId, frame, kind);
+    }
+
+    /** A las sesiones autenticadas como el jugador, en el nodo donde estén. */
+    private void sendToUser(Long playerId, byte[] frame) {
+        relay(playerId.toString(), PLAYER_QUEUE, frame, null);
+    }
+
+    private void send(String destination, byte[] frame, String kind) {
+        relay("", destination, frame, kind);
+    }
+
+    /** Pasa por el bus para que cada nodo lo entregue a las sesiones que tiene conectadas. */
+    private void relay(String user, String destination, byte[] frame, String kind) {
+        ByteArrayOutputStream envelope = new ByteArrayOutputStream(frame.length + destination.length() + 32);
+        try (DataOutputStream out = new DataOutputStream(envelope)) {
+            out.writeUTF(user);
+            out.writeUTF(destination);
+            out.writeUTF(kind == null ? "" : kind);
+            out.write(frame);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot relay message to " + destination, e);
+        }
+        bus.publish(RELAY_TOPIC, envelope.toByteArray());
+    }
+
+    private void deliver(byte[] envelope) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(envelope));
+        try {
+            String user = in.readUTF();
+            String destination = in.readUTF();
+            String kind = in.readUTF();
+            deliver(user.isEmpty() ? null : user, destination, in.readAllBytes(), kind.isEmpty() ? null : kind);
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed relayed message", e);
+        }
+    }
+
+    /** {@code kind} viaja como header STOMP; los parches van marcados para poder colapsarlos. */
+    private void deliver(String user, String destination, byte[] frame, String kind) {
+        if (destination.startsWith(SPECTATE_TOPIC)) {
+            spectatorBuffers.append(destination, frame, SpectatorFeed.KEYFRAME.equals(kind));
+        }
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        if (kind != null) {
+            headers.setNativeHeader(SessionOutboundQueues.KIND_HEADER, kind);
+        }
+        headers.setLeaveMutable(true);
+        if (user != null) {
+            // El conversor de bytes marca octet-stream; el post-proceso deja el tipo real del frame
+            messagingTemplate.convertAndSendToUser(user, destination, frame, headers.getMessageHeaders(),
+                    WebSocketServiceImpl::asJson);
+            return;
+        }
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(frame, headers.getMessageHeaders()));
+    }
+
+    private static Message<?> asJson(Message<?> message) {
+        SimpMessageHeaderAccessor headers = MessageHeaderAccessor.getAccessor(message, SimpMessageHeaderAccessor.class);
+        if (headers != null && headers.isMutable()) {
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            return message;
+        }
+        SimpMessageHeaderAccessor copy = SimpMessageHeaderAccessor.wrap(message);
+        copy.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        copy.setLeaveMutable(true);
+        return MessageBuilder.createMessage(message.getPayload(), copy.getMessageHeaders());
+    }
+
+    private byte[] serialize(WebSocketMessageDto message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + message.getType() + " message", e);
+        }
+    }
+
+    private GameStateDto toDto(GameState state) {
+        ContinentControl territories = state.getTerritories();
+        MapTopology topology = territories.getTopology();
+        List<PlayerResponseDto> players = new ArrayList<>(state.playerCount());
+        Map<Long, String> names = new HashMap<>();
+        for (int seat = 0; seat < state.playerCount(); seat++) {
+            Long playerId = state.playerId(seat);
+            names.put(playerId, state.playerName(seat));
+            players.add(PlayerResponseDto.builder()
+                    .id(playerId)
+                    .displayName(state.playerName(seat))
+                    .status(state.playerStatus(seat))
+                    .armiesToPlace(state.armiesToPlace(seat))
+                    .seatOrder(seat)
+                    .territoriesCount(territories.territories(playerId))
+                    .build());
+        }
+        Map<Long, CountryResponseDto> countries = new LinkedHashMap<>();
+        for (int country = 0; country < topology.size(); country++) {
+            long owner = territories.ownerId(country);
+            countries.put(topology.countryId(country), CountryResponseDto.builder()
+                    .id(topology.countryId(country))
+                    .name(topologyProvider.country(country).getName())
+                    .ownerName(owner < 0 ? null : names.get(owner))
+                    .armies(territories.armies(country))
+                    .build());
+        }
+        return GameStateDto.builder()
+                .gameId(state.getGameId())
+                .status(state.getStatus())
+                .version(state.getVersion())
+                .currentPhase(state.getPhase())
+                .currentTurn(state.getTurn())
+                .currentPlayerId(state.getCurrentPlayerId())
+                .currentPlayerName(names.get(state.getCurrentPlayerId()))
+                .players(players)
+                .territories(countries)
+                .isGameOver(state.getStatus() == GameStatus.FINISHED)
+                .build();
+    }
+
+    private GameStateDto toDto(Game game) {
+        List<PlayerResponseDto> players = new ArrayList<>();
+        for (Player player : game.getPlayers()) {
+            players.add(PlayerResponseDto.builder()
+                    .id(player.getId())
+                    .displayName(player.getDisplayName())
+                    .isBot(player.getBotProfile() != null)
+                    .status(player.getStatus())
+                    .color(player.getColor())
+                    .armiesToPlace(player.getArmiesToPlace())
+                    .seatOrder(player.getSeatOrder())
+                    .joinedAt(player.getJoinedAt())
+                    .territoriesCount(player.getTerritories().size())
+                    .build());
+        }
+        Map<Long, CountryResponseDto> countries = new LinkedHashMap<>();
+        for (GameTerritory territory : game.getGameterritories()) {
+            countries.put(territory.getCountry().getId(), CountryResponseDto.builder()
+                    .id(territory.getCountry().getId())
+                    .name(territory.getCountry().getName())
+                    .ownerName(territory.getOwner() == null ? null : territory.getOwner().getDisplayName())
+                    .armies(territory.getArmies())
+                    .build());
+        }
+        Player current = game.getCurrentPlayer();
+        return GameStateDto.builder()
+                .gameId(game.getId())
+                .status(game.getStatus())
+                .version(game.getVersion())
+                .currentPhase(game.getCurrentPhase())
+                .currentTurn(game.getCurrentTurn())
+                .currentPlayerId(current == null ? null : current.getId())
+                .currentPlayerName(current == null ? null : current.getDisplayName())
+                .players(players)
+                .territories(countries)
+                .isGameOver(game.getStatus() == GameStatus.FINISHED)
+                .build();
+    }
+
+    private Game findGame(Long gameId) {
+        return gameRepository.findById(gameId)
+                .orElseThrow(() -> new EntityNotFoundException("Game not found"));
+    }
+
+    private record LiveView(long version, byte[] frame, GameStateDto state, PlayerViewDto privateView) {
+    }
+
+    /** {@code keyframe} es el estado público completo, sólo si los espectadores pueden necesitarlo. */
+    private record Publication(Long gameId, int turn, boolean finished, GameStatePatchDto patch,
+                               GameStatePatchDto keyframe, List<PlayerViewDto> views) {
+    }
+
+    private static WebSocketMessageDto message(String type, Long gameId, Object payload) {
+        return WebSocketMessageDto.builder()
+                .type(type)
+                .gameId(gameId)
+                .payload(payload)
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+    }
+}
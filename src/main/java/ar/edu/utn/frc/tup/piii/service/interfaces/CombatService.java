@@ -1,7 +1,10 @@
 package ar.edu.utn.frc.tup.piii.service.interfaces;
 
 import ar.edu.utn.frc.tup.piii.dtos.game.AttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.BlitzAttackDto;
 import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.CombatOddsEngine;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
 import ar.edu.utn.frc.tup.piii.model.entity.CombatResult;
 import ar.edu.utn.frc.tup.piii.model.entity.Country;
 import ar.edu.utn.frc.tup.piii.model.entity.Game;
@@ -12,23 +15,26 @@ public interface CombatService {
 
     // Gestión de combates
     CombatResultDto executeAttack(AttackDto attackDto);
-    CombatResult simulateCombat(Country attacker, Country defender, int attackerDice, int defenderDice);
-    List<Integer> rollDice(int numberOfDice);
+    CombatResultDto executeBlitzAttack(BlitzAttackDto blitzAttackDto);
+    CombatResult simulateCombat(Long gameId, Country attacker, Country defender, int attackerDice,
+                                int defenderDice);
+    DiceRoll rollDice(Long gameId, int attackerDice, int defenderDice);
     CombatResult resolveCombat(List<Integer> attackerDice, List<Integer> defenderDice,
                                Country attackerCountry, Country defenderCountry);
 
     // Validaciones de combate
     boolean canAttack(Country from, Country to, Player attacker);
-    boolean hasEnoughArmies(Country country, int requiredArmies);
+    boolean hasEnoughArmies(Long gameId, Long countryId, int requiredArmies);
     boolean areCountriesAdjacent(Country country1, Country country2);
     boolean isValidAttack(Long gameId, Long attackerCountryId, Long defenderCountryId, Long playerId);
 
     // Cálculos de probabilidad
     double calculateAttackProbability(int attackerArmies, int defenderArmies);
     double calculateWinProbability(int attackerDice, int defenderDice);
+    CombatOddsEngine.LossDistribution calculateLossDistribution(int attackerArmies, int defenderArmies);
 
     // Gestión de conquistas
-    void conquestTerritory(Country conqueredCountry, Player conqueror, int movingArmies);
+    void conquestTerritory(Country attackerCountry, Country conqueredCountry, Player conqueror, int movingArmies);
     boolean wouldPlayerBeEliminated(Player player, Country lostCountry);
     void checkPlayerElimination(Game game, Player player);
 
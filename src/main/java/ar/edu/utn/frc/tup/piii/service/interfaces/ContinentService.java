@@ -17,9 +17,10 @@ public interface ContinentService {
 
     // Control de continente
     boolean isControlledBy(Long continentId, Player player);
-    Player getController(Long continentId);
+    Player getController(Long gameId, Long continentId); // null si nadie lo controla
     List<Continent> getContinentsControlledBy(Player player);
     int getBonusArmies(Long continentId);
+    int getContinentBonus(Player player); // suma de bonificaciones de los continentes que controla
 
     // Estadísticas
     int getTotalCountries(Long continentId);
@@ -29,5 +30,5 @@ public interface ContinentService {
     // Utilidades
     List<Country> getCountriesInContinent(Long continentId);
     boolean isCountryInContinent(Long countryId, Long continentId);
-    List<Player> getPlayersInContinent(Long continentId);
+    List<Player> getPlayersInContinent(Long gameId, Long continentId);
 }
\ No newline at end of file
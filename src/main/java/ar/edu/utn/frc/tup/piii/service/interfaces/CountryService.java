@@ -4,6 +4,7 @@ import ar.edu.utn.frc.tup.piii.model.entity.Country;
 import ar.edu.utn.frc.tup.piii.model.entity.Continent;
 import ar.edu.utn.frc.tup.piii.model.entity.Player;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -23,11 +24,11 @@ public interface CountryService {
     void changeOwner(Long countryId, Player newOwner);
     boolean isOwnedBy(Long countryId, Player player);
 
-    // Gestión de ejércitos
-    void addArmies(Long countryId, int armies);
-    void removeArmies(Long countryId, int armies);
-    void setArmies(Long countryId, int armies);
-    int getArmies(Long countryId);
+    // Gestión de ejércitos (los ejércitos son de cada partida)
+    void addArmies(Long gameId, Long countryId, int armies);
+    void removeArmies(Long gameId, Long countryId, int armies);
+    void setArmies(Long gameId, Long countryId, int armies);
+    int getArmies(Long gameId, Long countryId);
 
     // Relaciones territoriales
     Set<Country> getNeighbors(Long countryId);
@@ -37,13 +38,14 @@ public interface CountryService {
     List<Country> getDefensibleCountries(Long countryId);
 
     // Validaciones
-    boolean canAttack(Long countryId, int attackingArmies);
-    boolean canDefend(Long countryId);
-    boolean hasMinimumArmies(Long countryId, int minimum);
+    boolean canAttack(Long gameId, Long countryId, int attackingArmies);
+    boolean canDefend(Long gameId, Long countryId);
+    boolean hasMinimumArmies(Long gameId, Long countryId, int minimum);
 
     // Utilidades del mapa
     List<Country> findCountriesInContinent(String continentName);
     List<Country> findBorderCountries(Player player);
     List<Country> findInteriorCountries(Player player);
+    Map<Long, Integer> getThreatScores(Player player); // countryId -> ejércitos enemigos limítrofes
 }
 
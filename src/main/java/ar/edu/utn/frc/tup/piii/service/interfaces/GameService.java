@@ -1,6 +1,7 @@
 package ar.edu.utn.frc.tup.piii.service.interfaces;
 
 import ar.edu.utn.frc.tup.piii.dtos.game.AttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
 import ar.edu.utn.frc.tup.piii.dtos.game.FortifyDto;
 import ar.edu.utn.frc.tup.piii.dtos.game.GameCreationDto;
 import ar.edu.utn.frc.tup.piii.dtos.game.ReinforcementDto;
@@ -33,7 +34,7 @@ public interface GameService {
     void nextPhase(Long gameId);
 
     // Acciones de juego
-    CombatResult performAttack(Long gameId, AttackDto attackDto);
+    CombatResultDto performAttack(Long gameId, AttackDto attackDto);
     void performReinforcement(Long gameId, ReinforcementDto reinforcementDto);
     void performFortify(Long gameId, FortifyDto fortifyDto);
     void tradeCards(Long gameId, Long playerId, List<Card> cards);
@@ -56,4 +57,5 @@ public interface GameService {
     boolean isValidAttack(Long gameId, Country from, Country to, Long playerId);
     boolean isValidReinforcement(Long gameId, Map<Country, Integer> reinforcements, Long playerId);
     boolean isValidFortify(Long gameId, Country from, Country to, int armies, Long playerId);
+    List<Country> getFortifyDestinations(Long gameId, Long fromCountryId, Long playerId);
 }
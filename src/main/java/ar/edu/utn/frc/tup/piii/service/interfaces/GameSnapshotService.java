@@ -1,5 +1,6 @@
 package ar.edu.utn.frc.tup.piii.service.interfaces;
 
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
 import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
 import ar.edu.utn.frc.tup.piii.model.entity.Game;
 import java.util.List;
@@ -30,8 +31,8 @@ public interface GameSnapshotService {
     boolean isSnapshotValid(GameSnapshot snapshot);
 
     // Utilidades
-    String serializeGameState(Game game);
-    Game deserializeGameState(String serializedState);
+    byte[] serializeGameState(Game game);
+    GameState deserializeGameState(Long gameId, byte[] serializedState);
     List<GameSnapshot> getSnapshotHistory(Long gameId);
     int getSnapshotCount(Long gameId);
 }
@@ -0,0 +1,16 @@
+package ar.edu.utn.frc.tup.piii.service.interfaces;
+
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationRequestDto;
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationResultDto;
+import java.util.concurrent.CompletableFuture;
+
+public interface SimulationService {
+
+    // Simulación de ataques encadenados
+    SimulationResultDto simulate(SimulationRequestDto request);
+    CompletableFuture<SimulationResultDto> simulateAsync(SimulationRequestDto request);
+
+    // Atajos para bots
+    SimulationResultDto simulateAttack(int attackerArmies, int defenderArmies, int trials);
+    SimulationResultDto simulatePath(int attackerArmies, int[] defenderArmies, int trials);
+}
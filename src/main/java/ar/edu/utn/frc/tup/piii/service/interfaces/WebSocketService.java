@@ -26,6 +26,9 @@ public interface WebSocketService {
     boolean isPlayerConnected(Long playerId);
     int getConnectedPlayersCount(Long gameId);
 
+    // Espectadores
+    void addSpectator(String sessionId, Long gameId, int delayTurns);
+
     // Chat en tiempo real
     void broadcastChatMessage(Long gameId, Object chatMessage);
 
@@ -0,0 +1,76 @@
+package ar.edu.utn.frc.tup.piii.configs;
+
+import ar.edu.utn.frc.tup.piii.service.impl.PlayerPrincipal;
+import ar.edu.utn.frc.tup.piii.service.impl.PresenceRegistry;
+import ar.edu.utn.frc.tup.piii.service.impl.SessionOutboundQueues;
+import ar.edu.utn.frc.tup.piii.service.impl.SpectatorFeed;
+import ar.edu.utn.frc.tup.piii.service.impl.StompAuthenticator;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class WebSocketConfigTest {
+
+    private final ChannelInterceptor interceptor = new WebSocketConfig(mock(SessionOutboundQueues.class),
+            mock(PresenceRegistry.class), mock(StompAuthenticator.class),
+            new SpectatorFeed(List.of(1, 3), 16)).inboundInterceptor();
+
+    private Message<?> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId("s1");
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination(destination);
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private Message<?> send(String destination) {
+        return interceptor.preSend(subscribe(destination, null), null);
+    }
+
+    @Test
+    void patternSubscriptionsAreRejected() {
+        PlayerPrincipal player = new PlayerPrincipal(3L, 7L);
+        for (String pattern : List.of("/topic/games/*", "/topic/games/7*", "/topic/spectate/7/**",
+                "/topic/spectate/*/1", "/topic/{x}", "/topic/al?", "/user/queue/*", "/topic/**")) {
+            assertNull(interceptor.preSend(subscribe(pattern, player), null), pattern);
+        }
+    }
+
+    @Test
+    void spectatorsOnlyGetTheConfiguredDelays() {
+        assertNotNull(send("/topic/spectate/7/1"));
+        assertNotNull(send("/topic/spectate/7/3"));
+        assertNull(send("/topic/spectate/7/0"));
+        assertNull(send("/topic/spectate/7/2"));
+        assertNull(send("/topic/spectate/7"));
+        assertNull(send("/topic/spectate/abc/1"));
+    }
+
+    @Test
+    void theLiveTopicIsOnlyForThePlayersOfThatGame() {
+        assertNotNull(interceptor.preSend(subscribe("/topic/games/7", new PlayerPrincipal(3L, 7L)), null));
+        assertNull(interceptor.preSend(subscribe("/topic/games/7", new PlayerPrincipal(4L, 8L)), null));
+        assertNull(send("/topic/games/7"));
+    }
+
+    @Test
+    void onlyTheClosedListOfDestinationsIsOpen() {
+        assertNotNull(send("/user/queue/player"));
+        assertNotNull(send("/topic/all"));
+        assertNull(send("/queue/player-3"));
+        assertNull(send("/topic/anything"));
+        assertNull(send("/user/3/queue/player"));
+    }
+}
@@ -0,0 +1,129 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.game.GameCommandRetry;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.exception.GlobalExceptionHandler;
+import ar.edu.utn.frc.tup.piii.exception.NodeUnavailableException;
+import ar.edu.utn.frc.tup.piii.exception.PlayerAccessDeniedException;
+import ar.edu.utn.frc.tup.piii.exception.StaleGameStateException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.method.annotation.ExceptionHandlerMethodResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameClusterTest {
+
+    private static final List<String> NODES = List.of("n1", "n2", "n3");
+
+    private final LoopbackClusterBus bus = new LoopbackClusterBus();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameCommandRetry retry = new GameCommandRetry(mock(PlatformTransactionManager.class), registry, 1);
+    private final Map<String, GameEngine> engines = new ConcurrentHashMap<>();
+    private final Map<Long, String> executedOn = new ConcurrentHashMap<>();
+    private final List<GameCluster> nodes = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(GameCluster::shutdown);
+        bus.shutdown();
+    }
+
+    @Test
+    void commandsRunOnlyOnTheOwnerWhateverNodeReceivesThem() {
+        NODES.forEach(this::start);
+
+        IntStream.range(0, 3_000).parallel().forEach(i -> {
+            long game = ThreadLocalRandom.current().nextLong(1, 500);
+            nodes.get(i % nodes.size()).nextTurn(game);
+        });
+
+        assertTrue(executedOn.size() > 400);
+        executedOn.forEach((game, node) -> assertEquals(nodes.get(0).ownerOf(game), node, "game " + game));
+        double forwarded = registry.get(GameCluster.FORWARDED_METRIC).tag("command", ForwardedCommand.NEXT_TURN)
+                .counters().stream().mapToDouble(c -> c.count()).sum();
+        assertTrue(forwarded > 1_500 && forwarded < 2_500, forwarded + " forwarded");
+    }
+
+    @Test
+    void resultsAndErrorsComeBackFromTheOwner() {
+        NODES.forEach(this::start);
+        long game = firstGame(nodes.get(1), true);
+        GameEngine owner = engines.get("n2");
+        when(owner.attack(eq(game), eq(7L), eq(1L), eq(2L), any(), anyInt(), anyInt(), any(), any()))
+                .thenReturn(CombatResultDto.builder().attackerLosses(1).defenderLosses(2).build());
+        doThrow(new StaleGameStateException("Game changed")).when(owner).nextPhase(game);
+
+        CombatResultDto result = nodes.get(0).attack(game, 7L, 1L, 2L, 3, 1, 1, null, null);
+
+        assertEquals(2, result.getDefenderLosses());
+        StaleGameStateException stale = assertThrows(StaleGameStateException.class,
+                () -> nodes.get(2).nextPhase(game));
+        assertEquals("Game changed", stale.getMessage());
+    }
+
+    @Test
+    void forwardedErrorsKeepTheOwnersHttpStatus() throws Exception {
+        NODES.forEach(this::start);
+        long game = firstGame(nodes.get(1), true);
+        doThrow(new PlayerAccessDeniedException("Not your turn")).when(engines.get("n2")).nextPhase(game);
+
+        assertThrows(PlayerAccessDeniedException.class, () -> nodes.get(0).nextPhase(game));
+
+        GlobalExceptionHandler handler = new GlobalExceptionHandler();
+        ExceptionHandlerMethodResolver resolver = new ExceptionHandlerMethodResolver(GlobalExceptionHandler.class);
+        for (RemoteError error : RemoteError.values()) {
+            RuntimeException rebuilt = error.toException("boom", "n2");
+            ResponseEntity<?> response = (ResponseEntity<?>) resolver.resolveMethod(rebuilt).invoke(handler, rebuilt);
+            assertEquals(error.status(), response.getStatusCode(), error.name());
+            assertEquals(error, RemoteError.of(rebuilt));
+        }
+    }
+
+    @Test
+    void aMissingOwnerIsReportedAsUnavailable() {
+        start("n1");
+        GameCluster lonely = nodes.get(0);
+        long game = firstGame(lonely, false);
+
+        assertThrows(NodeUnavailableException.class, () -> lonely.nextTurn(game));
+    }
+
+    private void start(String node) {
+        GameEngine engine = mock(GameEngine.class);
+        doAnswer(invocation -> executedOn.put(invocation.getArgument(0), node)).when(engine).nextTurn(anyLong());
+        engines.put(node, engine);
+        nodes.add(new GameCluster(bus, engine, retry, new ObjectMapper(),
+                registry, node, NODES, 64, 2_000L));
+    }
+
+    private static long firstGame(GameCluster node, boolean owned) {
+        long game = 1;
+        while (node.owns(game) != owned) {
+            game++;
+        }
+        return game;
+    }
+}
@@ -0,0 +1,231 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import ar.edu.utn.frc.tup.piii.engine.game.GameCommandRetry;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodec;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodecTest;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateStore;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.exception.NodeUnavailableException;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameMigrationTest {
+
+    private static final List<String> NODES = List.of("n1", "n2");
+
+    private final MapTopology topology = GameStateCodecTest.board(50);
+    private final Map<Long, String> names = new HashMap<>();
+    private final byte[] initial = GameStateCodec.encode(GameStateCodecTest.sixPlayers(topology, names));
+    // Pedidos de migración a n2 que se pierden: todos, o sólo la respuesta del primero
+    private volatile boolean migrationsUnreachable;
+    private final AtomicBoolean dropFirstMigrationReply = new AtomicBoolean();
+    private final LoopbackClusterBus bus = new LoopbackClusterBus() {
+        @Override
+        public CompletableFuture<byte[]> request(String node, byte[] payload) {
+            if (node.equals("n2/migrations")) {
+                if (migrationsUnreachable) {
+                    return CompletableFuture.failedFuture(new NodeUnavailableException("Node " + node + " is not reachable"));
+                }
+                if (dropFirstMigrationReply.compareAndSet(true, false)) {
+                    super.request(node, payload).join();
+                    return CompletableFuture.failedFuture(new NodeUnavailableException("Reply from " + node + " lost"));
+                }
+            }
+            return super.request(node, payload);
+        }
+    };
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameCommandRetry retry = new GameCommandRetry(mock(PlatformTransactionManager.class), registry, 1);
+    private final Map<String, GameStateStore> stores = new ConcurrentHashMap<>();
+    private final Map<String, GameEngine> engines = new ConcurrentHashMap<>();
+    private final List<GameCluster> nodes = new ArrayList<>();
+    private final List<Long> gained = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(GameCluster::shutdown);
+        engines.values().forEach(GameEngine::shutdown);
+        bus.shutdown();
+    }
+
+    @Test
+    void migratedGameContinuesOnTheTargetFromItsImage() {
+        NODES.forEach(this::start);
+        GameCluster source = nodes.get(0);
+        GameCluster target = nodes.get(1);
+        long game = firstGame(source);
+        target.nextPhase(game);
+
+        source.migrate(game, "n2");
+
+        assertFalse(engines.get("n1").isLoaded(game));
+        assertTrue(engines.get("n2").isLoaded(game));
+        assertEquals("n2", source.ownerOf(game));
+        assertEquals(List.of(game), gained);
+        assertTrue(mockingDetails(stores.get("n1")).getInvocations().stream()
+                .anyMatch(invocation -> invocation.getMethod().getName().equals("write")));
+        verify(stores.get("n2"), never()).load(anyLong());
+
+        source.nextPhase(game);
+
+        GameEngine moved = engines.get("n2");
+        assertEquals(2L, moved.read(game, GameState::getVersion));
+        assertEquals(GamePhase.FORTIFY, moved.read(game, GameState::getPhase));
+        assertEquals(1.0, registry.get(GameCluster.MIGRATION_METRIC).tag("outcome", "moved").timer().count());
+    }
+
+    @Test
+    void aMigrationWhoseReplyIsLostCommitsOnceTheTargetHasTheImage() {
+        NODES.forEach(this::start);
+        GameCluster source = nodes.get(0);
+        long game = firstGame(source);
+        source.nextPhase(game);
+        dropFirstMigrationReply.set(true);
+
+        source.migrate(game, "n2");
+
+        assertEquals("n2", source.ownerOf(game));
+        assertEquals("n2", nodes.get(1).ownerOf(game));
+        assertFalse(engines.get("n1").isLoaded(game));
+        assertEquals(1L, engines.get("n2").read(game, GameState::getVersion));
+        verify(stores.get("n2"), never()).load(anyLong());
+    }
+
+    @Test
+    void aMigrationTheTargetNeverPreparedRollsBack() {
+        NODES.forEach(this::start);
+        GameCluster source = nodes.get(0);
+        long game = firstGame(source);
+        source.nextPhase(game);
+        migrationsUnreachable = true;
+
+        assertThrows(RuntimeException.class, () -> source.migrate(game, "n2"));
+
+        assertEquals("n1", source.ownerOf(game));
+        assertEquals("n1", nodes.get(1).ownerOf(game));
+        assertFalse(engines.get("n2").isLoaded(game));
+        source.nextPhase(game);
+        assertEquals(2L, engines.get("n1").read(game, GameState::getVersion));
+        assertTrue(gained.isEmpty());
+    }
+
+    @Test
+    void commandsSentDuringTheMigrationFollowTheGame() {
+        NODES.forEach(this::start);
+        long game = firstGame(nodes.get(0));
+        nodes.get(0).nextPhase(game);
+
+        List<CompletableFuture<Void>> commands = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            GameCluster node = nodes.get(i % 2);
+            commands.add(CompletableFuture.runAsync(() -> node.nextPhase(game)));
+            if (i == 100) {
+                nodes.get(0).migrate(game, "n2");
+            }
+        }
+        CompletableFuture.allOf(commands.toArray(CompletableFuture[]::new)).join();
+
+        assertEquals(201L, engines.get("n2").read(game, GameState::getVersion));
+        assertFalse(engines.get("n1").isLoaded(game));
+    }
+
+    @Test
+    void drainingANodeHandsItsGamesToTheRest() {
+        NODES.forEach(this::start);
+        GameCluster leaving = nodes.get(0);
+        long first = firstGame(leaving);
+        long second = firstGame(leaving, first + 1);
+        leaving.nextTurn(first);
+        leaving.nextTurn(second);
+
+        assertEquals(2, leaving.drain());
+
+        assertEquals(List.of("n2"), nodes.get(1).nodes());
+        assertTrue(engines.get("n1").loadedGames().isEmpty());
+        assertEquals(1L, engines.get("n2").read(first, GameState::getVersion));
+        assertEquals("n2", nodes.get(1).ownerOf(second));
+        verify(stores.get("n2"), never()).load(anyLong());
+    }
+
+    @Test
+    void aGameMovedToAJoiningNodeStaysPutUntilRebalanced() {
+        start("n1", List.of("n1"));
+        GameCluster first = nodes.get(0);
+        long game = firstOwnedBy("n2");
+        first.nextTurn(game);
+
+        start("n2", NODES);
+
+        assertEquals("n1", first.ownerOf(game));
+        assertEquals(1, first.rebalance());
+        assertEquals("n2", first.ownerOf(game));
+        assertEquals(1L, engines.get("n2").read(game, GameState::getVersion));
+    }
+
+    private void start(String node) {
+        start(node, NODES);
+    }
+
+    private void start(String node, List<String> members) {
+        GameStateStore store = mock(GameStateStore.class);
+        when(store.load(anyLong())).thenAnswer(invocation ->
+                GameStateCodec.decode(invocation.getArgument(0), initial, topology, names));
+        MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+        when(topologyProvider.get()).thenReturn(topology);
+        GameEngine engine = new GameEngine(store, topologyProvider, registry, 3_600_000L, 3_600_000L, 4, 2);
+        stores.put(node, store);
+        engines.put(node, engine);
+        GameCluster cluster = new GameCluster(bus, engine, retry, new ObjectMapper(),
+                registry, node, members, 64, 2_000L);
+        cluster.addOwnershipListener(gained::add);
+        nodes.add(cluster);
+    }
+
+    private static long firstGame(GameCluster node) {
+        return firstGame(node, 1);
+    }
+
+    private static long firstGame(GameCluster node, long from) {
+        long game = from;
+        while (!node.owns(game)) {
+            game++;
+        }
+        return game;
+    }
+
+    private static long firstOwnedBy(String node) {
+        HashRing ring = new HashRing(NODES, 64);
+        long game = 1;
+        while (!node.equals(ring.ownerOf(game))) {
+            game++;
+        }
+        return game;
+    }
+}
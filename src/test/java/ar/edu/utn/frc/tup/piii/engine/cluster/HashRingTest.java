@@ -0,0 +1,45 @@
+package ar.edu.utn.frc.tup.piii.engine.cluster;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HashRingTest {
+
+    private static final int GAMES = 30_000;
+
+    @Test
+    void consecutiveGamesSpreadEvenlyOverTheNodes() {
+        HashRing ring = new HashRing(List.of("a", "b", "c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (long game = 1; game <= GAMES; game++) {
+            counts.merge(ring.ownerOf(game), 1, Integer::sum);
+        }
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(Math.abs(count - GAMES / 3) < GAMES / 3 * 0.2,
+                "unbalanced ring " + counts));
+        assertEquals(ring.ownerOf(42L), new HashRing(List.of("a", "b", "c"), 128).ownerOf(42L));
+    }
+
+    @Test
+    void addingANodeOnlyMovesGamesToTheNewNode() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), 128);
+        HashRing after = new HashRing(List.of("a", "b", "c", "d"), 128);
+        int moved = 0;
+        for (long game = 1; game <= GAMES; game++) {
+            String owner = after.ownerOf(game);
+            if (!owner.equals(before.ownerOf(game))) {
+                assertEquals("d", owner);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > GAMES / 4 * 0.8 && moved < GAMES / 4 * 1.2, moved + " games moved");
+    }
+}
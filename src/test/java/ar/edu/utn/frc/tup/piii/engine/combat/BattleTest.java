@@ -0,0 +1,53 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BattleTest {
+
+    @Test
+    void sameSeedAndRoundReplaysTheSameBattle() {
+        Battle first = new Battle(42L, 7L, 30, 20, 1);
+        Battle second = new Battle(42L, 7L, 30, 20, 1);
+        while (first.canContinue()) {
+            assertEquals(first.nextRound(), second.nextRound());
+        }
+        assertEquals(first.getAttackerArmies(), second.getAttackerArmies());
+        assertEquals(first.getDefenderArmies(), second.getDefenderArmies());
+    }
+
+    @Test
+    void neverRollsBelowStopThreshold() {
+        for (long seed = 0; seed < 200; seed++) {
+            Battle battle = new Battle(seed, 0L, 12, 15, 5).run(Integer.MAX_VALUE);
+            assertTrue(battle.getAttackerArmies() >= 5);
+            assertTrue(battle.isConquered() || battle.getAttackerArmies() == 5);
+        }
+    }
+
+    @Test
+    void facesAreUniform() {
+        int[] counts = new int[7];
+        int[] attacker = new int[3];
+        int[] defender = new int[3];
+        int rounds = 60_000;
+        for (long round = 0; round < rounds; round++) {
+            DiceStream.roll(123L, round, attacker, 3, defender, 3);
+            for (int i = 0; i < 3; i++) {
+                counts[attacker[i]]++;
+                counts[defender[i]]++;
+            }
+        }
+        assertEquals(0, counts[0]);
+        for (int face = 1; face <= 6; face++) {
+            assertEquals(rounds, counts[face], rounds * 0.03);
+        }
+        int[] again = new int[3];
+        DiceStream.roll(123L, 5L, attacker, 3, defender, 0);
+        DiceStream.roll(123L, 5L, again, 3, defender, 0);
+        assertArrayEquals(attacker, again);
+    }
+}
@@ -0,0 +1,147 @@
+package ar.edu.utn.frc.tup.piii.engine.combat;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CombatOddsEngineTest {
+
+    private static final double EPSILON = 1e-12;
+
+    private final CombatOddsEngine engine = new CombatOddsEngine(16);
+
+    @Test
+    void singleDieAgainstSingleDieFavoursDefenderOnTies() {
+        assertEquals(15.0 / 36.0, engine.conquestProbability(2, 1), EPSILON);
+        assertEquals(15.0 / 36.0, engine.favourableRoundProbability(1, 1), EPSILON);
+        assertEquals(21.0 / 36.0, engine.roundLossProbability(1, 1, 1), EPSILON);
+    }
+
+    @Test
+    void roundDistributionsAddUpToOne() {
+        for (int a = 1; a <= 3; a++) {
+            for (int d = 1; d <= 3; d++) {
+                double total = 0.0;
+                for (int k = 0; k <= Math.min(a, d); k++) {
+                    total += engine.roundLossProbability(a, d, k);
+                }
+                assertEquals(1.0, total, EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void matchesRecursiveReference() {
+        for (int a = 0; a <= 10; a++) {
+            for (int d = 0; d <= 10; d++) {
+                assertEquals(reference(a, d), engine.conquestProbability(a, d), 1e-9, a + " vs " + d);
+            }
+        }
+    }
+
+    @Test
+    void queriesBeyondTheTableDoNotGrowIt() {
+        double beyond = engine.conquestProbability(40, 10);
+
+        assertEquals(16, engine.getTableBound());
+        assertTrue(beyond > engine.conquestProbability(16, 10));
+        assertTrue(engine.expectedDefenderLosses(40, 10) <= 10.0);
+        assertEquals(1.0, engine.conquestProbability(CombatOddsEngine.MAX_TABLE_ARMIES + 100, 10), 1e-9);
+        assertEquals(16, engine.getTableBound());
+    }
+
+    @Test
+    void tableIsCappedAtStartup() {
+        assertEquals(CombatOddsEngine.MAX_TABLE_ARMIES, new CombatOddsEngine(100_000).getTableBound());
+    }
+
+    @Test
+    void rowsBeyondTheTableAgreeWithIt() {
+        int beyond = CombatOddsEngine.MAX_TABLE_ARMIES + 25;
+
+        // Con ejércitos de sobra el atacante pierde lo mismo sin importar cuántos tenga
+        assertEquals(engine.expectedAttackerLosses(1000, 5), engine.expectedAttackerLosses(beyond, 5), 1e-9);
+        assertEquals(5.0, engine.expectedDefenderLosses(beyond, 5), 1e-9);
+        assertTrue(engine.conquestProbability(beyond, beyond - 1) > engine.conquestProbability(beyond - 1, beyond - 1));
+    }
+
+    @Test
+    void hugeArmiesStayWithinTheArmiesOfEachSide() {
+        assertTrue(engine.conquestProbability(Integer.MAX_VALUE, Integer.MAX_VALUE) < 1e-6);
+        assertEquals(1.0, engine.conquestProbability(Integer.MAX_VALUE, 3), 1e-9);
+        assertEquals(1.0, engine.conquestProbability(20_000, 5_000), 1e-9);
+        assertTrue(engine.expectedAttackerLosses(5_000, 1_000_000) <= 4_999.0);
+        assertTrue(engine.expectedDefenderLosses(1_000_000, 5_000) <= 5_000.0);
+        assertTrue(engine.expectedAttackerLosses(100, 1_000_000) <= 99.0);
+        assertTrue(engine.expectedDefenderLosses(Integer.MAX_VALUE, Integer.MAX_VALUE) > CombatOddsEngine.MAX_EXACT_ARMIES);
+    }
+
+    @Test
+    void normalApproximationFollowsTheExactChain() {
+        for (int[] armies : new int[][]{{3000, 2000}, {3000, 2300}, {2500, 2500}, {4000, 800}}) {
+            CombatOddsEngine.Odds approximate = CombatOddsEngine.approximateOdds(armies[0], armies[1]);
+            String label = armies[0] + " vs " + armies[1];
+
+            assertEquals(engine.conquestProbability(armies[0], armies[1]), approximate.conquest(), 0.02, label);
+            assertEquals(engine.expectedAttackerLosses(armies[0], armies[1]), approximate.attackerLosses(),
+                    0.01 * armies[0], label);
+            assertEquals(engine.expectedDefenderLosses(armies[0], armies[1]), approximate.defenderLosses(),
+                    0.01 * armies[1], label);
+        }
+    }
+
+    @Test
+    void lossDistributionsMatchTheExpectedLosses() {
+        for (int[] armies : new int[][]{{2, 1}, {5, 3}, {12, 9}, {40, 60}}) {
+            CombatOddsEngine.LossDistribution losses = engine.lossDistribution(armies[0], armies[1]);
+            String label = armies[0] + " vs " + armies[1];
+
+            assertEquals(armies[0], losses.attacker().length, label);
+            assertEquals(armies[1] + 1, losses.defender().length, label);
+            assertEquals(1.0, sum(losses.attacker()), 1e-9, label);
+            assertEquals(1.0, sum(losses.defender()), 1e-9, label);
+            assertEquals(engine.expectedAttackerLosses(armies[0], armies[1]), mean(losses.attacker()), 1e-9, label);
+            assertEquals(engine.expectedDefenderLosses(armies[0], armies[1]), mean(losses.defender()), 1e-9, label);
+            assertEquals(engine.conquestProbability(armies[0], armies[1]), losses.defender()[armies[1]], 1e-9, label);
+        }
+    }
+
+    @Test
+    void lossDistributionsAreBounded() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.lossDistribution(CombatOddsEngine.MAX_EXACT_ARMIES + 1, 10));
+    }
+
+    private static double sum(double[] values) {
+        return Arrays.stream(values).sum();
+    }
+
+    private static double mean(double[] distribution) {
+        double mean = 0.0;
+        for (int k = 0; k < distribution.length; k++) {
+            mean += k * distribution[k];
+        }
+        return mean;
+    }
+
+    private double reference(int a, int d) {
+        if (d == 0) {
+            return 1.0;
+        }
+        if (a <= 1) {
+            return 0.0;
+        }
+        int ad = Math.min(3, a - 1);
+        int dd = Math.min(3, d);
+        int n = Math.min(ad, dd);
+        double p = 0.0;
+        for (int k = 0; k <= n; k++) {
+            p += engine.roundLossProbability(ad, dd, k) * reference(a - k, d - (n - k));
+        }
+        return p;
+    }
+}
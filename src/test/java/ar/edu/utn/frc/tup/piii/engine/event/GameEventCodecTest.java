@@ -0,0 +1,75 @@
+package ar.edu.utn.frc.tup.piii.engine.event;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardDrawn;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameFinished;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.PhaseChanged;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class GameEventCodecTest {
+
+    @Test
+    void scalarEventsRoundTrip() {
+        AttackPerformed attack = new AttackPerformed(10L, 11L, 1, 2, -8_123_456_789L, 40L, 3);
+        assertEquals("10,11,1,2,-8123456789,40,3", GameEventCodec.encode(attack));
+        assertEquals(attack, GameEventCodec.decode(EventType.ATTACK_PERFORMED, GameEventCodec.encode(attack)));
+
+        TurnStarted turn = new TurnStarted(2, 7, 5);
+        assertEquals(turn, GameEventCodec.decode(EventType.TURN_STARTED, GameEventCodec.encode(turn)));
+        PhaseChanged phase = new PhaseChanged(GamePhase.FORTIFY);
+        assertEquals(phase, GameEventCodec.decode(EventType.PHASE_CHANGED, GameEventCodec.encode(phase)));
+        GameFinished finished = new GameFinished(-1L);
+        assertEquals(finished, GameEventCodec.decode(EventType.GAME_FINISHED, GameEventCodec.encode(finished)));
+    }
+
+    @Test
+    void arraysArePrefixedWithTheirLength() {
+        GameStarted started = new GameStarted(42L, new long[]{3L, 4L}, new long[]{9L, -1L});
+        assertEquals("42,2,3,4,2,9,-1", GameEventCodec.encode(started));
+        GameStarted decoded = (GameStarted) GameEventCodec.decode(EventType.GAME_STARTED, "42,2,3,4,2,9,-1");
+        assertArrayEquals(new long[]{3L, 4L}, decoded.playerIds());
+        assertArrayEquals(new long[]{9L, -1L}, decoded.objectiveIds());
+
+        ReinforcementsPlaced placed = new ReinforcementsPlaced(3L, new long[]{10L, 12L}, new int[]{2, 1});
+        ReinforcementsPlaced back = (ReinforcementsPlaced) GameEventCodec.decode(EventType.REINFORCEMENTS_PLACED,
+                GameEventCodec.encode(placed));
+        assertArrayEquals(placed.countryIds(), back.countryIds());
+        assertArrayEquals(placed.armies(), back.armies());
+    }
+
+    @Test
+    void cardEventsCarryTheirCards() {
+        CardsTraded traded = new CardsTraded(3L, 4, new long[]{50L, 51L, 52L}, new long[]{10L, -1L, 12L});
+        CardsTraded back = (CardsTraded) GameEventCodec.decode(EventType.CARDS_TRADED, GameEventCodec.encode(traded));
+        assertArrayEquals(traded.cardIds(), back.cardIds());
+        assertArrayEquals(traded.countryIds(), back.countryIds());
+
+        CardDrawn drawn = new CardDrawn(3L, 53L, -1L);
+        assertEquals(drawn, GameEventCodec.decode(EventType.CARD_DRAWN, GameEventCodec.encode(drawn)));
+    }
+
+    @Test
+    void rowsWrittenBeforeTheCardAndObjectiveFieldsStillDecode() {
+        GameStarted started = (GameStarted) GameEventCodec.decode(EventType.GAME_STARTED, "42,2,3,4");
+        assertArrayEquals(new long[]{-1L, -1L}, started.objectiveIds());
+
+        CardsTraded traded = (CardsTraded) GameEventCodec.decode(EventType.CARDS_TRADED, "3,7");
+        assertEquals(7, traded.armies());
+        assertEquals(0, traded.cardIds().length);
+    }
+
+    @Test
+    void truncatedDataIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> GameEventCodec.decode(EventType.ATTACK_PERFORMED, "10,11"));
+    }
+}
@@ -0,0 +1,64 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameCommandRetryTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameCommandRetry retry = new GameCommandRetry(transactionManager(), registry, 3);
+
+    @Test
+    void conflictsAreRetriedUntilTheCommandGoesThrough() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = retry.execute("join", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Game", 1L);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(1.0, registry.get(GameCommandRetry.COMMAND_METRIC).tag("command", "join").counter().count());
+        assertEquals(2.0, registry.get(GameCommandRetry.CONFLICT_METRIC).tag("outcome", "retried").counter().count());
+    }
+
+    @Test
+    void theLastConflictReachesTheCaller() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> retry.run("start", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Game", 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, registry.get(GameCommandRetry.CONFLICT_METRIC).tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> retry.run("start", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Game cannot be started");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager manager = mock(PlatformTransactionManager.class);
+        when(manager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return manager;
+    }
+}
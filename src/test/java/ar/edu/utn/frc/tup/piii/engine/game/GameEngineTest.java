@@ -0,0 +1,324 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceCodec;
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceStream;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControl;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.exception.StaleGameStateException;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.model.enums.GameStatus;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameEngineTest {
+
+    private static final long GAME = 1L;
+    private static final long OTHER = 2L;
+    private static final long RED = 10L;
+    private static final long BLUE = 20L;
+
+    private final MapTopology topology = MapTopology.builder()
+            .continent(1L, 2)
+            .country(100L, 1L).country(101L, 1L).country(102L, 1L)
+            .border(100L, 101L).border(101L, 102L)
+            .build();
+    private final GameStateStore store = mock(GameStateStore.class);
+    private final MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private GameEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        when(store.load(GAME)).thenReturn(newState(GAME));
+        Country country = new Country();
+        country.setName("country");
+        when(topologyProvider.country(anyInt())).thenReturn(country);
+        engine = new GameEngine(store, topologyProvider, registry, 3_600_000L, 3_600_000L, 4, 2);
+    }
+
+    private GameState newState(long gameId) {
+        ContinentControl control = new ContinentControl(topology);
+        control.setArmies(topology.indexOf(100L), 5);
+        control.setOwner(topology.indexOf(100L), RED);
+        control.setArmies(topology.indexOf(101L), 1);
+        control.setOwner(topology.indexOf(101L), RED);
+        control.setArmies(topology.indexOf(102L), 2);
+        control.setOwner(topology.indexOf(102L), BLUE);
+        GameState state = new GameState(gameId, control, new long[]{RED, BLUE}, new String[]{"red", "blue"},
+                new PlayerStatus[]{PlayerStatus.ACTIVE, PlayerStatus.ACTIVE}, new int[]{3, 0});
+        state.setHeader(GameStatus.IN_PROGRESS, GamePhase.REINFORCEMENT, 1, 0, 42L, 0L, 0L);
+        return state;
+    }
+
+    /** Dos jugadores, en la fase de ataque del primero; {@code owners} y {@code armies} van por índice de país. */
+    public static GameState attacking(long gameId, MapTopology topology, long[] players, long[] owners, int[] armies) {
+        ContinentControl control = new ContinentControl(topology);
+        for (int country = 0; country < owners.length; country++) {
+            control.setArmies(country, armies[country]);
+            control.setOwner(country, owners[country]);
+        }
+        GameState state = new GameState(gameId, control, players, new String[]{"red", "blue"},
+                new PlayerStatus[]{PlayerStatus.ACTIVE, PlayerStatus.ACTIVE}, new int[players.length]);
+        state.setHeader(GameStatus.IN_PROGRESS, GamePhase.ATTACK, 1, 0, 42L, 0L, 0L);
+        return state;
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void commandsApplyInMemoryAndFlushInOneBatch() {
+        engine.reinforce(GAME, RED, Map.of(101L, 3), null);
+        engine.nextPhase(GAME);
+        verify(store, never()).write(any());
+        assertEquals(4, (int) engine.<Integer>read(GAME, s -> s.getTerritories().armies(topology.indexOf(101L))));
+        assertEquals(0, (int) engine.<Integer>read(GAME, s -> s.armiesToPlace(0)));
+        assertEquals(GamePhase.ATTACK, engine.read(GAME, GameState::getPhase));
+
+        engine.flush(GAME);
+        ArgumentCaptor<PendingWrites> batch = ArgumentCaptor.forClass(PendingWrites.class);
+        verify(store).write(batch.capture());
+        PendingWrites writes = batch.getValue();
+        assertEquals(1, writes.territories().size());
+        assertEquals(1, writes.players().size());
+        assertNotNull(writes.header());
+        assertFalse(engine.read(GAME, GameState::isDirty));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eachWriteExpectsTheRowVersionsLeftByThePreviousOne() {
+        engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+        engine.flush(GAME);
+        engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+        engine.flush(GAME);
+
+        ArgumentCaptor<PendingWrites> batch = ArgumentCaptor.forClass(PendingWrites.class);
+        verify(store, times(2)).write(batch.capture());
+        PendingWrites first = batch.getAllValues().get(0);
+        PendingWrites second = batch.getAllValues().get(1);
+        assertEquals(0L, first.header()[8]);
+        assertEquals(0L, first.players().get(0)[4]);
+        assertEquals(0L, first.territories().get(0)[4]);
+        assertEquals(1L, second.header()[8]);
+        assertEquals(2L, second.header()[6]);
+        assertEquals(1L, second.players().get(0)[4]);
+        assertEquals(1L, second.territories().get(0)[4]);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void attackRunsOnlyInAttackPhaseAndQueuesItsCombat() {
+        engine.reinforce(GAME, RED, Map.of(101L, 3), null);
+        assertThrows(IllegalStateException.class, () -> engine.attack(GAME, RED, 101L, 102L, null, 1, 1, null, null));
+        engine.nextPhase(GAME);
+
+        CombatResultDto result = engine.attack(GAME, RED, 101L, 102L, null, 1, 1, null, null);
+        assertEquals(1, result.getRounds());
+        assertEquals(4 - result.getAttackerLosses(), result.getAttackerRemainingArmies()
+                + (result.getTerritoryConquered() ? result.getDefenderRemainingArmies() : 0));
+
+        engine.flush(GAME);
+        ArgumentCaptor<PendingWrites> batch = ArgumentCaptor.forClass(PendingWrites.class);
+        verify(store).write(batch.capture());
+        assertEquals(1, batch.getValue().combats().size());
+    }
+
+    @Test
+    void rolledDiceComeFromTheGameStreamAndConsumeItsRound() {
+        int first = engine.rollDice(GAME, 3, 2);
+        int second = engine.rollDice(GAME, 3, 2);
+
+        int[] attacker = new int[3];
+        int[] defender = new int[2];
+        DiceStream.roll(42L, 0L, attacker, 3, defender, 2);
+        assertEquals(DiceCodec.pack(attacker, 3, defender, 2), first);
+        DiceStream.roll(42L, 1L, attacker, 3, defender, 2);
+        assertEquals(DiceCodec.pack(attacker, 3, defender, 2), second);
+        assertEquals(2L, engine.read(GAME, GameState::getDiceRound));
+        assertThrows(IllegalArgumentException.class, () -> engine.rollDice(GAME, 4, 1));
+    }
+
+    @Test
+    void reinforcementsThatOverflowAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> engine.reinforce(GAME, RED, Map.of(100L, Integer.MAX_VALUE, 101L, 2), null));
+        assertEquals(3, (int) engine.<Integer>read(GAME, s -> s.armiesToPlace(0)));
+        assertEquals(5, (int) engine.<Integer>read(GAME, s -> s.getTerritories().armies(topology.indexOf(100L))));
+    }
+
+    @Test
+    void detachedWorkHoldsTheMailboxAndRehydratesAfterwards() throws Exception {
+        engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<Void> work = CompletableFuture.runAsync(() -> engine.detached(GAME, "pause", () -> {
+            inside.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        inside.await();
+        assertFalse(engine.isLoaded(GAME));
+        verify(store).write(any());
+
+        CompletableFuture<Void> command = CompletableFuture.runAsync(() -> engine.nextPhase(GAME));
+        Thread.sleep(50);
+        assertFalse(command.isDone());
+        finish.countDown();
+        work.join();
+        command.join();
+        verify(store, times(2)).load(GAME);
+    }
+
+    @Test
+    void theEngineNumbersTheEventsOnlyWhileItHoldsTheGame() {
+        assertFalse(engine.allocatesSequences(GAME));
+        engine.nextPhase(GAME);
+        assertTrue(engine.allocatesSequences(GAME));
+
+        assertFalse(engine.detached(GAME, "detached", () -> {
+            engine.read(GAME, GameState::getPhase);
+            return engine.allocatesSequences(GAME);
+        }));
+        assertFalse(engine.allocatesSequences(GAME));
+    }
+
+    @Test
+    void hydrationRunsOnAnIoThreadAndLoadedCommandsDoNot() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        GameState state = newState(GAME);
+        when(store.load(GAME)).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return state;
+        });
+        engine.addCommandListener(s -> threads.add(Thread.currentThread().getName()));
+
+        engine.nextPhase(GAME);
+        engine.nextPhase(GAME);
+
+        assertTrue(threads.get(0).startsWith("game-engine-io-"), threads.toString());
+        assertTrue(threads.get(2).startsWith("game-engine-command-"), threads.toString());
+    }
+
+    @Test
+    void readIfLoadedNeverHydrates() {
+        assertEquals(GamePhase.ATTACK, engine.readIfLoaded(GAME, GameState::getPhase, () -> GamePhase.ATTACK));
+        verify(store, never()).load(GAME);
+
+        engine.nextPhase(GAME);
+        assertEquals(GamePhase.ATTACK, engine.readIfLoaded(GAME, GameState::getPhase, () -> GamePhase.FORTIFY));
+    }
+
+    @Test
+    void failedWritesStayPendingUntilTheNextFlush() {
+        engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+        doThrow(new IllegalStateException("db down")).when(store).write(any());
+        assertThrows(IllegalStateException.class, () -> engine.flush(GAME));
+        assertTrue(engine.read(GAME, GameState::isDirty));
+
+        doNothing().when(store).write(any());
+        engine.release(GAME);
+        verify(store, times(2)).write(any());
+        assertFalse(engine.isLoaded(GAME));
+    }
+
+    @Test
+    void aGameThatFailsToWriteDoesNotHoldBackTheOthers() {
+        when(store.load(OTHER)).thenReturn(newState(OTHER));
+        engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+        engine.reinforce(OTHER, RED, Map.of(100L, 1), null);
+        doThrow(new IllegalStateException("db down")).when(store).write(argThat(writes -> writes.gameId() == GAME));
+
+        assertThrows(IllegalStateException.class, () -> engine.flushAll());
+        assertTrue(engine.read(GAME, GameState::isDirty));
+        assertFalse(engine.read(OTHER, GameState::isDirty));
+        assertEquals(1.0, registry.counter(GameEngine.FLUSH_FAILURE_METRIC).count());
+    }
+
+    @Test
+    void concurrentCommandsForOneGameApplyOneAtATime() {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        ConcurrentLinkedQueue<RuntimeException> rejected = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                try {
+                    engine.reinforce(GAME, RED, Map.of(100L, 1), null);
+                } catch (IllegalArgumentException e) {
+                    rejected.add(e);
+                }
+            }, callers));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+        callers.shutdown();
+
+        assertEquals(17, rejected.size());
+        assertEquals(8, (int) engine.<Integer>read(GAME, s -> s.getTerritories().armies(topology.indexOf(100L))));
+        // El timer se registra después de responder; otro comando por el buzón garantiza que ya quedó
+        engine.nextPhase(GAME);
+        assertEquals(20, registry.get(GameMailbox.COMMAND_METRIC).tag("game", "1").tag("command", "reinforce")
+                .timer().count());
+        assertNotNull(registry.find(GameMailbox.DEPTH_METRIC).tag("game", "1").gauge());
+    }
+
+    @Test
+    void releaseClosesTheMailboxAndItsMetrics() {
+        engine.nextPhase(GAME);
+        engine.release(GAME);
+        assertFalse(engine.isLoaded(GAME));
+        assertTrue(registry.find(GameMailbox.DEPTH_METRIC).tag("game", "1").gauges().isEmpty());
+
+        engine.nextPhase(GAME);
+        assertEquals(GamePhase.FORTIFY, engine.read(GAME, GameState::getPhase));
+    }
+
+    @Test
+    void staleExpectedVersionIsRejectedBeforeAnyChange() {
+        engine.reinforce(GAME, RED, Map.of(100L, 1), 0L);
+        assertEquals(1L, (long) engine.<Long>read(GAME, GameState::getVersion));
+
+        assertThrows(StaleGameStateException.class, () -> engine.reinforce(GAME, RED, Map.of(100L, 1), 0L));
+        assertEquals(2, (int) engine.<Integer>read(GAME, s -> s.armiesToPlace(0)));
+        assertEquals(1.0, registry.get(GameEngine.STALE_METRIC).tag("command", "reinforce").counter().count());
+    }
+}
@@ -0,0 +1,180 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventCodec;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.AttackPerformed;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardDrawn;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.CardsTraded;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameRestored;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.ReinforcementsPlaced;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.GameEvent;
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import ar.edu.utn.frc.tup.piii.model.enums.EventType;
+import ar.edu.utn.frc.tup.piii.model.enums.GamePhase;
+import ar.edu.utn.frc.tup.piii.repository.GameEventRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameReplayerTest {
+
+    private static final long GAME = 1L;
+    private static final long RED = 10L;
+    private static final long BLUE = 20L;
+    private static final Map<Long, String> NAMES = Map.of(RED, "red", BLUE, "blue");
+
+    private final MapTopology topology = MapTopology.builder()
+            .continent(1L, 2)
+            .country(100L, 1L).country(101L, 1L).country(102L, 1L)
+            .border(100L, 101L).border(101L, 102L).border(100L, 102L)
+            .build();
+    private final GameStarted started = new GameStarted(7L, new long[]{RED, BLUE}, new long[]{31L, -1L});
+
+    @Test
+    void replayingTheEngineLogRebuildsTheSameState() {
+        GameState live = startedState();
+        GameStateStore store = mock(GameStateStore.class);
+        when(store.load(GAME)).thenReturn(live);
+        MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+        when(topologyProvider.country(anyInt())).thenReturn(new Country());
+        GameEngine engine = new GameEngine(store, topologyProvider, new SimpleMeterRegistry(), 3_600_000L,
+                3_600_000L, 1, 1);
+        try {
+            long redCountry = ownedBy(live, RED);
+            long blueCountry = ownedBy(live, BLUE);
+            engine.reinforce(GAME, RED, Map.of(redCountry, 3), null);
+            engine.nextPhase(GAME);
+            engine.attack(GAME, RED, redCountry, blueCountry, null, 1, Integer.MAX_VALUE, null, null);
+            engine.nextPhase(GAME);
+            engine.nextPhase(GAME);
+            engine.nextPhase(GAME);
+            engine.flush(GAME);
+        } finally {
+            engine.shutdown();
+        }
+
+        ArgumentCaptor<PendingWrites> batch = ArgumentCaptor.forClass(PendingWrites.class);
+        verify(store).write(batch.capture());
+        GameState replayed = startedState();
+        for (Object[] row : batch.getValue().events()) {
+            GameReplayer.apply(replayed, GameEventCodec.decode(EventType.valueOf((String) row[4]), (String) row[5]));
+        }
+
+        assertSameBoard(live, replayed);
+        assertEquals(GamePhase.REINFORCEMENT, replayed.getPhase());
+    }
+
+    @Test
+    void aRestoreResumesFromItsSnapshotWithoutRewindingTheDice() {
+        Game game = new Game();
+        game.setId(GAME);
+        GameState atSnapshot = startedState();
+        long redCountry = ownedBy(atSnapshot, RED);
+        long blueCountry = ownedBy(atSnapshot, BLUE);
+        GameSnapshot snapshot = GameSnapshot.createFrom(game, 1, 2L, GameStateCodec.encode(atSnapshot));
+        snapshot.setId(5L);
+
+        List<GameEvent> log = new ArrayList<>();
+        List<GameEventData> events = List.of(started, new TurnStarted(0, 1, 3),
+                new ReinforcementsPlaced(RED, new long[]{redCountry}, new int[]{3}),
+                new AttackPerformed(redCountry, blueCountry, 0, 0, 7L, 0L, 4),
+                new GameRestored(5L, 2L),
+                new ReinforcementsPlaced(RED, new long[]{redCountry}, new int[]{1}));
+        for (GameEventData data : events) {
+            GameEvent event = new GameEvent();
+            event.setSequence((long) log.size() + 1);
+            event.setTurnNumber(1);
+            event.setType(data.type());
+            event.setData(GameEventCodec.encode(data));
+            log.add(event);
+        }
+        GameRepository games = mock(GameRepository.class);
+        GameEventRepository eventRepository = mock(GameEventRepository.class);
+        GameSnapshotRepository snapshots = mock(GameSnapshotRepository.class);
+        MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+        when(games.findById(GAME)).thenReturn(Optional.of(game));
+        when(eventRepository.findByGameIdAndSequenceGreaterThanOrderBySequence(GAME, 0L)).thenReturn(log);
+        when(snapshots.findTopByGameIdOrderByLastSequenceDesc(GAME)).thenReturn(Optional.empty());
+        when(snapshots.findById(5L)).thenReturn(Optional.of(snapshot));
+        when(topologyProvider.get()).thenReturn(topology);
+
+        GameState replayed = new GameReplayer(games, eventRepository, snapshots, topologyProvider).replay(GAME);
+
+        int red = topology.indexOf(redCountry);
+        assertEquals(2, replayed.getTerritories().armies(red));
+        assertEquals(2, replayed.armiesToPlace(0));
+        assertEquals(4L, replayed.getDiceRound());
+        assertEquals(6L, replayed.getLastSequence());
+    }
+
+    @Test
+    void objectivesAndCardsReplayIntoTheHands() {
+        GameState state = startedState();
+        GameReplayer.apply(state, new CardDrawn(RED, 1L, 100L));
+        GameReplayer.apply(state, new CardDrawn(RED, 2L, -1L));
+        GameReplayer.apply(state, new CardDrawn(RED, 3L, 101L));
+        GameReplayer.apply(state, new CardsTraded(RED, 4, new long[]{1L, 2L}, new long[]{100L, -1L}));
+
+        assertEquals(31L, state.objectiveId(0));
+        assertEquals(0L, state.objectiveId(1));
+        assertFalse(Bits.get(state.hand(0), topology.indexOf(100L)));
+        assertTrue(Bits.get(state.hand(0), topology.indexOf(101L)));
+        assertEquals(0, state.wildcards(0));
+        assertEquals(7, state.armiesToPlace(0));
+    }
+
+    private GameState startedState() {
+        GameState state = GameReplayer.start(GAME, topology, started, NAMES);
+        GameReplayer.apply(state, new TurnStarted(0, 1, 3));
+        return state;
+    }
+
+    private long ownedBy(GameState state, long playerId) {
+        for (int country = 0; country < topology.size(); country++) {
+            if (state.getTerritories().ownerId(country) == playerId) {
+                return topology.countryId(country);
+            }
+        }
+        throw new AssertionError("No country for " + playerId);
+    }
+
+    // La versión y la secuencia dependen de quién aplicó los comandos, no del tablero
+    private void assertSameBoard(GameState expected, GameState actual) {
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getPhase(), actual.getPhase());
+        assertEquals(expected.getTurn(), actual.getTurn());
+        assertEquals(expected.getCurrentPlayer(), actual.getCurrentPlayer());
+        assertEquals(expected.getDiceSeed(), actual.getDiceSeed());
+        assertEquals(expected.getDiceRound(), actual.getDiceRound());
+        for (int seat = 0; seat < expected.playerCount(); seat++) {
+            assertEquals(expected.playerStatus(seat), actual.playerStatus(seat));
+            assertEquals(expected.armiesToPlace(seat), actual.armiesToPlace(seat));
+        }
+        for (int country = 0; country < topology.size(); country++) {
+            assertEquals(expected.getTerritories().ownerId(country), actual.getTerritories().ownerId(country));
+            assertEquals(expected.getTerritories().armies(country), actual.getTerritories().armies(country));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameSnapshotWriterTest {
+
+    private final MapTopology topology = GameStateCodecTest.board(10);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private GameSnapshotWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        writer.shutdown();
+    }
+
+    @Test
+    void pendingSnapshotsOfAGameCoalesceIntoTheNewest() {
+        writer = writer(8);
+        GameState state = state(1L);
+        writer.offer(state);
+        state.setTurn(2);
+        writer.offer(state);
+        state.setTurn(3);
+        writer.offer(state);
+
+        assertEquals(1, writer.depth());
+        assertEquals(2.0, dropped("coalesced"));
+
+        writer.drain();
+        assertEquals(0, writer.depth());
+        verify(jdbcTemplate, times(1)).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        assertEquals(1L, registry.get(GameSnapshotWriter.LAG_METRIC).timer().count());
+    }
+
+    @Test
+    void aFullQueueDropsNewGamesAndShutdownWritesTheRest() {
+        writer = writer(2);
+        writer.offer(state(1L));
+        writer.offer(state(2L));
+        writer.offer(state(3L));
+
+        assertEquals(2, writer.depth());
+        assertEquals(1.0, dropped("overflow"));
+
+        writer.shutdown();
+        writer.offer(state(4L));
+        assertEquals(0, writer.depth());
+        assertEquals(1.0, dropped("closed"));
+        verify(jdbcTemplate, times(2)).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+    }
+
+    private GameSnapshotWriter writer(int capacity) {
+        MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+        when(topologyProvider.get()).thenReturn(topology);
+        PlatformTransactionManager manager = mock(PlatformTransactionManager.class);
+        when(manager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        AtomicLong ids = new AtomicLong();
+        when(jdbcTemplate.update(any(PreparedStatementCreator.class), any(KeyHolder.class))).thenAnswer(invocation -> {
+            invocation.<KeyHolder>getArgument(1).getKeyList().add(Map.of("id", ids.incrementAndGet()));
+            return 1;
+        });
+        return new GameSnapshotWriter(mock(GameEngine.class), mock(GameReplayer.class),
+                mock(GameSnapshotRepository.class), topologyProvider, jdbcTemplate, manager, registry, capacity, 5,
+                3_600_000L);
+    }
+
+    private GameState state(long gameId) {
+        return GameReplayer.start(gameId, topology, new GameStarted(3L, new long[]{10L, 20L}, new long[]{-1L, -1L}),
+                Map.of());
+    }
+
+    private double dropped(String reason) {
+        return registry.get(GameSnapshotWriter.DROPPED_METRIC).tag("reason", reason).counter().count();
+    }
+}
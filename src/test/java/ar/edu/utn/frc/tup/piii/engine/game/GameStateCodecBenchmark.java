@@ -0,0 +1,62 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de {@link GameStateCodec} con una partida de seis jugadores sobre un mapa de 50 países.
+ * No corre con los tests: {@code mvn test-compile} y después
+ * {@code java -cp target/test-classes:<classpath de test> ...GameStateCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameStateCodecBenchmark {
+    private static final long GAME = 1L;
+
+    private MapTopology topology;
+    private Map<Long, String> names;
+    private GameState state;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        topology = GameStateCodecTest.board(50);
+        names = new HashMap<>();
+        state = GameStateCodecTest.sixPlayers(topology, names);
+        encoded = GameStateCodec.encode(state);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GameStateCodec.encode(state);
+    }
+
+    @Benchmark
+    public GameState decode() {
+        return GameStateCodec.decode(GAME, encoded, topology, names);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GameStateCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
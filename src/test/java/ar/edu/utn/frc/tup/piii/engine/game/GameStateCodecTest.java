@@ -0,0 +1,145 @@
+package ar.edu.utn.frc.tup.piii.engine.game;
+
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.GameStarted;
+import ar.edu.utn.frc.tup.piii.engine.event.GameEventData.TurnStarted;
+import ar.edu.utn.frc.tup.piii.engine.map.Bits;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.model.enums.PlayerStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameStateCodecTest {
+
+    private static final long GAME = 1L;
+
+    @Test
+    void sixPlayerSnapshotRoundTripsInAFewHundredBytes() {
+        MapTopology topology = board(50);
+        Map<Long, String> names = new HashMap<>();
+        GameState state = sixPlayers(topology, names);
+
+        byte[] data = GameStateCodec.encode(state);
+        GameState decoded = GameStateCodec.decode(GAME, data, topology, names);
+
+        assertTrue(data.length < 300, "snapshot took " + data.length + " bytes");
+        assertArrayEquals(data, GameStateCodec.encode(decoded));
+        assertEquals("player 3", decoded.playerName(3));
+        assertEquals(PlayerStatus.ELIMINATED, decoded.playerStatus(5));
+        assertEquals(7L, decoded.objectiveId(2));
+        assertEquals(2, Bits.cardinality(decoded.hand(1)));
+        assertEquals(1, decoded.wildcards(1));
+        assertEquals(-1L, decoded.getDiceSeed());
+        assertEquals(state.getTerritories().ownerId(49), decoded.getTerritories().ownerId(49));
+        assertEquals(state.getTerritories().armies(49), decoded.getTerritories().armies(49));
+    }
+
+    @Test
+    void snapshotOfAnotherMapIsRejected() {
+        Map<Long, String> names = new HashMap<>();
+        byte[] data = GameStateCodec.encode(sixPlayers(board(50), names));
+
+        assertFalse(GameStateCodec.isReadable(data, board(49)));
+        assertThrows(IllegalStateException.class, () -> GameStateCodec.decode(GAME, data, board(49), names));
+    }
+
+    @Test
+    void deltaCarriesOnlyTheChangesSinceItsBase() {
+        MapTopology topology = board(50);
+        Map<Long, String> names = new HashMap<>();
+        GameState state = sixPlayers(topology, names);
+        GameState base = GameStateCodec.decode(GAME, GameStateCodec.encode(state), topology, names);
+        state.setArmies(10, 30);
+        state.setOwner(11, state.playerId(4));
+        state.setArmiesToPlace(0, 8);
+        state.setTurn(5);
+
+        byte[] delta = GameStateCodec.encodeDelta(base, state);
+        GameStateCodec.applyDelta(base, delta);
+
+        assertTrue(GameStateCodec.isDelta(delta));
+        assertTrue(delta.length < 60, "delta took " + delta.length + " bytes");
+        assertTrue(GameStateCodec.isReadable(delta, topology));
+        assertArrayEquals(GameStateCodec.encode(state), GameStateCodec.encode(base));
+    }
+
+    @Test
+    void firstVersionSnapshotsWithOrdinalsStillDecode() {
+        MapTopology topology = board(3);
+        Map<Long, String> names = new HashMap<>(Map.of(7L, "player"));
+        GameState state = GameReplayer.start(GAME, topology, new GameStarted(5L, new long[]{7L}, new long[1]), names);
+        state.setPlayerStatus(0, PlayerStatus.DISCONNECTED);
+        byte[] data = GameStateCodec.encode(state);
+        // versión, tipo, status, phase, turn, currentPlayer, seed(8), diceRound, version, lastSequence,
+        // jugadores, playerId y status del asiento: todo entra en un byte con estos valores.
+        assertEquals(GameStateCodec.VERSION, data[0]);
+        assertEquals(GameStateCodec.FULL, data[1]);
+        assertEquals(3, data[19]);
+
+        byte[] legacy = Arrays.copyOfRange(data, 1, data.length);
+        legacy[0] = 1;
+        legacy[1]--;
+        legacy[18]--;
+
+        assertFalse(GameStateCodec.isDelta(legacy));
+        assertTrue(GameStateCodec.isReadable(legacy, topology));
+        GameState decoded = GameStateCodec.decode(GAME, legacy, topology, names);
+        assertEquals(state.getStatus(), decoded.getStatus());
+        assertEquals(PlayerStatus.DISCONNECTED, decoded.playerStatus(0));
+        assertArrayEquals(data, GameStateCodec.encode(decoded));
+    }
+
+    @Test
+    void unknownVersionOrCodeIsRejected() {
+        MapTopology topology = board(3);
+        Map<Long, String> names = new HashMap<>();
+        byte[] data = GameStateCodec.encode(sixPlayers(topology, names));
+        byte[] future = data.clone();
+        future[0] = 9;
+        byte[] badStatus = data.clone();
+        badStatus[2] = 42;
+
+        assertFalse(GameStateCodec.isReadable(future, topology));
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(GAME, badStatus, topology, names));
+    }
+
+    public static MapTopology board(int countries) {
+        MapTopology.Builder builder = MapTopology.builder().continent(1L, 5);
+        for (long id = 1; id <= countries; id++) {
+            builder.country(100 + id, 1L);
+            if (id > 1) {
+                builder.border(99 + id, 100 + id);
+            }
+        }
+        return builder.build();
+    }
+
+    public static GameState sixPlayers(MapTopology topology, Map<Long, String> names) {
+        long[] ids = new long[6];
+        for (int seat = 0; seat < ids.length; seat++) {
+            ids[seat] = 1000L + seat;
+            names.put(ids[seat], "player " + seat);
+        }
+        GameState state = GameReplayer.start(GAME, topology, new GameStarted(-1L, ids, new long[ids.length]), names);
+        GameReplayer.apply(state, new TurnStarted(2, 4, 5));
+        for (int country = 0; country < topology.size(); country++) {
+            state.setArmies(country, 1 + country % 9);
+        }
+        state.setPlayerStatus(5, PlayerStatus.ELIMINATED);
+        state.setObjective(2, 7L);
+        long[] hand = Bits.create(topology.size());
+        Bits.set(hand, 3);
+        Bits.set(hand, 41);
+        state.setHand(1, hand, 1);
+        state.setDiceRound(123);
+        return state;
+    }
+}
@@ -0,0 +1,109 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContinentControlTest {
+
+    private final MapTopology topology = MapTopology.builder()
+            .continent(1L, 5)
+            .continent(2L, 2)
+            .country(10L, 1L).country(11L, 1L).country(20L, 2L)
+            .border(10L, 11L)
+            .border(11L, 20L)
+            .build();
+
+    @Test
+    void countersFollowOwnershipChanges() {
+        ContinentControl control = new ContinentControl(topology);
+        int north = topology.continentIndexOf(1L);
+        int south = topology.continentIndexOf(2L);
+        control.setOwner(topology.indexOf(10L), 7L);
+        control.setOwner(topology.indexOf(11L), 8L);
+        control.setOwner(topology.indexOf(20L), 7L);
+
+        assertEquals(2, control.territories(7L));
+        assertTrue(control.controls(7L, south));
+        assertFalse(control.controls(7L, north));
+        assertEquals(2, control.continentBonus(7L));
+
+        control.setOwner(topology.indexOf(11L), 7L);
+        assertEquals(3, control.territories(7L));
+        assertEquals(0, control.territories(8L));
+        assertEquals(2, control.ownedIn(7L, north));
+        assertEquals(7L, control.controllerOf(north));
+        assertEquals(7, control.continentBonus(7L));
+
+        control.setOwner(topology.indexOf(10L), null);
+        assertFalse(control.controls(7L, north));
+        assertEquals(TerritoryBoard.NO_PLAYER, control.controllerOf(north));
+        assertEquals(2, control.territories(7L));
+    }
+
+    @Test
+    void repeatingTheSameOwnerIsANoOp() {
+        ContinentControl control = new ContinentControl(topology);
+        control.setOwner(topology.indexOf(20L), 3L);
+        control.setOwner(topology.indexOf(20L), 3L);
+        assertEquals(1, control.territories(3L));
+        assertEquals(1, control.ownedIn(3L, topology.continentIndexOf(2L)));
+    }
+
+    @Test
+    void connectivityFollowsOwnTerritoryOnly() {
+        MapTopology chain = MapTopology.builder()
+                .continent(1L, 0)
+                .country(1L, 1L).country(2L, 1L).country(3L, 1L).country(4L, 1L)
+                .border(1L, 2L).border(2L, 3L).border(3L, 4L)
+                .build();
+        ContinentControl control = new ContinentControl(chain);
+        control.setOwner(chain.indexOf(1L), 5L);
+        control.setOwner(chain.indexOf(2L), 5L);
+        control.setOwner(chain.indexOf(3L), 6L);
+        control.setOwner(chain.indexOf(4L), 5L);
+
+        assertTrue(control.connected(chain.indexOf(1L), chain.indexOf(2L)));
+        assertFalse(control.connected(chain.indexOf(1L), chain.indexOf(4L)));
+        assertEquals(List.of(2L), chain.countryIds(control.reachable(chain.indexOf(1L))));
+
+        control.setOwner(chain.indexOf(3L), 5L);
+        assertTrue(control.connected(chain.indexOf(1L), chain.indexOf(4L)));
+        assertEquals(List.of(2L, 3L, 4L), chain.countryIds(control.reachable(chain.indexOf(1L))));
+    }
+
+    @Test
+    void frontierAndThreatFollowOwnersAndArmies() {
+        ContinentControl control = new ContinentControl(topology);
+        int a = topology.indexOf(10L);
+        int b = topology.indexOf(11L);
+        int c = topology.indexOf(20L);
+        control.setArmies(a, 4);
+        control.setOwner(a, 1L);
+        control.setArmies(b, 2);
+        control.setOwner(b, 1L);
+        control.setArmies(c, 6);
+        control.setOwner(c, 2L);
+
+        assertEquals(List.of(11L), topology.countryIds(control.borderMask(1L)));
+        assertEquals(List.of(10L), topology.countryIds(control.interiorMask(1L)));
+        assertEquals(6, control.threat(b));
+        assertEquals(0, control.threat(a));
+        assertEquals(2, control.threat(c));
+
+        control.setArmies(c, 9);
+        assertEquals(9, control.threat(b));
+
+        control.setArmies(b, 5);
+        control.setOwner(b, 2L);
+        assertEquals(List.of(10L), topology.countryIds(control.borderMask(1L)));
+        assertEquals(5, control.threat(a));
+        assertEquals(4, control.threat(b));
+        assertEquals(0, control.threat(c));
+        assertEquals(List.of(20L), topology.countryIds(control.interiorMask(2L)));
+    }
+}
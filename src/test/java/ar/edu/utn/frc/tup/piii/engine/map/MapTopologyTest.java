@@ -0,0 +1,49 @@
+package ar.edu.utn.frc.tup.piii.engine.map;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MapTopologyTest {
+
+    private MapTopology sample() {
+        return MapTopology.builder()
+                .continent(1L, 3)
+                .continent(2L, 2)
+                .country(10L, 1L).country(20L, 1L).country(30L, 2L).country(140L, 2L)
+                .border(10L, 20L)
+                .border(20L, 30L)
+                .border(30L, 140L)
+                .build();
+    }
+
+    @Test
+    void bordersAreSymmetric() {
+        MapTopology topology = sample();
+        assertTrue(topology.areAdjacent(10L, 20L));
+        assertTrue(topology.areAdjacent(20L, 10L));
+        assertTrue(topology.areAdjacent(140L, 30L));
+        assertFalse(topology.areAdjacent(10L, 30L));
+        assertFalse(topology.areAdjacent(10L, 999L));
+    }
+
+    @Test
+    void continentMasksCoverTheirCountries() {
+        MapTopology topology = sample();
+        int south = topology.continentIndexOf(2L);
+        assertEquals(2, topology.continentSize(south));
+        assertEquals(2, topology.continentBonus(south));
+        assertEquals(List.of(30L, 140L), topology.countryIds(topology.continentMask(south)));
+        assertEquals(south, topology.continentOf(topology.indexOf(140L)));
+    }
+
+    @Test
+    void neighborsOfCountry() {
+        MapTopology topology = sample();
+        assertEquals(List.of(10L, 30L), topology.countryIds(topology.adjacencyRow(topology.indexOf(20L))));
+    }
+}
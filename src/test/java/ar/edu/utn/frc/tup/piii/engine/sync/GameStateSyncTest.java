@@ -0,0 +1,72 @@
+package ar.edu.utn.frc.tup.piii.engine.sync;
+
+import ar.edu.utn.frc.tup.piii.dtos.websocket.GameStatePatchDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.PlayerViewDto;
+import ar.edu.utn.frc.tup.piii.dtos.websocket.TerritoryPatchDto;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodecTest;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameStateSyncTest {
+
+    private final MapTopology topology = GameStateCodecTest.board(42);
+    private final GameStateSync sync = new GameStateSync();
+
+    @Test
+    void theFirstPatchIsFullAndLaterOnesCarryOnlyChanges() {
+        GameState state = GameStateCodecTest.sixPlayers(topology, new HashMap<>());
+
+        GameStatePatchDto full = sync.diff(state);
+        assertTrue(full.getFull());
+        assertNull(full.getBaseVersion());
+        assertEquals(42, full.getTerritories().size());
+        assertEquals(6, full.getPlayers().size());
+
+        state.getTerritories().setArmies(7, 30);
+        GameStatePatchDto patch = sync.diff(state);
+        assertNull(patch.getFull());
+        assertEquals(state.getVersion(), patch.getBaseVersion());
+        assertNull(patch.getCurrentTurn());
+        assertNull(patch.getPlayers());
+        assertEquals(List.of(new TerritoryPatchDto(topology.countryId(7), state.getTerritories().ownerId(7), 30)),
+                patch.getTerritories());
+
+        assertNull(sync.diff(state));
+    }
+
+    @Test
+    void privateViewsGoOutOnlyForSeatsWhoseHandChanged() {
+        GameState state = GameStateCodecTest.sixPlayers(topology, new HashMap<>());
+        sync.diff(state);
+        assertEquals(6, sync.privateViews(state).size());
+
+        state.hand(4)[0] |= 1L << 9;
+        List<PlayerViewDto> views = sync.privateViews(state);
+
+        assertEquals(1, views.size());
+        assertEquals(state.playerId(4), views.get(0).getPlayerId());
+        assertEquals(List.of(topology.countryId(9)), views.get(0).getCardCountryIds());
+        assertEquals(List.of(), sync.privateViews(state));
+        assertNull(sync.diff(state));
+    }
+
+    @Test
+    void forgettingAGameStartsOverWithAFullPatch() {
+        GameState state = GameStateCodecTest.sixPlayers(topology, new HashMap<>());
+        sync.diff(state);
+        assertEquals(state.getVersion(), sync.publishedVersion(state.getGameId()));
+
+        sync.forget(state.getGameId());
+
+        assertNull(sync.publishedVersion(state.getGameId()));
+        assertTrue(sync.diff(state).getFull());
+    }
+}
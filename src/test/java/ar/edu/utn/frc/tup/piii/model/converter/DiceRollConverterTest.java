@@ -0,0 +1,35 @@
+package ar.edu.utn.frc.tup.piii.model.converter;
+
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DiceRollConverterTest {
+
+    private final DiceRollConverter converter = new DiceRollConverter();
+
+    @Test
+    void everyRollRoundTripsThroughTheColumn() {
+        List<List<Integer>> sides = List.of(List.of(), List.of(6), List.of(1, 1), List.of(6, 4, 2), List.of(3, 5, 6));
+        for (List<Integer> attacker : sides) {
+            for (List<Integer> defender : sides) {
+                DiceRoll roll = DiceRoll.of(attacker, defender);
+
+                DiceRoll read = converter.convertToEntityAttribute(converter.convertToDatabaseColumn(roll));
+
+                assertEquals(attacker, read.getAttackerDice());
+                assertEquals(defender, read.getDefenderDice());
+            }
+        }
+    }
+
+    @Test
+    void nullStaysNull() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+    }
+}
@@ -0,0 +1,106 @@
+package ar.edu.utn.frc.tup.piii.model.entity;
+
+import ar.edu.utn.frc.tup.piii.engine.map.CountryIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameTest {
+
+    private static final CountryIndex MAP = CountryIndex.of(List.of(10L, 11L, 20L, 21L));
+
+    private static Player player(long id) {
+        Player player = new Player();
+        player.setId(id);
+        return player;
+    }
+
+    private static Country country(long id) {
+        Country country = new Country();
+        country.setId(id);
+        return country;
+    }
+
+    private static GameTerritory territory(Game game, Country country, Player owner, int armies) {
+        GameTerritory territory = new GameTerritory();
+        territory.setGame(game);
+        territory.setCountry(country);
+        territory.setOwner(owner);
+        territory.setArmies(armies);
+        game.getGameterritories().add(territory);
+        return territory;
+    }
+
+    @Test
+    void boardFollowsTerritorySetters() {
+        Game game = new Game();
+        Player red = player(1L);
+        Player blue = player(2L);
+        GameTerritory argentina = territory(game, country(10L), red, 3);
+        territory(game, country(11L), blue, 1);
+
+        assertTrue(game.isOwnedBy(MAP, 10L, red));
+        assertEquals(3, game.getArmies(MAP, 10L));
+        assertSame(argentina, game.getTerritory(MAP, 10L));
+
+        argentina.setOwner(blue);
+        argentina.setArmies(2);
+        assertFalse(game.isOwnedBy(MAP, 10L, red));
+        assertTrue(game.isOwnedBy(MAP, 10L, blue));
+        assertEquals(2, game.getArmies(MAP, 10L));
+        assertEquals(2, game.getBoard(MAP).countOwnedBy(2L));
+    }
+
+    @Test
+    void territoriesAddedAfterTheBoardJoinItOnTheirFirstChange() {
+        Game game = new Game();
+        territory(game, country(10L), player(1L), 3);
+        assertEquals(0, game.getArmies(MAP, 11L));
+
+        GameTerritory chile = territory(game, country(11L), player(2L), 4);
+
+        assertSame(chile, game.getTerritory(MAP, 11L));
+        assertEquals(4, game.getArmies(MAP, 11L));
+    }
+
+    @Test
+    void aTerritoryOffTheMapFailsFast() {
+        Game game = new Game();
+        territory(game, country(10L), player(1L), 3);
+        game.getBoard(MAP);
+
+        assertThrows(IllegalStateException.class, () -> territory(game, country(99L), player(1L), 1));
+
+        GameTerritory offMap = new GameTerritory();
+        offMap.setCountry(country(99L));
+        game.getGameterritories().add(offMap);
+        game.invalidateBoard();
+        assertThrows(IllegalStateException.class, () -> game.getBoard(MAP));
+    }
+
+    @Test
+    void continentControlUsesTheBoard() {
+        Game game = new Game();
+        Player red = player(1L);
+        Country chile = country(20L);
+        Country peru = country(21L);
+        territory(game, chile, red, 1);
+        GameTerritory peruTerritory = territory(game, peru, player(2L), 1);
+
+        Continent south = new Continent();
+        Set<Country> countries = new HashSet<>(List.of(chile, peru));
+        south.setCountries(countries);
+        assertFalse(south.isControlledBy(red, game, MAP));
+
+        peruTerritory.setOwner(red);
+        assertTrue(south.isControlledBy(red, game, MAP));
+    }
+}
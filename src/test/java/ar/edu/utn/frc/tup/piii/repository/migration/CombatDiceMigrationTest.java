@@ -0,0 +1,79 @@
+package ar.edu.utn.frc.tup.piii.repository.migration;
+
+import ar.edu.utn.frc.tup.piii.engine.combat.DiceRoll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CombatDiceMigrationTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CombatDiceMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:dice-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE combat_results (id BIGINT PRIMARY KEY, dice INT)");
+        jdbcTemplate.execute("CREATE TABLE combat_attacker_dice (combat_result_id BIGINT, die_value INT)");
+        jdbcTemplate.execute("CREATE TABLE combat_defender_dice (combat_result_id BIGINT, die_value INT)");
+        migration = new CombatDiceMigration(jdbcTemplate);
+    }
+
+    @Test
+    void everyPageIsPackedWithTheDiceFromHighestToLowest() {
+        int combats = CombatDiceMigration.BATCH_SIZE * 2 + 7;
+        List<Object[]> attacker = new ArrayList<>();
+        List<Object[]> defender = new ArrayList<>();
+        for (long id = 1; id <= combats; id++) {
+            jdbcTemplate.update("INSERT INTO combat_results (id) VALUES (?)", id);
+            attacker.add(new Object[]{id, 2});
+            attacker.add(new Object[]{id, (int) (id % 6) + 1});
+            attacker.add(new Object[]{id, 5});
+            defender.add(new Object[]{id, 3});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO combat_attacker_dice VALUES (?, ?)", attacker);
+        jdbcTemplate.batchUpdate("INSERT INTO combat_defender_dice VALUES (?, ?)", defender);
+
+        migration.migrate();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM combat_results WHERE dice IS NULL"));
+        DiceRoll roll = DiceRoll.of(jdbcTemplate.queryForObject("SELECT dice FROM combat_results WHERE id = ?",
+                Integer.class, (long) combats));
+        assertEquals(List.of(6, 5, 2), roll.getAttackerDice());
+        assertEquals(List.of(3), roll.getDefenderDice());
+    }
+
+    @Test
+    void alreadyPackedCombatsAreLeftAloneAndARerunChangesNothing() {
+        int packed = DiceRoll.of(List.of(6), List.of(1)).getPacked();
+        jdbcTemplate.update("INSERT INTO combat_results (id, dice) VALUES (1, ?)", packed);
+        jdbcTemplate.update("INSERT INTO combat_results (id) VALUES (2)");
+        jdbcTemplate.update("INSERT INTO combat_attacker_dice VALUES (1, 2), (2, 4)");
+
+        migration.migrate();
+        migration.migrate();
+
+        assertEquals(packed, count("SELECT dice FROM combat_results WHERE id = 1"));
+        assertEquals(DiceRoll.of(List.of(4), List.of()).getPacked(), count("SELECT dice FROM combat_results WHERE id = 2"));
+    }
+
+    @Test
+    void withoutTheLegacyTablesThereIsNothingToDo() {
+        jdbcTemplate.execute("DROP TABLE combat_defender_dice");
+
+        migration.migrate();
+
+        assertEquals(0, count("SELECT COUNT(*) FROM combat_results"));
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+}
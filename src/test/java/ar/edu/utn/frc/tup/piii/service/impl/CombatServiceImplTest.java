@@ -0,0 +1,144 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.game.BlitzAttackDto;
+import ar.edu.utn.frc.tup.piii.dtos.game.CombatResultDto;
+import ar.edu.utn.frc.tup.piii.engine.cluster.GameCluster;
+import ar.edu.utn.frc.tup.piii.engine.cluster.LoopbackClusterBus;
+import ar.edu.utn.frc.tup.piii.engine.combat.CombatOddsEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameCommandRetry;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngineTest;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateStore;
+import ar.edu.utn.frc.tup.piii.engine.map.ContinentControlTracker;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import ar.edu.utn.frc.tup.piii.model.entity.Country;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.repository.CombatResultRepository;
+import ar.edu.utn.frc.tup.piii.repository.GameTerritoryRepository;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.service.interfaces.GameEventService;
+import ar.edu.utn.frc.tup.piii.service.interfaces.WebSocketService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CombatServiceImplTest {
+
+    private static final long GAME = 1L;
+    private static final long RED = 10L;
+    private static final long BLUE = 20L;
+
+    private final MapTopology topology = MapTopology.builder()
+            .continent(1L, 2)
+            .country(100L, 1L).country(101L, 1L).country(102L, 1L)
+            .border(100L, 101L).border(101L, 102L)
+            .build();
+    private final GameStateStore store = mock(GameStateStore.class);
+    private final MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    @SuppressWarnings("unchecked")
+    private final ObjectProvider<WebSocketService> webSocketService = mock(ObjectProvider.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LoopbackClusterBus bus = new LoopbackClusterBus();
+    private GameEngine engine;
+    private GameCluster cluster;
+
+    @AfterEach
+    void tearDown() {
+        if (cluster != null) {
+            cluster.shutdown();
+            engine.shutdown();
+        }
+        bus.shutdown();
+    }
+
+    @Test
+    void blitzStopsWhenTheOriginReachesTheThreshold() {
+        CombatServiceImpl service = service(10, 40);
+
+        CombatResultDto result = service.executeBlitzAttack(blitz(6, null));
+
+        assertFalse(result.getTerritoryConquered());
+        assertEquals(6, result.getAttackerRemainingArmies());
+        assertEquals(4, result.getAttackerLosses());
+        assertTrue(result.getRounds() > 1);
+        assertEquals(6, armies(101L));
+        assertEquals(40 - result.getDefenderLosses(), armies(102L));
+        verify(webSocketService).ifAvailable(any());
+    }
+
+    @Test
+    void blitzConquersAndMovesTheRequestedArmies() {
+        CombatServiceImpl service = service(30, 1);
+
+        CombatResultDto result = service.executeBlitzAttack(blitz(null, 2));
+
+        assertTrue(result.getTerritoryConquered());
+        assertEquals(RED, (long) engine.readControl(GAME, control -> control.ownerId(topology.indexOf(102L))));
+        assertEquals(2, armies(102L));
+        assertEquals(30 - result.getAttackerLosses() - 2, armies(101L));
+    }
+
+    @Test
+    void anAttackerWithASingleArmyCannotBlitz() {
+        CombatServiceImpl service = service(1, 3);
+
+        assertThrows(IllegalStateException.class, () -> service.executeBlitzAttack(blitz(null, null)));
+        assertEquals(1, armies(101L));
+        assertEquals(3, armies(102L));
+        verify(webSocketService, never()).ifAvailable(any());
+    }
+
+    /** RED ataca desde 101 a 102 de BLUE. */
+    private CombatServiceImpl service(int attackerArmies, int defenderArmies) {
+        when(store.load(GAME)).thenReturn(GameEngineTest.attacking(GAME, topology, new long[]{RED, BLUE},
+                new long[]{RED, RED, BLUE}, new int[]{1, attackerArmies, defenderArmies}));
+        when(topologyProvider.country(anyInt())).thenReturn(new Country());
+        when(topologyProvider.get()).thenReturn(topology);
+        Game game = new Game();
+        game.setId(GAME);
+        Player red = new Player();
+        red.setId(RED);
+        red.setGame(game);
+        when(playerRepository.findById(RED)).thenReturn(Optional.of(red));
+        engine = new GameEngine(store, topologyProvider, registry, 3_600_000L, 3_600_000L, 2, 1);
+        cluster = new GameCluster(bus, engine, new GameCommandRetry(mock(PlatformTransactionManager.class), registry, 1),
+                new ObjectMapper(), registry, "n1", List.of("n1"), 64, 2_000L);
+        return new CombatServiceImpl(mock(CombatResultRepository.class), mock(GameTerritoryRepository.class),
+                playerRepository, mock(CombatOddsEngine.class), topologyProvider, mock(ContinentControlTracker.class),
+                engine, cluster, mock(GameEventService.class), webSocketService);
+    }
+
+    private static BlitzAttackDto blitz(Integer stopAt, Integer moving) {
+        return BlitzAttackDto.builder()
+                .playerId(RED)
+                .attackerCountryId(101L)
+                .defenderCountryId(102L)
+                .stopAtArmies(stopAt)
+                .movingArmies(moving)
+                .build();
+    }
+
+    private int armies(long countryId) {
+        return engine.readControl(GAME, control -> control.armies(topology.indexOf(countryId)));
+    }
+}
@@ -0,0 +1,77 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.websocket.WebSocketMessageDto;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodecTest;
+import ar.edu.utn.frc.tup.piii.engine.sync.GameStateSync;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializar un parche completo (seis jugadores, 50 países) por cada sesión contra una sola vez por
+ * difusión. Correr con {@code -prof gc} para ver {@code gc.alloc.rate.norm} por difusión; ver
+ * {@code GameStateCodecBenchmark} para cómo lanzarlo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBroadcastBenchmark {
+
+    @Param({"6", "30"})
+    private int sessions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebSocketMessageDto message;
+
+    @Setup
+    public void setUp() {
+        GameState state = GameStateCodecTest.sixPlayers(GameStateCodecTest.board(50), new HashMap<>());
+        message = WebSocketMessageDto.builder()
+                .type("GAME_PATCH")
+                .gameId(state.getGameId())
+                .payload(new GameStateSync().diff(state))
+                .timestamp("2024-01-01T00:00")
+                .build();
+    }
+
+    @Benchmark
+    public void serializePerSession(Blackhole sink) throws JsonProcessingException {
+        for (int session = 0; session < sessions; session++) {
+            sink.consume(objectMapper.writeValueAsBytes(message));
+        }
+    }
+
+    @Benchmark
+    public void serializeOnce(Blackhole sink) throws JsonProcessingException {
+        byte[] frame = objectMapper.writeValueAsBytes(message);
+        for (int session = 0; session < sessions; session++) {
+            sink.consume(frame);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GameBroadcastBenchmark.class.getSimpleName())
+                .addProfiler("gc").build()).run();
+    }
+}
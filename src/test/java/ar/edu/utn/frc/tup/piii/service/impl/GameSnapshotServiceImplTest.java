@@ -0,0 +1,61 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.engine.game.GameSnapshotWriter;
+import ar.edu.utn.frc.tup.piii.model.entity.GameSnapshot;
+import ar.edu.utn.frc.tup.piii.repository.GameSnapshotRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GameSnapshotServiceImplTest {
+
+    private static final long GAME = 1L;
+
+    private final GameSnapshotRepository repository = mock(GameSnapshotRepository.class);
+    private final GameSnapshotServiceImpl service = new GameSnapshotServiceImpl(repository, null, null, null, null,
+            null, null, mock(GameSnapshotWriter.class));
+
+    @Test
+    void cleaningKeepsTheKeyframeOfTheOldestKeptDelta() {
+        // 1 keyframe, 2-3 deltas de 1, 4 keyframe, 5-6 deltas de 4
+        when(repository.findByGameIdOrderByLastSequence(GAME)).thenReturn(List.of(
+                snapshot(1L, null), snapshot(2L, 1L), snapshot(3L, 1L),
+                snapshot(4L, null), snapshot(5L, 4L), snapshot(6L, 4L)));
+
+        service.cleanOldSnapshots(GAME, 1);
+
+        assertEquals(List.of(1L, 2L, 3L), deletedIds());
+    }
+
+    @Test
+    void cleaningNeverSplitsAChain() {
+        when(repository.findByGameIdOrderByLastSequence(GAME)).thenReturn(List.of(
+                snapshot(1L, null), snapshot(2L, 1L), snapshot(3L, 1L),
+                snapshot(4L, null), snapshot(5L, 4L)));
+
+        service.cleanOldSnapshots(GAME, 3);
+
+        assertEquals(List.of(), deletedIds());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> deletedIds() {
+        ArgumentCaptor<Iterable<GameSnapshot>> deleted = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).deleteAll(deleted.capture());
+        return ((List<GameSnapshot>) deleted.getValue()).stream().map(GameSnapshot::getId).toList();
+    }
+
+    private static GameSnapshot snapshot(long id, Long keyframeId) {
+        GameSnapshot snapshot = new GameSnapshot();
+        snapshot.setId(id);
+        snapshot.setKeyframeId(keyframeId);
+        snapshot.setLastSequence(id * 10);
+        return snapshot;
+    }
+}
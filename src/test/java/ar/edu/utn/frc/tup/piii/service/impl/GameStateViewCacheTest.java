@@ -0,0 +1,43 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class GameStateViewCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GameStateViewCache cache = new GameStateViewCache(registry, 2);
+
+    @Test
+    void framesAreOnlyServedForTheVersionTheyWereBuiltFrom() {
+        cache.put(1L, 5L, new byte[]{5});
+
+        assertArrayEquals(new byte[]{5}, cache.get(1L, 5L));
+        assertNull(cache.get(1L, 6L));
+
+        cache.put(1L, 6L, new byte[]{6});
+        cache.put(1L, 5L, new byte[]{5});
+        assertArrayEquals(new byte[]{6}, cache.get(1L, 6L));
+        assertNull(cache.get(1L, 5L));
+        assertEquals(1, cache.size());
+        assertEquals(2.0, registry.get(GameStateViewCache.METRIC).tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void theLeastRecentlyUsedGameIsEvicted() {
+        cache.put(1L, 1L, new byte[]{1});
+        cache.put(2L, 1L, new byte[]{2});
+        cache.get(1L, 1L);
+
+        cache.put(3L, 1L, new byte[]{3});
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2L, 1L));
+        assertArrayEquals(new byte[]{1}, cache.get(1L, 1L));
+        assertEquals(1.0, registry.get(GameStateViewCache.METRIC).tag("result", "evicted").counter().count());
+    }
+}
@@ -0,0 +1,109 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PresenceRegistryTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+    private final List<String> reaped = new CopyOnWriteArrayList<>();
+    private final PresenceRegistry registry = new PresenceRegistry(32_000L, clock::get, reaped::add,
+            new SimpleMeterRegistry(), false);
+
+    @Test
+    void playersCountOnceWhateverTheirSessionsAndDisconnectIsIdempotent() {
+        registry.connect("a1", 1L, 10L);
+        registry.connect("a2", 1L, 10L);
+        registry.connect("b1", 2L, 10L);
+        registry.connect("b1", 2L, 10L);
+
+        assertEquals(2, registry.connectedPlayers(10L));
+        assertEquals(Set.of("a1", "a2", "b1"), registry.gameSessions(10L));
+
+        assertTrue(registry.disconnect("a1"));
+        assertFalse(registry.disconnect("a1"));
+        assertEquals(2, registry.connectedPlayers(10L));
+        assertTrue(registry.disconnect("a2"));
+        assertFalse(registry.isConnected(1L));
+        assertEquals(1, registry.connectedPlayers(10L));
+        assertEquals(Set.of("b1"), registry.gameSessions(10L));
+    }
+
+    @Test
+    void sessionsWithoutSignsOfLifeAreReaped() {
+        registry.connect("quiet", 1L, 10L);
+        registry.connect("alive", 2L, 10L);
+
+        clock.addAndGet(20_000L);
+        registry.touch("alive");
+        registry.reap(clock.get());
+        assertEquals(List.of(), reaped);
+
+        clock.addAndGet(13_000L);
+        registry.reap(clock.get());
+
+        assertEquals(List.of("quiet"), reaped);
+        assertEquals(1, registry.connectedPlayers(10L));
+        clock.addAndGet(20_000L);
+        registry.reap(clock.get());
+        assertEquals(List.of("quiet", "alive"), reaped);
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void concurrentConnectsAndDisconnectsKeepTheCountsExact() {
+        int sessions = 50_000;
+        IntStream.range(0, sessions).parallel()
+                .forEach(i -> registry.connect("s" + i, (long) (i % 5_000), (long) (i % 50)));
+        assertEquals(sessions, registry.size());
+        assertEquals(100, registry.connectedPlayers(7L));
+
+        List<Integer> half = new ArrayList<>();
+        IntStream.range(0, sessions).filter(i -> i % 2 == 0).forEach(half::add);
+        half.parallelStream().forEach(i -> registry.disconnect("s" + i));
+        half.parallelStream().forEach(i -> registry.disconnect("s" + i));
+
+        assertEquals(sessions / 2, registry.size());
+        // Los jugadores pares sólo tenían sesiones pares
+        assertEquals(0, registry.connectedPlayers(8L));
+        assertEquals(100, registry.connectedPlayers(7L));
+    }
+
+    @Test
+    void aDisconnectRacingItsOwnConnectLeavesNothingBehind() {
+        int sessions = 20_000;
+        CompletableFuture<Void> connects = CompletableFuture.runAsync(() -> IntStream.range(0, sessions).parallel()
+                .forEach(i -> registry.connect("s" + i, (long) i % 1_000, (long) i % 1_000 % 10)));
+        while (!connects.isDone()) {
+            IntStream.range(0, sessions).parallel().forEach(i -> registry.disconnect("s" + i));
+        }
+        connects.join();
+        for (int i = 0; i < sessions; i++) {
+            String session = "s" + i;
+            Long player = registry.playerOf(session);
+            assertEquals(player != null, registry.gameSessions((long) i % 1_000 % 10).contains(session));
+            assertEquals(player != null, registry.playerSessions((long) i % 1_000).contains(session));
+        }
+
+        IntStream.range(0, sessions).parallel().forEach(i -> registry.disconnect("s" + i));
+
+        assertEquals(0, registry.size());
+        for (long game = 0; game < 10; game++) {
+            assertEquals(0, registry.connectedPlayers(game));
+            assertTrue(registry.gameSessions(game).isEmpty());
+        }
+        assertFalse(registry.isConnected(7L));
+    }
+}
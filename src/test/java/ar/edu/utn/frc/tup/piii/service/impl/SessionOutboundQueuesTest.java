@@ -0,0 +1,139 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.websocket.WebSocketMessageDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SessionOutboundQueuesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch sending = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> sent = new CopyOnWriteArrayList<>();
+    private SessionOutboundQueues queues;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        queues.shutdown();
+    }
+
+    @Test
+    void aBacklogOfPatchesCollapsesIntoOneResyncMarker() throws Exception {
+        queues = new SessionOutboundQueues(registry, objectMapper, 3, 60_000L, 2);
+        WebSocketSession outbound = queues.open(session());
+        outbound.sendMessage(frame("CHAT", null));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 4; i++) {
+            outbound.sendMessage(frame("GAME_PATCH", SessionOutboundQueues.DELTA));
+        }
+
+        assertEquals(2, queues.depth("s1"));
+        assertEquals(3.0, registry.get(SessionOutboundQueues.DROPPED_METRIC).tag("reason", "collapsed").counter().count());
+        release.countDown();
+        waitForSent(3);
+        assertTrue(sent.get(0).contains("\"CHAT\""));
+        assertTrue(sent.get(1).contains("teg-kind:resync") && sent.get(1).contains("\"RESYNC_REQUIRED\""));
+        assertTrue(sent.get(1).contains("\"gameId\":7") && sent.get(1).contains("subscription:sub-0"));
+        assertTrue(sent.get(2).contains("\"GAME_PATCH\""));
+    }
+
+    @Test
+    void blockedSessionsAreDisconnectedAfterTheDeadline() throws Exception {
+        queues = new SessionOutboundQueues(registry, objectMapper, 4, 50L, 2);
+        WebSocketSession session = session();
+        WebSocketSession outbound = queues.open(session);
+        outbound.sendMessage(frame("CHAT", null));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+
+        verify(session, timeout(5000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1.0, registry.get(SessionOutboundQueues.DISCONNECTED_METRIC).tag("reason", "blocked")
+                .counter().count());
+        outbound.sendMessage(frame("CHAT", null));
+        assertEquals(0, queues.depth("s1"));
+
+        queues.closed("s1");
+        assertEquals(0.0, registry.get(SessionOutboundQueues.SESSIONS_METRIC).gauge().value());
+    }
+
+    @Test
+    void aLongQueueDoesNotHoldTheOnlyWriterThread() throws Exception {
+        queues = new SessionOutboundQueues(registry, objectMapper, 64, 60_000L, 1);
+        WebSocketSession busy = queues.open(session());
+        WebSocketSession other = mock(WebSocketSession.class);
+        when(other.getId()).thenReturn("s2");
+        doAnswer(invocation -> sent.add("other")).when(other).sendMessage(any());
+        WebSocketSession quiet = queues.open(other);
+        busy.sendMessage(frame("CHAT", null));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 2 * SessionOutboundQueues.DRAIN_BATCH; i++) {
+            busy.sendMessage(frame("CHAT", null));
+        }
+        quiet.sendMessage(frame("CHAT", null));
+
+        assertEquals(2 * SessionOutboundQueues.DRAIN_BATCH + 1.0,
+                registry.get(SessionOutboundQueues.DEPTH_METRIC).gauge().value());
+        release.countDown();
+        waitForSent(2 * SessionOutboundQueues.DRAIN_BATCH + 2);
+        assertEquals(SessionOutboundQueues.DRAIN_BATCH, sent.indexOf("other"));
+    }
+
+    private WebSocketSession session() throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            sent.add(invocation.<TextMessage>getArgument(0).getPayload());
+            return null;
+        }).when(session).sendMessage(any());
+        return session;
+    }
+
+    private WebSocketMessage<?> frame(String type, String kind) throws Exception {
+        StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.MESSAGE);
+        headers.setDestination("/topic/games/7");
+        headers.setSubscriptionId("sub-0");
+        headers.setMessageId("m-" + sent.size());
+        if (kind != null) {
+            headers.setNativeHeader(SessionOutboundQueues.KIND_HEADER, kind);
+        }
+        byte[] payload = objectMapper.writeValueAsBytes(WebSocketMessageDto.builder().type(type).gameId(7L).build());
+        return new TextMessage(new StompEncoder().encode(MessageBuilder.createMessage(payload,
+                headers.getMessageHeaders())));
+    }
+
+    private void waitForSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, sent.size());
+    }
+}
@@ -0,0 +1,161 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationRequestDto;
+import ar.edu.utn.frc.tup.piii.dtos.simulation.SimulationResultDto;
+import ar.edu.utn.frc.tup.piii.engine.combat.CombatOddsEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameEngine;
+import ar.edu.utn.frc.tup.piii.engine.game.GameState;
+import ar.edu.utn.frc.tup.piii.engine.game.GameStateCodecTest;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopology;
+import ar.edu.utn.frc.tup.piii.engine.map.MapTopologyProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SimulationServiceImplTest {
+
+    private static final long GAME = 1L;
+
+    private final MapTopology topology = GameStateCodecTest.board(50);
+    private final GameEngine gameEngine = mock(GameEngine.class);
+    private final MapTopologyProvider topologyProvider = mock(MapTopologyProvider.class);
+    private final SimulationServiceImpl service = new SimulationServiceImpl(null, gameEngine, topologyProvider, 2,
+            100_000, 5_000_000, 10_000);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void singleAttackConvergesToExactOdds() {
+        CombatOddsEngine odds = new CombatOddsEngine(32);
+        SimulationResultDto result = service.simulate(SimulationRequestDto.builder()
+                .attackerArmies(8)
+                .defenderArmies(List.of(5))
+                .trials(200_000)
+                .seed(7L)
+                .build());
+        assertEquals(200_000L, result.getTrials());
+        assertEquals(odds.conquestProbability(8, 5), result.getConquestProbability(), 0.01);
+        assertEquals(odds.expectedDefenderLosses(8, 5), result.getExpectedDefenderLosses(), 0.05);
+        double total = result.getSurvivingArmies().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(1.0, total, 1e-9);
+    }
+
+    @Test
+    void pathProbabilitiesAreMonotonic() {
+        SimulationResultDto result = service.simulatePath(20, new int[]{3, 2, 4}, 50_000);
+        List<Double> steps = result.getStepProbabilities();
+        assertEquals(3, steps.size());
+        assertTrue(steps.get(0) >= steps.get(1) && steps.get(1) >= steps.get(2));
+        assertEquals(steps.get(2), result.getConquestProbability(), 1e-12);
+    }
+
+    @Test
+    void stopsWhenBudgetIsExhausted() {
+        SimulationResultDto result = service.simulate(SimulationRequestDto.builder()
+                .attackerArmies(60)
+                .defenderArmies(List.of(10, 10, 10, 10))
+                .trials(5_000_000)
+                .cpuBudgetMillis(20L)
+                .build());
+        assertTrue(result.getBudgetExhausted());
+        assertTrue(result.getTrials() < 5_000_000L);
+    }
+
+    @Test
+    void rejectsArmiesAndPathsBeyondTheCaps() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.simulateAttack(SimulationRequestDto.MAX_ARMIES + 1, 3, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.simulatePath(10, new int[SimulationRequestDto.MAX_PATH + 1], 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.simulateAttack(10, Integer.MAX_VALUE, 10));
+    }
+
+    @Test
+    void gameModeReadsArmiesFromTheEngine() {
+        loaded(GameStateCodecTest.sixPlayers(topology, new HashMap<>()));
+
+        SimulationResultDto result = service.simulate(SimulationRequestDto.builder()
+                .gameId(GAME)
+                .fromCountryId(108L)
+                .pathCountryIds(List.of(109L))
+                .trials(50_000)
+                .seed(3L)
+                .build());
+
+        // Índices 7 y 8 del tablero: 8 ejércitos contra 9
+        CombatOddsEngine odds = new CombatOddsEngine(16);
+        assertEquals(odds.conquestProbability(8, 9), result.getConquestProbability(), 0.01);
+    }
+
+    @Test
+    void gameModeRejectsOwnCountriesAndAnOriginWithASingleArmy() {
+        GameState state = GameStateCodecTest.sixPlayers(topology, new HashMap<>());
+        loaded(state);
+        int own = 0;
+        while (state.getTerritories().ownerId(own) != state.getTerritories().ownerId(own + 1)
+                || state.getTerritories().armies(own) < 2) {
+            own++;
+        }
+        int single = 0;
+        while (state.getTerritories().armies(single) != 1
+                || state.getTerritories().ownerId(single) == state.getTerritories().ownerId(single + 1)) {
+            single++;
+        }
+
+        SimulationRequestDto ownCountry = onGame(own, own + 1);
+        SimulationRequestDto singleArmy = onGame(single, single + 1);
+        SimulationRequestDto repeated = onGame(own + 1, own + 2, own + 1);
+
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(ownCountry));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(singleArmy));
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(repeated));
+    }
+
+    @Test
+    void gameModeRejectsPathsThatAreNotAdjacent() {
+        when(topologyProvider.get()).thenReturn(topology);
+
+        assertThrows(IllegalArgumentException.class, () -> service.simulate(SimulationRequestDto.builder()
+                .gameId(GAME)
+                .fromCountryId(101L)
+                .pathCountryIds(List.of(102L, 104L))
+                .build()));
+    }
+
+    private void loaded(GameState state) {
+        when(topologyProvider.get()).thenReturn(topology);
+        when(gameEngine.isLoaded(GAME)).thenReturn(true);
+        when(gameEngine.read(eq(GAME), any())).thenAnswer(invocation ->
+                invocation.<Function<GameState, Object>>getArgument(1).apply(state));
+    }
+
+    /** Origen y camino por índice del tablero, que tiene los ids desde 101. */
+    private static SimulationRequestDto onGame(int from, int... path) {
+        List<Long> ids = new ArrayList<>();
+        for (int country : path) {
+            ids.add(101L + country);
+        }
+        return SimulationRequestDto.builder()
+                .gameId(GAME)
+                .fromCountryId(101L + from)
+                .pathCountryIds(ids)
+                .trials(10)
+                .build();
+    }
+}
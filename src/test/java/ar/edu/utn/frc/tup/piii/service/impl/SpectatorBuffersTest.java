@@ -0,0 +1,60 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpectatorBuffersTest {
+
+    private static final String CHANNEL = "/topic/spectate/1/0";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SpectatorBuffers buffers = new SpectatorBuffers(registry, 4, 2);
+
+    @Test
+    void joiningStartsFromTheLatestKeyframeWithTheSameBytes() {
+        byte[] keyframe = {2};
+        buffers.append(CHANNEL, new byte[]{0}, true);
+        buffers.append(CHANNEL, new byte[]{1}, false);
+        buffers.append(CHANNEL, keyframe, true);
+        buffers.append(CHANNEL, new byte[]{3}, false);
+
+        List<byte[]> frames = buffers.catchUp(CHANNEL);
+
+        assertEquals(2, frames.size());
+        assertSame(keyframe, frames.get(0));
+        assertEquals(3, frames.get(1)[0]);
+    }
+
+    @Test
+    void nothingIsSentUntilThereIsAKeyframeInTheBuffer() {
+        assertTrue(buffers.catchUp(CHANNEL).isEmpty());
+        buffers.append(CHANNEL, new byte[]{0}, false);
+        assertTrue(buffers.catchUp(CHANNEL).isEmpty());
+
+        buffers.append(CHANNEL, new byte[]{1}, true);
+        for (int i = 0; i < 4; i++) {
+            buffers.append(CHANNEL, new byte[]{2}, false);
+        }
+
+        assertTrue(buffers.catchUp(CHANNEL).isEmpty());
+    }
+
+    @Test
+    void theLeastRecentlyUsedChannelIsDropped() {
+        buffers.append(CHANNEL, new byte[]{0}, true);
+        buffers.append("/topic/spectate/2/0", new byte[]{0}, true);
+        buffers.catchUp(CHANNEL);
+
+        buffers.append("/topic/spectate/3/0", new byte[]{0}, true);
+
+        assertEquals(2, buffers.size());
+        assertEquals(1, buffers.catchUp(CHANNEL).size());
+        assertTrue(buffers.catchUp("/topic/spectate/2/0").isEmpty());
+    }
+}
@@ -0,0 +1,104 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpectatorFeedTest {
+
+    private static final long GAME = 1L;
+
+    private final SpectatorFeed feed = new SpectatorFeed(List.of(2, 0), 64);
+    private final AtomicInteger keyframes = new AtomicInteger();
+
+    @Test
+    void liveSpectatorsGetThePlayersFramesRightAway() {
+        byte[] frame = {1};
+
+        List<SpectatorFeed.Release> released = offer(1, frame, false);
+
+        assertEquals(2, released.size());
+        assertSame(frame, released.get(0).frame());
+        assertEquals(0, released.get(0).delay());
+        assertEquals(SessionOutboundQueues.DELTA, released.get(0).kind());
+        assertEquals(SpectatorFeed.KEYFRAME, released.get(1).kind());
+        assertTrue(feed.isDelay(2));
+        assertFalse(feed.isDelay(1));
+    }
+
+    @Test
+    void delayedSpectatorsSeeATurnOnlyOnceTheGameIsThatManyTurnsAhead() {
+        byte[] first = {1};
+        offer(1, first, true);
+        offer(1, new byte[]{2}, false);
+        offer(2, new byte[]{3}, false);
+
+        List<SpectatorFeed.Release> released = delayed(offer(3, new byte[]{4}, false));
+
+        assertEquals(2, released.size());
+        assertSame(first, released.get(0).frame());
+        assertEquals(SpectatorFeed.KEYFRAME, released.get(0).kind());
+        assertEquals(2, keyframes.get());
+    }
+
+    @Test
+    void aTurnWithoutKeyframeKeepsAskingForOne() {
+        assertTrue(feed.needsKeyframe(GAME, 1));
+        feed.offer(GAME, 1, new byte[]{1}, false, () -> null);
+
+        assertTrue(feed.needsKeyframe(GAME, 1));
+        offer(1, new byte[]{2}, false);
+        assertFalse(feed.needsKeyframe(GAME, 1));
+        assertEquals(1, keyframes.get());
+    }
+
+    @Test
+    void aKeyframeIsBuiltOncePerTurnAndOnlyWhenThePatchIsNotFull() {
+        offer(1, new byte[]{1}, true);
+        offer(1, new byte[]{2}, false);
+        offer(2, new byte[]{3}, false);
+        offer(2, new byte[]{4}, false);
+
+        assertEquals(1, keyframes.get());
+    }
+
+    @Test
+    void finishingTheGameReleasesEverythingHeldBack() {
+        offer(1, new byte[]{1}, true);
+        offer(2, new byte[]{2}, false);
+
+        List<SpectatorFeed.Release> released = delayed(feed.finish(GAME));
+
+        assertEquals(3, released.size());
+        assertTrue(feed.finish(GAME).isEmpty());
+    }
+
+    @Test
+    void aFullBacklogDropsTheOldestHeldFrames() {
+        for (int i = 0; i < 100; i++) {
+            offer(1, new byte[]{(byte) i}, i == 0);
+        }
+
+        List<SpectatorFeed.Release> released = delayed(offer(3, new byte[]{0}, false));
+
+        assertEquals(62, released.size());
+        assertEquals(38, released.get(0).frame()[0]);
+    }
+
+    private List<SpectatorFeed.Release> offer(int turn, byte[] frame, boolean full) {
+        return feed.offer(GAME, turn, frame, full, () -> {
+            keyframes.incrementAndGet();
+            return new byte[]{-1};
+        });
+    }
+
+    private static List<SpectatorFeed.Release> delayed(List<SpectatorFeed.Release> released) {
+        return released.stream().filter(release -> release.delay() == 2).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package ar.edu.utn.frc.tup.piii.service.impl;
+
+import ar.edu.utn.frc.tup.piii.exception.InvalidCredentialsException;
+import ar.edu.utn.frc.tup.piii.model.entity.Game;
+import ar.edu.utn.frc.tup.piii.model.entity.Player;
+import ar.edu.utn.frc.tup.piii.model.entity.User;
+import ar.edu.utn.frc.tup.piii.repository.PlayerRepository;
+import ar.edu.utn.frc.tup.piii.utils.JwtUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StompAuthenticatorTest {
+
+    private final JwtUtils jwtUtils = new JwtUtils();
+    private final PlayerRepository playerRepository = mock(PlayerRepository.class);
+    private final StompAuthenticator authenticator = new StompAuthenticator(jwtUtils, playerRepository);
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setUsername("ana");
+        Game game = new Game();
+        game.setId(7L);
+        Player player = new Player();
+        player.setId(3L);
+        player.setUser(user);
+        player.setGame(game);
+        when(playerRepository.findById(3L)).thenReturn(Optional.of(player));
+    }
+
+    @Test
+    void theTokenOwnerGetsItsPlayerAsPrincipal() {
+        PlayerPrincipal principal = authenticator.authenticate("Bearer " + jwtUtils.generateToken("ana"), "3");
+        assertEquals("3", principal.getName());
+        assertTrue(principal.is(7L, 3L));
+    }
+
+    @Test
+    void sessionsWithoutCredentialsStayAnonymous() {
+        assertNull(authenticator.authenticate(null, null));
+    }
+
+    @Test
+    void aSelfDeclaredPlayerIsRejected() {
+        String other = "Bearer " + jwtUtils.generateToken("beto");
+        assertThrows(InvalidCredentialsException.class, () -> authenticator.authenticate(null, "3"));
+        assertThrows(InvalidCredentialsException.class, () -> authenticator.authenticate(other, "3"));
+        assertThrows(InvalidCredentialsException.class, () -> authenticator.authenticate("Bearer forged", "3"));
+        assertThrows(InvalidCredentialsException.class,
+                () -> authenticator.authenticate("Bearer " + jwtUtils.generateToken("ana"), "4"));
+    }
+}